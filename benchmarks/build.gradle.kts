@@ -0,0 +1,56 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+repositories {
+    // Use Maven Central for resolving dependencies.
+    mavenCentral()
+}
+
+dependencies {
+	// VectorByteScanner is compiled here rather than in the json module, to keep its compilation free of
+	// the "using incubating module(s)" warning
+	implementation(project(":json"))
+	jmh(project(":core"))
+	jmh(project(":hocon"))
+	jmh(project(":json"))
+	jmh(project(":toml"))
+	jmh(project(":yaml"))
+	jmh(libs.snakeYamlEngine)
+}
+
+// Use Java 21.
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.add("--add-modules=jdk.incubator.vector")
+}
+
+testing {
+    suites {
+        val test by getting(JvmTestSuite::class) {
+            useJUnitJupiter(libs.versions.junit5)
+        }
+    }
+}
+
+tasks.withType<Test>().configureEach {
+    jvmArgs("--add-modules=jdk.incubator.vector")
+}
+
+// Run with `gradle :benchmarks:jmh`, or select some benchmarks with `gradle :benchmarks:jmh -Pjmh.includes=Parser`.
+jmh {
+    jmhVersion = libs.versions.jmh
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    // For VectorByteScanner (see JsonScanningBenchmark)
+    jvmArgsAppend.add("--add-modules=jdk.incubator.vector")
+    project.findProperty("jmh.includes")?.let {
+        includes = listOf(it.toString())
+    }
+}
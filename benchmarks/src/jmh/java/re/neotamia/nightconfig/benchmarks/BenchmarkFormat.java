@@ -0,0 +1,32 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.ConfigFormat;
+import re.neotamia.nightconfig.hocon.HoconFormat;
+import re.neotamia.nightconfig.json.JsonFormat;
+import re.neotamia.nightconfig.toml.TomlFormat;
+import re.neotamia.nightconfig.yaml.YamlFormat;
+
+/**
+ * The configuration formats that can be benchmarked.
+ */
+public enum BenchmarkFormat {
+	JSON(JsonFormat.fancyInstance()),
+	TOML(TomlFormat.instance()),
+	HOCON(HoconFormat.instance()),
+	// The default code point limit of SnakeYaml Engine (3 MB) is too low for the large documents.
+	YAML(YamlFormat.configuredInstance(LoadSettings.builder()
+			.setAllowDuplicateKeys(false)
+			.setMaxAliasesForCollections(50)
+			.setAllowRecursiveKeys(false)
+			.setParseComments(true)
+			.setCodePointLimit(Integer.MAX_VALUE)
+			.build()));
+
+	final ConfigFormat<? extends Config> format;
+
+	BenchmarkFormat(ConfigFormat<? extends Config> format) {
+		this.format = format;
+	}
+}
@@ -0,0 +1,34 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import re.neotamia.nightconfig.core.io.ConfigWriter;
+import re.neotamia.nightconfig.hocon.HoconWriter;
+import re.neotamia.nightconfig.json.FancyJsonWriter;
+import re.neotamia.nightconfig.json.MinimalJsonWriter;
+import re.neotamia.nightconfig.toml.TomlWriter;
+import re.neotamia.nightconfig.yaml.YamlFormat;
+
+import java.util.function.Supplier;
+
+/**
+ * The {@link ConfigWriter} implementations that can be benchmarked.
+ */
+public enum BenchmarkWriter {
+	FANCY_JSON(FancyJsonWriter::new),
+	MINIMAL_JSON(MinimalJsonWriter::new),
+	TOML(TomlWriter::new),
+	HOCON(HoconWriter::new),
+	YAML(() -> YamlFormat.defaultInstance().createWriter());
+
+	private final Supplier<ConfigWriter> writerSupplier;
+
+	BenchmarkWriter(Supplier<ConfigWriter> writerSupplier) {
+		this.writerSupplier = writerSupplier;
+	}
+
+	/**
+	 * @return a new writer with the default settings
+	 */
+	public ConfigWriter createWriter() {
+		return writerSupplier.get();
+	}
+}
@@ -0,0 +1,72 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.UnmodifiableConfig;
+import re.neotamia.nightconfig.core.concurrent.ConcurrentConfig;
+import re.neotamia.nightconfig.core.concurrent.StampedConfig;
+import re.neotamia.nightconfig.core.concurrent.StripedConfig;
+import re.neotamia.nightconfig.core.concurrent.SynchronizedConfig;
+
+import java.util.function.Consumer;
+
+/**
+ * The thread-safe configurations that can be benchmarked.
+ */
+public enum ConcurrentImplementation {
+	STAMPED {
+		@Override
+		Config create() {
+			return new StampedConfig();
+		}
+	},
+	SYNCHRONIZED {
+		@Override
+		Config create() {
+			return new SynchronizedConfig();
+		}
+	},
+	STRIPED {
+		@Override
+		Config create() {
+			return new StripedConfig();
+		}
+	},
+	/**
+	 * A config backed by a {@code ConcurrentHashMap}. It has no bulk operations, so its "bulk"
+	 * operations are sequences of independent calls, without any atomicity: it is a baseline.
+	 */
+	@SuppressWarnings("deprecation")
+	IN_MEMORY_CONCURRENT {
+		@Override
+		Config create() {
+			return Config.inMemoryConcurrent();
+		}
+	};
+
+	/**
+	 * @return a new empty config
+	 */
+	abstract Config create();
+
+	/**
+	 * Reads the config with {@link ConcurrentConfig#bulkRead(Consumer)} if it is supported.
+	 */
+	static void bulkRead(Config config, Consumer<? super UnmodifiableConfig> action) {
+		if (config instanceof ConcurrentConfig concurrent) {
+			concurrent.bulkRead(action);
+		} else {
+			action.accept(config);
+		}
+	}
+
+	/**
+	 * Modifies the config with {@link ConcurrentConfig#bulkUpdate(Consumer)} if it is supported.
+	 */
+	static void bulkUpdate(Config config, Consumer<? super Config> action) {
+		if (config instanceof ConcurrentConfig concurrent) {
+			concurrent.bulkUpdate(action);
+		} else {
+			action.accept(config);
+		}
+	}
+}
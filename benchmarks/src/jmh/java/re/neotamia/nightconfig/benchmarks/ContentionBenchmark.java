@@ -0,0 +1,136 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import re.neotamia.nightconfig.core.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the thread-safe configurations under contention.
+ * <p>
+ * Every thread performs a mix of reads and writes: {@link #readPercent} is the percentage of
+ * operations that are reads (100 means "1:0", 95 means "95:5", 50 means "50:50"). The number of
+ * threads defaults to the number of available processors and can be changed with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ContentionBenchmark {
+	/** Number of distinct entries in the config. */
+	private static final int ENTRY_COUNT = 1024;
+	/** Number of entries accessed by each bulk operation. */
+	private static final int BULK_SIZE = 8;
+
+	@Param
+	public ConcurrentImplementation implementation;
+
+	@Param({"100", "95", "50"})
+	public int readPercent;
+
+	@Param({"1", "3", "6"})
+	public int depth;
+
+	private Config config;
+	private List<List<String>> paths;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		config = implementation.create();
+		paths = new ArrayList<>(ENTRY_COUNT);
+		for (int i = 0; i < ENTRY_COUNT; i++) {
+			List<String> path = new ArrayList<>(depth);
+			// spread the entries over several sub-configs, with one sub-config per level
+			for (int level = 0; level < depth - 1; level++) {
+				path.add("level" + level + "_" + (i % (level + 4)));
+			}
+			path.add("key" + i);
+			List<String> immutablePath = List.copyOf(path);
+			paths.add(immutablePath);
+			config.set(immutablePath, i);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+		SplittableRandom random;
+
+		@Setup(Level.Iteration)
+		public void setup(ThreadParams threadParams) {
+			random = new SplittableRandom(threadParams.getThreadIndex());
+		}
+
+		List<String> nextPath(List<List<String>> paths) {
+			return paths.get(random.nextInt(paths.size()));
+		}
+
+		boolean nextIsRead(int readPercent) {
+			return random.nextInt(100) < readPercent;
+		}
+	}
+
+	/** A single {@code get} or {@code set}. */
+	@Benchmark
+	public Object getOrSet(ThreadState thread) {
+		List<String> path = thread.nextPath(paths);
+		if (thread.nextIsRead(readPercent)) {
+			return config.get(path);
+		} else {
+			return config.set(path, thread.random.nextInt());
+		}
+	}
+
+	/**
+	 * A {@code getAll} that reads several entries at once, or as many single {@code set}s: both branches
+	 * access {@link #BULK_SIZE} entries, as declared by {@link OperationsPerInvocation}.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BULK_SIZE)
+	public Object getAllOrSet(ThreadState thread) {
+		if (thread.nextIsRead(readPercent)) {
+			List<List<String>> batch = new ArrayList<>(BULK_SIZE);
+			for (int i = 0; i < BULK_SIZE; i++) {
+				batch.add(thread.nextPath(paths));
+			}
+			return config.getAll(batch);
+		} else {
+			Object previous = null;
+			for (int i = 0; i < BULK_SIZE; i++) {
+				previous = config.set(thread.nextPath(paths), thread.random.nextInt());
+			}
+			return previous;
+		}
+	}
+
+	/** A {@code bulkRead} or {@code bulkUpdate} that accesses several entries. */
+	@Benchmark
+	@OperationsPerInvocation(BULK_SIZE)
+	public int bulkReadOrUpdate(ThreadState thread) {
+		int[] sum = {0};
+		if (thread.nextIsRead(readPercent)) {
+			ConcurrentImplementation.bulkRead(config, view -> {
+				for (int i = 0; i < BULK_SIZE; i++) {
+					Integer value = view.get(thread.nextPath(paths));
+					sum[0] += value;
+				}
+			});
+		} else {
+			ConcurrentImplementation.bulkUpdate(config, view -> {
+				for (int i = 0; i < BULK_SIZE; i++) {
+					List<String> path = thread.nextPath(paths);
+					int value = view.<Integer>get(path);
+					view.set(path, value + 1);
+					sum[0] += value;
+				}
+			});
+		}
+		return sum[0];
+	}
+}
@@ -0,0 +1,83 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.InMemoryCommentedFormat;
+import re.neotamia.nightconfig.core.concurrent.StampedConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the sub-configs of a {@link StampedConfig} that contains many nested tables.
+ * <p>
+ * {@link #build()} creates the whole tree: its {@code gc.alloc.rate.norm} is the memory used by the tree.
+ * {@link #getRaw()} reads a random value at the bottom of the tree, through all the levels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DeepTreeBenchmark {
+	/**
+	 * The shape of the tree, "WIDTHxDEPTH": each table that isn't a leaf contains WIDTH tables,
+	 * and there are DEPTH levels of tables. The tree contains about {@code WIDTH^DEPTH} tables.
+	 */
+	@Param({"24x3", "4x6", "2x12"})
+	public String shape;
+
+	/** Whether the tree uses a single lock for all its levels. */
+	@Param({"false", "true"})
+	public boolean singleLock;
+
+	private int width;
+	private int depth;
+	private StampedConfig config;
+	private List<List<String>> leafPaths;
+	private SplittableRandom random;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		String[] parts = shape.split("x");
+		width = Integer.parseInt(parts[0]);
+		depth = Integer.parseInt(parts[1]);
+		leafPaths = new ArrayList<>();
+		collectLeafPaths(new ArrayList<>(), leafPaths);
+		config = build();
+		random = new SplittableRandom(42);
+	}
+
+	private void collectLeafPaths(List<String> parent, List<List<String>> out) {
+		if (parent.size() == depth) {
+			List<String> path = new ArrayList<>(parent);
+			path.add("value");
+			out.add(List.copyOf(path));
+			return;
+		}
+		for (int i = 0; i < width; i++) {
+			parent.add("table" + i);
+			collectLeafPaths(parent, out);
+			parent.removeLast();
+		}
+	}
+
+	/** Creates the tree, with one value in each leaf table. */
+	@Benchmark
+	public StampedConfig build() {
+		StampedConfig tree = new StampedConfig(InMemoryCommentedFormat.defaultInstance(),
+				Config.getDefaultMapCreator(false), singleLock);
+		for (int i = 0; i < leafPaths.size(); i++) {
+			tree.set(leafPaths.get(i), i);
+		}
+		return tree;
+	}
+
+	@Benchmark
+	public Object getRaw() {
+		return config.getRaw(leafPaths.get(random.nextInt(leafPaths.size())));
+	}
+}
@@ -0,0 +1,174 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import re.neotamia.nightconfig.core.CommentedConfig;
+import re.neotamia.nightconfig.core.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The shapes of the documents generated for the benchmarks.
+ * <p>
+ * Each shape is generated in "units" of roughly one kilobyte of serialized data, so that the
+ * different shapes of a given {@link DocumentSize} are comparable.
+ */
+public enum DocumentShape {
+	/** Chains of nested tables, with a few values at each level. */
+	DEEP_NESTING {
+		@Override
+		void fillUnit(Config root, int unit, SplittableRandom random) {
+			Config level = root.createSubConfig();
+			root.set(List.of("node_" + unit), level);
+			for (int depth = 0; depth < NESTING_DEPTH; depth++) {
+				level.set(List.of("id"), random.nextInt());
+				level.set(List.of("enabled"), random.nextBoolean());
+				Config child = level.createSubConfig();
+				level.set(List.of("level_" + depth), child);
+				level = child;
+			}
+			level.set(List.of("leaf"), randomWord(random, 16));
+		}
+	},
+	/** Large tables that contain many scalar values of various types. */
+	WIDE_TABLES {
+		@Override
+		void fillUnit(Config root, int unit, SplittableRandom random) {
+			String tableKey = "table_" + (unit / UNITS_PER_WIDE_TABLE);
+			Config table = root.get(List.of(tableKey));
+			if (table == null) {
+				table = root.createSubConfig();
+				root.set(List.of(tableKey), table);
+			}
+			int first = (unit % UNITS_PER_WIDE_TABLE) * ENTRIES_PER_UNIT;
+			for (int i = first; i < first + ENTRIES_PER_UNIT; i++) {
+				table.set(List.of("key_" + i), randomScalar(random, i));
+			}
+		}
+	},
+	/** Long arrays of homogeneous values. */
+	LONG_ARRAYS {
+		@Override
+		void fillUnit(Config root, int unit, SplittableRandom random) {
+			int arrayIndex = unit / UNITS_PER_ARRAY;
+			String arrayKey = "array_" + arrayIndex;
+			List<Object> array = root.get(List.of(arrayKey));
+			if (array == null) {
+				array = new ArrayList<>();
+				root.set(List.of(arrayKey), array);
+			}
+			for (int i = 0; i < ELEMENTS_PER_UNIT; i++) {
+				switch (arrayIndex % 3) {
+					case 0 -> array.add(random.nextInt(1_000_000));
+					case 1 -> array.add(random.nextDouble());
+					default -> array.add(randomWord(random, 6));
+				}
+			}
+		}
+	},
+	/** Long strings that contain characters that must be escaped. */
+	STRING_HEAVY {
+		@Override
+		void fillUnit(Config root, int unit, SplittableRandom random) {
+			for (int i = 0; i < STRINGS_PER_UNIT; i++) {
+				StringBuilder sb = new StringBuilder(120);
+				while (sb.length() < 100) {
+					sb.append(randomWord(random, 8));
+					sb.append(SPECIAL_CHARS[random.nextInt(SPECIAL_CHARS.length)]);
+				}
+				root.set(List.of("text_" + unit + "_" + i), sb.toString());
+			}
+		}
+	};
+
+	private static final int NESTING_DEPTH = 12;
+	private static final int ENTRIES_PER_UNIT = 32;
+	private static final int UNITS_PER_WIDE_TABLE = 8;
+	private static final int ELEMENTS_PER_UNIT = 64;
+	private static final int UNITS_PER_ARRAY = 64;
+	private static final int STRINGS_PER_UNIT = 8;
+	private static final int COMMENTED_ENTRIES_RATIO = 4;
+	private static final String[] SPECIAL_CHARS = {" ", " ", " ", "\"", "\\", "\t", "\n", "é", "→", "'"};
+
+	/**
+	 * Generates a new config of this shape. The generation is deterministic: calling this method
+	 * twice with the same size gives two equal configs.
+	 *
+	 * @param size the size of the document
+	 * @return a new config
+	 */
+	public CommentedConfig generate(DocumentSize size) {
+		CommentedConfig config = CommentedConfig.inMemory();
+		SplittableRandom random = new SplittableRandom(size.units);
+		for (int unit = 0; unit < size.units; unit++) {
+			fillUnit(config, unit, random);
+		}
+		return config;
+	}
+
+	/**
+	 * Generates a new config of this shape, like {@link #generate(DocumentSize)}, with comments on the
+	 * top-level tables and arrays and on about one other entry out of four. The comments have one to
+	 * three lines of a few words, like the documentation of the settings in a hand-written
+	 * configuration file.
+	 *
+	 * @param size the size of the document
+	 * @return a new config, with comments
+	 */
+	public CommentedConfig generateCommented(DocumentSize size) {
+		CommentedConfig config = generate(size);
+		addComments(config, true, new SplittableRandom(-size.units));
+		return config;
+	}
+
+	private static void addComments(CommentedConfig config, boolean topLevel, SplittableRandom random) {
+		for (CommentedConfig.Entry entry : config.entrySet()) {
+			Object value = entry.getRawValue();
+			boolean isSection = topLevel && (value instanceof Config || value instanceof List);
+			if (isSection || random.nextInt(COMMENTED_ENTRIES_RATIO) == 0) {
+				entry.setComment(randomComment(random));
+			}
+			if (value instanceof CommentedConfig sub) {
+				addComments(sub, false, random);
+			}
+		}
+	}
+
+	private static String randomComment(SplittableRandom random) {
+		StringBuilder sb = new StringBuilder(80);
+		int lines = 1 + random.nextInt(3);
+		for (int line = 0; line < lines; line++) {
+			if (line > 0) {
+				sb.append('\n');
+			}
+			int words = 3 + random.nextInt(8);
+			for (int w = 0; w < words; w++) {
+				if (w > 0) {
+					sb.append(' ');
+				}
+				sb.append(randomWord(random, 2 + random.nextInt(8)));
+			}
+		}
+		return sb.toString();
+	}
+
+	abstract void fillUnit(Config root, int unit, SplittableRandom random);
+
+	private static Object randomScalar(SplittableRandom random, int i) {
+		return switch (i % 5) {
+			case 0 -> random.nextInt();
+			case 1 -> random.nextLong();
+			case 2 -> random.nextDouble();
+			case 3 -> random.nextBoolean();
+			default -> randomWord(random, 12);
+		};
+	}
+
+	private static String randomWord(SplittableRandom random, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char)('a' + random.nextInt(26));
+		}
+		return new String(chars);
+	}
+}
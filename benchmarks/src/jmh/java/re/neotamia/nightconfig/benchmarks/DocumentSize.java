@@ -0,0 +1,20 @@
+package re.neotamia.nightconfig.benchmarks;
+
+/**
+ * The sizes of the documents generated for the benchmarks.
+ */
+public enum DocumentSize {
+	/** About 1 KB of data. */
+	SMALL(1),
+	/** About 64 KB of data. */
+	MEDIUM(64),
+	/** About 16 MB of data. */
+	LARGE(16_384);
+
+	/** The number of units of data, see {@link DocumentShape}. */
+	final int units;
+
+	DocumentSize(int units) {
+		this.units = units;
+	}
+}
@@ -0,0 +1,75 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.json.JsonFormat;
+import re.neotamia.nightconfig.json.JsonParser;
+import re.neotamia.nightconfig.json.VectorByteScanner;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar scanning of the UTF-8 JSON parser to the {@link VectorByteScanner}, which is
+ * only available in this module.
+ * <p>
+ * The throughput is measured after a warm-up, and the time of the first parse of each fork is measured
+ * separately, because the vector code is much slower before being compiled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class JsonScanningBenchmark {
+	@Param
+	public DocumentShape shape;
+
+	@Param
+	public DocumentSize size;
+
+	private JsonParser parser;
+	private ByteBuffer document;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		parser = new JsonParser();
+		String json = JsonFormat.fancyInstance().createWriter().writeToString(shape.generate(size));
+		document = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+	public Config scalar() {
+		return parser.parse(document.duplicate());
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+	public Config vector() {
+		return VectorByteScanner.parse(parser, document.duplicate());
+	}
+
+	/** Measures the first parse of a fresh JVM, repeated in many forks. */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(value = 10, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+	public Config scalarFirstParse() {
+		return parser.parse(document.duplicate());
+	}
+
+	/** Measures the first parse of a fresh JVM, repeated in many forks. */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(value = 10, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+	public Config vectorFirstParse() {
+		return VectorByteScanner.parse(parser, document.duplicate());
+	}
+}
@@ -0,0 +1,70 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.io.ConfigParser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing throughput of every {@link ConfigParser} implementation.
+ * <p>
+ * Besides the number of operations per second, the {@link ParsedBytes#bytes} counter gives the
+ * number of bytes parsed per second. Allocations are reported by the GC profiler (see
+ * {@code benchmarks/build.gradle.kts}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ParserBenchmark {
+	@Param
+	public BenchmarkFormat format;
+
+	@Param
+	public DocumentShape shape;
+
+	@Param
+	public DocumentSize size;
+
+	private ConfigParser<? extends Config> parser;
+	private String document;
+	private byte[] documentBytes;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		parser = format.format.createParser();
+		document = format.format.createWriter().writeToString(shape.generate(size));
+		documentBytes = document.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/** Counts the number of bytes parsed, which JMH reports as a throughput. */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class ParsedBytes {
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	/** Parses the document from a String (through a {@code FastStringReader}). */
+	@Benchmark
+	public Config parseString(ParsedBytes counter) {
+		counter.bytes += documentBytes.length;
+		return parser.parse(document);
+	}
+
+	/** Parses the document from UTF-8 bytes (through an {@code InputStreamReader}). */
+	@Benchmark
+	public Config parseInputStream(ParsedBytes counter) {
+		counter.bytes += documentBytes.length;
+		return parser.parse(new ByteArrayInputStream(documentBytes));
+	}
+}
@@ -0,0 +1,69 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.serde.ObjectDeserializer;
+import re.neotamia.nightconfig.core.serde.ObjectSerializer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Compares {@link ObjectDeserializer#deserializeToRecord} with
+ * {@link ObjectDeserializer#deserializeFields} on an equivalent class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class RecordSerdeBenchmark {
+	public enum RecordModel {
+		FLAT(SerdeModels.FlatRecord.class, SerdeModels.FlatRecord::filled, SerdeModels.Flat::new),
+		COLLECTIONS(SerdeModels.CollectionsRecord.class, SerdeModels.CollectionsRecord::filled, SerdeModels.Collections::new);
+
+		final Class<? extends Record> recordClass;
+		final IntFunction<? extends Record> filledRecord;
+		final Supplier<Object> equivalentClass;
+
+		RecordModel(Class<? extends Record> recordClass, IntFunction<? extends Record> filledRecord,
+					Supplier<Object> equivalentClass) {
+			this.recordClass = recordClass;
+			this.filledRecord = filledRecord;
+			this.equivalentClass = equivalentClass;
+		}
+	}
+
+	@Param
+	public RecordModel model;
+
+	private ObjectDeserializer deserializer;
+	private ObjectSerializer serializer;
+	private Record record;
+	private Config serialized;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		deserializer = ObjectDeserializer.standard();
+		serializer = ObjectSerializer.standard();
+		record = model.filledRecord.apply(42);
+		serialized = serializer.serializeFields(record, Config::inMemory);
+	}
+
+	@Benchmark
+	public Record deserializeToRecord() {
+		return deserializer.deserializeToRecord(serialized, model.recordClass);
+	}
+
+	@Benchmark
+	public Object deserializeFieldsOfEquivalentClass() {
+		return deserializer.deserializeFields(serialized, model.equivalentClass);
+	}
+
+	@Benchmark
+	public Config serializeRecord() {
+		return serializer.serializeFields(record, Config::inMemory);
+	}
+}
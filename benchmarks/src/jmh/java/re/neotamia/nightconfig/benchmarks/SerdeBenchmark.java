@@ -0,0 +1,93 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.UnmodifiableConfig;
+import re.neotamia.nightconfig.core.conversion.ObjectBinder;
+import re.neotamia.nightconfig.core.conversion.ObjectConverter;
+import re.neotamia.nightconfig.core.serde.ObjectDeserializer;
+import re.neotamia.nightconfig.core.serde.ObjectSerializer;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the APIs that map configurations to Java objects and back: {@link ObjectDeserializer},
+ * {@link ObjectSerializer}, {@link ObjectConverter} and {@link ObjectBinder}.
+ * <p>
+ * The deserializers, serializers, converters and binders are created once and reused, like in
+ * an application that maps its configuration on every reload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SerdeBenchmark {
+	@Param
+	public SerdeModel model;
+
+	private ObjectDeserializer deserializer;
+	private ObjectSerializer serializer;
+	private ObjectConverter converter;
+	private ObjectBinder binder;
+
+	private Object instance;
+	private Config serialized;
+	private Config converted;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		deserializer = ObjectDeserializer.standard();
+		serializer = ObjectSerializer.standard();
+		converter = new ObjectConverter();
+		binder = new ObjectBinder();
+
+		instance = model.filledInstance.apply(42);
+		serialized = serializer.serializeFields(instance, Config::inMemory);
+		converted = converter.toConfig(instance, Config::inMemory);
+	}
+
+	// ----- config -> object -----
+	@Benchmark
+	public Object deserializerDeserializeFields() {
+		return deserializer.deserializeFields(serialized, model.emptyInstance);
+	}
+
+	@Benchmark
+	public Object converterToObject() {
+		return converter.toObject(converted, model.emptyInstance);
+	}
+
+	@Benchmark
+	public Object binderBind() {
+		Object destination = model.emptyInstance.get();
+		copyInto(converted, binder.bind(destination));
+		return destination;
+	}
+
+	/** Sets every value of {@code source} in the bound config {@code destination}. */
+	private static void copyInto(UnmodifiableConfig source, Config destination) {
+		for (UnmodifiableConfig.Entry entry : source.entrySet()) {
+			Object value = entry.getRawValue();
+			if (value instanceof UnmodifiableConfig) {
+				// the bound config of a sub-object
+				copyInto((UnmodifiableConfig)value, destination.get(Collections.singletonList(entry.getKey())));
+			} else {
+				destination.set(Collections.singletonList(entry.getKey()), value);
+			}
+		}
+	}
+
+	// ----- object -> config -----
+	@Benchmark
+	public Config serializerSerializeFields() {
+		return serializer.serializeFields(instance, Config::inMemory);
+	}
+
+	@Benchmark
+	public Config converterToConfig() {
+		return converter.toConfig(instance, Config::inMemory);
+	}
+}
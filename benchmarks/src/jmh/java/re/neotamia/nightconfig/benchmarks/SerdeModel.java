@@ -0,0 +1,24 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * The object hierarchies that can be used by the serde benchmarks.
+ */
+public enum SerdeModel {
+	FLAT(SerdeModels.Flat::new, SerdeModels.Flat::filled),
+	NESTED(SerdeModels.Nested::new, SerdeModels.Nested::filled),
+	COLLECTIONS(SerdeModels.Collections::new, SerdeModels.Collections::filled),
+	ANNOTATED(SerdeModels.Annotated::new, SerdeModels.Annotated::filled);
+
+	/** Creates an empty instance, to deserialize into. */
+	final Supplier<Object> emptyInstance;
+	/** Creates an instance with all its fields set, to serialize. */
+	final IntFunction<Object> filledInstance;
+
+	SerdeModel(Supplier<Object> emptyInstance, IntFunction<Object> filledInstance) {
+		this.emptyInstance = emptyInstance;
+		this.filledInstance = filledInstance;
+	}
+}
@@ -0,0 +1,157 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import re.neotamia.nightconfig.core.serde.annotations.SerdeAssert;
+import re.neotamia.nightconfig.core.serde.annotations.SerdeAssert.AssertThat;
+import re.neotamia.nightconfig.core.serde.annotations.SerdeDefault;
+import re.neotamia.nightconfig.core.serde.annotations.SerdeDefault.WhenValue;
+import re.neotamia.nightconfig.core.serde.annotations.SerdeSkip;
+import re.neotamia.nightconfig.core.serde.annotations.SerdeSkip.SkipIf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The classes and records that are (de)serialized by the serde benchmarks.
+ * <p>
+ * Every class has a no-arg constructor that leaves its fields to their default value, and a
+ * {@code filled()} factory that sets every field.
+ */
+public final class SerdeModels {
+	private SerdeModels() {}
+
+	/** Only scalar fields. */
+	public static class Flat {
+		int id;
+		long timestamp;
+		double ratio;
+		boolean enabled;
+		String name;
+		String description;
+		int maxConnections;
+		long timeoutMillis;
+
+		static Flat filled(int seed) {
+			Flat f = new Flat();
+			f.id = seed;
+			f.timestamp = 1_700_000_000_000L + seed;
+			f.ratio = seed / 7.0;
+			f.enabled = (seed & 1) == 0;
+			f.name = "name-" + seed;
+			f.description = "The object number " + seed + ", used for benchmarks";
+			f.maxConnections = 100 + seed;
+			f.timeoutMillis = 30_000L + seed;
+			return f;
+		}
+	}
+
+	/** Objects nested in objects. */
+	public static class Nested {
+		String name;
+		Flat primary = new Flat();
+		Flat secondary = new Flat();
+		Inner inner = new Inner();
+
+		public static class Inner {
+			int level;
+			Flat leaf = new Flat();
+		}
+
+		static Nested filled(int seed) {
+			Nested n = new Nested();
+			n.name = "nested-" + seed;
+			n.primary = Flat.filled(seed);
+			n.secondary = Flat.filled(seed + 1);
+			n.inner.level = 2;
+			n.inner.leaf = Flat.filled(seed + 2);
+			return n;
+		}
+	}
+
+	/** Long lists of simple values. */
+	public static class Collections {
+		List<String> hosts;
+		List<Integer> ports;
+		List<Double> weights;
+		List<String> tags;
+
+		static Collections filled(int seed) {
+			Collections c = new Collections();
+			c.hosts = new ArrayList<>();
+			c.ports = new ArrayList<>();
+			c.weights = new ArrayList<>();
+			c.tags = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				c.hosts.add("host-" + (seed + i) + ".example.org");
+				c.ports.add(8000 + i);
+				c.weights.add(i / 64.0);
+				c.tags.add("tag" + i);
+			}
+			return c;
+		}
+	}
+
+	/** Fields with serde annotations. */
+	public static class Annotated {
+		@SerdeAssert(AssertThat.NOT_NULL)
+		String name;
+
+		@SerdeDefault(provider = "defaultHosts", whenValue = {WhenValue.IS_MISSING, WhenValue.IS_EMPTY})
+		@SerdeAssert(AssertThat.NOT_EMPTY)
+		List<String> hosts;
+
+		@SerdeSkip(SkipIf.IS_EMPTY)
+		String comment;
+
+		@SerdeSkip(SkipIf.IS_NULL)
+		@SerdeAssert({AssertThat.NOT_NULL, AssertThat.NOT_EMPTY})
+		String region;
+
+		@SerdeDefault(provider = "defaultPort", whenValue = WhenValue.IS_MISSING)
+		int port;
+
+		@SerdeAssert(value = AssertThat.CUSTOM, customCheck = "isValidTimeout")
+		long timeoutMillis;
+
+		static List<String> defaultHosts() {
+			return List.of("localhost");
+		}
+
+		static int defaultPort() {
+			return 8080;
+		}
+
+		boolean isValidTimeout(long timeout) {
+			return timeout > 0;
+		}
+
+		static Annotated filled(int seed) {
+			Annotated a = new Annotated();
+			a.name = "annotated-" + seed;
+			a.hosts = List.of("a.example.org", "b.example.org");
+			a.comment = "comment " + seed;
+			a.region = "eu-west-" + seed;
+			a.port = 9000 + seed;
+			a.timeoutMillis = 1000L + seed;
+			return a;
+		}
+	}
+
+	/** The record equivalent of {@link Flat}. */
+	public record FlatRecord(int id, long timestamp, double ratio, boolean enabled, String name,
+							 String description, int maxConnections, long timeoutMillis) {
+		static FlatRecord filled(int seed) {
+			Flat f = Flat.filled(seed);
+			return new FlatRecord(f.id, f.timestamp, f.ratio, f.enabled, f.name, f.description,
+				f.maxConnections, f.timeoutMillis);
+		}
+	}
+
+	/** The record equivalent of {@link Collections}. */
+	public record CollectionsRecord(List<String> hosts, List<Integer> ports, List<Double> weights,
+									List<String> tags) {
+		static CollectionsRecord filled(int seed) {
+			Collections c = Collections.filled(seed);
+			return new CollectionsRecord(c.hosts, c.ports, c.weights, c.tags);
+		}
+	}
+}
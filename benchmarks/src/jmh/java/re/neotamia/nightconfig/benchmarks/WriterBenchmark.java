@@ -0,0 +1,76 @@
+package re.neotamia.nightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import re.neotamia.nightconfig.core.CommentedConfig;
+import re.neotamia.nightconfig.core.io.ConfigWriter;
+import re.neotamia.nightconfig.core.io.WritingMode;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the writing throughput of every {@link ConfigWriter} implementation.
+ * <p>
+ * All the writers serialize the same {@link CommentedConfig} trees, with comments on the top-level
+ * tables and arrays and on a quarter of the other entries (the formats that don't support comments
+ * ignore them). Allocations are reported by the GC profiler (see {@code benchmarks/build.gradle.kts}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class WriterBenchmark {
+	@Param
+	public BenchmarkWriter writer;
+
+	@Param
+	public DocumentShape shape;
+
+	@Param({"MEDIUM", "LARGE"})
+	public DocumentSize size;
+
+	private ConfigWriter configWriter;
+	private CommentedConfig config;
+	private Path directory;
+	private Path file;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		configWriter = writer.createWriter();
+		config = shape.generateCommented(size);
+		directory = Files.createTempDirectory("night-config-bench");
+		file = directory.resolve("config");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(directory);
+	}
+
+	/** Writes to a Writer that discards everything: measures the cost of the serialization only. */
+	@Benchmark
+	public void writeToNullWriter() {
+		configWriter.write(config, Writer.nullWriter());
+	}
+
+	/** Writes to a StringWriter, like {@link ConfigWriter#writeToString}. */
+	@Benchmark
+	public String writeToStringWriter() {
+		StringWriter stringWriter = new StringWriter();
+		configWriter.write(config, stringWriter);
+		return stringWriter.toString();
+	}
+
+	/** Writes to a real file, with the mode used by the file configs when saving. */
+	@Benchmark
+	public void writeToFileAtomically() {
+		configWriter.write(config, file, WritingMode.REPLACE_ATOMIC);
+	}
+}
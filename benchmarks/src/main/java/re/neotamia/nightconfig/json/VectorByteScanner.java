@@ -0,0 +1,95 @@
+package re.neotamia.nightconfig.json;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.io.ParsingMode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ByteScanner} that uses the Vector API to compare blocks of bytes at once (usually 32 or
+ * 64 bytes, depending on the CPU), like the first stage of simdjson. The end of the data, which
+ * doesn't fill a block, is scanned byte by byte.
+ * <p>
+ * The buffers that aren't backed by an accessible array (memory-mapped files) are copied block by
+ * block, the vectors are always loaded from an array.
+ * <p>
+ * This class is in the package of the JSON parser to use its internals, but it isn't part of the
+ * json module: the incubating Vector API would make the compilation of the module emit a warning,
+ * and the scanner isn't faster enough to be worth it (see JsonScanningBenchmark).
+ */
+public final class VectorByteScanner extends ByteScanner {
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	private static final int LENGTH = SPECIES.length();
+
+	private final byte[] array; // null if the buffer isn't backed by an accessible array
+	private final int arrayOffset;
+	private final byte[] block; // to copy the blocks of the other buffers
+
+	VectorByteScanner(ByteBuffer bytes) {
+		super(bytes);
+		if (bytes.hasArray()) {
+			this.array = bytes.array();
+			this.arrayOffset = bytes.arrayOffset();
+			this.block = null;
+		} else {
+			this.array = null;
+			this.arrayOffset = 0;
+			this.block = new byte[LENGTH];
+		}
+	}
+
+	/**
+	 * Parses a JSON object encoded in UTF-8 to a Config, like {@link JsonParser#parse(ByteBuffer)}
+	 * but with a VectorByteScanner.
+	 */
+	public static Config parse(JsonParser settings, ByteBuffer json) {
+		Config config = settings.getFormat().createConfig();
+		new Utf8JsonParser(settings, json, new VectorByteScanner(json)).parse(config, ParsingMode.MERGE);
+		return config;
+	}
+
+	private ByteVector load(int index) {
+		if (array != null) {
+			return ByteVector.fromArray(SPECIES, array, arrayOffset + index);
+		}
+		bytes.get(index, block, 0, LENGTH);
+		return ByteVector.fromArray(SPECIES, block, 0);
+	}
+
+	@Override
+	int skipSpaces(int from) {
+		int i = from;
+		// often there is no space at all, or a single one: don't load a vector for that
+		if (i < limit && !isSpace(bytes.get(i))) {
+			return i;
+		}
+		for (; i <= limit - LENGTH; i += LENGTH) {
+			ByteVector v = load(i);
+			VectorMask<Byte> spaces = v.eq((byte)' ').or(v.eq((byte)'\n')).or(v.eq((byte)'\t')).or(v.eq((byte)'\r'));
+			if (!spaces.allTrue()) {
+				return i + spaces.not().firstTrue();
+			}
+		}
+		return super.skipSpaces(i);
+	}
+
+	@Override
+	int findStringSpecial(int from, boolean stopAtNonAscii) {
+		int i = from;
+		for (; i <= limit - LENGTH; i += LENGTH) {
+			ByteVector v = load(i);
+			VectorMask<Byte> special = v.eq((byte)'"').or(v.eq((byte)'\\'));
+			if (stopAtNonAscii) {
+				special = special.or(v.lt((byte)0)); // the bytes of the multi-byte sequences are negative
+			}
+			if (special.anyTrue()) {
+				return i + special.firstTrue();
+			}
+		}
+		return super.findStringSpecial(i, stopAtNonAscii);
+	}
+}
@@ -0,0 +1,53 @@
+package re.neotamia.nightconfig.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VectorByteScannerTest {
+	private static final byte[] ALPHABET = {' ', '\t', '\n', '\r', '"', '\\', 'a', '{', ':', (byte)0xC3, (byte)0xA9};
+
+	/**
+	 * Compares the vector scanner to the scalar one, on random data with long runs of the same bytes,
+	 * from every start index, with a heap buffer (at an offset in its array) and with a direct buffer.
+	 */
+	@Test
+	public void vectorSameAsScalar() {
+		Random random = new Random(42);
+		for (int length : new int[]{0, 1, 31, 64, 65, 200, 1000}) {
+			byte[] data = new byte[length + 3];
+			for (int i = 0; i < data.length; ) {
+				byte b = ALPHABET[random.nextInt(ALPHABET.length)];
+				int run = 1 + random.nextInt(random.nextBoolean() ? 3 : 100);
+				for (int j = 0; j < run && i < data.length; j++) {
+					data[i++] = b;
+				}
+			}
+			ByteBuffer heap = ByteBuffer.wrap(data, 3, length).slice();
+			ByteBuffer direct = ByteBuffer.allocateDirect(length).put(heap.duplicate()).flip();
+			for (ByteBuffer buffer : new ByteBuffer[]{heap, direct, heap.asReadOnlyBuffer()}) {
+				ByteScanner scalar = new ByteScanner(buffer);
+				ByteScanner vector = new VectorByteScanner(buffer);
+				for (int from = 0; from <= length; from++) {
+					String message = "length " + length + ", from " + from + ", direct " + buffer.isDirect();
+					assertEquals(scalar.skipSpaces(from), vector.skipSpaces(from), message);
+					assertEquals(scalar.findStringSpecial(from, true), vector.findStringSpecial(from, true), message);
+					assertEquals(scalar.findStringSpecial(from, false), vector.findStringSpecial(from, false), message);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void parse() {
+		String json = "{\n\t\"key\":    \"" + "long value with é and \\\"escapes\\\" ".repeat(20) + "\",\n"
+			+ "        \"list\": [1,        2,\n\n\n\n\n\n                                                  3]\n}";
+		ByteBuffer bytes = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+		JsonParser parser = new JsonParser();
+		assertEquals(parser.parse(json), VectorByteScanner.parse(parser, bytes));
+	}
+}
@@ -1,6 +1,7 @@
 package re.neotamia.nightconfig.core;
 
 import org.jetbrains.annotations.NotNull;
+import re.neotamia.nightconfig.core.utils.PrimitiveValueMap;
 import re.neotamia.nightconfig.core.utils.TransformingSet;
 
 import java.util.*;
@@ -97,7 +98,7 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	@Override
 	public <T> T getRaw(@NotNull List<String> path) {
 		final int lastIndex = path.size() - 1;
-		Map<String, Object> parentMap = getMap(path.subList(0, lastIndex));
+		Map<String, Object> parentMap = getMap(path, lastIndex);
 		if (parentMap == null) {
 			return null;
 		}
@@ -108,7 +109,7 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	@Override
 	public <T> T set(List<String> path, Object value) {
 		final int lastIndex = path.size() - 1;
-		Map<String, Object> parentMap = getOrCreateMap(path.subList(0, lastIndex));
+		Map<String, Object> parentMap = getOrCreateMap(path, lastIndex);
 		String lastKey = path.get(lastIndex);
 		Object nonNull = (value == null) ? NULL_OBJECT : value;
 		return (T)parentMap.put(lastKey, nonNull);
@@ -117,7 +118,7 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	@Override
 	public boolean add(List<String> path, Object value) {
 		final int lastIndex = path.size() - 1;
-		Map<String, Object> parentMap = getOrCreateMap(path.subList(0, lastIndex));
+		Map<String, Object> parentMap = getOrCreateMap(path, lastIndex);
 		String lastKey = path.get(lastIndex);
 		Object nonNull = (value == null) ? NULL_OBJECT : value;
 		return parentMap.putIfAbsent(lastKey, nonNull) == null;
@@ -126,7 +127,7 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	@Override
 	public <T> T remove(List<String> path) {
 		final int lastIndex = path.size() - 1;
-		Map<String, Object> parentMap = getMap(path.subList(0, lastIndex));
+		Map<String, Object> parentMap = getMap(path, lastIndex);
 		if (parentMap == null) {
 			return null;
 		}
@@ -137,7 +138,7 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	@Override
 	public boolean contains(@NotNull List<String> path) {
 		final int lastIndex = path.size() - 1;
-		Map<String, Object> parentMap = getMap(path.subList(0, lastIndex));
+		Map<String, Object> parentMap = getMap(path, lastIndex);
 		if (parentMap == null) {
 			return false;
 		}
@@ -148,7 +149,7 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	@Override
 	public boolean isNull(@NotNull List<String> path) {
 		final int lastIndex = path.size() - 1;
-		Map<String, Object> parentMap = getMap(path.subList(0, lastIndex));
+		Map<String, Object> parentMap = getMap(path, lastIndex);
 		if (parentMap == null) {
 			return false;
 		}
@@ -157,15 +158,113 @@ public abstract class AbstractConfig implements Config, Cloneable {
 		return value == NULL_OBJECT;
 	}
 
+	// ---- Primitive getters ----
+	// When the config is backed by a PrimitiveValueMap, these methods read the numbers without boxing them.
+
+	@Override
+	public int getInt(@NotNull List<String> path) {
+		final int lastIndex = path.size() - 1;
+		Map<String, Object> parentMap = getMap(path, lastIndex);
+		String lastKey = path.get(lastIndex);
+		if (parentMap instanceof PrimitiveValueMap primitives) {
+			return primitives.getInt(lastKey);
+		}
+		Object value = (parentMap == null) ? null : parentMap.get(lastKey);
+		return requireNumber(value, path).intValue();
+	}
+
+	@Override
+	public int getIntOrElse(@NotNull List<String> path, int defaultValue) {
+		final int lastIndex = path.size() - 1;
+		Map<String, Object> parentMap = getMap(path, lastIndex);
+		if (parentMap == null) {
+			return defaultValue;
+		}
+		String lastKey = path.get(lastIndex);
+		if (parentMap instanceof PrimitiveValueMap primitives) {
+			return primitives.getIntOrElse(lastKey, defaultValue);
+		}
+		Object value = parentMap.get(lastKey);
+		return (value == null || value == NULL_OBJECT) ? defaultValue : ((Number)value).intValue();
+	}
+
+	@Override
+	public long getLong(@NotNull List<String> path) {
+		final int lastIndex = path.size() - 1;
+		Map<String, Object> parentMap = getMap(path, lastIndex);
+		String lastKey = path.get(lastIndex);
+		if (parentMap instanceof PrimitiveValueMap primitives) {
+			return primitives.getLong(lastKey);
+		}
+		Object value = (parentMap == null) ? null : parentMap.get(lastKey);
+		return requireNumber(value, path).longValue();
+	}
+
+	@Override
+	public long getLongOrElse(@NotNull List<String> path, long defaultValue) {
+		final int lastIndex = path.size() - 1;
+		Map<String, Object> parentMap = getMap(path, lastIndex);
+		if (parentMap == null) {
+			return defaultValue;
+		}
+		String lastKey = path.get(lastIndex);
+		if (parentMap instanceof PrimitiveValueMap primitives) {
+			return primitives.getLongOrElse(lastKey, defaultValue);
+		}
+		Object value = parentMap.get(lastKey);
+		return (value == null || value == NULL_OBJECT) ? defaultValue : ((Number)value).longValue();
+	}
+
+	@Override
+	public double getDouble(@NotNull List<String> path) {
+		final int lastIndex = path.size() - 1;
+		Map<String, Object> parentMap = getMap(path, lastIndex);
+		String lastKey = path.get(lastIndex);
+		if (parentMap instanceof PrimitiveValueMap primitives) {
+			return primitives.getDouble(lastKey);
+		}
+		Object value = (parentMap == null) ? null : parentMap.get(lastKey);
+		return requireNumber(value, path).doubleValue();
+	}
+
+	@Override
+	public double getDoubleOrElse(@NotNull List<String> path, double defaultValue) {
+		final int lastIndex = path.size() - 1;
+		Map<String, Object> parentMap = getMap(path, lastIndex);
+		if (parentMap == null) {
+			return defaultValue;
+		}
+		String lastKey = path.get(lastIndex);
+		if (parentMap instanceof PrimitiveValueMap primitives) {
+			return primitives.getDoubleOrElse(lastKey, defaultValue);
+		}
+		Object value = parentMap.get(lastKey);
+		return (value == null || value == NULL_OBJECT) ? defaultValue : ((Number)value).doubleValue();
+	}
+
+	/**
+	 * Returns the value of a primitive getter, which throws a NullPointerException if there is no value,
+	 * like the getters of UnmodifiableConfig.
+	 */
+	private static Number requireNumber(Object value, List<String> path) {
+		if (value == null || value == NULL_OBJECT) {
+			throw new NullPointerException("No value at path " + path);
+		}
+		return (Number)value;
+	}
+
 	/**
-	 * Returns the Map associated to the given path. Any missing level is created.
+	 * Returns the Map associated to the first {@code length} keys of the given path. Any missing
+	 * level is created.
 	 *
-	 * @param path the map's path
+	 * @param path   the map's path
+	 * @param length the number of keys to use
 	 * @return the Map, not null
 	 */
-	private Map<String, Object> getOrCreateMap(List<String> path) {
+	private Map<String, Object> getOrCreateMap(List<String> path, int length) {
 		Map<String, Object> currentMap = map;
-		for (String currentKey : path) {
+		for (int i = 0; i < length; i++) {
+			final String currentKey = path.get(i);
 			final Object currentValue = currentMap.get(currentKey);
 			final Config config;
 			if (currentValue == null) {// missing intermediary level
@@ -184,14 +283,17 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	}
 
 	/**
-	 * Returns the Map associated to the given path, or null if there is none.
+	 * Returns the Map associated to the first {@code length} keys of the given path, or null if
+	 * there is none.
 	 *
-	 * @param path the map's path
+	 * @param path   the map's path
+	 * @param length the number of keys to use
 	 * @return the Map if any, or null if none
 	 */
-	private Map<String, Object> getMap(List<String> path) {
+	private Map<String, Object> getMap(List<String> path, int length) {
 		Map<String, Object> currentMap = map;
-		for (String key : path) {
+		for (int i = 0; i < length; i++) {
+			final String key = path.get(i);
 			Object value = currentMap.get(key);
 			if (!(value instanceof Config)) {// missing or incompatible intermediary level
 				return null;// the specified path doesn't exist -> stop here
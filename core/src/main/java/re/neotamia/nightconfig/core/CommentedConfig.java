@@ -8,7 +8,7 @@ import re.neotamia.nightconfig.core.utils.FakeCommentedConfig;
 import java.util.*;
 import java.util.function.Supplier;
 
-import static re.neotamia.nightconfig.core.utils.StringUtils.split;
+import static re.neotamia.nightconfig.core.ConfigPathCache.split;
 
 /**
  * A modifiable config that supports comments.
@@ -40,7 +40,7 @@ public interface CommentedConfig extends UnmodifiableCommentedConfig, Config {
 	 * @return the old comment if any, or {@code null}
 	 */
 	default String setComment(String path, String comment) {
-		return setComment(split(path, '.'), comment);
+		return setComment(split(path), comment);
 	}
 
 	/**
@@ -59,7 +59,7 @@ public interface CommentedConfig extends UnmodifiableCommentedConfig, Config {
 	 * @return the old comment if any, or {@code null}
 	 */
 	default String removeComment(String path) {
-		return removeComment(split(path, '.'));
+		return removeComment(split(path));
 	}
 
 	/**
@@ -7,7 +7,7 @@ import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
 import re.neotamia.nightconfig.core.concurrent.ConcurrentConfig;
 
-import static re.neotamia.nightconfig.core.utils.StringUtils.split;
+import static re.neotamia.nightconfig.core.ConfigPathCache.split;
 
 /**
  * A (modifiable) configuration that contains key/value mappings. Configurations are generally
@@ -26,7 +26,7 @@ public interface Config extends UnmodifiableConfig {
 	 * @return the old value if any, or {@code null}
 	 */
 	default <T> T set(String path, Object value) {
-		return set(split(path, '.'), value);
+		return set(split(path), value);
 	}
 
 	/**
@@ -58,7 +58,7 @@ public interface Config extends UnmodifiableConfig {
 	 *         given path
 	 */
 	default boolean add(String path, Object value) {
-		return add(split(path, '.'), value);
+		return add(split(path), value);
 	}
 
 	/**
@@ -95,7 +95,7 @@ public interface Config extends UnmodifiableConfig {
 	 * @return the old value if any, or {@code null}
 	 */
 	default <T> T remove(String path) {
-		return remove(split(path, '.'));
+		return remove(split(path));
 	}
 
 	/**
@@ -0,0 +1,236 @@
+package re.neotamia.nightconfig.core;
+
+import org.jetbrains.annotations.NotNull;
+import re.neotamia.nightconfig.core.concurrent.CopyOnWriteConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static re.neotamia.nightconfig.core.NullObject.NULL_OBJECT;
+
+/**
+ * The differences between two configurations: the entries that have been added, removed or changed,
+ * with their paths.
+ * <p>
+ * The sub-configurations that exist on both sides are compared recursively, except if they are the
+ * same object: the unmodified levels that two trees share are skipped without being read. A sub-configuration
+ * that has been added or removed is reported as a single entry. If both configurations are commented, the
+ * changes of the comments are reported too, including the header comments of the levels.
+ * <p>
+ * To compare two versions of a concurrent configuration, compare its
+ * {@link re.neotamia.nightconfig.core.concurrent.ConcurrentConfig#snapshot() snapshots}, which don't change
+ * during the comparison. The snapshots of a {@code StampedConfig}, {@code SynchronizedConfig} or
+ * {@code StripedConfig} taken without any modification in between are the same object, hence compared
+ * immediately. Otherwise, their levels are distinct objects, and all the levels are read. The snapshots of a
+ * {@link CopyOnWriteConfig} expose distinct objects, but the levels that haven't been modified between them are
+ * recognized with {@link CopyOnWriteConfig#sharesContent} and skipped.
+ */
+public final class ConfigDiff {
+	/** The kind of a {@link Change}. */
+	public enum Kind {
+		/** The entry exists only in the new configuration */
+		ADDED,
+		/** The entry exists only in the old configuration */
+		REMOVED,
+		/** The entry exists in both configurations, with different values */
+		CHANGED
+	}
+
+	/**
+	 * A changed entry. The missing values are {@code null}, the {@link NullObject#NULL_OBJECT}s are
+	 * also converted to {@code null}.
+	 *
+	 * @param kind     the kind of change
+	 * @param path     the path of the entry
+	 * @param oldValue the value in the old configuration
+	 * @param newValue the value in the new configuration
+	 */
+	public record Change(Kind kind, ConfigPath path, Object oldValue, Object newValue) {}
+
+	/**
+	 * A changed comment. The missing comments are {@code null}.
+	 *
+	 * @param path       the path of the entry, or of the level for a header comment ({@code null} for the root)
+	 * @param oldComment the comment in the old configuration
+	 * @param newComment the comment in the new configuration
+	 */
+	public record CommentChange(ConfigPath path, String oldComment, String newComment) {}
+
+	private final List<Change> changes;
+	private final List<CommentChange> commentChanges;
+	private final List<CommentChange> headerCommentChanges;
+
+	private ConfigDiff(Result result) {
+		this.changes = Collections.unmodifiableList(result.changes);
+		this.commentChanges = Collections.unmodifiableList(result.commentChanges);
+		this.headerCommentChanges = Collections.unmodifiableList(result.headerCommentChanges);
+	}
+
+	/**
+	 * Computes the differences between two configurations.
+	 *
+	 * @param before the old configuration
+	 * @param after  the new configuration
+	 * @return the differences
+	 */
+	public static ConfigDiff of(@NotNull UnmodifiableConfig before, @NotNull UnmodifiableConfig after) {
+		return of(before, after, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Computes the differences between two configurations. The levels that contain at least
+	 * {@code parallelThreshold} entries are compared in parallel, in the common fork-join pool.
+	 * The result is the same as with {@link #of(UnmodifiableConfig, UnmodifiableConfig)}, in the same order.
+	 * <p>
+	 * The configurations must support being read from several threads.
+	 *
+	 * @param before            the old configuration
+	 * @param after             the new configuration
+	 * @param parallelThreshold the minimum number of entries of a level to compare it in parallel
+	 * @return the differences
+	 */
+	public static ConfigDiff of(@NotNull UnmodifiableConfig before, @NotNull UnmodifiableConfig after,
+								int parallelThreshold) {
+		if (parallelThreshold < 1) {
+			throw new IllegalArgumentException("Invalid parallel threshold: " + parallelThreshold);
+		}
+		Result result = new Result();
+		if (before != after && !CopyOnWriteConfig.sharesContent(before, after)) {
+			diffLevel(result, null, before, after, parallelThreshold);
+		}
+		return new ConfigDiff(result);
+	}
+
+	/**
+	 * Returns the changed entries, depth-first: the entries of each level are listed in the iteration order of
+	 * the old level, followed by the entries that only exist in the new level, in its iteration order. The
+	 * changes inside a sub-configuration that exists on both sides take the place of that sub-configuration.
+	 * For instance, if {@code a}, {@code b.x} and {@code c} are modified, and {@code b.y} and {@code d} are added,
+	 * the order is {@code a, b.x, b.y, c, d}.
+	 *
+	 * @return the changed entries
+	 */
+	public List<Change> changes() {
+		return changes;
+	}
+
+	/**
+	 * @return the changed comments, in the same order as the entries, empty if the configurations are not both
+	 * commented
+	 */
+	public List<CommentChange> commentChanges() {
+		return commentChanges;
+	}
+
+	/**
+	 * Returns the changed header comments of the levels, in the order of the levels. The path of a change is the
+	 * path of the level, {@code null} for the root of the configurations.
+	 *
+	 * @return the changed header comments, empty if the configurations are not both commented
+	 */
+	public List<CommentChange> headerCommentChanges() {
+		return headerCommentChanges;
+	}
+
+	/**
+	 * @return true if the configurations have the same entries and comments
+	 */
+	public boolean isEmpty() {
+		return changes.isEmpty() && commentChanges.isEmpty() && headerCommentChanges.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "ConfigDiff{changes=" + changes + ", commentChanges=" + commentChanges
+			+ ", headerCommentChanges=" + headerCommentChanges + '}';
+	}
+
+	/** The changes of a part of the tree. */
+	private static final class Result {
+		final List<Change> changes = new ArrayList<>();
+		final List<CommentChange> commentChanges = new ArrayList<>();
+		final List<CommentChange> headerCommentChanges = new ArrayList<>();
+
+		void addAll(Result other) {
+			changes.addAll(other.changes);
+			commentChanges.addAll(other.commentChanges);
+			headerCommentChanges.addAll(other.headerCommentChanges);
+		}
+	}
+
+	private static void diffLevel(Result out, ConfigPath prefix, UnmodifiableConfig before,
+								  UnmodifiableConfig after, int parallelThreshold) {
+		Map<String, Object> oldValues = before.valueMap();
+		Map<String, Object> newValues = after.valueMap();
+		UnmodifiableCommentedConfig oldComments = null, newComments = null;
+		if (before instanceof UnmodifiableCommentedConfig oldCommented
+			&& after instanceof UnmodifiableCommentedConfig newCommented) {
+			oldComments = oldCommented;
+			newComments = newCommented;
+			String oldHeader = oldCommented.getHeaderComment();
+			String newHeader = newCommented.getHeaderComment();
+			if (!Objects.equals(oldHeader, newHeader)) {
+				out.headerCommentChanges.add(new CommentChange(prefix, oldHeader, newHeader));
+			}
+		}
+
+		// the keys of the old level, then the new keys
+		List<String> keys = new ArrayList<>(oldValues.keySet());
+		for (String key : newValues.keySet()) {
+			if (!oldValues.containsKey(key)) {
+				keys.add(key);
+			}
+		}
+
+		UnmodifiableCommentedConfig oc = oldComments, nc = newComments;
+		if (keys.size() >= parallelThreshold) {
+			// collect() keeps the order of the keys
+			out.addAll(keys.parallelStream().collect(Result::new,
+				(result, key) -> diffEntry(result, prefix, key, oldValues, newValues, oc, nc, parallelThreshold),
+				Result::addAll));
+		} else {
+			for (String key : keys) {
+				diffEntry(out, prefix, key, oldValues, newValues, oc, nc, parallelThreshold);
+			}
+		}
+	}
+
+	private static void diffEntry(Result out, ConfigPath prefix, String key,
+								  Map<String, Object> oldValues, Map<String, Object> newValues,
+								  UnmodifiableCommentedConfig oldComments, UnmodifiableCommentedConfig newComments,
+								  int parallelThreshold) {
+		ConfigPath path = (prefix == null) ? ConfigPath.of(key) : prefix.resolve(key);
+		Object oldValue = oldValues.get(key);
+		Object newValue = newValues.get(key);
+		if (oldValue != newValue) {
+			if (oldValue == null) {
+				out.changes.add(new Change(Kind.ADDED, path, null, unwrap(newValue)));
+			} else if (newValue == null) {
+				out.changes.add(new Change(Kind.REMOVED, path, unwrap(oldValue), null));
+			} else if (oldValue instanceof UnmodifiableConfig oldConfig
+				&& newValue instanceof UnmodifiableConfig newConfig) {
+				if (!CopyOnWriteConfig.sharesContent(oldConfig, newConfig)) {
+					diffLevel(out, path, oldConfig, newConfig, parallelThreshold);
+				}
+			} else if (!oldValue.equals(newValue)) {
+				out.changes.add(new Change(Kind.CHANGED, path, unwrap(oldValue), unwrap(newValue)));
+			}
+		}
+		if (oldComments != null) {
+			// getComment works with all the configs, unlike commentMap()
+			List<String> keyPath = Collections.singletonList(key);
+			String oldComment = oldComments.getComment(keyPath);
+			String newComment = newComments.getComment(keyPath);
+			if (!Objects.equals(oldComment, newComment)) {
+				out.commentChanges.add(new CommentChange(path, oldComment, newComment));
+			}
+		}
+	}
+
+	private static Object unwrap(Object value) {
+		return (value == NULL_OBJECT) ? null : value;
+	}
+}
@@ -0,0 +1,147 @@
+package re.neotamia.nightconfig.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import static re.neotamia.nightconfig.core.utils.StringUtils.split;
+
+/**
+ * An immutable, pre-split path in a configuration.
+ * <p>
+ * Every method of {@link UnmodifiableConfig} and {@link Config} that takes a {@code String} path
+ * has to split it around the dots on each call. A {@code ConfigPath} is split only once, when it
+ * is created, and can then be reused as many times as needed. Since it is a {@code List<String>},
+ * it is accepted by all the methods that take a {@code List<String>} path:
+ * <pre>{@code
+ * static final ConfigPath PORT = ConfigPath.of("server.port");
+ * int port = config.getInt(PORT);
+ * }</pre>
+ * The hash code is computed once, which makes {@code ConfigPath} a good key for maps and caches.
+ */
+public final class ConfigPath extends AbstractList<String> implements RandomAccess {
+	private final String[] keys;
+	private final int hash;
+
+	private ConfigPath(String[] keys) {
+		if (keys.length == 0) {
+			throw new IllegalArgumentException("empty entry path");
+		}
+		int h = 1;
+		for (String key : keys) {
+			h = 31 * h + key.hashCode();// same as List.hashCode()
+		}
+		this.keys = keys;
+		this.hash = h;
+	}
+
+	/**
+	 * Creates a path from a String, each part separated by a dot. Example "a.b.c"
+	 *
+	 * @param path the path to split
+	 * @return a new ConfigPath
+	 */
+	public static ConfigPath of(@NotNull String path) {
+		return new ConfigPath(split(path, '.').toArray(new String[0]));
+	}
+
+	/**
+	 * Creates a path from its parts, without splitting them.
+	 *
+	 * @param keys the parts of the path
+	 * @return a new ConfigPath
+	 */
+	public static ConfigPath of(@NotNull String... keys) {
+		String[] copy = keys.clone();
+		for (String key : copy) {
+			if (key == null) {
+				throw new NullPointerException("null key in path " + Arrays.toString(keys));
+			}
+		}
+		return new ConfigPath(copy);
+	}
+
+	/**
+	 * Creates a path from a list of parts, without splitting them. If the list is already a
+	 * {@code ConfigPath}, it is returned as is.
+	 *
+	 * @param path the parts of the path
+	 * @return a ConfigPath that contains the same parts as the list
+	 */
+	public static ConfigPath of(@NotNull List<String> path) {
+		if (path instanceof ConfigPath configPath) {
+			return configPath;
+		}
+		return of(path.toArray(new String[0]));
+	}
+
+	/**
+	 * Returns the path of the parent entry, or {@code null} if this path has only one part.
+	 *
+	 * @return the parent path, or null if there is none
+	 */
+	public ConfigPath parent() {
+		return keys.length == 1 ? null : new ConfigPath(Arrays.copyOf(keys, keys.length - 1));
+	}
+
+	/**
+	 * Returns a new path made of this path and the given key.
+	 *
+	 * @param key the key to add after the last part of this path
+	 * @return a new ConfigPath
+	 */
+	public ConfigPath resolve(@NotNull String key) {
+		String[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+		newKeys[keys.length] = key;
+		return new ConfigPath(newKeys);
+	}
+
+	/**
+	 * @return the last part of the path
+	 */
+	public String lastKey() {
+		return keys[keys.length - 1];
+	}
+
+	@Override
+	public String get(int index) {
+		return keys[index];
+	}
+
+	@Override
+	public int size() {
+		return keys.length;
+	}
+
+	@Override
+	public Object[] toArray() {
+		return keys.clone();
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o instanceof ConfigPath other) {
+			return hash == other.hash && Arrays.equals(keys, other.keys);
+		}
+		return super.equals(o);
+	}
+
+	/**
+	 * Returns the parts of the path, joined by dots. Example "a.b.c"
+	 */
+	@Override
+	public String toString() {
+		return String.join(".", keys);
+	}
+}
@@ -0,0 +1,200 @@
+package re.neotamia.nightconfig.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import re.neotamia.nightconfig.core.utils.StringUtils;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of split paths, used by the methods of {@link UnmodifiableConfig}
+ * and {@link Config} that take a {@code String} path.
+ * <p>
+ * The cache is disabled by default. When it is enabled, calls like {@code config.get("a.b.c")}
+ * reuse the same immutable {@link ConfigPath} instead of splitting the String each time, which
+ * avoids the allocations on hot, repeated paths. It can be enabled programmatically with
+ * {@link #enable(int)}, or at startup with the system property {@value #SIZE_PROPERTY}, which
+ * gives the maximum number of paths to keep.
+ * <p>
+ * Once the cache is full, each new path evicts an old one with the "second chance" (CLOCK) policy,
+ * an approximation of LRU: the paths are examined in their insertion order, and a path that has been
+ * used since it was last examined is kept for another round. The lookups only set a flag, they don't
+ * lock anything. The paths given to the
+ * {@code List<String>} methods are immutable when the cache is enabled: Config implementations
+ * must not modify them (none of the implementations of NightConfig does).
+ */
+public final class ConfigPathCache {
+	/** System property that enables the cache at startup, with the given maximum size. */
+	public static final String SIZE_PROPERTY = "nightconfig.pathCache.size";
+
+	private static volatile ConfigPathCache current = fromProperty();
+
+	private final ConcurrentHashMap<String, Entry> paths;
+	/** the keys of the paths, in the order in which the eviction examines them */
+	private final ConcurrentLinkedQueue<String> clock = new ConcurrentLinkedQueue<>();
+	private final int maxSize;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private ConfigPathCache(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Invalid cache size " + maxSize + ", it must be positive");
+		}
+		this.maxSize = maxSize;
+		this.paths = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+	}
+
+	private static ConfigPathCache fromProperty() {
+		String size = System.getProperty(SIZE_PROPERTY);
+		if (size == null || size.isBlank()) {
+			return null;
+		}
+		return new ConfigPathCache(Integer.parseInt(size.trim()));
+	}
+
+	/**
+	 * Enables the cache, replacing the current cache (if any) by an empty one.
+	 *
+	 * @param maxSize the maximum number of paths to keep in the cache
+	 * @return the new cache
+	 */
+	public static ConfigPathCache enable(int maxSize) {
+		ConfigPathCache cache = new ConfigPathCache(maxSize);
+		current = cache;
+		return cache;
+	}
+
+	/**
+	 * Disables the cache. The String paths will be split on each call, as usual.
+	 */
+	public static void disable() {
+		current = null;
+	}
+
+	/**
+	 * @return the cache in use, or {@code null} if it is disabled
+	 */
+	public static @Nullable ConfigPathCache current() {
+		return current;
+	}
+
+	/**
+	 * Splits a path around the dots, with the current cache if it is enabled.
+	 *
+	 * @param path the path, each part separated by a dot. Example "a.b.c"
+	 * @return the parts of the path
+	 */
+	public static List<String> split(@NotNull String path) {
+		ConfigPathCache cache = current;
+		return (cache == null) ? StringUtils.split(path, '.') : cache.get(path);
+	}
+
+	/**
+	 * Returns the pre-split version of the given path, and caches it if needed.
+	 *
+	 * @param path the path, each part separated by a dot. Example "a.b.c"
+	 * @return the corresponding ConfigPath
+	 */
+	public ConfigPath get(@NotNull String path) {
+		Entry cached = paths.get(path);
+		if (cached != null) {
+			hits.increment();
+			if (!cached.referenced) {
+				cached.referenced = true; // only write when needed, to keep the cache line shared
+			}
+			return cached.path;
+		}
+		misses.increment();
+		Entry created = new Entry(ConfigPath.of(path));
+		Entry prev = paths.putIfAbsent(path, created);
+		if (prev != null) {
+			return prev.path;
+		}
+		clock.add(path);
+		if (paths.size() > maxSize) {
+			evict();
+		}
+		return created.path;
+	}
+
+	/**
+	 * Evicts the paths until the size is back to the maximum. The size may briefly exceed the
+	 * maximum with concurrent insertions.
+	 */
+	private void evict() {
+		int secondChances = 0;
+		while (paths.size() > maxSize) {
+			String key = clock.poll();
+			if (key == null) {
+				return; // another thread is evicting
+			}
+			Entry entry = paths.get(key);
+			if (entry == null) {
+				continue; // removed by clear()
+			}
+			// bounded, in case the lookups keep setting the flags
+			if (entry.referenced && secondChances++ < maxSize) {
+				entry.referenced = false;
+				clock.add(key);
+			} else {
+				paths.remove(key, entry);
+			}
+		}
+	}
+
+	/**
+	 * @return the maximum number of paths kept in the cache
+	 */
+	public int maxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return the number of paths currently in the cache
+	 */
+	public int size() {
+		return paths.size();
+	}
+
+	/**
+	 * @return the number of lookups that found the path in the cache
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that had to split the path
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Removes all the paths from the cache and resets the counters.
+	 */
+	public void clear() {
+		paths.clear();
+		clock.clear();
+		hits.reset();
+		misses.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "ConfigPathCache{size=" + size() + ", maxSize=" + maxSize + ", hits=" + hits() + ", misses=" + misses() + '}';
+	}
+
+	private static final class Entry {
+		final ConfigPath path;
+		/** true if the path has been used since the eviction examined it */
+		volatile boolean referenced;
+
+		Entry(ConfigPath path) {
+			this.path = path;
+		}
+	}
+}
@@ -6,7 +6,7 @@ import re.neotamia.nightconfig.core.utils.FakeUnmodifiableCommentedConfig;
 
 import java.util.*;
 
-import static re.neotamia.nightconfig.core.utils.StringUtils.split;
+import static re.neotamia.nightconfig.core.ConfigPathCache.split;
 
 /**
  * An unmodifiable config that supports comments.
@@ -32,7 +32,7 @@ public interface UnmodifiableCommentedConfig extends UnmodifiableConfig {
 	 * @return the comment at the given path, or {@code null} if there is none.
 	 */
 	default String getComment(String path) {
-		return getComment(split(path, '.'));
+		return getComment(split(path));
 	}
 
 	/**
@@ -51,7 +51,7 @@ public interface UnmodifiableCommentedConfig extends UnmodifiableConfig {
 	 * there is no such comment.
 	 */
 	default Optional<String> getOptionalComment(String path) {
-		return getOptionalComment(split(path, '.'));
+		return getOptionalComment(split(path));
 	}
 
 	/**
@@ -72,7 +72,7 @@ public interface UnmodifiableCommentedConfig extends UnmodifiableConfig {
 	 * @return {@code true} if the path is associated with a comment, {@code false} if it's not.
 	 */
 	default boolean containsComment(String path) {
-		return containsComment(split(path, '.'));
+		return containsComment(split(path));
 	}
 
 	/**
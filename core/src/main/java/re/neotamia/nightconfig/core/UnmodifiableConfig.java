@@ -11,7 +11,7 @@ import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 import static re.neotamia.nightconfig.core.NullObject.NULL_OBJECT;
-import static re.neotamia.nightconfig.core.utils.StringUtils.split;
+import static re.neotamia.nightconfig.core.ConfigPathCache.split;
 
 /**
  * An unmodifiable (read-only) configuration that contains key/value mappings.
@@ -27,7 +27,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, or {@code null} if there is no such value.
      */
     default <T> @Nullable T get(@NotNull String path) {
-        return get(split(path, '.'));
+        return get(split(path));
     }
 
     /**
@@ -43,6 +43,26 @@ public interface UnmodifiableConfig {
         return (raw == NULL_OBJECT) ? null : (T) raw;
     }
 
+    /**
+     * Gets several values from the config at once. The i-th element of the returned array is the
+     * value that {@link #get(List)} returns for the i-th path, in the iteration order of the collection.
+     * <p>
+     * The concurrent configurations resolve all the paths at the same point in time, with a single
+     * lock acquisition when possible: the result is consistent even if the config is modified
+     * by another thread. The paths are typically {@link ConfigPath}s, created once and reused.
+     *
+     * @param paths the values' paths
+     * @return an array that contains the value of each path, or {@code null} if there is no such value.
+     */
+    default Object @NotNull [] getAll(@NotNull Collection<? extends List<String>> paths) {
+        Object[] values = new Object[paths.size()];
+        int i = 0;
+        for (List<String> path : paths) {
+            values[i++] = get(path);
+        }
+        return values;
+    }
+
     /**
      * Gets a value from the config. Doesn't convert {@link NullObject#NULL_OBJECT} to {@code null}.
      *
@@ -51,7 +71,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, or {@code null} if there is no such value.
      */
     default <T> @Nullable T getRaw(@NotNull String path) {
-        return getRaw(split(path, '.'));
+        return getRaw(split(path));
     }
 
     /**
@@ -72,7 +92,7 @@ public interface UnmodifiableConfig {
      * there is no such value.
      */
     default <T> @NotNull Optional<T> getOptional(@NotNull String path) {
-        return getOptional(split(path, '.'));
+        return getOptional(split(path));
     }
 
     /**
@@ -96,7 +116,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, or the default value if not found.
      */
     default <T> T getOrElse(@NotNull String path, T defaultValue) {
-        return getOrElse(split(path, '.'), defaultValue);
+        return getOrElse(split(path), defaultValue);
     }
 
     /**
@@ -134,7 +154,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, or the default value if not found.
      */
     default <T> T getOrElse(@NotNull String path, @NotNull Supplier<T> defaultValueSupplier) {
-        return getOrElse(split(path, '.'), defaultValueSupplier);
+        return getOrElse(split(path), defaultValueSupplier);
     }
 
     // ---- String getters ----
@@ -169,7 +189,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, parsed as a Float.
      */
     default @NotNull Float getStringAsFloat(@NotNull String path) {
-        return this.getStringAsFloat(split(path, '.'));
+        return this.getStringAsFloat(split(path));
     }
 
     /**
@@ -191,7 +211,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, parsed as a Double.
      */
     default @NotNull Double getStringAsDouble(@NotNull String path) {
-        return this.getStringAsDouble(split(path, '.'));
+        return this.getStringAsDouble(split(path));
     }
 
     /**
@@ -213,7 +233,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, parsed as an Int.
      */
     default @NotNull Short getStringAsShort(@NotNull String path) {
-        return this.getStringAsShort(split(path, '.'));
+        return this.getStringAsShort(split(path));
     }
 
     /**
@@ -235,7 +255,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, parsed as a Byte.
      */
     default @NotNull Byte getStringAsByte(@NotNull String path) {
-        return this.getStringAsByte(split(path, '.'));
+        return this.getStringAsByte(split(path));
     }
 
     /**
@@ -257,7 +277,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, parsed as an Integer.
      */
     default @NotNull Integer getStringAsInteger(@NotNull String path) {
-        return this.getStringAsInteger(split(path, '.'));
+        return this.getStringAsInteger(split(path));
     }
 
     /**
@@ -279,7 +299,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, parsed as a Long.
      */
     default @NotNull Long getStringAsLong(@NotNull String path) {
-        return this.getStringAsLong(split(path, '.'));
+        return this.getStringAsLong(split(path));
     }
 
     /**
@@ -301,7 +321,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, parsed as a Boolean.
      */
     default @NotNull Boolean getStringAsBoolean(@NotNull String path) {
-        return this.getStringAsBoolean(split(path, '.'));
+        return this.getStringAsBoolean(split(path));
     }
 
     /**
@@ -323,7 +343,7 @@ public interface UnmodifiableConfig {
      * or {@code Optional.empty()} if there is no such value.
      */
     default @NotNull Optional<String> getOptionalString(@NotNull String path) {
-        return getOptionalString(split(path, '.'));
+        return getOptionalString(split(path));
     }
 
     /**
@@ -345,7 +365,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path as a String, or the default value if not found.
      */
     default String getStringOrElse(@NotNull String path, String defaultValue) {
-        return getStringOrElse(split(path, '.'), defaultValue);
+        return getStringOrElse(split(path), defaultValue);
     }
 
     /**
@@ -376,7 +396,7 @@ public interface UnmodifiableConfig {
      *                                  an enum constant, like a List
      */
     default <T extends Enum<T>> @Nullable T getEnum(@NotNull String path, @NotNull Class<T> enumType, @NotNull EnumGetMethod method) {
-        return getEnum(split(path, '.'), enumType, method);
+        return getEnum(split(path), enumType, method);
     }
 
     /**
@@ -389,7 +409,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path as an enum, or {@code null} if not found
      */
     default <T extends Enum<T>> @Nullable T getEnum(@NotNull String path, @NotNull Class<T> enumType) {
-        return getEnum(split(path, '.'), enumType, EnumGetMethod.NAME_IGNORECASE);
+        return getEnum(split(path), enumType, EnumGetMethod.NAME_IGNORECASE);
     }
 
     /**
@@ -436,7 +456,7 @@ public interface UnmodifiableConfig {
      *                                  an enum constant, like a List
      */
     default <T extends Enum<T>> @NotNull Optional<T> getOptionalEnum(@NotNull String path, @NotNull Class<T> enumType, @NotNull EnumGetMethod method) {
-        return getOptionalEnum(split(path, '.'), enumType, method);
+        return getOptionalEnum(split(path), enumType, method);
     }
 
     /**
@@ -494,7 +514,7 @@ public interface UnmodifiableConfig {
      *                                  an enum constant, like a List
      */
     default <T extends Enum<T>> @NotNull T getEnumOrElse(@NotNull String path, @NotNull T defaultValue, @NotNull EnumGetMethod method) {
-        return getEnumOrElse(split(path, '.'), defaultValue, method);
+        return getEnumOrElse(split(path), defaultValue, method);
     }
 
     /**
@@ -553,7 +573,7 @@ public interface UnmodifiableConfig {
      *                                  an enum constant, like a List
      */
     default <T extends Enum<T>> T getEnumOrElse(@NotNull String path, @NotNull Class<T> enumType, @NotNull EnumGetMethod method, @NotNull Supplier<T> defaultValueSupplier) {
-        return getEnumOrElse(split(path, '.'), enumType, method, defaultValueSupplier);
+        return getEnumOrElse(split(path), enumType, method, defaultValueSupplier);
     }
 
     /**
@@ -610,7 +630,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, as {@link Number#intValue()}.
      */
     default int getInt(@NotNull String path) {
-        return this.<Number>get(path).intValue();
+        return getInt(split(path));
     }
 
     /**
@@ -632,7 +652,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, as {@link Number#intValue()}, or {@link OptionalInt#empty()}.
      */
     default @NotNull OptionalInt getOptionalInt(@NotNull String path) {
-        return getOptionalInt(split(path, '.'));
+        return getOptionalInt(split(path));
     }
 
     /**
@@ -656,7 +676,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, as {@link Number#intValue()}, or {@code defaultValue}.
      */
     default int getIntOrElse(@NotNull String path, int defaultValue) {
-        return getIntOrElse(split(path, '.'), defaultValue);
+        return getIntOrElse(split(path), defaultValue);
     }
 
     /**
@@ -679,7 +699,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, as {@link Number#intValue()}, or {@code defaultValueSupplier.get()}.
      */
     default int getIntOrElse(@NotNull String path, @NotNull IntSupplier defaultValueSupplier) {
-        return getIntOrElse(split(path, '.'), defaultValueSupplier);
+        return getIntOrElse(split(path), defaultValueSupplier);
     }
 
     /**
@@ -704,7 +724,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, as {@link Number#doubleValue()}.
      */
     default double getDouble(@NotNull String path) {
-        return this.<Number>getRaw(path).doubleValue();
+        return getDouble(split(path));
     }
 
     /**
@@ -726,7 +746,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, as {@link Number#doubleValue()}, or {@link OptionalDouble#empty()}.
      */
     default @NotNull OptionalDouble getOptionalDouble(@NotNull String path) {
-        return getOptionalDouble(split(path, '.'));
+        return getOptionalDouble(split(path));
     }
 
     /**
@@ -750,7 +770,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, as {@link Number#doubleValue()}, or {@code defaultValue}.
      */
     default double getDoubleOrElse(@NotNull String path, double defaultValue) {
-        return getDoubleOrElse(split(path, '.'), defaultValue);
+        return getDoubleOrElse(split(path), defaultValue);
     }
 
     /**
@@ -773,7 +793,7 @@ public interface UnmodifiableConfig {
      * @param defaultValueSupplier supplies the value to return if the config doesn't contain the path
      */
     default double getDoubleOrElse(@NotNull String path, @NotNull DoubleSupplier defaultValueSupplier) {
-        return getDoubleOrElse(split(path, '.'), defaultValueSupplier);
+        return getDoubleOrElse(split(path), defaultValueSupplier);
     }
 
     /**
@@ -820,7 +840,7 @@ public interface UnmodifiableConfig {
      * @return the value at the given path, as {@link Number#floatValue()}, or {@link OptionalDouble#empty()}.
      */
     default float getFloatOrElse(@NotNull String path, float defaultValue) {
-        return getFloatOrElse(split(path, '.'), defaultValue);
+        return getFloatOrElse(split(path), defaultValue);
     }
 
     /**
@@ -843,7 +863,7 @@ public interface UnmodifiableConfig {
      * @param defaultValueSupplier supplies the value to return if the config doesn't contain the path
      */
     default float getFloatOrElse(@NotNull String path, @NotNull Supplier<Float> defaultValueSupplier) {
-        return getFloatOrElse(split(path, '.'), defaultValueSupplier);
+        return getFloatOrElse(split(path), defaultValueSupplier);
     }
 
     /**
@@ -867,7 +887,7 @@ public interface UnmodifiableConfig {
      * @param path the path to check, each part separated by a dot. Example "a.b.c"
      */
     default long getLong(@NotNull String path) {
-        return this.<Number>getRaw(path).longValue();
+        return getLong(split(path));
     }
 
     /**
@@ -887,7 +907,7 @@ public interface UnmodifiableConfig {
      * @param path the path to check, each part separated by a dot. Example "a.b.c"
      */
     default @NotNull OptionalLong getOptionalLong(@NotNull String path) {
-        return getOptionalLong(split(path, '.'));
+        return getOptionalLong(split(path));
     }
 
     /**
@@ -909,7 +929,7 @@ public interface UnmodifiableConfig {
      * @param defaultValue the value to return if the config doesn't contain the path
      */
     default long getLongOrElse(@NotNull String path, long defaultValue) {
-        return getLongOrElse(split(path, '.'), defaultValue);
+        return getLongOrElse(split(path), defaultValue);
     }
 
     /**
@@ -932,7 +952,7 @@ public interface UnmodifiableConfig {
      * @param defaultValueSupplier supplies the value to return if the config doesn't contain the path
      */
     default long getLongOrElse(@NotNull String path, @NotNull LongSupplier defaultValueSupplier) {
-        return getLongOrElse(split(path, '.'), defaultValueSupplier);
+        return getLongOrElse(split(path), defaultValueSupplier);
     }
 
     /**
@@ -957,7 +977,7 @@ public interface UnmodifiableConfig {
     }
 
     default byte getByteOrElse(@NotNull String path, byte defaultValue) {
-        return getByteOrElse(split(path, '.'), defaultValue);
+        return getByteOrElse(split(path), defaultValue);
     }
 
     default byte getByteOrElse(@NotNull List<String> path, byte defaultValue) {
@@ -975,7 +995,7 @@ public interface UnmodifiableConfig {
     }
 
     default short getShortOrElse(@NotNull String path, short defaultValue) {
-        return getShortOrElse(split(path, '.'), defaultValue);
+        return getShortOrElse(split(path), defaultValue);
     }
 
     default short getShortOrElse(@NotNull List<String> path, short defaultValue) {
@@ -1033,7 +1053,7 @@ public interface UnmodifiableConfig {
      * @return the value, as a single char
      */
     default char getCharOrElse(@NotNull String path, char defaultValue) {
-        return getCharOrElse(split(path, '.'), defaultValue);
+        return getCharOrElse(split(path), defaultValue);
     }
 
     /**
@@ -1070,7 +1090,7 @@ public interface UnmodifiableConfig {
      * @return {@code true} if the path is associated with a value, {@code false} if it's not.
      */
     default boolean contains(@NotNull String path) {
-        return contains(split(path, '.'));
+        return contains(split(path));
     }
 
     /**
@@ -1089,7 +1109,7 @@ public interface UnmodifiableConfig {
      * {@code false} if it's associated with another value or with no value.
      */
     default boolean isNull(@NotNull String path) {
-        return isNull(split(path, '.'));
+        return isNull(split(path));
     }
 
     /**
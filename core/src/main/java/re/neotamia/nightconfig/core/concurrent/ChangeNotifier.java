@@ -0,0 +1,161 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import re.neotamia.nightconfig.core.ConfigPath;
+
+/**
+ * Delivers the changes of a tree of concurrent configurations to their {@link ConfigSubscription}s.
+ * <p>
+ * Each tree has its own notifier, which holds the subscriptions to the configs of the tree. Each level
+ * of the tree calls {@link #modified()} when it's locked for a modification, which costs a single volatile
+ * read when nothing is subscribed to the tree. Otherwise, a check of the subscriptions of this tree only is
+ * scheduled on the notification thread. The check reads the subscribed paths of each config with
+ * {@link ConcurrentConfig#getAll(java.util.Collection)}, which waits for the end of the modifications in
+ * progress, and notifies the subscriptions whose value has changed.
+ * <p>
+ * A check reports all the modifications made before it began: a bulk update or a reload gives at most one
+ * notification per subscription, and the subscriptions of the values that haven't changed are not notified.
+ * <p>
+ * The subscriptions only keep weak references to their configs, unless they are subscribed with
+ * {@code retain}: the subscriptions of a config that has been garbage-collected are removed by the next check.
+ */
+final class ChangeNotifier {
+    private final List<ConfigSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean checkPending = new AtomicBoolean();
+    private volatile boolean active = false;
+
+    /** Holder for the notification thread, shared by all the trees and created on demand. */
+    private static final class LazyExecutorHolder {
+        static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "NightConfig change notifier");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Called by a level of the tree before its modification, with the level locked. A check
+     * that reads the level after this call waits for the end of the modification.
+     */
+    void modified() {
+        if (active) {
+            scheduleCheck();
+        }
+    }
+
+    ConfigSubscription subscribe(ConcurrentConfig config, List<String> path, ConfigChangeListener<?> listener,
+            Consumer<? super Exception> exceptionHandler) {
+        return subscribe(config, false, path, listener, exceptionHandler);
+    }
+
+    /**
+     * Subscribes to a value of a config of the tree. If {@code retain} is true, the subscription keeps the
+     * config from being garbage-collected, which is needed for the configs that nothing else references.
+     */
+    @SuppressWarnings("unchecked")
+    ConfigSubscription subscribe(ConcurrentConfig config, boolean retain, List<String> path,
+            ConfigChangeListener<?> listener, Consumer<? super Exception> exceptionHandler) {
+        if (path.isEmpty()) {
+            throw new IllegalArgumentException("empty entry path");
+        }
+        ConfigSubscription subscription = new ConfigSubscription(this, config, retain, ConfigPath.of(path),
+                (ConfigChangeListener<Object>) listener, exceptionHandler, config.get(path));
+        synchronized (subscriptions) {
+            subscriptions.add(subscription);
+            active = true;
+        }
+        // reports the modifications made between the initial read and the registration, if any
+        scheduleCheck();
+        return subscription;
+    }
+
+    void remove(ConfigSubscription subscription) {
+        synchronized (subscriptions) {
+            subscriptions.remove(subscription);
+            active = !subscriptions.isEmpty();
+        }
+    }
+
+    /**
+     * Moves the subscriptions whose config is accepted by the filter to another notifier, after their config
+     * has been moved to the tree of that notifier. Must be called with the tree locked.
+     */
+    void transfer(ChangeNotifier target, Predicate<? super ConcurrentConfig> filter) {
+        List<ConfigSubscription> moved = new ArrayList<>();
+        synchronized (subscriptions) {
+            for (ConfigSubscription subscription : subscriptions) {
+                ConcurrentConfig config = subscription.config();
+                if (config != null && filter.test(config)) {
+                    moved.add(subscription);
+                }
+            }
+            subscriptions.removeAll(moved);
+            active = !subscriptions.isEmpty();
+        }
+        if (moved.isEmpty()) {
+            return;
+        }
+        synchronized (target.subscriptions) {
+            for (ConfigSubscription subscription : moved) {
+                subscription.notifier = target;
+            }
+            target.subscriptions.addAll(moved);
+            target.active = true;
+        }
+        target.scheduleCheck();
+    }
+
+    private void scheduleCheck() {
+        if (checkPending.compareAndSet(false, true)) {
+            LazyExecutorHolder.executor.execute(this::check);
+        }
+    }
+
+    /** Compares the subscribed values with their last known values. Runs on the notification thread. */
+    private void check() {
+        // the modifications that begin after this point schedule a new check
+        checkPending.set(false);
+
+        Map<ConcurrentConfig, List<ConfigSubscription>> byConfig = new IdentityHashMap<>();
+        for (ConfigSubscription subscription : subscriptions) {
+            ConcurrentConfig config = subscription.config();
+            if (config == null) {
+                subscription.cancel(); // the config has been garbage-collected
+            } else if (!subscription.isActive()) {
+                remove(subscription); // cancelled while being transferred from another notifier
+            } else {
+                byConfig.computeIfAbsent(config, c -> new ArrayList<>()).add(subscription);
+            }
+        }
+        for (Map.Entry<ConcurrentConfig, List<ConfigSubscription>> entry : byConfig.entrySet()) {
+            List<ConfigSubscription> configSubscriptions = entry.getValue();
+            List<ConfigPath> paths = new ArrayList<>(configSubscriptions.size());
+            for (ConfigSubscription subscription : configSubscriptions) {
+                paths.add(subscription.path());
+            }
+            Object[] values;
+            try {
+                values = entry.getKey().getAll(paths);
+            } catch (RuntimeException ex) {
+                // the config cannot be read anymore, for instance because it has been given to replaceContentBy
+                for (ConfigSubscription subscription : configSubscriptions) {
+                    subscription.fail(ex);
+                }
+                continue;
+            }
+            for (int i = 0; i < values.length; i++) {
+                configSubscriptions.get(i).update(values[i]);
+            }
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package re.neotamia.nightconfig.core.concurrent;
 
+import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.ConfigPathCache;
 import re.neotamia.nightconfig.core.UnmodifiableConfig;
 
 /**
@@ -137,6 +140,133 @@ public interface ConcurrentConfig extends Config {
         });
     }
 
+    /**
+     * Atomically computes a new value for the given path from its current value.
+     * <p>
+     * The function receives the current value, or {@code null} if there is none, and returns the new value.
+     * If it returns {@code null}, the entry is removed. The function is called while the config is locked:
+     * it must be short and must not use the config.
+     * <p>
+     * The default implementation uses {@link #bulkUpdate(Function)}. The implementations of NightConfig
+     * lock as little as possible, for instance {@link StampedConfig} only locks the level that contains
+     * the entry.
+     *
+     * @param path              the entry's path
+     * @param remappingFunction computes the new value from the current one
+     * @param <T>               the type of the value
+     * @return the new value, or {@code null} if the entry has been removed
+     */
+    default <T> T compute(List<String> path, Function<? super T, ? extends T> remappingFunction) {
+        return bulkUpdate(config -> {
+            return EntryOperations.compute(config, path, remappingFunction);
+        });
+    }
+
+    /**
+     * Atomically computes a new value for the given path from its current value.
+     *
+     * @param path              the entry's path, each part separated by a dot. Example "a.b.c"
+     * @param remappingFunction computes the new value from the current one
+     * @param <T>               the type of the value
+     * @return the new value, or {@code null} if the entry has been removed
+     * @see #compute(List, Function)
+     */
+    default <T> T compute(String path, Function<? super T, ? extends T> remappingFunction) {
+        return compute(ConfigPathCache.split(path), remappingFunction);
+    }
+
+    /**
+     * If there is no value at the given path, atomically computes one and sets it.
+     * <p>
+     * If the function returns {@code null}, nothing is set. The function is called while the config
+     * is locked: it must be short and must not use the config.
+     *
+     * @param path            the entry's path
+     * @param mappingFunction computes the value from the path
+     * @param <T>             the type of the value
+     * @return the current value if there is one, else the computed value
+     */
+    default <T> T computeIfAbsent(List<String> path, Function<? super List<String>, ? extends T> mappingFunction) {
+        return bulkUpdate(config -> {
+            return EntryOperations.computeIfAbsent(config, path, mappingFunction);
+        });
+    }
+
+    /**
+     * If there is no value at the given path, atomically computes one and sets it.
+     *
+     * @param path            the entry's path, each part separated by a dot. Example "a.b.c"
+     * @param mappingFunction computes the value from the path
+     * @param <T>             the type of the value
+     * @return the current value if there is one, else the computed value
+     * @see #computeIfAbsent(List, Function)
+     */
+    default <T> T computeIfAbsent(String path, Function<? super List<String>, ? extends T> mappingFunction) {
+        return computeIfAbsent(ConfigPathCache.split(path), mappingFunction);
+    }
+
+    /**
+     * Atomically sets the given value if there is no value at the given path, or else combines the two
+     * values with the function, like {@link java.util.Map#merge(Object, Object, BiFunction)}.
+     * <p>
+     * If the function returns {@code null}, the entry is removed. The function is called while the config
+     * is locked: it must be short and must not use the config.
+     *
+     * @param path              the entry's path
+     * @param value             the value to set or to combine with the current value, not null
+     * @param remappingFunction combines the current value (first argument) with the given value
+     * @param <T>               the type of the value
+     * @return the new value, or {@code null} if the entry has been removed
+     */
+    default <T> T merge(List<String> path, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        return bulkUpdate(config -> {
+            return EntryOperations.merge(config, path, value, remappingFunction);
+        });
+    }
+
+    /**
+     * Atomically sets the given value if there is no value at the given path, or else combines the two values.
+     *
+     * @param path              the entry's path, each part separated by a dot. Example "a.b.c"
+     * @param value             the value to set or to combine with the current value, not null
+     * @param remappingFunction combines the current value (first argument) with the given value
+     * @param <T>               the type of the value
+     * @return the new value, or {@code null} if the entry has been removed
+     * @see #merge(List, Object, BiFunction)
+     */
+    default <T> T merge(String path, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        return merge(ConfigPathCache.split(path), value, remappingFunction);
+    }
+
+    /**
+     * Atomically sets the value at the given path if its current value is equal to the expected one.
+     * The values are compared with {@link Object#equals(Object)}, and an expected value of {@code null}
+     * matches a missing entry.
+     *
+     * @param path          the entry's path
+     * @param expectedValue the expected current value
+     * @param newValue      the value to set
+     * @return true if the value has been set, false if the current value was not the expected one
+     */
+    default boolean compareAndSet(List<String> path, Object expectedValue, Object newValue) {
+        return bulkUpdate(config -> {
+            return EntryOperations.compareAndSet(config, path, expectedValue, newValue);
+        });
+    }
+
+    /**
+     * Atomically sets the value at the given path if its current value is equal to the expected one.
+     *
+     * @param path          the entry's path, each part separated by a dot. Example "a.b.c"
+     * @param expectedValue the expected current value
+     * @param newValue      the value to set
+     * @return true if the value has been set, false if the current value was not the expected one
+     * @see #compareAndSet(List, Object, Object)
+     */
+    default boolean compareAndSet(String path, Object expectedValue, Object newValue) {
+        return compareAndSet(ConfigPathCache.split(path), expectedValue, newValue);
+    }
+
     /**
      * Creates a new configuration that is meant to be inserted into this config.
      * <p>
@@ -147,4 +277,75 @@ public interface ConcurrentConfig extends Config {
      */
     @Override
     ConcurrentConfig createSubConfig();
+
+    /**
+     * Returns an immutable view of the current content of the config.
+     * <p>
+     * The snapshot is not affected by the subsequent modifications of the config, and can be read
+     * from any thread without locking the config. Taking a snapshot doesn't copy the content of the
+     * config: the cost of keeping the snapshot consistent is paid by the modifications that follow it.
+     *
+     * @return a snapshot of the config
+     */
+    ConfigSnapshot snapshot();
+
+    /**
+     * Subscribes to the changes of the value at the given path.
+     * <p>
+     * The listener receives the old and the new value each time the value changes, including when it's
+     * added ({@code oldValue} is null) or removed ({@code newValue} is null). The values are compared with
+     * {@link Object#equals(Object)}: a modification made inside a sub-configuration is reported to the
+     * subscriptions of the paths inside it, not to the subscription of the sub-configuration itself.
+     * <p>
+     * The notifications are asynchronous and batched: the modifications of a configuration check the
+     * subscriptions to its tree (the configuration and its sub-configurations), and the listeners are called
+     * on a background thread, shared by all the configurations. A bulk update or a reload is reported
+     * once, with the values before and after it, and only to the subscriptions whose value has changed.
+     * Several modifications made in quick succession can also be reported together.
+     * The listeners should return quickly. The modifications made through a sub-configuration that
+     * belongs to the tree of another configuration (for instance a config created by another config's
+     * {@link #createSubConfig()}, then inserted in this one) are reported to the subscriptions of the other tree only.
+     * <p>
+     * The exceptions thrown by the listener are given to the exception handler, so are the errors that
+     * prevent the value from being read: the subscription is then cancelled. The subscription doesn't
+     * prevent the config from being garbage-collected, and stops when it is.
+     *
+     * @param path             the path of the value
+     * @param listener         the listener to call when the value changes
+     * @param exceptionHandler called with the exceptions thrown by the listener or by the reading of the value
+     * @param <T>              the type of the value
+     * @return the subscription, to cancel when the notifications are not needed anymore
+     * @throws UnsupportedOperationException if this config doesn't support the subscriptions
+     */
+    default <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener,
+            Consumer<? super Exception> exceptionHandler) {
+        throw new UnsupportedOperationException(getClass().getName() + " doesn't support the subscriptions");
+    }
+
+    /**
+     * Subscribes to the changes of the value at the given path, with the default exception handler,
+     * which prints the stack trace of the exceptions.
+     *
+     * @param path     the path of the value
+     * @param listener the listener to call when the value changes
+     * @param <T>      the type of the value
+     * @return the subscription, to cancel when the notifications are not needed anymore
+     * @see #subscribe(List, ConfigChangeListener, Consumer)
+     */
+    default <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener) {
+        return subscribe(path, listener, Throwable::printStackTrace);
+    }
+
+    /**
+     * Subscribes to the changes of the value at the given path, with the default exception handler.
+     *
+     * @param path     the path of the value, each part separated by a dot. Example "a.b.c"
+     * @param listener the listener to call when the value changes
+     * @param <T>      the type of the value
+     * @return the subscription, to cancel when the notifications are not needed anymore
+     * @see #subscribe(List, ConfigChangeListener, Consumer)
+     */
+    default <T> ConfigSubscription subscribe(String path, ConfigChangeListener<T> listener) {
+        return subscribe(ConfigPathCache.split(path), listener);
+    }
 }
@@ -0,0 +1,21 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import java.util.List;
+
+/**
+ * Listens to the changes of a value of a {@link ConcurrentConfig}.
+ *
+ * @param <T> the type of the value
+ * @see ConcurrentConfig#subscribe(List, ConfigChangeListener)
+ */
+@FunctionalInterface
+public interface ConfigChangeListener<T> {
+    /**
+     * Called after the value at the given path has changed.
+     *
+     * @param path     the path of the value
+     * @param oldValue the previous value, or {@code null} if there was none
+     * @param newValue the new value, or {@code null} if it has been removed
+     */
+    void onChange(List<String> path, T oldValue, T newValue);
+}
@@ -0,0 +1,21 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import re.neotamia.nightconfig.core.UnmodifiableCommentedConfig;
+
+/**
+ * An immutable view of the content of a {@link ConcurrentConfig} at a given point in time,
+ * obtained with {@link ConcurrentConfig#snapshot()}.
+ * <p>
+ * A snapshot is not affected by the modifications made to the config after it has been taken.
+ * It can be read from any thread without locking the config.
+ */
+public interface ConfigSnapshot extends UnmodifiableCommentedConfig {
+    /**
+     * Returns the version of the snapshot. The versions of the snapshots of a given config
+     * increase monotonically. Two snapshots of the same config that have the same version
+     * have the same content.
+     *
+     * @return the version of the snapshot
+     */
+    long version();
+}
@@ -0,0 +1,100 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import re.neotamia.nightconfig.core.ConfigPath;
+
+/**
+ * A subscription to the changes of a value of a {@link ConcurrentConfig}, obtained with
+ * {@link ConcurrentConfig#subscribe(java.util.List, ConfigChangeListener)}.
+ * <p>
+ * The subscription doesn't prevent the config from being garbage-collected: it's cancelled
+ * when the config is. The views of a {@link CopyOnWriteConfig}, which are created on demand
+ * and usually not retained, are the exception: the subscription keeps its view, which only
+ * refers to the path it observes in the tree.
+ */
+public final class ConfigSubscription implements AutoCloseable {
+    private final WeakReference<ConcurrentConfig> config;
+    private final ConcurrentConfig retained; // the config, if it must not be garbage-collected, or null
+    private final ConfigPath path;
+    private final ConfigChangeListener<Object> listener;
+    private final Consumer<? super Exception> exceptionHandler;
+    private volatile boolean active = true;
+
+    /** the notifier that holds this subscription, changed when the config moves to another tree */
+    volatile ChangeNotifier notifier;
+
+    /** the last value seen by the notifier, only accessed by the notification thread */
+    private Object lastValue;
+
+    ConfigSubscription(ChangeNotifier notifier, ConcurrentConfig config, boolean retain, ConfigPath path,
+            ConfigChangeListener<Object> listener, Consumer<? super Exception> exceptionHandler, Object initialValue) {
+        this.notifier = notifier;
+        this.config = new WeakReference<>(config);
+        this.retained = retain ? config : null;
+        this.path = path;
+        this.listener = listener;
+        this.exceptionHandler = exceptionHandler;
+        this.lastValue = initialValue;
+    }
+
+    /** Returns the config that this subscription observes, or null if it has been garbage-collected. */
+    public ConcurrentConfig config() {
+        return config.get();
+    }
+
+    /** Returns the path of the observed value. */
+    public ConfigPath path() {
+        return path;
+    }
+
+    /** Returns true if this subscription hasn't been cancelled. */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Cancels this subscription: the listener will not be called anymore, except if it's
+     * being called right now. Does nothing if the subscription is already cancelled.
+     */
+    public void cancel() {
+        if (active) {
+            active = false;
+            notifier.remove(this);
+        }
+    }
+
+    /** Cancels this subscription, like {@link #cancel()}. */
+    @Override
+    public void close() {
+        cancel();
+    }
+
+    /** Notifies the listener if the value has changed. Called by the notification thread. */
+    void update(Object value) {
+        Object oldValue = lastValue;
+        if (!active || Objects.equals(oldValue, value)) {
+            return;
+        }
+        lastValue = value;
+        try {
+            listener.onChange(path, oldValue, value);
+        } catch (Exception ex) {
+            // don't prevent the other listeners from being notified
+            exceptionHandler.accept(ex);
+        }
+    }
+
+    /**
+     * Reports that the value cannot be read anymore, and cancels this subscription. Called by the
+     * notification thread.
+     */
+    void fail(Exception ex) {
+        if (active) {
+            cancel();
+            exceptionHandler.accept(ex);
+        }
+    }
+}
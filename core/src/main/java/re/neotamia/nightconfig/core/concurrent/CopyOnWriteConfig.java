@@ -0,0 +1,1272 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import static re.neotamia.nightconfig.core.NullObject.NULL_OBJECT;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import re.neotamia.nightconfig.core.CommentedConfig;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.ConfigFormat;
+import re.neotamia.nightconfig.core.ConfigPath;
+import re.neotamia.nightconfig.core.InMemoryCommentedFormat;
+import re.neotamia.nightconfig.core.IncompatibleIntermediaryLevelException;
+import re.neotamia.nightconfig.core.UnmodifiableCommentedConfig;
+import re.neotamia.nightconfig.core.UnmodifiableConfig;
+import re.neotamia.nightconfig.core.utils.UnmodifiableConfigWrapper;
+
+/**
+ * A thread-safe configuration for read-mostly workloads, based on an immutable tree.
+ * <p>
+ * The content of the configuration is stored in an immutable tree, referenced by a single
+ * volatile field. Reads never lock: they dereference the current version of the tree and walk it.
+ * Writes are serialized by a lock: each write creates a new version of the tree, which shares
+ * the unmodified levels with the previous version, and publishes it atomically.
+ * <p>
+ * Each write copies the levels that lead to the modified entry, which makes
+ * {@code CopyOnWriteConfig} a poor fit for configurations that are modified very often.
+ * Use {@link StampedConfig} in that case.
+ * <p>
+ * The sub-configurations returned by {@link #get(List)} are views of a path in the tree, created
+ * on demand: reading a sub-configuration allocates a small view, but doesn't register it anywhere.
+ * A view always reflects the current content of its path, even if the sub-configuration is removed
+ * and created again.
+ * <p>
+ * When a top-level {@code CopyOnWriteConfig} (for instance one created by {@link #createSubConfig()})
+ * is inserted in another one, it becomes a view of the path where it has been inserted, and so do
+ * the views obtained from it. It must not be modified by other threads while being inserted.
+ * Until it is removed, {@link #get(List)} returns this config for that path. The methods that remove
+ * it, like {@link #remove(List)}, return it with the removed content; the methods that remove another
+ * sub-configuration return a detached copy of it.
+ * <p>
+ * The maps returned by {@link #valueMap()} and {@link #commentMap()} are unmodifiable copies.
+ */
+public final class CopyOnWriteConfig implements ConcurrentCommentedConfig {
+
+    /**
+     * The tree that this config belongs to, and the path of this config in the tree. Use
+     * {@link #binding()} to follow the moves of the tree.
+     */
+    private final Binding binding;
+
+    @SuppressWarnings("deprecation")
+    public CopyOnWriteConfig() {
+        this(InMemoryCommentedFormat.defaultInstance(), Config.getDefaultMapCreator(false));
+    }
+
+    public CopyOnWriteConfig(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier) {
+        this.binding = new Binding(new Root(configFormat, mapSupplier, Node.EMPTY), List.of());
+    }
+
+    private CopyOnWriteConfig(Binding binding) {
+        this.binding = binding;
+    }
+
+    // ----- specific -----
+    /**
+     * Atomically replaces the content of this config by a copy of the content of the specified config.
+     * <p>
+     * The sub-configurations previously obtained from this config stay bound to their path.
+     *
+     * @param newContent the new content
+     */
+    public void replaceContentBy(UnmodifiableConfig newContent) {
+        Root root = binding().root;
+        Node node = toNode(newContent, root);
+        edit(List.of(), true, new Edit() {
+            @Override
+            Node apply(Node target, Root r) {
+                return node;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This operation does not copy anything: it captures the last published version of the tree.
+     * The version of the snapshot is the number of modifications published since the creation
+     * of the tree.
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        while (true) {
+            Binding b = binding();
+            Published published = b.root.published;
+            Node node = nodeAt(published.node, b.prefix);
+            if (node != null || !movedSince(b)) {
+                return new Snapshot(pinned(b.root, node), published.version);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the two configs are CopyOnWriteConfigs, or snapshots of CopyOnWriteConfigs, that
+     * currently share the same immutable level, hence have the same content and comments. The unmodified
+     * levels of the successive versions of a tree are shared, but exposed as distinct objects: this
+     * method allows to recognize them without reading them (see
+     * {@link re.neotamia.nightconfig.core.ConfigDiff}).
+     *
+     * @param a the first config
+     * @param b the second config
+     * @return true if the configs share their content, false if they don't or if it's unknown
+     */
+    public static boolean sharesContent(UnmodifiableConfig a, UnmodifiableConfig b) {
+        Node node = sharedNode(a);
+        return node != null && node == sharedNode(b);
+    }
+
+    private static Node sharedNode(UnmodifiableConfig config) {
+        if (config instanceof Snapshot snapshot) {
+            return snapshot.pinned.currentNode();
+        }
+        if (config instanceof CopyOnWriteConfig cow) {
+            return cow.currentNode();
+        }
+        return null;
+    }
+
+    // ----- internal -----
+
+    /** Returns the binding of this config, after following the moves of its tree (see {@link Root#movedTo}). */
+    private Binding binding() {
+        Binding b = binding;
+        for (Binding moved = b.root.movedTo; moved != null; moved = b.root.movedTo) {
+            // an inserted config is bound to the root of its tree: no allocation in that case
+            b = b.prefix.isEmpty() ? moved : new Binding(moved.root, concat(moved.prefix, b.prefix));
+        }
+        return b;
+    }
+
+    /**
+     * Returns true if this config has been moved to another tree since {@code b} has been obtained.
+     * <p>
+     * The reads don't lock: when this config is removed from the tree where it had been inserted, a read
+     * that follows the previous binding may see the tree without this config, and find nothing. Such a read,
+     * and the reads that expose new views, check that the binding hasn't changed and retry if it has.
+     */
+    private boolean movedSince(Binding b) {
+        return !binding().equals(b);
+    }
+
+    /** Returns the level of this config in the current tree, or null if it doesn't exist. */
+    private Node currentNode() {
+        while (true) {
+            Binding b = binding();
+            Node node = nodeAt(b);
+            if (node != null || !movedSince(b)) {
+                return node;
+            }
+        }
+    }
+
+    /** Returns the level that contains the last key of the path, or null if it doesn't exist. */
+    private Node currentParent(List<String> path) {
+        while (true) {
+            Binding b = binding();
+            Node parent = parentAt(b, path);
+            if (parent != null || !movedSince(b)) {
+                return parent;
+            }
+        }
+    }
+
+    /** Immutable level of the tree. The maps are never modified after construction. */
+    private static final class Node {
+        static final Node EMPTY = new Node(Map.of(), Map.of(), null);
+
+        final Map<String, Object> values;
+        final Map<String, String> comments;
+        final String header;
+        private int hash;
+
+        Node(Map<String, Object> values, Map<String, String> comments, String header) {
+            this.values = values;
+            this.comments = comments;
+            this.header = header;
+        }
+
+        Node withValue(String key, Object value, Root root) {
+            Map<String, Object> copy = root.newMap();
+            copy.putAll(values);
+            if (value == null) {
+                copy.remove(key);
+            } else {
+                copy.put(key, value);
+            }
+            return new Node(copy, comments, header);
+        }
+
+        Node withComment(String key, String comment, Root root) {
+            Map<String, String> copy = root.newCommentMap();
+            copy.putAll(comments);
+            if (comment == null) {
+                copy.remove(key);
+            } else {
+                copy.put(key, comment);
+            }
+            return new Node(values, copy, header);
+        }
+
+        Node withHeader(String header) {
+            return new Node(values, comments, header);
+        }
+
+        Node withoutComments(Root root) {
+            Map<String, Object> newValues = null;
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                if (entry.getValue() instanceof Node child) {
+                    Node cleared = child.withoutComments(root);
+                    if (cleared != child) {
+                        if (newValues == null) {
+                            newValues = root.newMap();
+                            newValues.putAll(values);
+                        }
+                        newValues.put(entry.getKey(), cleared);
+                    }
+                }
+            }
+            if (newValues == null && comments.isEmpty()) {
+                return this;
+            }
+            return new Node(newValues == null ? values : newValues, Map.of(), header);
+        }
+
+        /** Same as the hashCode of an AbstractConfig with the same content. */
+        int contentHash() {
+            int h = hash;
+            if (h == 0) {
+                for (Map.Entry<String, Object> entry : values.entrySet()) {
+                    Object value = entry.getValue();
+                    int valueHash = (value instanceof Node child) ? child.contentHash() : Objects.hashCode(value);
+                    h += entry.getKey().hashCode() ^ valueHash;
+                }
+                hash = h;
+            }
+            return h;
+        }
+    }
+
+    /** A version of the tree, shared by a top-level config and all its views. */
+    private static final class Root {
+        final ConfigFormat<?> format;
+        final Supplier<Map<String, Object>> mapSupplier;
+
+        /** the current version, read without locking */
+        volatile Published published;
+
+        /**
+         * The version being built by the thread that runs a bulk update (the owner).
+         * Only accessed by the owner: other threads may read a stale {@code owner}, but it
+         * cannot be equal to their own thread.
+         */
+        Node working;
+        Thread owner;
+
+        /**
+         * The inverses of the moves of inserted configs made by the bulk update in progress, run in reverse
+         * order if it fails. Null when there is no bulk update. Only accessed with the lock held.
+         */
+        List<Runnable> rollback;
+
+        /**
+         * The place of this tree in another tree, if it has been inserted there, or null. Modified with
+         * the lock of the other tree held. The configs bound to this tree are then bound to that place.
+         */
+        volatile Binding movedTo;
+
+        /** The top-level configs inserted in this tree, indexed by path. Null if there is none. */
+        volatile Alias aliases;
+
+        /** The notifier of the subscriptions to the configs bound to this tree, created by the first subscription. */
+        volatile ChangeNotifier notifier;
+
+        Root(ConfigFormat<?> format, Supplier<Map<String, Object>> mapSupplier, Node node) {
+            this.format = format;
+            this.mapSupplier = mapSupplier;
+            this.published = new Published(node, 0);
+        }
+
+        Node current() {
+            return owner == Thread.currentThread() ? working : published.node;
+        }
+
+        /** Must be called with the lock held. */
+        void publish(Node newNode) {
+            if (owner == Thread.currentThread()) {
+                working = newNode;
+            } else {
+                published = new Published(newNode, published.version + 1);
+                modified();
+            }
+        }
+
+        /** Reports a modification to the subscriptions, if any. Must be called with the lock held. */
+        void modified() {
+            ChangeNotifier n = notifier;
+            if (n != null) {
+                n.modified();
+            }
+        }
+
+        /** Returns the notifier of this tree, creating it if needed. Must be called with the lock held. */
+        ChangeNotifier notifier() {
+            ChangeNotifier n = notifier;
+            if (n == null) {
+                notifier = n = new ChangeNotifier();
+            }
+            return n;
+        }
+
+        CopyOnWriteConfig view(List<String> path) {
+            Alias alias = aliases;
+            for (int i = 0; alias != null && i < path.size(); i++) {
+                alias = alias.children.get(path.get(i));
+            }
+            if (alias != null && alias.config != null) {
+                return alias.config;
+            }
+            return new CopyOnWriteConfig(new Binding(this, ConfigPath.of(path)));
+        }
+
+        /** Returns the node of the alias trie at the given path, creating it if needed. Must be called with the lock held. */
+        Alias createAlias(List<String> path) {
+            Alias alias = aliases;
+            if (alias == null) {
+                aliases = alias = new Alias();
+            }
+            for (String key : path) {
+                alias = alias.children.computeIfAbsent(key, k -> new Alias());
+            }
+            return alias;
+        }
+
+        /** Removes the aliases at and under the given path from the trie. Must be called with the lock held. */
+        Alias removeAliases(List<String> path) {
+            if (path.isEmpty()) {
+                Alias all = aliases;
+                aliases = null;
+                return all;
+            }
+            Alias parent = aliases;
+            for (int i = 0; parent != null && i < path.size() - 1; i++) {
+                parent = parent.children.get(path.get(i));
+            }
+            return parent == null ? null : parent.children.remove(path.get(path.size() - 1));
+        }
+
+        Map<String, Object> newMap() {
+            return mapSupplier.get();
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Map<String, String> newCommentMap() {
+            return (Map) mapSupplier.get();
+        }
+    }
+
+    private record Binding(Root root, List<String> prefix) {}
+
+    /**
+     * A node of the trie of the inserted configs of a tree. Only modified with the lock of the tree held,
+     * read without locking.
+     */
+    private static final class Alias {
+        /** the config inserted at this path, or null */
+        volatile CopyOnWriteConfig config;
+        final ConcurrentHashMap<String, Alias> children = new ConcurrentHashMap<>(4);
+
+        /** Binds the trees of the configs of this trie to their place in the given tree. */
+        void rebind(Root root, List<String> path) {
+            if (config != null) {
+                config.binding.root.movedTo = new Binding(root, ConfigPath.of(path));
+            }
+            for (Map.Entry<String, Alias> entry : children.entrySet()) {
+                entry.getValue().rebind(root, append(path, entry.getKey()));
+            }
+        }
+    }
+
+    /** A published version of the tree, with the number of modifications that led to it. */
+    private record Published(Node node, long version) {}
+
+    /** A modification of the tree, applied to the level at a given path. */
+    private abstract static class Edit {
+        Object result;
+
+        /** Returns the new version of the target level, or the same level if nothing changes. */
+        abstract Node apply(Node target, Root root);
+
+        /**
+         * Called before the new tree is published, with the lock held. The configs removed from the tree
+         * are detached here, so that they never appear empty to the threads that read them without locking.
+         */
+        void beforePublish(Root root, List<String> targetPath) {}
+
+        /** Called after the new tree has been published, with the lock still held. */
+        void done(Root root, List<String> targetPath) {}
+    }
+
+    /** Applies an edit and publishes the result. */
+    private Object edit(List<String> path, boolean create, Edit edit) {
+        while (true) {
+            Binding b = binding();
+            Root root = b.root;
+            synchronized (root) {
+                if (!binding().equals(b)) {
+                    continue; // this config has been moved to another tree in the meantime
+                }
+                List<String> target = concat(b.prefix, path);
+                Node base = root.current();
+                Node updated = editAt(base, target, 0, create, edit, root);
+                if (updated != base) {
+                    edit.beforePublish(root, target);
+                    root.publish(updated);
+                }
+                edit.done(root, target);
+                return edit.result;
+            }
+        }
+    }
+
+    private static Node editAt(Node node, List<String> target, int depth, boolean create, Edit edit, Root root) {
+        if (depth == target.size()) {
+            return edit.apply(node, root);
+        }
+        String key = target.get(depth);
+        Object value = node.values.get(key);
+        Node child;
+        if (value instanceof Node n) {
+            child = n;
+        } else if (!create) {
+            return node;
+        } else if (value == null) {
+            child = Node.EMPTY;
+        } else {
+            throw new IncompatibleIntermediaryLevelException(
+                    "Cannot create entry with parent path " + target.subList(0, depth + 1)
+                            + " because of an incompatible intermediary value of type: " + value.getClass());
+        }
+        Node newChild = editAt(child, target, depth + 1, create, edit, root);
+        return newChild == child ? node : node.withValue(key, newChild, root);
+    }
+
+    /** Modifies the value of one entry. */
+    private static final class ValueEdit extends Edit {
+        private final String key;
+        private final Object value;
+        private final boolean put, ifAbsent;
+        private Object previous;
+        private boolean applied;
+        private CopyOnWriteConfig adopted;
+
+        ValueEdit(String key, Object value, boolean put, boolean ifAbsent) {
+            this.key = key;
+            this.value = value;
+            this.put = put;
+            this.ifAbsent = ifAbsent;
+            this.result = ifAbsent ? Boolean.FALSE : null;
+        }
+
+        @Override
+        Node apply(Node target, Root root) {
+            previous = target.values.get(key);
+            if (!put) {
+                if (previous == null) {
+                    return target;
+                }
+                applied = true;
+                return target.withValue(key, null, root);
+            }
+            if (ifAbsent && previous != null) {
+                return target;
+            }
+            Object frozen;
+            if (value instanceof CopyOnWriteConfig config) {
+                Binding b = config.binding();
+                Node content = nodeAt(b);
+                frozen = content == null ? Node.EMPTY : content;
+                if (b.prefix.isEmpty()) {
+                    if (b.root == root) {
+                        throw new IllegalArgumentException("Cannot insert a config into itself");
+                    }
+                    adopted = config;
+                }
+            } else {
+                frozen = freeze(value, root);
+            }
+            applied = true;
+            return target.withValue(key, frozen, root);
+        }
+
+        @Override
+        void beforePublish(Root root, List<String> targetPath) {
+            if (previous instanceof Node node) {
+                previous = detach(root, append(targetPath, key), node);
+            }
+        }
+
+        @Override
+        void done(Root root, List<String> targetPath) {
+            if (!applied) {
+                return;
+            }
+            if (adopted != null) {
+                adopt(root, append(targetPath, key), adopted);
+            }
+            result = ifAbsent ? Boolean.TRUE : previous;
+        }
+    }
+
+    /**
+     * Returns the removed level as a top-level config: the config that had been inserted at this path,
+     * if any, or a new one. The configs inserted under this path follow the removed level.
+     */
+    private static CopyOnWriteConfig detach(Root root, List<String> path, Node node) {
+        Alias removed = root.removeAliases(path);
+        CopyOnWriteConfig inserted = (removed == null) ? null : removed.config;
+        CopyOnWriteConfig top;
+        Root newRoot;
+        Published previous; // the version of the tree of the inserted config, if any
+        if (inserted == null) {
+            newRoot = new Root(root.format, root.mapSupplier, node);
+            top = new CopyOnWriteConfig(new Binding(newRoot, List.of()));
+            previous = null;
+        } else {
+            // the inserted config gets its own tree back, with the removed content
+            top = inserted;
+            newRoot = top.binding.root;
+            previous = newRoot.published;
+            newRoot.published = new Published(node, previous.version + 1);
+            newRoot.movedTo = null;
+            removed.config = null;
+        }
+        if (removed != null && !removed.children.isEmpty()) {
+            newRoot.aliases = removed;
+            removed.rebind(newRoot, List.of());
+        }
+        if (removed != null && root.notifier != null) {
+            // the subscriptions to the configs that follow the removed level now observe its new tree
+            root.notifier.transfer(newRoot.notifier(), c -> isBoundTo(c, newRoot));
+        }
+        if (removed != null && root.rollback != null) {
+            root.rollback.add(() -> reattach(root, path, removed, top, newRoot, previous));
+        }
+        return top;
+    }
+
+    /** Undoes {@link #detach(Root, List, Node)}: binds the removed aliases to their former place in the tree. */
+    private static void reattach(Root root, List<String> path, Alias removed, CopyOnWriteConfig top, Root newRoot,
+            Published previous) {
+        if (previous != null) {
+            removed.config = top;
+            newRoot.published = previous;
+        }
+        newRoot.aliases = null;
+        if (path.isEmpty()) {
+            root.aliases = removed;
+        } else {
+            root.createAlias(path.subList(0, path.size() - 1)).children.put(lastKey(path), removed);
+        }
+        removed.rebind(root, path);
+        if (newRoot.notifier != null) {
+            newRoot.notifier.transfer(root.notifier(), c -> isBoundTo(c, root));
+        }
+    }
+
+    private static boolean isBoundTo(ConcurrentConfig config, Root root) {
+        return config instanceof CopyOnWriteConfig cow && cow.binding().root == root;
+    }
+
+    /** Binds an inserted top-level config, and the configs that had been inserted in it, to its place in the tree. */
+    private static void adopt(Root root, List<String> path, CopyOnWriteConfig config) {
+        Root oldRoot = config.binding.root;
+        Alias alias = root.createAlias(path);
+        alias.config = config;
+        Alias nested = oldRoot.aliases;
+        if (nested != null) {
+            oldRoot.aliases = null;
+            alias.children.putAll(nested.children);
+            for (Map.Entry<String, Alias> entry : nested.children.entrySet()) {
+                entry.getValue().rebind(root, append(path, entry.getKey()));
+            }
+        }
+        oldRoot.movedTo = new Binding(root, ConfigPath.of(path));
+        if (oldRoot.notifier != null) {
+            oldRoot.notifier.transfer(root.notifier(), c -> true);
+        }
+        if (root.rollback != null) {
+            root.rollback.add(() -> unadopt(root, path, oldRoot, nested));
+        }
+    }
+
+    /** Undoes {@link #adopt(Root, List, CopyOnWriteConfig)}: gives the inserted config its own tree back. */
+    private static void unadopt(Root root, List<String> path, Root oldRoot, Alias nested) {
+        root.removeAliases(path);
+        oldRoot.movedTo = null;
+        if (nested != null) {
+            oldRoot.aliases = nested;
+            nested.rebind(oldRoot, List.of());
+        }
+        if (root.notifier != null) {
+            root.notifier.transfer(oldRoot.notifier(), c -> isBoundTo(c, oldRoot));
+        }
+    }
+
+    /** Modifies the comment of one entry. */
+    private static final class CommentEdit extends Edit {
+        private final String key;
+        private final String comment;
+
+        CommentEdit(String key, String comment) {
+            this.key = key;
+            this.comment = comment;
+        }
+
+        @Override
+        Node apply(Node target, Root root) {
+            String previous = target.comments.get(key);
+            result = previous;
+            if (comment == null && previous == null) {
+                return target;
+            }
+            return target.withComment(key, comment, root);
+        }
+    }
+
+    /** Converts a value to its representation in the tree. */
+    private static Object freeze(Object value, Root root) {
+        if (value == null) {
+            return NULL_OBJECT;
+        } else if (value instanceof UnmodifiableConfig config) {
+            return toNode(config, root);
+        } else if (value instanceof List<?> list) {
+            return freezeList(list, root);
+        }
+        return value;
+    }
+
+    /** Copies the content of a config to a new level of the tree. */
+    private static Node toNode(UnmodifiableConfig config, Root root) {
+        if (config instanceof CopyOnWriteConfig cow) {
+            Node node = cow.currentNode();
+            return node == null ? Node.EMPTY : node;
+        }
+        Map<String, Object> values = root.newMap();
+        Map<String, String> comments = root.newCommentMap();
+        for (UnmodifiableConfig.Entry entry : config.entrySet()) {
+            values.put(entry.getKey(), freeze(entry.getRawValue(), root));
+            if (entry instanceof UnmodifiableCommentedConfig.Entry commentedEntry) {
+                String comment = commentedEntry.getComment();
+                if (comment != null) {
+                    comments.put(entry.getKey(), comment);
+                }
+            }
+        }
+        String header = (config instanceof UnmodifiableCommentedConfig commented) ? commented.getHeaderComment() : null;
+        return new Node(values, comments, header);
+    }
+
+    /**
+     * Lists cannot contain tree levels: the configs they contain are converted to
+     * independent CopyOnWriteConfigs. The list is returned as is if it contains no other config.
+     */
+    private static List<?> freezeList(List<?> list, Root root) {
+        List<Object> copy = null;
+        for (int i = 0; i < list.size(); i++) {
+            Object element = list.get(i);
+            Object converted = element;
+            if (element instanceof UnmodifiableConfig config && !(element instanceof CopyOnWriteConfig)) {
+                Root newRoot = new Root(root.format, root.mapSupplier, toNode(config, root));
+                converted = new CopyOnWriteConfig(new Binding(newRoot, List.of()));
+            } else if (element instanceof List<?> nested) {
+                converted = freezeList(nested, root);
+            }
+            if (converted != element && copy == null) {
+                copy = new ArrayList<>(list.subList(0, i));
+            }
+            if (copy != null) {
+                copy.add(converted);
+            }
+        }
+        return copy == null ? list : copy;
+    }
+
+    /** Returns the level of this config in the current tree, or null if it doesn't exist. */
+    private static Node nodeAt(Binding b) {
+        return nodeAt(b.root.current(), b.prefix);
+    }
+
+    private static Node nodeAt(Node node, List<String> prefix) {
+        for (int i = 0; i < prefix.size(); i++) {
+            Object value = node.values.get(prefix.get(i));
+            if (!(value instanceof Node child)) {
+                return null;
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /** Returns the level that contains the last key of the path, or null if it doesn't exist. */
+    private static Node parentAt(Binding b, List<String> path) {
+        int lastIndex = path.size() - 1;
+        if (lastIndex < 0) {
+            throw new IllegalArgumentException("empty entry path");
+        }
+        Node node = nodeAt(b);
+        for (int i = 0; i < lastIndex && node != null; i++) {
+            Object value = node.values.get(path.get(i));
+            node = (value instanceof Node child) ? child : null;
+        }
+        return node;
+    }
+
+    /** Converts a value of the tree to the value seen by the user. */
+    private static Object expose(Binding b, List<String> path, Object value) {
+        if (value instanceof Node) {
+            return b.root.view(concat(b.prefix, path));
+        }
+        return value;
+    }
+
+    private static List<String> concat(List<String> prefix, List<String> path) {
+        if (prefix.isEmpty()) {
+            return path;
+        }
+        List<String> result = new ArrayList<>(prefix.size() + path.size());
+        result.addAll(prefix);
+        result.addAll(path);
+        return result;
+    }
+
+    private static List<String> append(List<String> path, String key) {
+        List<String> result = new ArrayList<>(path.size() + 1);
+        result.addAll(path);
+        result.add(key);
+        return result;
+    }
+
+    private static String lastKey(List<String> path) {
+        if (path.isEmpty()) {
+            throw new IllegalArgumentException("empty entry path");
+        }
+        return path.get(path.size() - 1);
+    }
+
+    /** Returns a config bound to the current version of the tree, which never changes. */
+    private CopyOnWriteConfig pinned() {
+        Node node = currentNode();
+        return pinned(binding().root, node);
+    }
+
+    private static CopyOnWriteConfig pinned(Root root, Node node) {
+        Root pinned = new Root(root.format, root.mapSupplier, node == null ? Node.EMPTY : node);
+        return new CopyOnWriteConfig(new Binding(pinned, List.of()));
+    }
+
+    // ----- Config -----
+
+    @Override
+    public int size() {
+        Node node = currentNode();
+        return node == null ? 0 : node.values.size();
+    }
+
+    @Override
+    public CopyOnWriteConfig createSubConfig() {
+        Root root = binding().root;
+        return new CopyOnWriteConfig(root.format, root.mapSupplier);
+    }
+
+    @Override
+    public ConfigFormat<?> configFormat() {
+        return binding().root.format;
+    }
+
+    @Override
+    public Map<String, Object> valueMap() {
+        while (true) {
+            Binding b = binding();
+            Node node = nodeAt(b);
+            if (node == null) {
+                if (!movedSince(b)) {
+                    return Collections.emptyMap();
+                }
+                continue;
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : node.values.entrySet()) {
+                map.put(entry.getKey(), expose(b, List.of(entry.getKey()), entry.getValue()));
+            }
+            if (!movedSince(b)) { // the views must be bound to the current place of this config
+                return Collections.unmodifiableMap(map);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        edit(List.of(), true, new Edit() {
+            private Node previous;
+
+            @Override
+            Node apply(Node target, Root root) {
+                if (target.values.isEmpty() && target.comments.isEmpty()) {
+                    return target;
+                }
+                previous = target;
+                return new Node(root.newMap(), root.newCommentMap(), target.header);
+            }
+
+            @Override
+            void beforePublish(Root root, List<String> targetPath) {
+                if (previous == null || root.aliases == null) {
+                    return; // no inserted config to detach
+                }
+                for (Map.Entry<String, Object> entry : previous.values.entrySet()) {
+                    if (entry.getValue() instanceof Node node) {
+                        detach(root, append(targetPath, entry.getKey()), node);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The views of this tree, like the sub-configurations returned by {@link #get(List)}, are created on
+     * demand: their subscriptions keep them, so that they are not cancelled when the view isn't referenced
+     * anymore. Like the view, they observe the same path of the tree until they are cancelled.
+     */
+    @Override
+    public <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener,
+            Consumer<? super Exception> exceptionHandler) {
+        while (true) {
+            Binding b = binding();
+            Root root = b.root;
+            synchronized (root) {
+                if (!binding().equals(b)) {
+                    continue; // this config has been moved to another tree in the meantime
+                }
+                // a view is created on demand and usually not retained: the subscription must keep it
+                boolean isView = !binding.prefix.isEmpty();
+                return root.notifier().subscribe(this, isView, path, listener, exceptionHandler);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The paths are resolved in the same version of the tree, without locking.
+     */
+    @Override
+    public Object[] getAll(Collection<? extends List<String>> paths) {
+        CopyOnWriteConfig view = pinned();
+        Object[] results = new Object[paths.size()];
+        int i = 0;
+        for (List<String> path : paths) {
+            results[i++] = view.get(path);
+        }
+        return results;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getRaw(@NotNull List<String> path) {
+        while (true) {
+            Binding b = binding();
+            Node parent = parentAt(b, path);
+            Object value = (parent == null) ? null : parent.values.get(path.get(path.size() - 1));
+            // the views must be bound to the current place of this config
+            if ((value != null && !(value instanceof Node)) || !movedSince(b)) {
+                return (T) expose(b, path, value);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(@NotNull List<String> path) {
+        Node parent = currentParent(path);
+        return parent != null && parent.values.containsKey(path.get(path.size() - 1));
+    }
+
+    @Override
+    public boolean add(List<String> path, Object value) {
+        String key = lastKey(path);
+        return (Boolean) edit(path.subList(0, path.size() - 1), true, new ValueEdit(key, value, true, true));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T remove(List<String> path) {
+        String key = lastKey(path);
+        return (T) edit(path.subList(0, path.size() - 1), false, new ValueEdit(key, null, false, false));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T set(List<String> path, Object value) {
+        String key = lastKey(path);
+        return (T) edit(path.subList(0, path.size() - 1), true, new ValueEdit(key, value, true, false));
+    }
+
+    @Override
+    public void putAll(UnmodifiableConfig other) {
+        if (other == this) {
+            return;
+        }
+        bulkCommentedUpdate(view -> {
+            for (UnmodifiableConfig.Entry entry : other.entrySet()) {
+                view.set(Collections.singletonList(entry.getKey()), entry.getRawValue());
+            }
+        });
+    }
+
+    @Override
+    public void removeAll(UnmodifiableConfig other) {
+        if (other == this) {
+            clear();
+            return;
+        }
+        bulkCommentedUpdate(view -> {
+            for (UnmodifiableConfig.Entry entry : other.entrySet()) {
+                view.remove(Collections.singletonList(entry.getKey()));
+            }
+        });
+    }
+
+    // ----- CommentedConfig -----
+
+    @Override
+    public void clearComments() {
+        edit(List.of(), false, new Edit() {
+            @Override
+            Node apply(Node target, Root root) {
+                return target.withoutComments(root);
+            }
+        });
+    }
+
+    @Override
+    public @Nullable String removeHeaderComment() {
+        return (String) edit(List.of(), false, new Edit() {
+            @Override
+            Node apply(Node target, Root root) {
+                result = target.header;
+                return target.header == null ? target : target.withHeader(null);
+            }
+        });
+    }
+
+    @Override
+    public String removeComment(List<String> path) {
+        String key = lastKey(path);
+        return (String) edit(path.subList(0, path.size() - 1), false, new CommentEdit(key, null));
+    }
+
+    @Override
+    public @Nullable String setHeaderComment(@NotNull String comment) {
+        return (String) edit(List.of(), true, new Edit() {
+            @Override
+            Node apply(Node target, Root root) {
+                result = target.header;
+                return target.withHeader(comment);
+            }
+        });
+    }
+
+    @Override
+    public String setComment(List<String> path, String comment) {
+        String key = lastKey(path);
+        return (String) edit(path.subList(0, path.size() - 1), true, new CommentEdit(key, comment));
+    }
+
+    @Override
+    public boolean containsComment(List<String> path) {
+        Node parent = currentParent(path);
+        return parent != null && parent.comments.containsKey(path.get(path.size() - 1));
+    }
+
+    @Override
+    public @Nullable String getHeaderComment() {
+        Node node = currentNode();
+        return node == null ? null : node.header;
+    }
+
+    @Override
+    public String getComment(List<String> path) {
+        Node parent = currentParent(path);
+        return parent == null ? null : parent.comments.get(path.get(path.size() - 1));
+    }
+
+    @Override
+    public Map<String, String> commentMap() {
+        Node node = currentNode();
+        return node == null ? Collections.emptyMap() : Collections.unmodifiableMap(new LinkedHashMap<>(node.comments));
+    }
+
+    @Override
+    public void putAllComments(UnmodifiableCommentedConfig other) {
+        bulkCommentedUpdate(view -> {
+            ConcurrentCommentedConfig.super.putAllComments(other);
+        });
+    }
+
+    @Override
+    public void putAllComments(Map<String, CommentNode> comments) {
+        bulkCommentedUpdate(view -> {
+            ConcurrentCommentedConfig.super.putAllComments(comments);
+        });
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof UnmodifiableConfig other)) {
+            return false;
+        }
+        CopyOnWriteConfig view = pinned();
+        if (view.size() != other.size()) {
+            return false;
+        }
+        for (UnmodifiableConfig.Entry entry : view.entrySet()) {
+            Object value = entry.getValue();
+            Object otherValue = other.get(Collections.singletonList(entry.getKey()));
+            if (!Objects.equals(value, otherValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        Node node = currentNode();
+        return node == null ? 0 : node.contentHash();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("CopyOnWriteConfig{");
+        for (UnmodifiableConfig.Entry entry : pinned().entrySet()) {
+            builder.append(entry.getKey());
+            builder.append('=');
+            builder.append((Object) entry.getRawValue());
+            builder.append(", ");
+        }
+        builder.append('}');
+        return builder.toString();
+    }
+
+    // ----- entrySet -----
+    /**
+     * Returns a view of the entries contained in the configuration.
+     * <p>
+     * Each iterator obtained from the Set iterates on the keys that existed at the time of its creation.
+     * The entries read and write their value through the configuration.
+     */
+    @Override
+    public Set<? extends CommentedConfig.Entry> entrySet() {
+        return new EntrySet();
+    }
+
+    private final class EntrySet extends AbstractSet<CommentedConfig.Entry> {
+        @Override
+        public Iterator<CommentedConfig.Entry> iterator() {
+            Node node = currentNode();
+            String[] keys = (node == null) ? new String[0] : node.values.keySet().toArray(new String[0]);
+            return new Iterator<>() {
+                private int index = 0;
+                private String lastKey = null;
+
+                @Override
+                public boolean hasNext() {
+                    return index < keys.length;
+                }
+
+                @Override
+                public CommentedConfig.Entry next() {
+                    if (index >= keys.length) {
+                        throw new NoSuchElementException();
+                    }
+                    lastKey = keys[index++];
+                    return new LiveEntry(lastKey);
+                }
+
+                @Override
+                public void remove() {
+                    if (lastKey == null) {
+                        throw new IllegalStateException();
+                    }
+                    CopyOnWriteConfig.this.remove(Collections.singletonList(lastKey));
+                    lastKey = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return CopyOnWriteConfig.this.size();
+        }
+    }
+
+    /** An entry that reads and writes its value through the config. */
+    private final class LiveEntry implements CommentedConfig.Entry {
+        private final List<String> path;
+
+        LiveEntry(String key) {
+            this.path = Collections.singletonList(key);
+        }
+
+        @Override
+        public String getKey() {
+            return path.get(0);
+        }
+
+        @Override
+        public <T> T getRawValue() {
+            return getRaw(path);
+        }
+
+        @Override
+        public <T> T setValue(Object value) {
+            return set(path, value);
+        }
+
+        @Override
+        public String getComment() {
+            return CopyOnWriteConfig.this.getComment(path);
+        }
+
+        @Override
+        public String setComment(String comment) {
+            return CopyOnWriteConfig.this.setComment(path, comment);
+        }
+
+        @Override
+        public String removeComment() {
+            return CopyOnWriteConfig.this.removeComment(path);
+        }
+
+        @Override
+        public String toString() {
+            return "CopyOnWriteConfig.LiveEntry{key=\"" + getKey() + "\"}";
+        }
+    }
+
+    // ----- bulk operations -----
+
+    /**
+     * Performs multiple read operations on a consistent version of the configuration.
+     * <p>
+     * This method does not lock anything: the view is bound to the version of the tree that
+     * is current when the method is called, and doesn't see the modifications made afterwards.
+     */
+    @Override
+    public <R> R bulkCommentedRead(Function<? super UnmodifiableCommentedConfig, R> action) {
+        return action.apply(pinned());
+    }
+
+    /**
+     * Performs multiple modifications atomically.
+     * <p>
+     * The modifications are made on a private version of the tree, which is published when the
+     * action returns. Until then, the other threads see the previous version. If the action throws
+     * an exception, its modifications are discarded, and the configs it has inserted or removed
+     * go back to their previous tree.
+     */
+    @Override
+    public <R> R bulkCommentedUpdate(Function<? super CommentedConfig, R> action) {
+        while (true) {
+            Binding b = binding();
+            Root root = b.root;
+            synchronized (root) {
+                if (!binding().equals(b)) {
+                    continue;
+                }
+                Thread thread = Thread.currentThread();
+                if (root.owner == thread) {
+                    return action.apply(this); // nested bulk update
+                }
+                Published start = root.published;
+                root.working = start.node;
+                root.owner = thread;
+                root.rollback = new ArrayList<>();
+                boolean completed = false;
+                try {
+                    R result = action.apply(this);
+                    completed = true;
+                    return result;
+                } finally {
+                    Node result = root.working;
+                    List<Runnable> rollback = root.rollback;
+                    root.owner = null;
+                    root.working = null;
+                    root.rollback = null;
+                    if (!completed) {
+                        for (int i = rollback.size() - 1; i >= 0; i--) {
+                            rollback.get(i).run();
+                        }
+                    } else if (result != start.node) {
+                        root.published = new Published(result, start.version + 1);
+                        root.modified();
+                    }
+                }
+            }
+        }
+    }
+
+    /** A snapshot of a version of the tree. */
+    private static final class Snapshot extends UnmodifiableConfigWrapper<UnmodifiableCommentedConfig>
+            implements ConfigSnapshot {
+        private final CopyOnWriteConfig pinned;
+        private final long version;
+
+        Snapshot(CopyOnWriteConfig pinned, long version) {
+            super(pinned.unmodifiable());
+            this.pinned = pinned;
+            this.version = version;
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public String getComment(List<String> path) {
+            return config.getComment(path);
+        }
+
+        @Override
+        public boolean containsComment(List<String> path) {
+            return config.containsComment(path);
+        }
+
+        @Override
+        public @Nullable String getHeaderComment() {
+            return config.getHeaderComment();
+        }
+
+        @Override
+        public Map<String, String> commentMap() {
+            return config.commentMap();
+        }
+
+        @Override
+        public Set<? extends UnmodifiableCommentedConfig.Entry> entrySet() {
+            return config.entrySet();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import static re.neotamia.nightconfig.core.NullObject.NULL_OBJECT;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import re.neotamia.nightconfig.core.Config;
+
+/**
+ * The read-modify-write operations of {@link ConcurrentConfig}, applied either to a whole config or to the
+ * map of the level that contains the entry. The caller is responsible for the locking.
+ */
+final class EntryOperations {
+    private EntryOperations() {}
+
+    @SuppressWarnings("unchecked")
+    private static <T> T unwrap(Object value) {
+        return (value == NULL_OBJECT) ? null : (T) value;
+    }
+
+    // ----- on a config -----
+
+    static <T> T compute(Config config, List<String> path, Function<? super T, ? extends T> remappingFunction) {
+        T newValue = remappingFunction.apply(config.get(path));
+        if (newValue == null) {
+            config.remove(path);
+        } else {
+            config.set(path, newValue);
+        }
+        return newValue;
+    }
+
+    static <T> T computeIfAbsent(Config config, List<String> path,
+            Function<? super List<String>, ? extends T> mappingFunction) {
+        T value = config.get(path);
+        if (value == null) {
+            value = mappingFunction.apply(path);
+            if (value != null) {
+                config.set(path, value);
+            }
+        }
+        return value;
+    }
+
+    static <T> T merge(Config config, List<String> path, T value,
+            BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        Objects.requireNonNull(value, "merge value");
+        T oldValue = config.get(path);
+        T newValue = (oldValue == null) ? value : remappingFunction.apply(oldValue, value);
+        if (newValue == null) {
+            config.remove(path);
+        } else {
+            config.set(path, newValue);
+        }
+        return newValue;
+    }
+
+    static boolean compareAndSet(Config config, List<String> path, Object expectedValue, Object newValue) {
+        if (!Objects.equals(config.get(path), expectedValue)) {
+            return false;
+        }
+        config.set(path, newValue);
+        return true;
+    }
+
+    // ----- on the map of a level -----
+
+    static <T> T compute(Map<String, Object> values, String key, Function<? super T, ? extends T> remappingFunction) {
+        T newValue = remappingFunction.apply(unwrap(values.get(key)));
+        if (newValue == null) {
+            values.remove(key);
+        } else {
+            values.put(key, newValue);
+        }
+        return newValue;
+    }
+
+    static <T> T computeIfAbsent(Map<String, Object> values, String key, List<String> path,
+            Function<? super List<String>, ? extends T> mappingFunction) {
+        T value = unwrap(values.get(key));
+        if (value == null) {
+            value = mappingFunction.apply(path);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    static <T> T merge(Map<String, Object> values, String key, T value,
+            BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        Objects.requireNonNull(value, "merge value");
+        T oldValue = unwrap(values.get(key));
+        T newValue = (oldValue == null) ? value : remappingFunction.apply(oldValue, value);
+        if (newValue == null) {
+            values.remove(key);
+        } else {
+            values.put(key, newValue);
+        }
+        return newValue;
+    }
+
+    static boolean compareAndSet(Map<String, Object> values, String key, Object expectedValue, Object newValue) {
+        if (!Objects.equals(unwrap(values.get(key)), expectedValue)) {
+            return false;
+        }
+        values.put(key, (newValue == null) ? NULL_OBJECT : newValue);
+        return true;
+    }
+}
@@ -0,0 +1,240 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import re.neotamia.nightconfig.core.ConfigFormat;
+import re.neotamia.nightconfig.core.UnmodifiableCommentedConfig;
+import re.neotamia.nightconfig.core.UnmodifiableConfig;
+
+/**
+ * A snapshot of a level of a {@link StampedConfig}, {@link SynchronizedConfig} or {@link StripedConfig}, based on the
+ * {@link SnapshotClock}.
+ * <p>
+ * The sub-configurations of the level are exposed as snapshots taken in the same epoch, created on
+ * their first access: a sub-configuration is always exposed as the same object. The other values,
+ * including the lists, are returned as is.
+ */
+abstract class LevelSnapshot implements ConfigSnapshot {
+    final SnapshotClock.Epoch epoch;
+    private final ConfigFormat<?> configFormat;
+
+    /** the snapshots of the sub-levels, by level, created on demand. Guarded by itself. */
+    private final Map<Object, LevelSnapshot> subLevels = new IdentityHashMap<>();
+
+    LevelSnapshot(SnapshotClock.Epoch epoch, ConfigFormat<?> configFormat) {
+        this.epoch = epoch;
+        this.configFormat = configFormat;
+    }
+
+    /**
+     * Applies the function to the state of the level at the beginning of the epoch. The level is locked
+     * during the call, and the function must not keep a reference to the maps of the state.
+     */
+    abstract <R> R read(Function<SnapshotClock.LevelState, R> reader);
+
+    /**
+     * Returns the last snapshot of a config if it has been taken in the given epoch, or null. Nothing has been
+     * modified since that snapshot, which can be returned again.
+     */
+    static LevelSnapshot reusable(WeakReference<LevelSnapshot> last, SnapshotClock.Epoch epoch) {
+        LevelSnapshot snapshot = (last == null) ? null : last.get();
+        return (snapshot != null && snapshot.epoch == epoch) ? snapshot : null;
+    }
+
+    /**
+     * Returns the snapshot of the value if it is a sub-configuration, or null if it isn't. A sub-configuration
+     * that doesn't use the clock of this snapshot is snapshotted on its first access.
+     */
+    final LevelSnapshot subLevel(Object value) {
+        if (!(value instanceof StampedConfig || value instanceof SynchronizedConfig || value instanceof StripedConfig)) {
+            return null;
+        }
+        LevelSnapshot sub;
+        synchronized (subLevels) {
+            sub = subLevels.get(value);
+        }
+        if (sub == null) {
+            // created outside of the lock, because it may lock the sub-configuration
+            LevelSnapshot created = snapshotOf(value);
+            synchronized (subLevels) {
+                sub = subLevels.putIfAbsent(value, created);
+            }
+            if (sub == null) {
+                sub = created;
+            }
+        }
+        return sub;
+    }
+
+    private LevelSnapshot snapshotOf(Object value) {
+        if (value instanceof StampedConfig stamped) {
+            return (stamped.clock == epoch.clock) ? stamped.snapshotAt(epoch) : (LevelSnapshot) stamped.snapshot();
+        } else if (value instanceof SynchronizedConfig sync) {
+            return (sync.clock == epoch.clock) ? sync.snapshotAt(epoch) : (LevelSnapshot) sync.snapshot();
+        } else if (value instanceof StripedConfig striped) {
+            return (striped.clock == epoch.clock) ? striped.snapshotAt(epoch) : (LevelSnapshot) striped.snapshot();
+        }
+        throw new IllegalArgumentException("Not a level: " + value);
+    }
+
+    private Object rawValue(String key) {
+        return read(state -> state.values().get(key));
+    }
+
+    private Object expose(Object value) {
+        LevelSnapshot sub = subLevel(value);
+        return (sub == null) ? value : sub;
+    }
+
+    /** Returns the snapshot of the level that contains the last key of the path, or null if there is none. */
+    private LevelSnapshot parent(List<String> path) {
+        int lastIndex = path.size() - 1;
+        if (lastIndex < 0) {
+            throw new IllegalArgumentException("empty entry path");
+        }
+        LevelSnapshot level = this;
+        for (int i = 0; i < lastIndex && level != null; i++) {
+            level = subLevel(level.rawValue(path.get(i)));
+        }
+        return level;
+    }
+
+    @Override
+    public long version() {
+        return epoch.version;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getRaw(@NotNull List<String> path) {
+        LevelSnapshot parent = parent(path);
+        if (parent == null) {
+            return null;
+        }
+        return (T) expose(parent.rawValue(path.get(path.size() - 1)));
+    }
+
+    @Override
+    public boolean contains(@NotNull List<String> path) {
+        LevelSnapshot parent = parent(path);
+        String key = path.get(path.size() - 1);
+        return parent != null && parent.read(state -> state.values().containsKey(key));
+    }
+
+    @Override
+    public String getComment(List<String> path) {
+        LevelSnapshot parent = parent(path);
+        String key = path.get(path.size() - 1);
+        return (parent == null) ? null : parent.read(state -> state.comments().get(key));
+    }
+
+    @Override
+    public boolean containsComment(List<String> path) {
+        LevelSnapshot parent = parent(path);
+        String key = path.get(path.size() - 1);
+        return parent != null && parent.read(state -> state.comments().containsKey(key));
+    }
+
+    @Override
+    public @Nullable String getHeaderComment() {
+        return read(SnapshotClock.LevelState::header);
+    }
+
+    @Override
+    public int size() {
+        return read(state -> state.values().size());
+    }
+
+    @Override
+    public ConfigFormat<?> configFormat() {
+        return configFormat;
+    }
+
+    @Override
+    public Map<String, Object> valueMap() {
+        Map<String, Object> values = read(state -> new LinkedHashMap<>(state.values()));
+        values.replaceAll((key, value) -> expose(value));
+        return Collections.unmodifiableMap(values);
+    }
+
+    @Override
+    public Map<String, String> commentMap() {
+        return Collections.unmodifiableMap(read(state -> new LinkedHashMap<>(state.comments())));
+    }
+
+    @Override
+    public Set<? extends UnmodifiableCommentedConfig.Entry> entrySet() {
+        List<Entry> entries = read(state -> {
+            List<Entry> list = new ArrayList<>(state.values().size());
+            for (Map.Entry<String, Object> entry : state.values().entrySet()) {
+                list.add(new Entry(entry.getKey(), entry.getValue(), state.comments().get(entry.getKey())));
+            }
+            return list;
+        });
+        return Collections.unmodifiableSet(new LinkedHashSet<>(entries));
+    }
+
+    private final class Entry implements UnmodifiableCommentedConfig.Entry {
+        private final String key;
+        private final Object value;
+        private final String comment;
+
+        Entry(String key, Object value, String comment) {
+            this.key = key;
+            this.value = value;
+            this.comment = comment;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getRawValue() {
+            return (T) expose(value);
+        }
+
+        @Override
+        public String getComment() {
+            return comment;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof UnmodifiableConfig other) || size() != other.size()) {
+            return false;
+        }
+        for (UnmodifiableConfig.Entry entry : entrySet()) {
+            Object otherValue = other.get(Collections.singletonList(entry.getKey()));
+            if (!Objects.equals(entry.getValue(), otherValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return valueMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigSnapshot{version=" + epoch.version + ", " + valueMap() + "}";
+    }
+}
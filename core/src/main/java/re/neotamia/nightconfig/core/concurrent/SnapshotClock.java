@@ -0,0 +1,150 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps the states needed by the snapshots of a tree of {@link StampedConfig}s, {@link SynchronizedConfig}s
+ * or {@link StripedConfig}s. Each top-level configuration has its own clock, shared with the sub-configurations
+ * it creates.
+ * <p>
+ * Taking a snapshot only starts a new {@link Epoch}. Before being modified for the first time in an epoch,
+ * a level of the tree records a shallow copy of its state in that epoch. To read a level, a snapshot
+ * looks for the first state recorded for it, starting from its own epoch and going through the newer ones.
+ * If there is none, the level hasn't changed since the snapshot has been taken.
+ * <p>
+ * An epoch is only referenced by the snapshots that use it and by the previous epoch: the clock itself
+ * only keeps a weak reference to the latest epoch. When all the snapshots are garbage-collected, the levels
+ * stop recording their states, and the recorded states are garbage-collected with them.
+ * <p>
+ * The clock also holds the {@link ChangeNotifier} of the tree, which is shared in the same way.
+ */
+final class SnapshotClock {
+    private static final WeakReference<Epoch> NO_EPOCH = new WeakReference<>(null);
+
+    /** the notifier of the subscriptions to the configs of the tree */
+    final ChangeNotifier notifier = new ChangeNotifier();
+
+    private volatile WeakReference<Epoch> latest = NO_EPOCH;
+    private long lastVersion = 0;
+
+    /** the threads that are running a bulk update on the tree, with the number of bulk updates of each thread */
+    private final Map<Thread, Integer> updates = new HashMap<>();
+
+    /**
+     * Returns the epoch of a new snapshot. The current epoch is reused if nothing has been
+     * modified since it began.
+     * <p>
+     * If other threads are running a bulk update on the tree, waits for them to finish, so that the snapshot
+     * doesn't contain only a part of their modifications.
+     */
+    synchronized Epoch acquire() {
+        boolean interrupted = false;
+        Thread current = Thread.currentThread();
+        while (!updates.isEmpty() && !updates.containsKey(current)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            current.interrupt();
+        }
+        Epoch epoch = latest.get();
+        if (epoch == null || epoch.modified) {
+            Epoch next = new Epoch(this, ++lastVersion);
+            if (epoch != null) {
+                epoch.next = next;
+            }
+            latest = new WeakReference<>(next);
+            epoch = next;
+        }
+        return epoch;
+    }
+
+    /**
+     * Marks the beginning of a bulk update, that can modify several levels of the tree. Must be called after
+     * having locked the config, and followed by {@link #endUpdate()}.
+     */
+    synchronized void beginUpdate() {
+        updates.merge(Thread.currentThread(), 1, Integer::sum);
+    }
+
+    /** Marks the end of a bulk update. */
+    synchronized void endUpdate() {
+        Thread current = Thread.currentThread();
+        int count = updates.get(current);
+        if (count == 1) {
+            updates.remove(current);
+            if (updates.isEmpty()) {
+                notifyAll();
+            }
+        } else {
+            updates.put(current, count - 1);
+        }
+    }
+
+    /**
+     * Returns the epoch in which the level must record its state before being modified,
+     * or null if it doesn't need to. Must be called with the level locked for writing.
+     */
+    Epoch epochToRecord(Tracker tracker) {
+        Epoch epoch = latest.get();
+        if (epoch == null || tracker.recordedVersion == epoch.version) {
+            return null;
+        }
+        return epoch;
+    }
+
+    /** Identifies a level of a configuration. Its fields are guarded by the level's lock. */
+    static final class Tracker {
+        private long recordedVersion = 0;
+    }
+
+    /** The state of a level. The maps are never modified. */
+    record LevelState(Map<String, Object> values, Map<String, String> comments, String header) {}
+
+    static final class Epoch {
+        final SnapshotClock clock;
+        final long version;
+        private volatile Epoch next;
+        private volatile boolean modified;
+        private final Map<Tracker, LevelState> states = new WeakHashMap<>();
+
+        private Epoch(SnapshotClock clock, long version) {
+            this.clock = clock;
+            this.version = version;
+        }
+
+        /** Records a copy of the state of a level. Must be called with the level locked for writing. */
+        void record(Tracker tracker, Map<String, Object> values, Map<String, String> comments, String header) {
+            LevelState state = new LevelState(new LinkedHashMap<>(values), new LinkedHashMap<>(comments), header);
+            synchronized (states) {
+                states.putIfAbsent(tracker, state);
+            }
+            tracker.recordedVersion = version;
+            modified = true;
+        }
+
+        /**
+         * Returns the state that the level had at the beginning of this epoch, or null if it hasn't been
+         * modified since then. Must be called with the level locked for reading.
+         */
+        LevelState find(Tracker tracker) {
+            for (Epoch epoch = this; epoch != null; epoch = epoch.next) {
+                LevelState state;
+                synchronized (epoch.states) {
+                    state = epoch.states.get(tracker);
+                }
+                if (state != null) {
+                    return state;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -2,9 +2,12 @@ package re.neotamia.nightconfig.core.concurrent;
 
 import static re.neotamia.nightconfig.core.NullObject.NULL_OBJECT;
 
+import java.io.Serial;
+import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -21,6 +24,7 @@ import re.neotamia.nightconfig.core.InMemoryCommentedFormat;
 import re.neotamia.nightconfig.core.IncompatibleIntermediaryLevelException;
 import re.neotamia.nightconfig.core.UnmodifiableCommentedConfig;
 import re.neotamia.nightconfig.core.UnmodifiableConfig;
+import re.neotamia.nightconfig.core.utils.PrimitiveValueMap;
 import re.neotamia.nightconfig.core.utils.TransformingSet;
 
 /**
@@ -37,10 +41,23 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
     private Map<String, String> comments;
     private String headerComment = null;
 
-    private final StampedLock lock = new StampedLock();
+    /** the lock of this level, or the lock of the whole tree in single-lock mode (see {@link TreeLock}) */
+    private final StampedLock lock;
 
-    /** current state for reasonable deadlock prevention */
-    private final ThreadLocal<ThreadConfigState> state = ThreadLocal.withInitial(() -> ThreadConfigState.NORMAL);
+    /** the clock of the snapshots, shared by the levels created by this config */
+    final SnapshotClock clock;
+
+    /** the last snapshot of this config, returned again if nothing has been modified since it was taken */
+    private volatile WeakReference<LevelSnapshot> lastSnapshot;
+
+    /** identifies this level in the {@link SnapshotClock}, guarded by the lock */
+    private final SnapshotClock.Tracker tracker = new SnapshotClock.Tracker();
+
+    /**
+     * The operations in progress on each thread, for reasonable deadlock prevention.
+     * Shared by all the StampedConfigs, so that the sub-configs don't need a ThreadLocal of their own.
+     */
+    private static final ThreadLocal<ThreadOperations> operations = ThreadLocal.withInitial(ThreadOperations::new);
 
     // BEWARE: StampedLock does not support reentrant locking
 
@@ -49,19 +66,50 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
         this(InMemoryCommentedFormat.defaultInstance(), Config.getDefaultMapCreator(false));
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public StampedConfig(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier) {
-        this.configFormat = configFormat;
-        this.mapSupplier = mapSupplier;
-        this.values = mapSupplier.get();
-        this.comments = (Map) mapSupplier.get();
+        this(configFormat, mapSupplier, false);
     }
 
-    StampedConfig(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier, Map<String, Object> values, Map<String, String> comments) {
+    /**
+     * Creates a new StampedConfig.
+     * <p>
+     * By default, each level of the configuration has its own lock, and an operation on a dotted path
+     * locks each level of the path, one after the other. In single-lock mode, all the levels created by
+     * this configuration (sub-configs created by {@link #createSubConfig()} or implied by {@link #set(List, Object)},
+     * accumulators...) share the same lock: an operation on a dotted path acquires it only once, at the cost of
+     * less parallelism between the writes to different levels.
+     * <p>
+     * In single-lock mode, the sub-configurations cannot be modified while the tree is locked for reading by the
+     * same thread, for example in {@link #bulkRead(Function)}.
+     *
+     * @param configFormat the format of the configuration
+     * @param mapSupplier  the supplier of the maps of each level
+     * @param singleLock   true to use one lock for the whole tree, false to use one lock per level
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public StampedConfig(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier, boolean singleLock) {
+        this(configFormat, mapSupplier, mapSupplier.get(), (Map) mapSupplier.get(),
+                singleLock ? new TreeLock() : new StampedLock(), new SnapshotClock());
+    }
+
+    StampedConfig(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier, Map<String, Object> values,
+            Map<String, String> comments, StampedLock lock, SnapshotClock clock) {
         this.configFormat = configFormat;
         this.mapSupplier = mapSupplier;
         this.values = values;
         this.comments = comments;
+        this.lock = lock;
+        this.clock = clock;
+    }
+
+    /** Returns true if all the levels of this configuration share the same lock. */
+    public boolean isSingleLock() {
+        return lock instanceof TreeLock;
+    }
+
+    /** Returns the lock of a new level: the lock of the tree in single-lock mode, a new lock otherwise. */
+    private StampedLock newLevelLock() {
+        return (lock instanceof TreeLock) ? lock : new StampedLock();
     }
 
     // ----- specific -----
@@ -75,6 +123,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
         checkStateForNormalOp();
         long stamp = lock.writeLock();
         try {
+            recordSnapshotState();
             long otherVS = newContent.lock.writeLock();
             try {
                 this.values = newContent.values;
@@ -99,6 +148,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
         checkStateForNormalOp();
         long stamp = lock.writeLock();
         try {
+            recordSnapshotState();
             newContent.prepareReplacement();
             this.values = newContent.values();
             this.comments = newContent.comments();
@@ -113,7 +163,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
      * See {@link Accumulator} for more information.
      */
     public Accumulator newAccumulator() {
-        return new Accumulator(configFormat, mapSupplier);
+        return new Accumulator(configFormat, mapSupplier, treeLock(), clock);
     }
 
     /**
@@ -125,6 +175,62 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
         return (Accumulator) copyValueInAccumulator(this);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Taking a snapshot doesn't lock the config, but waits for the bulk updates in progress on the levels
+     * created by this config. Each of these levels copies its values and comments the first time it's
+     * modified after the snapshot, which makes the cost of the snapshot proportional to the size of the
+     * levels that actually change. The sub-configurations created by another config are snapshotted
+     * when the snapshot reads them for the first time.
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        SnapshotClock.Epoch epoch = clock.acquire();
+        LevelSnapshot snapshot = LevelSnapshot.reusable(lastSnapshot, epoch);
+        if (snapshot == null) {
+            snapshot = snapshotAt(epoch);
+            lastSnapshot = new WeakReference<>(snapshot);
+        }
+        return snapshot;
+    }
+
+    /** Returns a view of this level at the beginning of the given epoch. */
+    LevelSnapshot snapshotAt(SnapshotClock.Epoch epoch) {
+        return new LevelSnapshot(epoch, configFormat) {
+            @Override
+            <R> R read(Function<SnapshotClock.LevelState, R> reader) {
+                long stamp = lock.tryReadLock();
+                if (stamp == 0) {
+                    checkStateForNormalOp();
+                    stamp = lock.readLock();
+                }
+                try {
+                    SnapshotClock.LevelState recorded = epoch.find(tracker);
+                    if (recorded == null) {
+                        recorded = new SnapshotClock.LevelState(values, comments, headerComment);
+                    }
+                    return reader.apply(recorded);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+        };
+    }
+
+    /**
+     * Records the state of this level for the snapshots, before its modification, and reports the
+     * modification to the {@link ChangeNotifier}. The write lock must be held.
+     */
+    private void recordSnapshotState() {
+        SnapshotClock.Epoch epoch = clock.epochToRecord(tracker);
+        if (epoch != null) {
+            epoch.record(tracker, values, comments, headerComment);
+        }
+        // after the record, so that the snapshots taken by the notifier don't miss this modification
+        clock.notifier.modified();
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private Object copyValueInAccumulator(Object v) {
         if (v instanceof StampedConfig stamped) {
@@ -139,7 +245,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
 
                 Map<String, String> commentsCopy = (Map) mapSupplier.get();
                 commentsCopy.putAll(stamped.comments);
-                return new Accumulator(valuesCopy, commentsCopy, mapSupplier, configFormat);
+                return new Accumulator(valuesCopy, commentsCopy, mapSupplier, configFormat, treeLock(), clock);
             } finally {
                 stamped.lock.unlockRead(stamp);
             }
@@ -179,16 +285,32 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
         // When the Accumulator is done, the mirror is used to get the right structure
         // (all subconfigs of a StampedConfig must be StampedConfig too).
         private final StampedConfig mirror;
+        private final TreeLock treeLock; // null if the StampedConfig doesn't use a single lock
+        private final SnapshotClock clock;
         private boolean valid = true;
 
-        Accumulator(Map<String, Object> values, Map<String, String> comments, Supplier<Map<String, Object>> mapSupplier, ConfigFormat<?> configFormat) {
+        Accumulator(Map<String, Object> values, Map<String, String> comments, Supplier<Map<String, Object>> mapSupplier,
+                ConfigFormat<?> configFormat, TreeLock treeLock, SnapshotClock clock) {
             super(values, comments);
-            this.mirror = new StampedConfig(configFormat, mapSupplier, values, comments);
+            this.treeLock = treeLock;
+            this.clock = clock;
+            this.mirror = new StampedConfig(configFormat, mapSupplier, values, comments, mirrorLock(treeLock), clock);
         }
 
         Accumulator(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier) {
+            this(configFormat, mapSupplier, null, new SnapshotClock());
+        }
+
+        Accumulator(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier, TreeLock treeLock,
+                SnapshotClock clock) {
             super(mapSupplier);
-            this.mirror = new StampedConfig(configFormat, mapSupplier, map, commentMap);
+            this.treeLock = treeLock;
+            this.clock = clock;
+            this.mirror = new StampedConfig(configFormat, mapSupplier, map, commentMap, mirrorLock(treeLock), clock);
+        }
+
+        private static StampedLock mirrorLock(TreeLock treeLock) {
+            return (treeLock == null) ? new StampedLock() : treeLock;
         }
 
         // public static Accumulator inMemoryUniversal() {
@@ -243,7 +365,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
 
         @Override
         public AbstractCommentedConfig clone() {
-            Accumulator copy = new Accumulator(configFormat(), mapCreator);
+            Accumulator copy = new Accumulator(configFormat(), mapCreator, treeLock, clock);
             copy.map.putAll(this.map);
             copy.commentMap.putAll(this.commentMap);
             return copy;
@@ -251,7 +373,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
 
         @Override
         public CommentedConfig createSubConfig() {
-            return new Accumulator(configFormat(), mapCreator);
+            return new Accumulator(configFormat(), mapCreator, treeLock, clock);
         }
 
         @Override
@@ -275,7 +397,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                 lock.unlockRead(stamp);
             }
         } else {
-            assert state.get() == ThreadConfigState.NORMAL : "invalid state " + state.get()
+            assert state() == ThreadConfigState.NORMAL : "invalid state " + state()
                     + " are you using bulk operations / iterators properly?";
         }
         return value;
@@ -295,54 +417,60 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                 lock.unlockRead(stamp);
             }
         }
-        assert state.get() == ThreadConfigState.NORMAL : "invalid state " + state.get()
+        assert state() == ThreadConfigState.NORMAL : "invalid state " + state()
                 + " are you using bulk operations / iterators properly?";
 
         return contains;
     }
 
-    private <V> V mapLockRemove(Map<String, V> map, StampedLock lock, String key) {
+    private <V> V mapLockRemove(Map<String, V> map, StampedConfig level, String key) {
+        StampedLock lock = level.lock;
         long stamp = lock.tryWriteLock();
         if (stamp == 0) {
             checkStateForNormalOp();
             stamp = lock.writeLock();
         }
-        assert state.get() == ThreadConfigState.NORMAL : "invalid state " + state.get()
+        assert state() == ThreadConfigState.NORMAL : "invalid state " + state()
                 + " are you using bulk operations / iterators properly?";
 
         try {
+            level.recordSnapshotState();
             return map.remove(key);
         } finally {
             lock.unlockWrite(stamp);
         }
     }
 
-    private <V> V mapLockPut(Map<String, V> map, StampedLock lock, String key, V value) {
+    private <V> V mapLockPut(Map<String, V> map, StampedConfig level, String key, V value) {
+        StampedLock lock = level.lock;
         long stamp = lock.tryWriteLock();
         if (stamp == 0) {
             checkStateForNormalOp();
             stamp = lock.writeLock();
         }
-        assert state.get() == ThreadConfigState.NORMAL : "invalid state " + state.get()
+        assert state() == ThreadConfigState.NORMAL : "invalid state " + state()
                 + " are you using bulk operations / iterators properly?";
 
         try {
+            level.recordSnapshotState();
             return map.put(key, value);
         } finally {
             lock.unlockWrite(stamp);
         }
     }
 
-    private <V> V mapLockPutIfAbsent(Map<String, V> map, StampedLock lock, String key, V value) {
+    private <V> V mapLockPutIfAbsent(Map<String, V> map, StampedConfig level, String key, V value) {
+        StampedLock lock = level.lock;
         long stamp = lock.tryWriteLock();
         if (stamp == 0) {
             checkStateForNormalOp();
             stamp = lock.writeLock();
         }
-        assert state.get() == ThreadConfigState.NORMAL : "invalid state " + state.get()
+        assert state() == ThreadConfigState.NORMAL : "invalid state " + state()
                 + " are you using bulk operations / iterators properly?";
 
         try {
+            level.recordSnapshotState();
             return map.putIfAbsent(key, value);
         } finally {
             lock.unlockWrite(stamp);
@@ -350,10 +478,11 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
     }
 
     /** Finds an existing subconfig with the given path (for example "a.subconfig"). */
-    private StampedConfig getExistingConfig(List<String> configPath, boolean failIfIncompatibleLevel) {
-        // optimization: no recursion here
+    private StampedConfig getExistingConfig(List<String> path, int length, boolean failIfIncompatibleLevel) {
+        // optimization: no recursion and no subList here
         StampedConfig current = this;
-        for (String key : configPath) {
+        for (int i = 0; i < length; i++) {
+            String key = path.get(i);
             Object level = mapLockGet(current.values, current.lock, key);
             if (level == null) {
                 // missing intermediary level: stop
@@ -364,7 +493,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                 // impossible to go further: what should have been a subconfig is another type of value
                 if (failIfIncompatibleLevel) {
                     throw new IncompatibleIntermediaryLevelException(
-                            "Cannot get entry with parent path " + configPath
+                            "Cannot get entry with parent path " + path.subList(0, length)
                                     + " because of an incompatible intermediary value of type: "
                                     + level.getClass());
                 } else {
@@ -376,13 +505,14 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
     }
 
     /** Finds a subconfig with the given path (for example "a.subconfig"), creates it if it does not exist yet. */
-    private StampedConfig getOrCreateConfig(List<String> configPath) {
-        assert state.get() == ThreadConfigState.NORMAL : "invalid state " + state.get()
+    private StampedConfig getOrCreateConfig(List<String> path, int length) {
+        assert state() == ThreadConfigState.NORMAL : "invalid state " + state()
                 + " are you using bulk operations / iterators properly?";
 
-        // optimization: no recursion here
+        // optimization: no recursion and no subList here
         StampedConfig current = this;
-        for (String key : configPath) {
+        for (int i = 0; i < length; i++) {
+            String key = path.get(i);
             StampedLock lock = current.lock;
             Map<String, Object> values = current.values;
             // try optimistic read once
@@ -408,6 +538,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                         stamp = lock.writeLock();
                     }
                     isLock = true; // lock acquired, we need to release it later
+                    current.recordSnapshotState();
                     current = createSubConfig();
                     values.put(key, current);
                 } else if (level instanceof StampedConfig) {
@@ -416,7 +547,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                     // Impossible to go further: what should have been a subconfig is another type of value.
                     throw new IncompatibleIntermediaryLevelException(
                             "Cannot get/create entry with parent path "
-                                    + configPath
+                                    + path.subList(0, length)
                                     + " because of an incompatible intermediary value of type: "
                                     + level.getClass());
                 }
@@ -429,6 +560,366 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
         return current;
     }
 
+    // ----- single-lock mode -----
+    // With a TreeLock, an operation on a dotted path locks the tree once, instead of locking each level.
+    // The walk stops at the levels that have their own lock (StampedConfigs inserted with set()) and
+    // delegates the rest of the operation to them.
+
+    /**
+     * Reads the entry at the given path, in single-lock mode.
+     *
+     * @param path    the path, of size 2 or more
+     * @param reader  reads the key in the level that contains it
+     * @param foreign reads the rest of the path in a level that doesn't share the lock
+     */
+    private <R> R treeRead(List<String> path, BiFunction<StampedConfig, String, R> reader,
+            BiFunction<StampedConfig, List<String>, R> foreign, R missing) {
+        long stamp = lock.tryOptimisticRead();
+        try {
+            R result = unsafeTreeRead(path, reader, foreign, missing);
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        } catch (RuntimeException ex) {
+            if (lock.validate(stamp)) {
+                throw ex;
+            } // else: the optimistic read raced with a write, try again with a full lock
+        }
+        checkStateForNormalOp();
+        stamp = lock.readLock();
+        try {
+            return unsafeTreeRead(path, reader, foreign, missing);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <R> R unsafeTreeRead(List<String> path, BiFunction<StampedConfig, String, R> reader,
+            BiFunction<StampedConfig, List<String>, R> foreign, R missing) {
+        int lastIndex = path.size() - 1;
+        StampedConfig current = this;
+        for (int i = 0; i < lastIndex; i++) {
+            Object level = current.values.get(path.get(i));
+            if (!(level instanceof StampedConfig sub)) {
+                return missing;
+            }
+            if (sub.lock != lock) {
+                return foreign.apply(sub, path.subList(i + 1, path.size()));
+            }
+            current = sub;
+        }
+        return reader.apply(current, path.get(lastIndex));
+    }
+
+    /**
+     * Modifies the entry at the given path, in single-lock mode.
+     *
+     * @param path    the path, of size 2 or more
+     * @param create  true to create the missing levels, false to return null if a level is missing
+     * @param writer  modifies the key in the level that contains it
+     * @param foreign modifies the rest of the path in a level that doesn't share the lock
+     */
+    private <R> R treeWrite(List<String> path, boolean create, BiFunction<StampedConfig, String, R> writer,
+            BiFunction<StampedConfig, List<String>, R> foreign) {
+        long stamp = lock.tryWriteLock();
+        if (stamp == 0) {
+            checkStateForNormalOp();
+            stamp = lock.writeLock();
+        }
+        try {
+            int lastIndex = path.size() - 1;
+            StampedConfig current = this;
+            for (int i = 0; i < lastIndex; i++) {
+                String key = path.get(i);
+                Object level = current.values.get(key);
+                if (level == null && create) {
+                    return writeInNewLevels(current, path, i, writer);
+                }
+                if (!(level instanceof StampedConfig sub)) {
+                    if (level == null || !create) {
+                        return null;
+                    }
+                    throw new IncompatibleIntermediaryLevelException(
+                            "Cannot get/create entry with parent path "
+                                    + path.subList(0, lastIndex)
+                                    + " because of an incompatible intermediary value of type: "
+                                    + level.getClass());
+                }
+                if (sub.lock != lock) {
+                    return foreign.apply(sub, path.subList(i + 1, path.size()));
+                }
+                current = sub;
+            }
+            current.recordSnapshotState();
+            return writer.apply(current, path.get(lastIndex));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // ----- atomic operations -----
+    // Only the level that contains the entry is locked, or the whole tree in single-lock mode.
+
+    /** Applies the writer to the level that contains the last key of the path, locked for writing. */
+    private <R> R writeEntry(List<String> path, BiFunction<StampedConfig, String, R> writer,
+            BiFunction<StampedConfig, List<String>, R> foreign) {
+        switch (path.size()) {
+            case 0:
+                throw new IllegalArgumentException("empty entry path");
+            case 1:
+                return lockedWrite(this, path.getFirst(), writer);
+            default: {
+                if (lock instanceof TreeLock) {
+                    return treeWrite(path, true, writer, foreign);
+                }
+                return createAndWrite(path, writer);
+            }
+        }
+    }
+
+    /**
+     * Applies the writer to the level that contains the last key of the path, locked for writing. If some
+     * levels of the path are missing, they are only created if the writer stores something.
+     */
+    private <R> R createAndWrite(List<String> path, BiFunction<StampedConfig, String, R> writer) {
+        int lastIndex = path.size() - 1;
+        while (true) {
+            // find the last existing level
+            StampedConfig current = this;
+            int i = 0;
+            for (; i < lastIndex; i++) {
+                Object level = mapLockGet(current.values, current.lock, path.get(i));
+                if (level instanceof StampedConfig sub) {
+                    current = sub;
+                } else if (level == null) {
+                    break;
+                } else {
+                    throw new IncompatibleIntermediaryLevelException(
+                            "Cannot get/create entry with parent path " + path.subList(0, lastIndex)
+                                    + " because of an incompatible intermediary value of type: " + level.getClass());
+                }
+            }
+            if (i == lastIndex) {
+                return lockedWrite(current, path.get(lastIndex), writer);
+            }
+            StampedLock lock = current.lock;
+            long stamp = lock.tryWriteLock();
+            if (stamp == 0) {
+                checkStateForNormalOp();
+                stamp = lock.writeLock();
+            }
+            try {
+                if (current.values.get(path.get(i)) == null) {
+                    return writeInNewLevels(current, path, i, writer);
+                } // else: the level has been created in the meantime, walk the path again
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Applies the writer to new levels, created for the keys of the path that follow the existing level
+     * {@code parent}. The new levels are inserted in {@code parent} only if the writer stores something in
+     * them. The parent must be locked for writing.
+     *
+     * @param from the index of the first missing key
+     */
+    private <R> R writeInNewLevels(StampedConfig parent, List<String> path, int from,
+            BiFunction<StampedConfig, String, R> writer) {
+        int lastIndex = path.size() - 1;
+        StampedConfig top = createSubConfig();
+        StampedConfig leaf = top;
+        for (int i = from + 1; i < lastIndex; i++) {
+            StampedConfig sub = createSubConfig();
+            leaf.values.put(path.get(i), sub);
+            leaf = sub;
+        }
+        // the new levels aren't visible yet: no need to lock them
+        R result = writer.apply(leaf, path.get(lastIndex));
+        if (!leaf.values.isEmpty() || !leaf.comments.isEmpty()) {
+            parent.recordSnapshotState();
+            parent.values.put(path.get(from), top);
+        }
+        return result;
+    }
+
+    private <R> R lockedWrite(StampedConfig level, String key, BiFunction<StampedConfig, String, R> writer) {
+        StampedLock lock = level.lock;
+        long stamp = lock.tryWriteLock();
+        if (stamp == 0) {
+            checkStateForNormalOp();
+            stamp = lock.writeLock();
+        }
+        assert state() == ThreadConfigState.NORMAL : "invalid state " + state()
+                + " are you using bulk operations / iterators properly?";
+
+        try {
+            level.recordSnapshotState();
+            return writer.apply(level, key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public <T> T compute(List<String> path, Function<? super T, ? extends T> remappingFunction) {
+        return writeEntry(path, (level, key) -> EntryOperations.compute(level.values, key, remappingFunction),
+                (level, rest) -> level.compute(rest, remappingFunction));
+    }
+
+    @Override
+    public <T> T computeIfAbsent(List<String> path, Function<? super List<String>, ? extends T> mappingFunction) {
+        return writeEntry(path,
+                (level, key) -> EntryOperations.computeIfAbsent(level.values, key, path, mappingFunction),
+                // the function receives the requested path, not the path in the foreign level
+                (level, rest) -> level.computeIfAbsent(rest, p -> mappingFunction.apply(path)));
+    }
+
+    @Override
+    public <T> T merge(List<String> path, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        return writeEntry(path, (level, key) -> EntryOperations.merge(level.values, key, value, remappingFunction),
+                (level, rest) -> level.merge(rest, value, remappingFunction));
+    }
+
+    @Override
+    public boolean compareAndSet(List<String> path, Object expectedValue, Object newValue) {
+        return writeEntry(path,
+                (level, key) -> EntryOperations.compareAndSet(level.values, key, expectedValue, newValue),
+                (level, rest) -> level.compareAndSet(rest, expectedValue, newValue));
+    }
+
+    @Override
+    public <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener,
+            Consumer<? super Exception> exceptionHandler) {
+        return clock.notifier.subscribe(this, path, listener, exceptionHandler);
+    }
+
+    // ----- batched reads -----
+    // All the paths are read optimistically, then the lock of each visited level is validated.
+    // Every level is unchanged from its first read to its validation, therefore the values are
+    // those that the tree contained just before the first validation: the result is consistent.
+    // If the validation fails, the paths are read again with each visited level locked for reading
+    // until the end: the values are those that the tree contained when the last lock was acquired.
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The paths are resolved in a single optimistic read. If it fails because of a concurrent
+     * modification, the paths are read again with the visited levels locked for reading, each of them once.
+     */
+    @Override
+    public Object[] getAll(Collection<? extends List<String>> paths) {
+        Object[] results = new Object[paths.size()];
+        ReadStamps reads = new ReadStamps(false);
+        try {
+            if (readAll(paths, results, reads) && reads.validate()) {
+                assert state() == ThreadConfigState.NORMAL : "invalid state " + state()
+                        + " are you using bulk operations / iterators properly?";
+                return results;
+            }
+        } catch (RuntimeException ex) {
+            if (reads.validate()) {
+                throw ex;
+            } // else: the optimistic read raced with a write, try again with the locks
+        }
+        checkStateForNormalOp();
+        ReadStamps locks = new ReadStamps(true);
+        try {
+            readAll(paths, results, locks);
+            return results;
+        } finally {
+            locks.unlock();
+        }
+    }
+
+    /**
+     * Reads the paths, beginning a read of each visited level with {@code reads}. Returns false if an
+     * optimistic read fails because a level is locked for writing.
+     */
+    private boolean readAll(Collection<? extends List<String>> paths, Object[] results, ReadStamps reads) {
+        int i = 0;
+        for (List<String> path : paths) {
+            int lastIndex = path.size() - 1;
+            if (lastIndex < 0) {
+                throw new IllegalArgumentException("empty entry path");
+            }
+            StampedConfig current = this;
+            Object value = null;
+            for (int depth = 0; depth <= lastIndex; depth++) {
+                if (!reads.begin(current.lock)) {
+                    return false;
+                }
+                Object level = current.values.get(path.get(depth));
+                if (depth == lastIndex) {
+                    value = level;
+                } else if (level instanceof StampedConfig sub) {
+                    current = sub;
+                } else {
+                    break; // missing or incompatible intermediary level
+                }
+            }
+            results[i++] = (value == NULL_OBJECT) ? null : value;
+        }
+        return true;
+    }
+
+    /**
+     * The stamps of the distinct locks visited by a batched read: optimistic stamps, or read locks held
+     * until {@link #unlock()}. Each lock is acquired once, because a second read lock could wait for a
+     * writer that waits for the first one.
+     */
+    private static final class ReadStamps {
+        private final boolean locking;
+        private StampedLock[] locks = new StampedLock[4];
+        private long[] stamps = new long[4];
+        private int size;
+
+        ReadStamps(boolean locking) {
+            this.locking = locking;
+        }
+
+        /**
+         * Starts a read of the lock, if not already done. Returns false if the read is optimistic and the
+         * lock is write-locked.
+         */
+        boolean begin(StampedLock lock) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (locks[i] == lock) {
+                    return true;
+                }
+            }
+            long stamp = locking ? lock.readLock() : lock.tryOptimisticRead();
+            if (stamp == 0) {
+                return false;
+            }
+            if (size == locks.length) {
+                locks = Arrays.copyOf(locks, size * 2);
+                stamps = Arrays.copyOf(stamps, size * 2);
+            }
+            locks[size] = lock;
+            stamps[size++] = stamp;
+            return true;
+        }
+
+        boolean validate() {
+            for (int i = 0; i < size; i++) {
+                if (!locks[i].validate(stamps[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Releases the read locks. */
+        void unlock() {
+            for (int i = 0; i < size; i++) {
+                locks[i].unlockRead(stamps[i]);
+            }
+            size = 0;
+        }
+    }
+
     // ----- Config -----
 
     @Override
@@ -449,8 +940,14 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
     }
 
     @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     public StampedConfig createSubConfig() {
-        return new StampedConfig(configFormat, mapSupplier);
+        return new StampedConfig(configFormat, mapSupplier, mapSupplier.get(), (Map) mapSupplier.get(), newLevelLock(),
+                clock);
+    }
+
+    private TreeLock treeLock() {
+        return (lock instanceof TreeLock tree) ? tree : null;
     }
 
     @Override
@@ -471,6 +968,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             stamp = lock.writeLock();
         }
         try {
+            recordSnapshotState();
             values.clear();
         } finally {
             lock.unlockWrite(stamp);
@@ -486,9 +984,11 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             case 1:
                 return (T) mapLockGet(values, lock, path.getFirst());
             default:
+                if (lock instanceof TreeLock) {
+                    return (T) treeRead(path, (level, key) -> level.values.get(key), StampedConfig::getRaw, null);
+                }
                 int lastIndex = path.size() - 1;
-                List<String> parentPath = path.subList(0, lastIndex);
-                StampedConfig parent = getExistingConfig(parentPath, false);
+                StampedConfig parent = getExistingConfig(path, lastIndex, false);
                 if (parent == null) {
                     return null;
                 }
@@ -504,9 +1004,11 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             case 1:
                 return mapLockContains(values, lock, path.getFirst());
             default: {
+                if (lock instanceof TreeLock) {
+                    return treeRead(path, (level, key) -> level.values.containsKey(key), StampedConfig::contains, false);
+                }
                 int lastIndex = path.size() - 1;
-                List<String> parentPath = path.subList(0, lastIndex);
-                StampedConfig parent = getExistingConfig(parentPath, false);
+                StampedConfig parent = getExistingConfig(path, lastIndex, false);
                 return parent != null && mapLockContains(parent.values, parent.lock, path.get(lastIndex));
             }
         }
@@ -519,12 +1021,15 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             case 0:
                 throw new IllegalArgumentException("empty entry path");
             case 1:
-                return mapLockPutIfAbsent(values, lock, path.getFirst(), nnValue) == null;
+                return mapLockPutIfAbsent(values, this, path.getFirst(), nnValue) == null;
             default: {
+                if (lock instanceof TreeLock) {
+                    return treeWrite(path, true, (level, key) -> level.values.putIfAbsent(key, nnValue) == null,
+                            (level, rest) -> level.add(rest, value));
+                }
                 int lastIndex = path.size() - 1;
-                List<String> parentPath = path.subList(0, lastIndex);
-                StampedConfig parent = getOrCreateConfig(parentPath);
-                Object prev = mapLockPutIfAbsent(parent.values, parent.lock, path.get(lastIndex), nnValue);
+                StampedConfig parent = getOrCreateConfig(path, lastIndex);
+                Object prev = mapLockPutIfAbsent(parent.values, parent, path.get(lastIndex), nnValue);
                 return prev == null;
             }
         }
@@ -537,15 +1042,17 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             case 0:
                 throw new IllegalArgumentException("empty entry path");
             case 1:
-                return (T) mapLockRemove(values, lock, path.getFirst());
+                return (T) mapLockRemove(values, this, path.getFirst());
             default: {
+                if (lock instanceof TreeLock) {
+                    return (T) treeWrite(path, false, (level, key) -> level.values.remove(key), StampedConfig::remove);
+                }
                 int lastIndex = path.size() - 1;
-                List<String> parentPath = path.subList(0, lastIndex);
-                StampedConfig parent = getExistingConfig(parentPath, false);
+                StampedConfig parent = getExistingConfig(path, lastIndex, false);
                 if (parent == null) {
                     return null;
                 }
-                return (T) mapLockRemove(parent.values, parent.lock, path.get(lastIndex));
+                return (T) mapLockRemove(parent.values, parent, path.get(lastIndex));
             }
         }
     }
@@ -558,17 +1065,187 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             case 0:
                 throw new IllegalArgumentException("empty entry path");
             case 1:
-                return (T) mapLockPut(values, lock, path.getFirst(), nnValue);
+                return (T) mapLockPut(values, this, path.getFirst(), nnValue);
             default: {
+                if (lock instanceof TreeLock) {
+                    return (T) treeWrite(path, true, (level, key) -> level.values.put(key, nnValue),
+                            (level, rest) -> level.set(rest, value));
+                }
                 int lastIndex = path.size() - 1;
-                List<String> parentPath = path.subList(0, lastIndex);
-                StampedConfig parent = getOrCreateConfig(parentPath);
-                return (T) mapLockPut(parent.values, parent.lock, path.get(lastIndex),
+                StampedConfig parent = getOrCreateConfig(path, lastIndex);
+                return (T) mapLockPut(parent.values, parent, path.get(lastIndex),
                         nnValue);
             }
         }
     }
 
+    // ----- Primitive getters -----
+    // When the config is backed by PrimitiveValueMaps, these methods read the numbers without boxing them.
+
+    /**
+     * Reads a primitive value, encoded in a long to avoid boxing it.
+     */
+    @FunctionalInterface
+    private interface PrimitiveReader {
+        long read(Map<String, Object> values, String key, long defaultValue);
+    }
+
+    /**
+     * Reads a primitive value at the given path, with an optimistic read of the lock of the level
+     * that contains it, or of the tree in single-lock mode.
+     *
+     * @param hasDefault   true to return the default value if the entry is missing, false to throw an exception
+     * @param defaultValue the default value, encoded like the result of the reader
+     */
+    private long readPrimitive(List<String> path, PrimitiveReader reader, boolean hasDefault, long defaultValue) {
+        int lastIndex = path.size() - 1;
+        if (lastIndex < 0) {
+            throw new IllegalArgumentException("empty entry path");
+        }
+        StampedConfig start = this;
+        int depth = 0;
+        if (lastIndex > 0 && !(lock instanceof TreeLock)) {
+            // one lock per level: find the parent, then read in its lock only
+            start = getExistingConfig(path, lastIndex, false);
+            depth = lastIndex;
+            if (start == null) {
+                return missingPrimitive(path, hasDefault, defaultValue);
+            }
+        }
+        StampedLock lock = start.lock;
+        long stamp = lock.tryOptimisticRead();
+        try {
+            long value = start.unsafeReadPrimitive(path, depth, reader, hasDefault, defaultValue);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        } catch (RuntimeException ex) {
+            if (lock.validate(stamp)) {
+                throw ex;
+            } // else: the optimistic read raced with a write, try again with a full lock
+        }
+        checkStateForNormalOp();
+        stamp = lock.readLock();
+        try {
+            return start.unsafeReadPrimitive(path, depth, reader, hasDefault, defaultValue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Walks the levels that share the lock of this level, from {@code path[depth]}, and reads the last key. */
+    private long unsafeReadPrimitive(List<String> path, int depth, PrimitiveReader reader, boolean hasDefault,
+            long defaultValue) {
+        int lastIndex = path.size() - 1;
+        StampedConfig current = this;
+        for (int i = depth; i < lastIndex; i++) {
+            Object level = current.values.get(path.get(i));
+            if (!(level instanceof StampedConfig sub)) {
+                return missingPrimitive(path, hasDefault, defaultValue);
+            }
+            if (sub.lock != lock) {
+                return sub.readPrimitive(path.subList(i + 1, path.size()), reader, hasDefault, defaultValue);
+            }
+            current = sub;
+        }
+        return reader.read(current.values, path.get(lastIndex), defaultValue);
+    }
+
+    private static long missingPrimitive(List<String> path, boolean hasDefault, long defaultValue) {
+        if (hasDefault) {
+            return defaultValue;
+        }
+        throw new NullPointerException("No value at path " + path);
+    }
+
+    @Override
+    public int getInt(@NotNull List<String> path) {
+        return (int) readPrimitive(path, (values, key, d) -> readInt(values, key), false, 0);
+    }
+
+    @Override
+    public int getIntOrElse(@NotNull List<String> path, int defaultValue) {
+        return (int) readPrimitive(path, (values, key, d) -> readIntOrElse(values, key, (int) d), true, defaultValue);
+    }
+
+    @Override
+    public long getLong(@NotNull List<String> path) {
+        return readPrimitive(path, (values, key, d) -> readLong(values, key), false, 0);
+    }
+
+    @Override
+    public long getLongOrElse(@NotNull List<String> path, long defaultValue) {
+        return readPrimitive(path, StampedConfig::readLongOrElse, true, defaultValue);
+    }
+
+    @Override
+    public double getDouble(@NotNull List<String> path) {
+        long bits = readPrimitive(path, (values, key, d) -> Double.doubleToRawLongBits(readDouble(values, key)),
+                false, 0);
+        return Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    public double getDoubleOrElse(@NotNull List<String> path, double defaultValue) {
+        long bits = readPrimitive(path,
+                (values, key, d) -> Double.doubleToRawLongBits(readDoubleOrElse(values, key, Double.longBitsToDouble(d))),
+                true, Double.doubleToRawLongBits(defaultValue));
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static int readInt(Map<String, Object> values, String key) {
+        if (values instanceof PrimitiveValueMap primitives) {
+            return primitives.getInt(key);
+        }
+        return requireNumber(values.get(key), key).intValue();
+    }
+
+    private static int readIntOrElse(Map<String, Object> values, String key, int defaultValue) {
+        if (values instanceof PrimitiveValueMap primitives) {
+            return primitives.getIntOrElse(key, defaultValue);
+        }
+        Object value = values.get(key);
+        return (value == null || value == NULL_OBJECT) ? defaultValue : ((Number) value).intValue();
+    }
+
+    private static long readLong(Map<String, Object> values, String key) {
+        if (values instanceof PrimitiveValueMap primitives) {
+            return primitives.getLong(key);
+        }
+        return requireNumber(values.get(key), key).longValue();
+    }
+
+    private static long readLongOrElse(Map<String, Object> values, String key, long defaultValue) {
+        if (values instanceof PrimitiveValueMap primitives) {
+            return primitives.getLongOrElse(key, defaultValue);
+        }
+        Object value = values.get(key);
+        return (value == null || value == NULL_OBJECT) ? defaultValue : ((Number) value).longValue();
+    }
+
+    private static double readDouble(Map<String, Object> values, String key) {
+        if (values instanceof PrimitiveValueMap primitives) {
+            return primitives.getDouble(key);
+        }
+        return requireNumber(values.get(key), key).doubleValue();
+    }
+
+    private static double readDoubleOrElse(Map<String, Object> values, String key, double defaultValue) {
+        if (values instanceof PrimitiveValueMap primitives) {
+            return primitives.getDoubleOrElse(key, defaultValue);
+        }
+        Object value = values.get(key);
+        return (value == null || value == NULL_OBJECT) ? defaultValue : ((Number) value).doubleValue();
+    }
+
+    /** Throws a NullPointerException if there is no value, like the getters of UnmodifiableConfig. */
+    private static Number requireNumber(Object value, String key) {
+        if (value == null || value == NULL_OBJECT) {
+            throw new NullPointerException("No value for key " + key);
+        }
+        return (Number) value;
+    }
+
     /** Convert all sub-configurations to StampedConfigs. */
     private void convertSubConfigs(Config c) {
         if (c instanceof AbstractConfig conf) {
@@ -618,6 +1295,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             stamp = lock.writeLock();
         }
         try {
+            recordSnapshotState();
             unsafePutAll(other);
         } finally {
             lock.unlockWrite(stamp);
@@ -681,6 +1359,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             stamp = lock.writeLock();
         }
         try {
+            recordSnapshotState();
             unsafeRemoveAll(other);
         } finally {
             lock.unlockWrite(stamp);
@@ -703,6 +1382,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             stamp = lock.writeLock();
         }
         try {
+            recordSnapshotState();
             String prev = headerComment;
             headerComment = null;
             return prev;
@@ -717,15 +1397,18 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             case 0:
                 throw new IllegalArgumentException("empty entry path");
             case 1:
-                return mapLockRemove(comments, lock, path.getFirst());
+                return mapLockRemove(comments, this, path.getFirst());
             default: {
+                if (lock instanceof TreeLock) {
+                    return treeWrite(path, false, (level, key) -> level.comments.remove(key),
+                            StampedConfig::removeComment);
+                }
                 int lastIndex = path.size() - 1;
-                List<String> parentPath = path.subList(0, lastIndex);
-                StampedConfig parent = getExistingConfig(parentPath, false);
+                StampedConfig parent = getExistingConfig(path, lastIndex, false);
                 if (parent == null) {
                     return null;
                 }
-                return mapLockRemove(parent.comments, parent.lock, path.get(lastIndex));
+                return mapLockRemove(parent.comments, parent, path.get(lastIndex));
             }
         }
     }
@@ -738,6 +1421,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             stamp = lock.writeLock();
         }
         try {
+            recordSnapshotState();
             String old = headerComment;
             headerComment = comment;
             return old;
@@ -752,12 +1436,15 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             case 0:
                 throw new IllegalArgumentException("empty entry path");
             case 1:
-                return mapLockPut(comments, lock, path.getFirst(), value);
+                return mapLockPut(comments, this, path.getFirst(), value);
             default: {
+                if (lock instanceof TreeLock) {
+                    return treeWrite(path, true, (level, key) -> level.comments.put(key, value),
+                            (level, rest) -> level.setComment(rest, value));
+                }
                 int lastIndex = path.size() - 1;
-                List<String> parentPath = path.subList(0, lastIndex);
-                StampedConfig parent = getOrCreateConfig(parentPath);
-                return mapLockPut(parent.comments, parent.lock, path.get(lastIndex), value);
+                StampedConfig parent = getOrCreateConfig(path, lastIndex);
+                return mapLockPut(parent.comments, parent, path.get(lastIndex), value);
             }
         }
     }
@@ -770,9 +1457,12 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             case 1:
                 return mapLockContains(comments, lock, path.getFirst());
             default: {
+                if (lock instanceof TreeLock) {
+                    return treeRead(path, (level, key) -> level.comments.containsKey(key),
+                            StampedConfig::containsComment, false);
+                }
                 int lastIndex = path.size() - 1;
-                List<String> parentPath = path.subList(0, lastIndex);
-                StampedConfig parent = getExistingConfig(parentPath, false);
+                StampedConfig parent = getExistingConfig(path, lastIndex, false);
                 return parent != null
                         && mapLockContains(parent.comments, parent.lock,
                                 path.get(lastIndex));
@@ -804,9 +1494,11 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             case 1:
                 return mapLockGet(comments, lock, path.getFirst());
             default:
+                if (lock instanceof TreeLock) {
+                    return treeRead(path, (level, key) -> level.comments.get(key), StampedConfig::getComment, null);
+                }
                 int lastIndex = path.size() - 1;
-                List<String> parentPath = path.subList(0, lastIndex);
-                StampedConfig parent = getExistingConfig(parentPath, false);
+                StampedConfig parent = getExistingConfig(path, lastIndex, false);
                 if (parent == null) {
                     return null;
                 }
@@ -894,6 +1586,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             stamp = lock.writeLock();
         }
         try {
+            recordSnapshotState();
             comments.forEach((key, node) -> {
                 this.comments.put(key, node.getComment());
                 Map<String, CommentNode> children = node.getChildren();
@@ -966,7 +1659,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             long stamp = StampedConfig.this.lock.readLock();
 
             try {
-                StampedConfig.this.state.set(ThreadConfigState.IN_ITER_OP);
+                StampedConfig.this.enterState(ThreadConfigState.IN_ITER_OP);
 
                 // Take a snapshot of the list of entries in the config, to guarantee thread-safety.
                 // Unfortunately we cannot lock here and automatically unlock once the iterator
@@ -979,7 +1672,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                 }
                 return new EntryIterator(snapshot);
             } finally {
-                StampedConfig.this.state.set(ThreadConfigState.NORMAL);
+                StampedConfig.this.exitState();
                 StampedConfig.this.lock.unlockRead(stamp);
             }
         }
@@ -1002,7 +1695,8 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             }
 
             try {
-                StampedConfig.this.state.set(ThreadConfigState.IN_ITER_OP);
+                StampedConfig.this.enterState(ThreadConfigState.IN_ITER_OP);
+                StampedConfig.this.recordSnapshotState();
                 StampedConfig.this.values.forEach((key, value) -> {
                     InLockLazyEntry entry = new InLockLazyEntry(key);
                     try {
@@ -1014,7 +1708,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                     }
                 });
             } finally {
-                StampedConfig.this.state.set(ThreadConfigState.NORMAL);
+                StampedConfig.this.exitState();
                 StampedConfig.this.lock.unlockWrite(stamp);
             }
         }
@@ -1100,7 +1794,8 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             }
 
             try {
-                StampedConfig.this.state.set(ThreadConfigState.IN_ITER_OP);
+                StampedConfig.this.enterState(ThreadConfigState.IN_ITER_OP);
+                StampedConfig.this.recordSnapshotState();
 
                 for (int i = nextPosition; i < entries.length; i++) {
                     LazyEntry entry = entries[i];
@@ -1117,7 +1812,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                     }
                 }
             } finally {
-                StampedConfig.this.state.set(ThreadConfigState.NORMAL);
+                StampedConfig.this.exitState();
                 StampedConfig.this.lock.unlockWrite(stamp);
             }
         }
@@ -1143,19 +1838,19 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
 
         @Override
         public String removeComment() {
-            return mapLockRemove(StampedConfig.this.comments, StampedConfig.this.lock, key);
+            return mapLockRemove(StampedConfig.this.comments, StampedConfig.this, key);
         }
 
         @Override
         public String setComment(String comment) {
-            return mapLockPut(StampedConfig.this.comments, StampedConfig.this.lock, key,
+            return mapLockPut(StampedConfig.this.comments, StampedConfig.this, key,
                     comment);
         }
 
         @Override
         @SuppressWarnings("unchecked")
         public <T> T setValue(Object value) {
-            return (T) mapLockPut(StampedConfig.this.values, StampedConfig.this.lock, key,
+            return (T) mapLockPut(StampedConfig.this.values, StampedConfig.this, key,
                     value);
         }
 
@@ -1247,8 +1942,23 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
     }
 
     // ----- bulk operations -----
+    /** Returns the state of this config in the current thread. */
+    private ThreadConfigState state() {
+        return operations.get().stateOf(this);
+    }
+
+    /** Marks the beginning of an operation on this config, in the current thread. */
+    private void enterState(ThreadConfigState state) {
+        operations.get().push(this, state);
+    }
+
+    /** Marks the end of the last operation started by {@link #enterState(ThreadConfigState)}. */
+    private void exitState() {
+        operations.get().pop(this);
+    }
+
     private void checkStateForBulkOp() {
-        switch (state.get()) {
+        switch (state()) {
             case IN_BULK_OP:
                 throw new IllegalStateException(
                         "StampedConfig.{bulkRead, bulkUpdate, bulkCommentedRead, bulkCommentedUpdate} cannot be nested.");
@@ -1265,7 +1975,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
     }
 
     private void checkStateForNormalOp() {
-        switch (state.get()) {
+        switch (state()) {
             case IN_BULK_OP:
                 throw new IllegalStateException(
                         "StampedConfig cannot be used inside of bulk operations, you must use the argument provided to your function by bulk, for example: bulkUpdate(bulkedConf -> {/* use bulkedConf here*/}).");
@@ -1298,13 +2008,13 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             throw ex;
         }
 
-        state.set(ThreadConfigState.IN_BULK_OP);
+        enterState(ThreadConfigState.IN_BULK_OP);
         ReadOnlyLockedView view = new ReadOnlyLockedView();
         try {
             return action.apply(view);
         } finally {
             view.invalidate();
-            state.set(ThreadConfigState.NORMAL);
+            exitState();
             lock.unlockRead(stamp);
         }
     }
@@ -1324,13 +2034,21 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
             throw ex;
         }
 
-        state.set(ThreadConfigState.IN_BULK_OP);
-        WritableLockedView view = new WritableLockedView();
+        // the snapshots wait for the end of the bulk update, which can modify several levels
+        clock.beginUpdate();
         try {
-            return action.apply(view);
+            recordSnapshotState();
+            enterState(ThreadConfigState.IN_BULK_OP);
+            WritableLockedView view = new WritableLockedView();
+            try {
+                return action.apply(view);
+            } finally {
+                view.invalidate();
+                exitState();
+            }
         } finally {
-            view.invalidate();
-            state.set(ThreadConfigState.NORMAL);
+            // always released, otherwise the snapshots would wait forever for the end of the update
+            clock.endUpdate();
             lock.unlockWrite(stamp);
         }
     }
@@ -1660,7 +2378,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
         @Override
         public StampedConfig createSubConfig() {
             checkValid();
-            return new StampedConfig(configFormat, mapSupplier);
+            return StampedConfig.this.createSubConfig();
         }
 
 		@Override
@@ -1722,6 +2440,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                     Object maybeParent = getRaw(path.subList(0, lastIndex));
                     if (maybeParent instanceof StampedConfig parent) {
                         String key = path.get(lastIndex);
+                        parent.recordSnapshotState();
                         return (T) parent.values.remove(key);
                     } else {
                         return null;
@@ -1753,6 +2472,7 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
                     Object maybeParent = getRaw(path.subList(0, lastIndex));
                     if (maybeParent instanceof StampedConfig parent) {
                         String key = path.get(lastIndex);
+                        parent.recordSnapshotState();
                         return parent.comments.remove(key);
                     } else {
                         return null;
@@ -1869,6 +2589,200 @@ public final class StampedConfig implements ConcurrentCommentedConfig {
         }
     }
 
+    /**
+     * The stack of the operations in progress in a thread. It is almost always empty, and rarely
+     * contains more than a few elements, hence the linear search.
+     */
+    private static final class ThreadOperations {
+        private StampedConfig[] configs = new StampedConfig[4];
+        private ThreadConfigState[] states = new ThreadConfigState[4];
+        private int size = 0;
+
+        /** the single-lock trees that the thread has locked for reading */
+        private TreeLock[] readLocks = new TreeLock[2];
+        private int readLockCount = 0;
+
+        ThreadConfigState stateOf(StampedConfig config) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (configs[i] == config) {
+                    return states[i];
+                }
+            }
+            return ThreadConfigState.NORMAL;
+        }
+
+        void push(StampedConfig config, ThreadConfigState state) {
+            if (size == configs.length) {
+                configs = Arrays.copyOf(configs, size * 2);
+                states = Arrays.copyOf(states, size * 2);
+            }
+            configs[size] = config;
+            states[size] = state;
+            size++;
+        }
+
+        void pop(StampedConfig config) {
+            assert size > 0 && configs[size - 1] == config : "unbalanced operations on " + config;
+            size--;
+            configs[size] = null; // don't retain the config
+            states[size] = null;
+        }
+
+        boolean holdsRead(TreeLock lock) {
+            for (int i = 0; i < readLockCount; i++) {
+                if (readLocks[i] == lock) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void addRead(TreeLock lock) {
+            if (readLockCount == readLocks.length) {
+                readLocks = Arrays.copyOf(readLocks, readLockCount * 2);
+            }
+            readLocks[readLockCount++] = lock;
+        }
+
+        void removeRead(TreeLock lock) {
+            for (int i = readLockCount - 1; i >= 0; i--) {
+                if (readLocks[i] == lock) {
+                    readLocks[i] = readLocks[--readLockCount];
+                    readLocks[readLockCount] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The lock shared by all the levels of a single-lock StampedConfig.
+     * <p>
+     * Some operations on a level use other levels while holding the lock, for instance the bulk views
+     * and {@code putAllComments}. With one lock per level, they lock the other levels. With a single lock,
+     * that would be a deadlock, since StampedLock isn't reentrant. Therefore, this lock is reentrant in
+     * its blocking methods: a thread that holds the write lock can lock it again for reading or writing,
+     * and a thread that holds the read lock can lock it again for reading. The stamp of a reentrant
+     * acquisition is {@link #REENTRANT}, and unlocking it does nothing.
+     * <p>
+     * The non-blocking methods {@link #tryReadLock()} and {@link #tryWriteLock()} don't reenter:
+     * they fail, and the StampedConfig checks the state of the thread before calling the blocking methods.
+     */
+    private static final class TreeLock extends StampedLock {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        static final long REENTRANT = Long.MIN_VALUE;
+
+        /**
+         * The thread that holds the write lock. It doesn't need to be volatile: only the
+         * thread that holds the lock can see itself in this field.
+         */
+        private transient Thread writer;
+
+        @Override
+        public long writeLock() {
+            Thread thread = Thread.currentThread();
+            if (writer == thread) {
+                return REENTRANT;
+            }
+            if (operations.get().holdsRead(this)) {
+                throw new IllegalStateException(
+                        "A single-lock StampedConfig cannot be modified while the same thread reads it, for instance in bulkRead.");
+            }
+            long stamp = super.writeLock();
+            writer = thread;
+            return stamp;
+        }
+
+        @Override
+        public long tryWriteLock() {
+            if (writer == Thread.currentThread()) {
+                return 0L;
+            }
+            long stamp = super.tryWriteLock();
+            if (stamp != 0L) {
+                writer = Thread.currentThread();
+            }
+            return stamp;
+        }
+
+        @Override
+        public long readLock() {
+            if (writer == Thread.currentThread()) {
+                return REENTRANT;
+            }
+            ThreadOperations ops = operations.get();
+            if (ops.holdsRead(this)) {
+                return REENTRANT;
+            }
+            long stamp = super.readLock();
+            ops.addRead(this);
+            return stamp;
+        }
+
+        @Override
+        public long tryReadLock() {
+            if (writer == Thread.currentThread()) {
+                return 0L;
+            }
+            ThreadOperations ops = operations.get();
+            if (ops.holdsRead(this)) {
+                return 0L;
+            }
+            long stamp = super.tryReadLock();
+            if (stamp != 0L) {
+                ops.addRead(this);
+            }
+            return stamp;
+        }
+
+        @Override
+        public long tryConvertToWriteLock(long stamp) {
+            if (stamp == REENTRANT) {
+                return (writer == Thread.currentThread()) ? REENTRANT : 0L;
+            }
+            long writeStamp = super.tryConvertToWriteLock(stamp);
+            if (writeStamp != 0L) {
+                if (StampedLock.isReadLockStamp(stamp)) {
+                    operations.get().removeRead(this);
+                }
+                writer = Thread.currentThread();
+            }
+            return writeStamp;
+        }
+
+        @Override
+        public boolean validate(long stamp) {
+            return stamp == REENTRANT || super.validate(stamp);
+        }
+
+        @Override
+        public void unlockWrite(long stamp) {
+            if (stamp != REENTRANT) {
+                writer = null;
+                super.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public void unlockRead(long stamp) {
+            if (stamp != REENTRANT) {
+                operations.get().removeRead(this);
+                super.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public void unlock(long stamp) {
+            if (StampedLock.isWriteLockStamp(stamp)) {
+                unlockWrite(stamp);
+            } else if (stamp != REENTRANT) {
+                unlockRead(stamp);
+            }
+        }
+    }
+
     private enum ThreadConfigState {
         /** normal state */
         NORMAL,
@@ -0,0 +1,604 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import static re.neotamia.nightconfig.core.NullObject.NULL_OBJECT;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import re.neotamia.nightconfig.core.CommentedConfig;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.ConfigFormat;
+import re.neotamia.nightconfig.core.InMemoryCommentedFormat;
+import re.neotamia.nightconfig.core.UnmodifiableCommentedConfig;
+import re.neotamia.nightconfig.core.UnmodifiableConfig;
+
+/**
+ * A thread-safe configuration that splits its top-level entries between several independent
+ * "stripes", according to the hash of their key.
+ * <p>
+ * Each stripe is a {@link SynchronizedConfig} with its own monitor. An operation on a path only
+ * locks the stripe of the first key of the path, therefore threads that modify different top-level
+ * sections of the configuration rarely wait for each other. The sub-configurations are
+ * {@link SynchronizedConfig}s that share the monitor of the stripe that contains them. The ones returned by
+ * {@link #createSubConfig()} have their own monitor until they are inserted in this config: they must not be
+ * used by other threads before that.
+ * <p>
+ * The operations on the whole configuration, such as {@link #size()}, {@link #clear()},
+ * {@link #putAll(UnmodifiableConfig)} and the bulk operations, lock every stripe, always in the same order.
+ * <p>
+ * The iteration order of the top-level entries depends on the stripes: the insertion order is only
+ * preserved among the keys of the same stripe and in the sub-configurations.
+ */
+public final class StripedConfig implements ConcurrentCommentedConfig {
+    /** The default number of stripes. */
+    public static final int DEFAULT_STRIPES = 16;
+
+    private final SynchronizedConfig[] stripes;
+    /** the clock of the snapshots, shared by the stripes */
+    final SnapshotClock clock = new SnapshotClock();
+
+    /** the last snapshot of this config, returned again if nothing has been modified since it was taken */
+    private volatile WeakReference<LevelSnapshot> lastSnapshot;
+    private final ConfigFormat<?> configFormat;
+    private final Supplier<Map<String, Object>> mapSupplier;
+
+    public StripedConfig() {
+        this(InMemoryCommentedFormat.defaultInstance(), Config.getDefaultMapCreator(false));
+    }
+
+    public StripedConfig(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier) {
+        this(configFormat, mapSupplier, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates a new StripedConfig.
+     *
+     * @param configFormat the format of the config
+     * @param mapSupplier  creates the maps that store the values of each level
+     * @param stripes      the number of stripes, rounded up to a power of two. More stripes allow more
+     *                     concurrent modifications, but make the operations on the whole config slower.
+     */
+    public StripedConfig(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Invalid number of stripes: " + stripes);
+        }
+        int n = 1;
+        while (n < stripes) {
+            n <<= 1;
+        }
+        this.configFormat = configFormat;
+        this.mapSupplier = mapSupplier;
+        this.stripes = new SynchronizedConfig[n];
+        for (int i = 0; i < n; i++) {
+            this.stripes[i] = new SynchronizedConfig(configFormat, mapSupplier, clock, false);
+        }
+    }
+
+    // ----- stripes -----
+
+    /** Returns the index of the stripe that contains the given top-level key. */
+    private int stripeIndex(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    /** Returns the stripe that contains the given top-level key. */
+    private SynchronizedConfig stripe(String key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    /** Returns the stripe that contains the first key of the path. */
+    private SynchronizedConfig stripe(List<String> path) {
+        if (path.isEmpty()) {
+            throw new IllegalArgumentException("empty entry path");
+        }
+        return stripe(path.getFirst());
+    }
+
+    /** Executes the action with every stripe locked, starting with the stripe at the given index. */
+    private <R> R lockAll(int from, Supplier<R> action) {
+        if (from == stripes.length) {
+            return action.get();
+        }
+        synchronized (stripes[from].rootMonitor) {
+            return lockAll(from + 1, action);
+        }
+    }
+
+    /** Executes the action with every stripe locked. */
+    private <R> R lockAll(Supplier<R> action) {
+        return lockAll(0, action);
+    }
+
+    /** Executes the action with the selected stripes locked, starting with the stripe at the given index. */
+    private <R> R lockSome(boolean[] selected, int from, Supplier<R> action) {
+        while (from < stripes.length && !selected[from]) {
+            from++;
+        }
+        if (from == stripes.length) {
+            return action.get();
+        }
+        synchronized (stripes[from].rootMonitor) {
+            return lockSome(selected, from + 1, action);
+        }
+    }
+
+    private void lockAll(Runnable action) {
+        lockAll(0, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /** Returns a copy of the top-level values of all the stripes. Must be called with every stripe locked. */
+    @SuppressWarnings("deprecation")
+    private Map<String, Object> copyValues() {
+        Map<String, Object> values = new HashMap<>();
+        for (SynchronizedConfig stripe : stripes) {
+            values.putAll(stripe.valueMap());
+        }
+        return values;
+    }
+
+    // ----- ConcurrentConfig -----
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Like for {@link SynchronizedConfig#snapshot()}, taking a snapshot doesn't copy the config.
+     * It locks every stripe, to wait for the operations in progress on several stripes.
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        return lockAll(() -> {
+            SnapshotClock.Epoch epoch = clock.acquire();
+            LevelSnapshot snapshot = LevelSnapshot.reusable(lastSnapshot, epoch);
+            if (snapshot == null) {
+                snapshot = snapshotAt(epoch);
+                lastSnapshot = new WeakReference<>(snapshot);
+            }
+            return snapshot;
+        });
+    }
+
+    /** Returns a view of the top-level entries of all the stripes at the beginning of the given epoch. */
+    LevelSnapshot snapshotAt(SnapshotClock.Epoch epoch) {
+        return new LevelSnapshot(epoch, configFormat) {
+            // The state of a stripe at the beginning of the epoch never changes: the merged state can be reused.
+            private volatile SnapshotClock.LevelState merged;
+
+            @Override
+            <R> R read(Function<SnapshotClock.LevelState, R> reader) {
+                SnapshotClock.LevelState state = merged;
+                if (state == null) {
+                    Map<String, Object> values = new HashMap<>();
+                    Map<String, String> comments = new HashMap<>();
+                    String header = null;
+                    for (int i = 0; i < stripes.length; i++) {
+                        String stripeHeader = stripes[i].snapshotAt(epoch).read(s -> {
+                            values.putAll(s.values());
+                            comments.putAll(s.comments());
+                            return s.header();
+                        });
+                        if (i == 0) {
+                            header = stripeHeader;
+                        }
+                    }
+                    state = new SnapshotClock.LevelState(values, comments, header);
+                    merged = state;
+                }
+                return reader.apply(state);
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The action is applied to this config, with every stripe locked.
+     */
+    @Override
+    public <R> R bulkCommentedRead(Function<? super UnmodifiableCommentedConfig, R> action) {
+        return lockAll(() -> action.apply(this));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The action is applied to this config, with every stripe locked.
+     */
+    @Override
+    public <R> R bulkCommentedUpdate(Function<? super CommentedConfig, R> action) {
+        return lockAll(() -> action.apply(this));
+    }
+
+    // ----- Config -----
+
+    @Override
+    public <T> T getRaw(@NotNull List<String> path) {
+        return stripe(path).getRaw(path);
+    }
+
+    @Override
+    public boolean contains(@NotNull List<String> path) {
+        return stripe(path).contains(path);
+    }
+
+    @Override
+    public boolean isNull(@NotNull List<String> path) {
+        return stripe(path).isNull(path);
+    }
+
+    @Override
+    public <T> T set(List<String> path, Object value) {
+        return stripe(path).set(path, value);
+    }
+
+    @Override
+    public boolean add(List<String> path, Object value) {
+        return stripe(path).add(path, value);
+    }
+
+    @Override
+    public void update(List<String> path, Object value) {
+        stripe(path).update(path, value);
+    }
+
+    @Override
+    public <T> T remove(List<String> path) {
+        return stripe(path).remove(path);
+    }
+
+    @Override
+    public <T> T compute(List<String> path, Function<? super T, ? extends T> remappingFunction) {
+        return stripe(path).compute(path, remappingFunction);
+    }
+
+    @Override
+    public <T> T computeIfAbsent(List<String> path, Function<? super List<String>, ? extends T> mappingFunction) {
+        return stripe(path).computeIfAbsent(path, mappingFunction);
+    }
+
+    @Override
+    public <T> T merge(List<String> path, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        return stripe(path).merge(path, value, remappingFunction);
+    }
+
+    @Override
+    public boolean compareAndSet(List<String> path, Object expectedValue, Object newValue) {
+        return stripe(path).compareAndSet(path, expectedValue, newValue);
+    }
+
+    @Override
+    public <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener,
+            Consumer<? super Exception> exceptionHandler) {
+        return clock.notifier.subscribe(this, path, listener, exceptionHandler);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the stripes that contain the paths are locked, each of them once.
+     */
+    @Override
+    public Object[] getAll(Collection<? extends List<String>> paths) {
+        boolean[] selected = new boolean[stripes.length];
+        for (List<String> path : paths) {
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("empty entry path");
+            }
+            selected[stripeIndex(path.getFirst())] = true;
+        }
+        return lockSome(selected, 0, () -> ConcurrentCommentedConfig.super.getAll(paths));
+    }
+
+    @Override
+    public void addAll(UnmodifiableConfig other) {
+        lockAll(() -> ConcurrentCommentedConfig.super.addAll(other));
+    }
+
+    @Override
+    public void putAll(UnmodifiableConfig other) {
+        lockAll(() -> ConcurrentCommentedConfig.super.putAll(other));
+    }
+
+    @Override
+    public void removeAll(UnmodifiableConfig other) {
+        lockAll(() -> ConcurrentCommentedConfig.super.removeAll(other));
+    }
+
+    @Override
+    public void clear() {
+        lockAll(() -> {
+            for (SynchronizedConfig stripe : stripes) {
+                stripe.clear();
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return lockAll(() -> {
+            int size = 0;
+            for (SynchronizedConfig stripe : stripes) {
+                size += stripe.size();
+            }
+            return size;
+        });
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Map<String, Object> valueMap() {
+        return new StripedMap<>(stripe -> {
+            @SuppressWarnings("deprecation")
+            Map<String, Object> map = stripe.valueMap();
+            return map;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<? extends CommentedConfig.Entry> entrySet() {
+        return new StripedSet<>(stripe -> (Iterator<CommentedConfig.Entry>) stripe.entrySet().iterator(),
+                this::size);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The sub-configuration is bound to the monitor of its stripe when it's inserted in this config, with
+     * {@code set}, {@code add}, {@code valueMap().put} or the methods based on them. It must not be used by other
+     * threads before that.
+     */
+    @Override
+    public SynchronizedConfig createSubConfig() {
+        return new SynchronizedConfig(configFormat, mapSupplier, clock, true);
+    }
+
+    @Override
+    public ConfigFormat<?> configFormat() {
+        return configFormat;
+    }
+
+    // ----- CommentedConfig -----
+
+    @Override
+    public String getComment(List<String> path) {
+        return stripe(path).getComment(path);
+    }
+
+    @Override
+    public boolean containsComment(List<String> path) {
+        return stripe(path).containsComment(path);
+    }
+
+    @Override
+    public String setComment(List<String> path, String comment) {
+        return stripe(path).setComment(path, comment);
+    }
+
+    @Override
+    public String removeComment(List<String> path) {
+        return stripe(path).removeComment(path);
+    }
+
+    @Override
+    public void clearComments() {
+        lockAll(() -> {
+            for (SynchronizedConfig stripe : stripes) {
+                stripe.clearComments();
+            }
+        });
+    }
+
+    // The header comment is stored in the first stripe.
+
+    @Override
+    public @Nullable String getHeaderComment() {
+        return stripes[0].getHeaderComment();
+    }
+
+    @Override
+    public @Nullable String setHeaderComment(@NotNull String comment) {
+        return stripes[0].setHeaderComment(comment);
+    }
+
+    @Override
+    public @Nullable String removeHeaderComment() {
+        return stripes[0].removeHeaderComment();
+    }
+
+    @Override
+    public Map<String, String> commentMap() {
+        return new StripedMap<>(SynchronizedConfig::commentMap);
+    }
+
+    @Override
+    public Map<String, CommentNode> getComments() {
+        Map<String, CommentNode> comments = new HashMap<>();
+        getComments(comments);
+        return comments;
+    }
+
+    @Override
+    public void getComments(Map<String, CommentNode> destination) {
+        lockAll(() -> {
+            for (SynchronizedConfig stripe : stripes) {
+                stripe.getComments(destination);
+            }
+        });
+    }
+
+    @Override
+    public void putAllComments(Map<String, CommentNode> comments) {
+        lockAll(() -> ConcurrentCommentedConfig.super.putAllComments(comments));
+    }
+
+    @Override
+    public void putAllComments(UnmodifiableCommentedConfig commentedConfig) {
+        lockAll(() -> ConcurrentCommentedConfig.super.putAllComments(commentedConfig));
+    }
+
+    // ----- Object -----
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof UnmodifiableConfig other)) {
+            return false;
+        }
+        // compare a copy, to avoid locking the two configs at the same time
+        Map<String, Object> values = lockAll(this::copyValues);
+        if (values.size() != other.size()) {
+            return false;
+        }
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = (entry.getValue() == NULL_OBJECT) ? null : entry.getValue();
+            Object otherValue = other.get(Collections.singletonList(entry.getKey()));
+            if (!Objects.equals(value, otherValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return lockAll(this::copyValues).hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "StripedConfig{" + lockAll(this::copyValues) + "}";
+    }
+
+    // ----- views -----
+
+    /** A view of the maps of all the stripes. */
+    private final class StripedMap<V> extends AbstractMap<String, V> {
+        private final Function<SynchronizedConfig, Map<String, V>> mapOf;
+
+        StripedMap(Function<SynchronizedConfig, Map<String, V>> mapOf) {
+            this.mapOf = mapOf;
+        }
+
+        @Override
+        public V get(Object key) {
+            return (key instanceof String k) ? mapOf.apply(stripe(k)).get(k) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof String k) && mapOf.apply(stripe(k)).containsKey(k);
+        }
+
+        @Override
+        public V put(String key, V value) {
+            return mapOf.apply(stripe(key)).put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return (key instanceof String k) ? mapOf.apply(stripe(k)).remove(k) : null;
+        }
+
+        @Override
+        public void clear() {
+            lockAll(() -> {
+                for (SynchronizedConfig stripe : stripes) {
+                    mapOf.apply(stripe).clear();
+                }
+            });
+        }
+
+        @Override
+        public int size() {
+            return lockAll(() -> {
+                int size = 0;
+                for (SynchronizedConfig stripe : stripes) {
+                    size += mapOf.apply(stripe).size();
+                }
+                return size;
+            });
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return new StripedSet<>(stripe -> mapOf.apply(stripe).entrySet().iterator(), this::size);
+        }
+    }
+
+    /** A view of the sets of all the stripes. Each stripe is locked separately during the iteration. */
+    private final class StripedSet<E> extends AbstractSet<E> {
+        private final Function<SynchronizedConfig, Iterator<E>> iteratorOf;
+        private final Supplier<Integer> size;
+
+        StripedSet(Function<SynchronizedConfig, Iterator<E>> iteratorOf, Supplier<Integer> size) {
+            this.iteratorOf = iteratorOf;
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+                private int nextStripe = 0;
+                private Iterator<E> current = Collections.emptyIterator();
+                private Iterator<E> last = null; // the iterator that returned the last element
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext() && nextStripe < stripes.length) {
+                        current = iteratorOf.apply(stripes[nextStripe++]);
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    last = current;
+                    return current.next();
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    last.remove();
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size.get();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package re.neotamia.nightconfig.core.concurrent;
 
+import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -8,10 +9,12 @@ import java.util.Set;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -89,8 +92,25 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     /**
      * Root monitor: every operation on this config (including on
      * sub-configurations) is synchronized with this object.
+     * <p>
+     * It only changes when a floating config is inserted in another config (see {@link #bind(Object)}).
      */
-    final Object rootMonitor;
+    volatile Object rootMonitor;
+
+    /**
+     * True if this config has been created by {@link StripedConfig#createSubConfig()} and hasn't been
+     * inserted yet: it will then share the monitor of the config that contains it.
+     */
+    private volatile boolean floating;
+
+    /** the clock of the snapshots, shared by the configs that share the root monitor */
+    final SnapshotClock clock;
+
+    /** the last snapshot of this config, returned again if nothing has been modified since it was taken */
+    private volatile WeakReference<LevelSnapshot> lastSnapshot;
+
+    /** identifies this level in the {@link SnapshotClock}, guarded by the root monitor */
+    private final SnapshotClock.Tracker tracker = new SnapshotClock.Tracker();
 
     public SynchronizedConfig() {
         this(InMemoryCommentedFormat.defaultInstance(), Config.getDefaultMapCreator(false));
@@ -98,16 +118,64 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
 
     public SynchronizedConfig(ConfigFormat<?> configFormat,
             Supplier<Map<String, Object>> mapSupplier) {
-        this.rootMonitor = new Object();
-        this.dataHolder = new DataHolder(this, configFormat, mapSupplier);
+        this(configFormat, mapSupplier, new SnapshotClock(), false);
     }
 
     public SynchronizedConfig(ConfigFormat<?> configFormat,
             Supplier<Map<String, Object>> mapSupplier, SynchronizedConfig parent) {
         this.rootMonitor = (parent == null) ? new Object() : parent.rootMonitor;
+        this.clock = (parent == null) ? new SnapshotClock() : parent.clock;
         this.dataHolder = new DataHolder(parent == null ? this : parent, configFormat, mapSupplier);
     }
 
+    /**
+     * Creates a top-level config that uses the given clock for its snapshots.
+     *
+     * @param floating true to bind the config to the monitor of the first config it's inserted in
+     */
+    SynchronizedConfig(ConfigFormat<?> configFormat, Supplier<Map<String, Object>> mapSupplier,
+            SnapshotClock clock, boolean floating) {
+        this.rootMonitor = new Object();
+        this.clock = clock;
+        this.floating = floating;
+        this.dataHolder = new DataHolder(this, configFormat, mapSupplier);
+    }
+
+    /**
+     * Binds the value to the monitor of this config if it's a floating config with the same clock, and does
+     * nothing otherwise. The sub-configurations that share the monitor of the value are bound with it.
+     * Must be called in a block synchronized on the root monitor.
+     *
+     * @return the value
+     */
+    Object bind(Object value) {
+        if (value instanceof SynchronizedConfig sub && sub.floating && sub.clock == clock) {
+            Object old = sub.rootMonitor;
+            synchronized (old) {
+                sub.rebind(old, rootMonitor);
+            }
+        }
+        return value;
+    }
+
+    private void rebind(Object oldMonitor, Object newMonitor) {
+        floating = false;
+        rootMonitor = newMonitor;
+        for (Object value : dataHolder.valueMap().values()) {
+            rebindValue(value, oldMonitor, newMonitor);
+        }
+    }
+
+    private static void rebindValue(Object value, Object oldMonitor, Object newMonitor) {
+        if (value instanceof SynchronizedConfig sub && sub.rootMonitor == oldMonitor) {
+            sub.rebind(oldMonitor, newMonitor);
+        } else if (value instanceof List<?> list) {
+            for (Object element : list) {
+                rebindValue(element, oldMonitor, newMonitor);
+            }
+        }
+    }
+
     // SynchronizedConfig(DataHolder subConfig, Object rootMonitor) {
     //     this.dataHolder = subConfig;
     //     this.rootMonitor = rootMonitor;
@@ -123,6 +191,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
      */
     public void replaceContentBy(SynchronizedConfig newContent) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             synchronized (newContent.rootMonitor) {
                 this.dataHolder = newContent.dataHolder;
                 newContent.dataHolder = null;
@@ -165,6 +234,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
                 mapSupplier = Config.getDefaultMapCreator(false);
             }
             synchronized (rootMonitor) {
+                recordSnapshotState();
                 DataHolder dataHolder = new DataHolder(this, newContent.configFormat(), mapSupplier);
                 dataHolder.putAll(cc);
                 dataHolder.putAllComments(cc);
@@ -176,6 +246,57 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
 
     // ----- ConcurrentConfig ----
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Taking a snapshot doesn't copy the config. Each level of the config copies its values and comments
+     * the first time it's modified after the snapshot. The sub-configurations that don't share the monitor
+     * of this config are snapshotted when the snapshot reads them for the first time.
+     */
+    @Override
+    public ConfigSnapshot snapshot() {
+        // the monitor waits for the bulk updates in progress
+        synchronized (rootMonitor) {
+            SnapshotClock.Epoch epoch = clock.acquire();
+            LevelSnapshot snapshot = LevelSnapshot.reusable(lastSnapshot, epoch);
+            if (snapshot == null) {
+                snapshot = snapshotAt(epoch);
+                lastSnapshot = new WeakReference<>(snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    /** Returns a view of this level at the beginning of the given epoch. */
+    LevelSnapshot snapshotAt(SnapshotClock.Epoch epoch) {
+        return new LevelSnapshot(epoch, configFormat()) {
+            @Override
+            <R> R read(Function<SnapshotClock.LevelState, R> reader) {
+                synchronized (rootMonitor) {
+                    SnapshotClock.LevelState recorded = epoch.find(tracker);
+                    if (recorded == null) {
+                        recorded = new SnapshotClock.LevelState(dataHolder.valueMap(), dataHolder.commentMap(),
+                                dataHolder.getHeaderComment());
+                    }
+                    return reader.apply(recorded);
+                }
+            }
+        };
+    }
+
+    /**
+     * Records the state of this level for the snapshots, before its modification, and reports the
+     * modification to the {@link ChangeNotifier}. Must be called in a block synchronized on the root monitor.
+     */
+    private void recordSnapshotState() {
+        SnapshotClock.Epoch epoch = clock.epochToRecord(tracker);
+        if (epoch != null) {
+            epoch.record(tracker, dataHolder.valueMap(), dataHolder.commentMap(), dataHolder.getHeaderComment());
+        }
+        // after the record, so that the snapshots taken by the notifier don't miss this modification
+        clock.notifier.modified();
+    }
+
     @Override
     public <R> R bulkCommentedRead(Function<? super UnmodifiableCommentedConfig, R> action) {
         synchronized (rootMonitor) {
@@ -186,15 +307,74 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public <R> R bulkCommentedUpdate(Function<? super CommentedConfig, R> action) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return action.apply(this.dataHolder);
         }
     }
 
+    @Override
+    public <T> T compute(List<String> path, Function<? super T, ? extends T> remappingFunction) {
+        synchronized (rootMonitor) {
+            recordSnapshotState();
+            return EntryOperations.compute(dataHolder, path, remappingFunction);
+        }
+    }
+
+    @Override
+    public <T> T computeIfAbsent(List<String> path, Function<? super List<String>, ? extends T> mappingFunction) {
+        synchronized (rootMonitor) {
+            recordSnapshotState();
+            return EntryOperations.computeIfAbsent(dataHolder, path, mappingFunction);
+        }
+    }
+
+    @Override
+    public <T> T merge(List<String> path, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        synchronized (rootMonitor) {
+            recordSnapshotState();
+            return EntryOperations.merge(dataHolder, path, value, remappingFunction);
+        }
+    }
+
+    @Override
+    public boolean compareAndSet(List<String> path, Object expectedValue, Object newValue) {
+        synchronized (rootMonitor) {
+            recordSnapshotState();
+            return EntryOperations.compareAndSet(dataHolder, path, expectedValue, newValue);
+        }
+    }
+
+    @Override
+    public <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener,
+            Consumer<? super Exception> exceptionHandler) {
+        return clock.notifier.subscribe(this, path, listener, exceptionHandler);
+    }
+
+    // ----- batched reads -----
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The paths are resolved under a single lock acquisition.
+     */
+    @Override
+    public Object[] getAll(Collection<? extends List<String>> paths) {
+        for (List<String> path : paths) {
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("empty entry path");
+            }
+        }
+        synchronized (rootMonitor) {
+            return dataHolder.getAll(paths);
+        }
+    }
+
     // ----- Config -----
 
     @Override
     public boolean add(List<String> path, Object value) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.add(path, value);
         }
     }
@@ -202,6 +382,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public void clearComments() {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             dataHolder.clearComments();
         }
 
@@ -210,13 +391,14 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public Map<String, String> commentMap() {
         synchronized (rootMonitor) {
-            return new SynchronizedMap<>(dataHolder.commentMap(), rootMonitor);
+            return new SynchronizedMap<>(dataHolder.commentMap(), this);
         }
     }
 
     @Override
     public String removeComment(List<String> path) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.removeComment(path);
         }
     }
@@ -224,6 +406,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public @Nullable String removeHeaderComment() {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.removeHeaderComment();
         }
     }
@@ -231,6 +414,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public @Nullable String setHeaderComment(@NotNull String comment) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.setHeaderComment(comment);
         }
     }
@@ -238,6 +422,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public String setComment(List<String> path, String comment) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.setComment(path, comment);
         }
     }
@@ -273,6 +458,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public void clear() {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             dataHolder.clear();
         }
     }
@@ -285,13 +471,14 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public Set<? extends CommentedConfig.Entry> entrySet() {
         synchronized (rootMonitor) {
-            return new SynchronizedSet<>(dataHolder.entrySet(), rootMonitor);
+            return new SynchronizedSet<>(dataHolder.entrySet(), this);
         }
     }
 
     @Override
     public <T> T remove(List<String> path) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.remove(path);
         }
     }
@@ -299,6 +486,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public <T> T set(List<String> path, Object value) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.set(path, value);
         }
     }
@@ -365,14 +553,15 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         synchronized (rootMonitor) {
             Map<String, Object> transformingMap = new TransformingMap<>(dataHolder.valueMap(),
                     o -> o,
-                    toWrite -> convertValue(toWrite, this), o -> o);
-            return new SynchronizedMap<>(transformingMap, rootMonitor);
+                    toWrite -> bind(convertValue(toWrite, this)), o -> o);
+            return new SynchronizedMap<>(transformingMap, this);
         }
     }
 
     @Override
     public boolean add(String path, Object value) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.add(path, value);
         }
     }
@@ -380,6 +569,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public void addAll(UnmodifiableConfig other) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             dataHolder.addAll(other);
         }
     }
@@ -387,6 +577,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public void putAll(UnmodifiableConfig other) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             dataHolder.putAll(other);
         }
     }
@@ -394,6 +585,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public <T> T remove(String path) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.remove(path);
         }
     }
@@ -401,6 +593,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public void removeAll(UnmodifiableConfig toRemove) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             dataHolder.removeAll(toRemove);
         }
     }
@@ -408,6 +601,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public <T> T set(String path, Object value) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             return dataHolder.set(path, value);
         }
     }
@@ -420,6 +614,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public void update(List<String> path, Object value) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             dataHolder.update(path, value);
         }
     }
@@ -462,6 +657,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public void putAllComments(Map<String, CommentNode> comments) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             dataHolder.putAllComments(comments);
         }
     }
@@ -469,6 +665,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
     @Override
     public void putAllComments(UnmodifiableCommentedConfig commentedConfig) {
         synchronized (rootMonitor) {
+            recordSnapshotState();
             dataHolder.putAllComments(commentedConfig);
         }
     }
@@ -503,6 +700,18 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
             }
         }
 
+        // all the modifications of the values of a level go through set and add
+
+        @Override
+        public <T> T set(List<String> path, Object value) {
+            return super.set(path, syncConfig.bind(value));
+        }
+
+        @Override
+        public boolean add(List<String> path, Object value) {
+            return super.add(path, syncConfig.bind(value));
+        }
+
         @Override
         public ConfigFormat<?> configFormat() {
             return format;
@@ -512,11 +721,13 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
 
     private static final class SynchronizedMap<K, V> implements Map<K, V> {
         private final Map<K, V> map;
+        private final SynchronizedConfig owner;
         private final Object rootMonitor;
 
-        SynchronizedMap(Map<K, V> map, Object monitor) {
+        SynchronizedMap(Map<K, V> map, SynchronizedConfig owner) {
             this.map = map;
-            this.rootMonitor = monitor;
+            this.owner = owner;
+            this.rootMonitor = owner.rootMonitor;
         }
 
         @Override
@@ -543,6 +754,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public void clear() {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 map.clear();
             }
         }
@@ -564,7 +776,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public Set<Entry<K, V>> entrySet() {
             synchronized (rootMonitor) {
-                return new SynchronizedSet<>(map.entrySet(), rootMonitor);
+                return new SynchronizedSet<>(map.entrySet(), owner);
             }
         }
 
@@ -592,6 +804,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public V put(K key, V value) {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 return map.put(key, value);
             }
         }
@@ -599,6 +812,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public void putAll(Map<? extends K, ? extends V> m) {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 map.putAll(m);
             }
         }
@@ -606,6 +820,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public V remove(Object key) {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 return map.remove(key);
             }
         }
@@ -627,16 +842,19 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
 
     private static class SynchronizedCollection<E> implements Collection<E> {
         private final Collection<E> coll;
+        final SynchronizedConfig owner;
         private final Object rootMonitor;
 
-        SynchronizedCollection(Collection<E> coll, Object rootMonitor) {
+        SynchronizedCollection(Collection<E> coll, SynchronizedConfig owner) {
             this.coll = coll;
-            this.rootMonitor = rootMonitor;
+            this.owner = owner;
+            this.rootMonitor = owner.rootMonitor;
         }
 
         @Override
         public boolean add(E e) {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 return coll.add(e);
             }
         }
@@ -644,6 +862,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public boolean addAll(Collection<? extends E> c) {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 return coll.addAll(c);
             }
         }
@@ -651,6 +870,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public void clear() {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 coll.clear();
             }
         }
@@ -679,13 +899,14 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public Iterator<E> iterator() {
             synchronized (rootMonitor) {
-                return new SynchronizedIterator<>(coll.iterator(), rootMonitor);
+                return new SynchronizedIterator<>(coll.iterator(), owner, this::element);
             }
         }
 
         @Override
         public boolean remove(Object o) {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 return coll.remove(o);
             }
         }
@@ -693,6 +914,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public boolean removeAll(Collection<?> c) {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 return coll.removeAll(c);
             }
         }
@@ -700,6 +922,7 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public boolean retainAll(Collection<?> c) {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 return coll.retainAll(c);
             }
         }
@@ -711,23 +934,34 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
             }
         }
 
+        @SuppressWarnings("unchecked")
         @Override
         public Object[] toArray() {
             synchronized (rootMonitor) {
-                return coll.toArray();
+                Object[] array = coll.toArray();
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = element((E)array[i]);
+                }
+                return array;
             }
         }
 
+        @SuppressWarnings("unchecked")
         @Override
         public <T> T[] toArray(T[] a) {
             synchronized (rootMonitor) {
-                return coll.toArray(a);
+                T[] array = coll.toArray(a);
+                for (int i = 0; i < coll.size(); i++) {
+                    array[i] = (T)element((E)array[i]);
+                }
+                return array;
             }
         }
 
         @Override
         public boolean removeIf(Predicate<? super E> filter) {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 return coll.removeIf(filter);
             }
         }
@@ -735,25 +969,33 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public void forEach(Consumer<? super E> action) {
             synchronized (rootMonitor) {
-                coll.forEach(action);
+                coll.forEach(e -> action.accept(element(e)));
             }
         }
 
+        /** Returns the element given to the user, which must record the state of the level if it can modify it. */
+        E element(E e) {
+            return e;
+        }
     }
 
     private static final class SynchronizedIterator<E> implements Iterator<E> {
         private final Iterator<E> iter;
+        private final SynchronizedConfig owner;
         private final Object rootMonitor;
+        private final UnaryOperator<E> element;
 
-        SynchronizedIterator(Iterator<E> iter, Object rootMonitor) {
+        SynchronizedIterator(Iterator<E> iter, SynchronizedConfig owner, UnaryOperator<E> element) {
             this.iter = iter;
-            this.rootMonitor = rootMonitor;
+            this.owner = owner;
+            this.rootMonitor = owner.rootMonitor;
+            this.element = element;
         }
 
         @Override
         public void forEachRemaining(Consumer<? super E> action) {
             synchronized (rootMonitor) {
-                iter.forEachRemaining(action);
+                iter.forEachRemaining(e -> action.accept(element.apply(e)));
             }
         }
 
@@ -767,22 +1009,151 @@ public final class SynchronizedConfig implements ConcurrentCommentedConfig {
         @Override
         public E next() {
             synchronized (rootMonitor) {
-                return iter.next();
+                return element.apply(iter.next());
             }
         }
 
         @Override
         public void remove() {
             synchronized (rootMonitor) {
+                owner.recordSnapshotState();
                 iter.remove();
             }
         }
     }
 
+    /**
+     * A synchronized entry set. Reading the entries doesn't modify anything: the state of the level is only
+     * recorded when the entries are modified.
+     */
     private static final class SynchronizedSet<E> extends SynchronizedCollection<E>
             implements Set<E> {
-        SynchronizedSet(Set<E> coll, Object rootMonitor) {
-            super(coll, rootMonitor);
+        SynchronizedSet(Set<E> coll, SynchronizedConfig owner) {
+            super(coll, owner);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        E element(E e) {
+            if (e instanceof CommentedConfig.Entry entry) {
+                return (E)new SynchronizedEntry(entry, owner);
+            } else if (e instanceof Map.Entry<?, ?> entry) {
+                return (E)new SynchronizedMapEntry<>(entry, owner);
+            }
+            return e;
+        }
+    }
+
+    private static final class SynchronizedEntry implements CommentedConfig.Entry {
+        private final CommentedConfig.Entry entry;
+        private final SynchronizedConfig owner;
+
+        SynchronizedEntry(CommentedConfig.Entry entry, SynchronizedConfig owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        @Override
+        public String getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public <T> T getRawValue() {
+            synchronized (owner.rootMonitor) {
+                return entry.getRawValue();
+            }
+        }
+
+        @Override
+        public String getComment() {
+            synchronized (owner.rootMonitor) {
+                return entry.getComment();
+            }
+        }
+
+        @Override
+        public <T> T setValue(Object value) {
+            synchronized (owner.rootMonitor) {
+                owner.recordSnapshotState();
+                return entry.setValue(value);
+            }
+        }
+
+        @Override
+        public String setComment(String comment) {
+            synchronized (owner.rootMonitor) {
+                owner.recordSnapshotState();
+                return entry.setComment(comment);
+            }
+        }
+
+        @Override
+        public String removeComment() {
+            synchronized (owner.rootMonitor) {
+                owner.recordSnapshotState();
+                return entry.removeComment();
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return entry.equals(obj instanceof SynchronizedEntry other ? other.entry : obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return entry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return entry.toString();
+        }
+    }
+
+    private static final class SynchronizedMapEntry<K, V> implements Map.Entry<K, V> {
+        private final Map.Entry<K, V> entry;
+        private final SynchronizedConfig owner;
+
+        SynchronizedMapEntry(Map.Entry<K, V> entry, SynchronizedConfig owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        @Override
+        public K getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            synchronized (owner.rootMonitor) {
+                return entry.getValue();
+            }
+        }
+
+        @Override
+        public V setValue(V value) {
+            synchronized (owner.rootMonitor) {
+                owner.recordSnapshotState();
+                return entry.setValue(value);
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return entry.equals(obj instanceof SynchronizedMapEntry<?, ?> other ? other.entry : obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return entry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return entry.toString();
         }
     }
 
@@ -6,10 +6,15 @@ import re.neotamia.nightconfig.core.Config;
 import re.neotamia.nightconfig.core.UnmodifiableCommentedConfig;
 import re.neotamia.nightconfig.core.UnmodifiableConfig;
 import re.neotamia.nightconfig.core.concurrent.ConcurrentCommentedConfig;
+import re.neotamia.nightconfig.core.concurrent.ConfigChangeListener;
+import re.neotamia.nightconfig.core.concurrent.ConfigSnapshot;
+import re.neotamia.nightconfig.core.concurrent.ConfigSubscription;
 import re.neotamia.nightconfig.core.file.CommentedFileConfig;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -58,6 +63,11 @@ public final class ConvertedCommentedFileConfig
 		config.close();
 	}
 
+	@Override
+	public ConfigSnapshot snapshot() {
+		return config.snapshot();
+	}
+
 	@Override
 	public <R> R bulkRead(Function<? super UnmodifiableConfig, R> action) {
 		return config.bulkRead(action);
@@ -78,6 +88,15 @@ public final class ConvertedCommentedFileConfig
 		return config.bulkUpdate(action);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener,
+			Consumer<? super Exception> exceptionHandler) {
+		// the listener receives the converted values, like get(path)
+		return config.subscribe(path, (p, oldValue, newValue) -> listener.onChange(p,
+			(T)readConversion.apply(oldValue), (T)readConversion.apply(newValue)), exceptionHandler);
+	}
+
 	@Override
 	public ConcurrentCommentedConfig createSubConfig() {
 		return config.createSubConfig();
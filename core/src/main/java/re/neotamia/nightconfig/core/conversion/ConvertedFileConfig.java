@@ -3,10 +3,15 @@ package re.neotamia.nightconfig.core.conversion;
 import re.neotamia.nightconfig.core.Config;
 import re.neotamia.nightconfig.core.UnmodifiableConfig;
 import re.neotamia.nightconfig.core.concurrent.ConcurrentConfig;
+import re.neotamia.nightconfig.core.concurrent.ConfigChangeListener;
+import re.neotamia.nightconfig.core.concurrent.ConfigSnapshot;
+import re.neotamia.nightconfig.core.concurrent.ConfigSubscription;
 import re.neotamia.nightconfig.core.file.FileConfig;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -50,6 +55,11 @@ public class ConvertedFileConfig extends AbstractConvertedConfig<FileConfig> imp
 		config.close();
 	}
 
+	@Override
+	public ConfigSnapshot snapshot() {
+		return config.snapshot();
+	}
+
 	@Override
 	public <R> R bulkRead(Function<? super UnmodifiableConfig, R> action) {
 		return config.bulkRead(action);
@@ -60,6 +70,15 @@ public class ConvertedFileConfig extends AbstractConvertedConfig<FileConfig> imp
 		return config.bulkUpdate(action);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener,
+			Consumer<? super Exception> exceptionHandler) {
+		// the listener receives the converted values, like get(path)
+		return config.subscribe(path, (p, oldValue, newValue) -> listener.onChange(p,
+			(T)readConversion.apply(oldValue), (T)readConversion.apply(newValue)), exceptionHandler);
+	}
+
 	@Override
 	public ConcurrentConfig createSubConfig() {
 		return config.createSubConfig();
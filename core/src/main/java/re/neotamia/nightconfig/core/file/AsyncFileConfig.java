@@ -18,6 +18,7 @@ import java.util.concurrent.*;
 
 import re.neotamia.nightconfig.core.*;
 import re.neotamia.nightconfig.core.concurrent.ConcurrentCommentedConfig;
+import re.neotamia.nightconfig.core.concurrent.CopyOnWriteConfig;
 import re.neotamia.nightconfig.core.concurrent.StampedConfig;
 import re.neotamia.nightconfig.core.io.*;
 import re.neotamia.nightconfig.core.utils.ConcurrentCommentedConfigWrapper;
@@ -25,7 +26,7 @@ import re.neotamia.nightconfig.core.utils.ConcurrentCommentedConfigWrapper;
 /**
  * @author TheElectronWill
  */
-final class AsyncFileConfig extends ConcurrentCommentedConfigWrapper<StampedConfig>
+final class AsyncFileConfig extends ConcurrentCommentedConfigWrapper<ConcurrentCommentedConfig>
 		implements CommentedFileConfig {
 	/**
 	 * Holder for the executor service: allows to create the executor on demand in a thread-safe way
@@ -78,7 +79,7 @@ final class AsyncFileConfig extends ConcurrentCommentedConfigWrapper<StampedConf
 	private final ConfigLoadFilter reloadFilter;
 	private final Runnable saveListener, loadListener;
 
-	AsyncFileConfig(StampedConfig config, Path nioPath, Charset charset, ConfigWriter writer,
+	AsyncFileConfig(ConcurrentCommentedConfig config, Path nioPath, Charset charset, ConfigWriter writer,
 			WritingMode writingMode, ConfigParser<?> parser,
 			ParsingMode parsingMode, FileNotFoundAction notFoundAction,
 			boolean asyncLoad, ConfigLoadFilter reloadFilter,
@@ -109,12 +110,12 @@ final class AsyncFileConfig extends ConcurrentCommentedConfigWrapper<StampedConf
 	// ----- internal -----
 	/**
 	 * Saves the configuration now (blocking IO).
-	 * It avoids locking the StampedConfig during the IO operation:
-	 * - copy the config into a new config (lock!)
-	 * - write the copy to the file (no lock)
+	 * It avoids locking the config during the IO operation:
+	 * - take a snapshot of the config (no copy)
+	 * - write the snapshot to the file (no lock, except short read locks on the levels of the config)
 	 */
 	private void saveNow() {
-		UnmodifiableConfig copy = config.newAccumulatorCopy();
+		UnmodifiableConfig copy = config.snapshot();
 		synchronized (this) {
 			// If REPLACE_ATOMIC, write to a temporary file and then move it atomically to the config file.
 			// The FileWriter is not kept open in that case, because the temporary file will no longer exist after the
@@ -193,10 +194,16 @@ final class AsyncFileConfig extends ConcurrentCommentedConfigWrapper<StampedConf
 
 		switch (parsingMode) {
 			case REPLACE:
-				StampedConfig newSafeContent = config.createSubConfig(); // this is actually an independant config
+				if (config instanceof CopyOnWriteConfig cow) {
+					// builds the new tree without locking, and publishes it atomically
+					cow.replaceContentBy(newCC);
+					break;
+				}
+				StampedConfig stamped = (StampedConfig)config;
+				StampedConfig newSafeContent = stamped.createSubConfig(); // this is actually an independant config
 				newSafeContent.putAll(newCC);
 				newSafeContent.putAllComments(newCC);
-				config.replaceContentBy(newSafeContent);
+				stamped.replaceContentBy(newSafeContent);
 				// It could work with SynchronizedConfig too:
 				// if (config instanceof SynchronizedConfig) {
 				// 		SynchronizedConfig real = (SynchronizedConfig) config;
@@ -14,19 +14,43 @@ final class AutoreloadFileConfig<C extends CommentedFileConfig> extends Concurre
 
 	private final FileWatcher watcher;
 	private final Runnable autoListener; // called on automatic reload
+	private final ReloadGuard guard; // null if the automatic reloads are never skipped
 
-	AutoreloadFileConfig(C config, FileWatcher watcher, Runnable autoreloadListener) {
+	AutoreloadFileConfig(C config, FileWatcher watcher, Runnable autoreloadListener, ReloadGuard guard) {
 		super(config);
 		this.watcher = watcher;
 		this.autoListener = autoreloadListener;
+		this.guard = guard;
 		watcher.addWatch(config.getNioPath(), this::autoReload);
 	}
 
 	private void autoReload() {
-		load();
+		if (guard == null) {
+			load();
+		} else {
+			Path file = config.getNioPath();
+			if (guard.isUnchanged(file)) {
+				return; // same content as the last load or save
+			}
+			guardedLoad(ReloadGuard.read(file));
+		}
 		autoListener.run();
 	}
 
+	/**
+	 * Loads the config and records the state of the file, which has been read before the load:
+	 * if the file is modified during the load, the next automatic reload will not be skipped.
+	 * <p>
+	 * Reading the state hashes the whole file, which is therefore read twice: once for the hash, and once
+	 * by the parser.
+	 */
+	private void guardedLoad(ReloadGuard.Stamp stamp) {
+		synchronized (guard) {
+			config.load();
+			guard.record(stamp);
+		}
+	}
+
 	@Override
 	public File getFile() {
 		return config.getFile();
@@ -44,7 +68,11 @@ final class AutoreloadFileConfig<C extends CommentedFileConfig> extends Concurre
 
 	@Override
 	public void load() {
-		config.load();
+		if (guard == null) {
+			config.load();
+		} else {
+			guardedLoad(ReloadGuard.read(config.getNioPath()));
+		}
 	}
 
 	@Override
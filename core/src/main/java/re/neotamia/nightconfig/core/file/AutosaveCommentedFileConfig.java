@@ -11,6 +11,7 @@ import java.io.File;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
@@ -56,6 +57,36 @@ final class AutosaveCommentedFileConfig extends ConcurrentCommentedConfigWrapper
 		return result;
 	}
 
+	@Override
+	public <T> T compute(List<String> path, Function<? super T, ? extends T> remappingFunction) {
+		T result = super.compute(path, remappingFunction);
+		autoSave();
+		return result;
+	}
+
+	@Override
+	public <T> T computeIfAbsent(List<String> path, Function<? super List<String>, ? extends T> mappingFunction) {
+		T result = super.computeIfAbsent(path, mappingFunction);
+		autoSave();
+		return result;
+	}
+
+	@Override
+	public <T> T merge(List<String> path, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+		T result = super.merge(path, value, remappingFunction);
+		autoSave();
+		return result;
+	}
+
+	@Override
+	public boolean compareAndSet(List<String> path, Object expectedValue, Object newValue) {
+		boolean result = super.compareAndSet(path, expectedValue, newValue);
+		if (result) {
+			autoSave();
+		}
+		return result;
+	}
+
 	@Override
 	public String setComment(List<String> path, String comment) {
 		String result = super.setComment(path, comment);
@@ -8,6 +8,7 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
@@ -76,6 +77,27 @@ class CheckedCommentedFileConfig extends ConcurrentCommentedConfigWrapper<Commen
 		return super.add(path, checkedValue(value));
 	}
 
+	@Override
+	public <T> T compute(List<String> path, Function<? super T, ? extends T> remappingFunction) {
+		return super.compute(path, value -> checkedResult(remappingFunction.apply(value)));
+	}
+
+	@Override
+	public <T> T computeIfAbsent(List<String> path, Function<? super List<String>, ? extends T> mappingFunction) {
+		return super.computeIfAbsent(path, p -> checkedResult(mappingFunction.apply(p)));
+	}
+
+	@Override
+	public <T> T merge(List<String> path, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+		return super.merge(path, checkedValue(value),
+				(oldValue, v) -> checkedResult(remappingFunction.apply(oldValue, v)));
+	}
+
+	@Override
+	public boolean compareAndSet(List<String> path, Object expectedValue, Object newValue) {
+		return super.compareAndSet(path, expectedValue, checkedValue(newValue));
+	}
+
 	@Override
 	public Map<String, Object> valueMap() {
 		return new TransformingMap<>(super.valueMap(), v -> v, this::checkedValue, o -> o);
@@ -119,4 +141,12 @@ class CheckedCommentedFileConfig extends ConcurrentCommentedConfigWrapper<Commen
 		checkValue(value);
 		return value;
 	}
+
+	/**
+	 * Checks the result of a function given to compute or merge. A null result removes the entry,
+	 * it is not checked.
+	 */
+	private <T> T checkedResult(T value) {
+		return (value == null) ? null : checkedValue(value);
+	}
 }
@@ -4,6 +4,9 @@ import re.neotamia.nightconfig.core.Config;
 import re.neotamia.nightconfig.core.ConfigFormat;
 import re.neotamia.nightconfig.core.UnmodifiableConfig;
 import re.neotamia.nightconfig.core.concurrent.ConcurrentConfig;
+import re.neotamia.nightconfig.core.concurrent.ConfigChangeListener;
+import re.neotamia.nightconfig.core.concurrent.ConfigSnapshot;
+import re.neotamia.nightconfig.core.concurrent.ConfigSubscription;
 import re.neotamia.nightconfig.core.utils.ConfigWrapper;
 import re.neotamia.nightconfig.core.utils.TransformingMap;
 import re.neotamia.nightconfig.core.utils.TransformingSet;
@@ -13,6 +16,8 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -55,6 +60,11 @@ class CheckedFileConfig extends ConfigWrapper<FileConfig> implements FileConfig
 		config.close();
 	}
 
+	@Override
+	public ConfigSnapshot snapshot() {
+		return config.snapshot();
+	}
+
 	@Override
 	public <R> R bulkRead(Function<? super UnmodifiableConfig, R> action) {
 		return config.bulkRead(action);
@@ -65,6 +75,12 @@ class CheckedFileConfig extends ConfigWrapper<FileConfig> implements FileConfig
 		return config.bulkUpdate(action);
 	}
 
+	@Override
+	public <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener,
+			Consumer<? super Exception> exceptionHandler) {
+		return config.subscribe(path, listener, exceptionHandler);
+	}
+
 	@Override
 	public FileConfig checked() {
 		return this;
@@ -80,6 +96,27 @@ class CheckedFileConfig extends ConfigWrapper<FileConfig> implements FileConfig
 		return super.add(path, checkedValue(value));
 	}
 
+	@Override
+	public <T> T compute(List<String> path, Function<? super T, ? extends T> remappingFunction) {
+		return config.compute(path, value -> checkedResult(remappingFunction.apply(value)));
+	}
+
+	@Override
+	public <T> T computeIfAbsent(List<String> path, Function<? super List<String>, ? extends T> mappingFunction) {
+		return config.computeIfAbsent(path, p -> checkedResult(mappingFunction.apply(p)));
+	}
+
+	@Override
+	public <T> T merge(List<String> path, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+		return config.merge(path, checkedValue(value),
+				(oldValue, v) -> checkedResult(remappingFunction.apply(oldValue, v)));
+	}
+
+	@Override
+	public boolean compareAndSet(List<String> path, Object expectedValue, Object newValue) {
+		return config.compareAndSet(path, expectedValue, checkedValue(newValue));
+	}
+
 	@Override
 	public Map<String, Object> valueMap() {
 		return new TransformingMap<>(super.valueMap(), v -> v, this::checkedValue, o -> o);
@@ -127,4 +164,12 @@ class CheckedFileConfig extends ConfigWrapper<FileConfig> implements FileConfig
 		checkValue(value);
 		return value;
 	}
+
+	/**
+	 * Checks the result of a function given to compute or merge. A null result removes the entry,
+	 * it is not checked.
+	 */
+	private <T> T checkedResult(T value) {
+		return (value == null) ? null : checkedValue(value);
+	}
 }
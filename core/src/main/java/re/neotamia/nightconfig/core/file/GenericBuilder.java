@@ -3,6 +3,8 @@ package re.neotamia.nightconfig.core.file;
 import re.neotamia.nightconfig.core.Config;
 import re.neotamia.nightconfig.core.ConfigFormat;
 import re.neotamia.nightconfig.core.concurrent.ConcurrentConfig;
+import re.neotamia.nightconfig.core.concurrent.ConcurrentCommentedConfig;
+import re.neotamia.nightconfig.core.concurrent.CopyOnWriteConfig;
 import re.neotamia.nightconfig.core.concurrent.StampedConfig;
 import re.neotamia.nightconfig.core.concurrent.SynchronizedConfig;
 import re.neotamia.nightconfig.core.io.*;
@@ -46,8 +48,9 @@ public abstract class GenericBuilder<Base extends Config, Result extends FileCon
 	protected WritingMode writingMode = WritingMode.REPLACE;
 	protected ParsingMode parsingMode = ParsingMode.REPLACE;
 	protected FileNotFoundAction nefAction = FileNotFoundAction.CREATE_EMPTY;
-	protected boolean sync = false, autosave = false, atomicMove = false;
+	protected boolean sync = false, autosave = false, atomicMove = false, copyOnWrite = false, singleLock = false;
 	protected FileWatcher autoreloadFileWatcher = null;
+	protected boolean reloadGuard = false;
 	protected boolean preserveInsertionOrder = Config.isInsertionOrderPreserved();
 	protected Supplier<Map<String, Object>> mapCreator = null;
 
@@ -168,6 +171,7 @@ public abstract class GenericBuilder<Base extends Config, Result extends FileCon
 	 */
 	public GenericBuilder<Base, Result> sync() {
 		sync = true;
+		copyOnWrite = false;
 		return this;
 	}
 
@@ -233,6 +237,29 @@ public abstract class GenericBuilder<Base extends Config, Result extends FileCon
 		return this;
 	}
 
+	/**
+	 * Skips the automatic reloads when the content of the file has not changed since the last load or save.
+	 * <p>
+	 * The FileWatcher reports every modification of the file, including the ones that don't change its content
+	 * (for instance when an editor saves an unmodified file) and the saves of this FileConfig. With this option,
+	 * the size, modification time and hash of the file are recorded after each load and save, and an automatic
+	 * reload only parses the file if they are different. As a consequence, the modifications that are made to
+	 * the configuration in memory are no longer reverted when the file is touched without being modified.
+	 * A manual call to {@link FileConfig#load()} always reloads the file.
+	 * <p>
+	 * The hash costs an additional read of the whole file after each load and save, and when the file has
+	 * been touched. The saves are recognized once they are finished: the debounce time of the FileWatcher
+	 * must be long enough for the events of a save to be handled after it.
+	 * <p>
+	 * If {@link #autoreload()} is not called, this option has no effect.
+	 *
+	 * @return this builder
+	 */
+	public GenericBuilder<Base, Result> reloadGuard() {
+		reloadGuard = true;
+		return this;
+	}
+
 	/**
 	 * When the configuration is <b>automatically (re)loaded</b>, calls the given listener.
 	 * Only one listener can be set, calling {@code onAutoReload} multiple times will replace the listener.
@@ -342,6 +369,35 @@ public abstract class GenericBuilder<Base extends Config, Result extends FileCon
 		return this;
 	}
 
+	/**
+	 * Makes the configuration "copy-on-write", that is, backed by a {@link CopyOnWriteConfig}:
+	 * reading the configuration never locks, but each modification copies the modified levels.
+	 * This is a good fit for configurations that are read very often and rarely modified.
+	 * <p>
+	 * A copy-on-write configuration is always write-asynchronous: calling this method cancels {@link #sync()}.
+	 *
+	 * @return this builder
+	 */
+	public GenericBuilder<Base, Result> copyOnWrite() {
+		sync = false;
+		copyOnWrite = true;
+		return this;
+	}
+
+	/**
+	 * Makes the configuration use a single lock for all its levels, see
+	 * {@link StampedConfig#StampedConfig(ConfigFormat, Supplier, boolean)}.
+	 * This is a good fit for configurations with many nested levels that are often accessed with long paths.
+	 * <p>
+	 * This only applies to write-asynchronous configurations that are not copy-on-write.
+	 *
+	 * @return this builder
+	 */
+	public GenericBuilder<Base, Result> singleLock() {
+		singleLock = true;
+		return this;
+	}
+
 	/**
 	 * Makes the configuration preserve the insertion order of its values.
 	 * <p>
@@ -398,21 +454,35 @@ public abstract class GenericBuilder<Base extends Config, Result extends FileCon
 			}
 		}
 
+		// record the state of the file after each save, to recognize it when the FileWatcher reports the save
+		ReloadGuard guard = null;
+		Runnable onSave = saveListener;
+		if (reloadGuard && autoreloadFileWatcher != null) {
+			ReloadGuard g = guard = new ReloadGuard();
+			Runnable userListener = saveListener;
+			onSave = () -> {
+				g.record(file);
+				userListener.run();
+			};
+		}
+
 		// build writing facilities
 		if (sync) {
 			SynchronizedConfig config = new SynchronizedConfig(format, mapCreator);
 			fileConfig = new SyncFileConfig(config, file, charset, writer, writingMode,
-					parser, parsingMode, nefAction, loadFilter, saveListener, loadListener);
+					parser, parsingMode, nefAction, loadFilter, onSave, loadListener);
 		} else {
-			StampedConfig config = new StampedConfig(format, mapCreator);
+			ConcurrentCommentedConfig config = copyOnWrite
+					? new CopyOnWriteConfig(format, mapCreator)
+					: new StampedConfig(format, mapCreator, singleLock);
 			fileConfig = new AsyncFileConfig(config, file, charset, writer, writingMode,
-					parser, parsingMode, nefAction, false, loadFilter, saveListener, loadListener,
+					parser, parsingMode, nefAction, false, loadFilter, onSave, loadListener,
 					debounceTime);
 		}
 		// add automatic reloading
 		if (autoreloadFileWatcher != null) {
 			fileConfig = new AutoreloadFileConfig<>(fileConfig, autoreloadFileWatcher,
-					autoLoadListener);
+					autoLoadListener, guard);
 		}
 		// add automatic saving
 		if (autosave) {
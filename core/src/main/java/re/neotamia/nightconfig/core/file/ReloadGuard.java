@@ -0,0 +1,100 @@
+package re.neotamia.nightconfig.core.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.CRC32C;
+
+/**
+ * Remembers the size, the modification time and a hash of the content of a config file, as it was
+ * after the last load or save, in order to skip the automatic reloads when the file hasn't changed.
+ * <p>
+ * If the size and the modification time are the same, the file is considered unchanged without
+ * reading it, unless it was modified shortly before being recorded: the resolution of the modification
+ * time depends on the filesystem, and a modification made in the same "tick" would not be detected.
+ * If only the modification time differs, which happens when an editor saves an unmodified file,
+ * the content is hashed and compared. Recording the state after a load or a save also hashes the
+ * whole file, which is read once more for that.
+ *
+ * @see GenericBuilder#reloadGuard()
+ */
+final class ReloadGuard {
+	/** The resolution of the modification times of the less precise filesystems (FAT). */
+	private static final long TIME_RESOLUTION_MILLIS = 2000;
+
+	/** The state of a file. */
+	record Stamp(long size, FileTime modified, long hash, long recordedAt) {}
+
+	/** The state recorded after the last load or save, null if unknown. */
+	private volatile Stamp recorded;
+
+	/**
+	 * Reads the current state of the file.
+	 *
+	 * @return the stamp of the file, or null if it cannot be read
+	 */
+	static Stamp read(Path file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			return new Stamp(attributes.size(), attributes.lastModifiedTime(), hash(file), System.currentTimeMillis());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static long hash(Path file) throws IOException {
+		CRC32C crc = new CRC32C();
+		byte[] buffer = new byte[8192];
+		try (InputStream input = Files.newInputStream(file)) {
+			int n;
+			while ((n = input.read(buffer)) > 0) {
+				crc.update(buffer, 0, n);
+			}
+		}
+		return crc.getValue();
+	}
+
+	/** Records the state of the file, to which the config is now identical. */
+	void record(Stamp stamp) {
+		recorded = stamp;
+	}
+
+	/** Records the current state of the file, to which the config is now identical. */
+	void record(Path file) {
+		recorded = read(file);
+	}
+
+	/**
+	 * Checks whether the file is identical to the state recorded by the last {@link #record}.
+	 *
+	 * @return true if the file has not changed, false if it has changed or cannot be compared
+	 */
+	boolean isUnchanged(Path file) {
+		Stamp last = recorded;
+		if (last == null) {
+			return false;
+		}
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			if (attributes.size() != last.size()) {
+				return false;
+			}
+			boolean racy = last.modified().toMillis() + TIME_RESOLUTION_MILLIS >= last.recordedAt();
+			if (!racy && attributes.lastModifiedTime().equals(last.modified())) {
+				return true;
+			}
+		} catch (IOException e) {
+			return false;
+		}
+		Stamp current = read(file);
+		if (current != null && current.size() == last.size() && current.hash() == last.hash()) {
+			// same content: remember the new modification time to avoid hashing it again
+			recorded = current;
+			return true;
+		}
+		return false;
+	}
+}
@@ -2,6 +2,8 @@ package re.neotamia.nightconfig.core.io;
 
 /**
  * An implementation of {@link CharacterInput} based on an array of characters.
+ * The CharsWrappers returned by {@link #readUntil(char[])} and {@link #readCharsUntil(char[])}
+ * are views of the array.
  *
  * @author TheElectronWill
  */
@@ -72,7 +74,7 @@ public final class ArrayInput extends AbstractInput {
 			return smaller;
 		}
 		System.arraycopy(chars, cursor, array, offset, size - offset);
-		cursor += size;
+		cursor += size - offset;
 		return new CharsWrapper(array);
 	}
 
@@ -85,7 +87,44 @@ public final class ArrayInput extends AbstractInput {
 		final char[] array = new char[n];
 		consumeDeque(array, offset, true);
 		System.arraycopy(chars, cursor, array, offset, n - offset);
-		cursor += n;
+		cursor += n - offset;
 		return new CharsWrapper(array);
 	}
+
+	@Override
+	public CharsWrapper readUntil(char[] stop) {
+		if (!deque.isEmpty()) {
+			return super.readUntil(stop);
+		}
+		// returns a view of the array
+		int end = indexOf(stop);
+		CharsWrapper token = new CharsWrapper(chars, cursor, end);
+		cursor = end;
+		deque.addFirst(directRead());//remember this char for later
+		return token;
+	}
+
+	@Override
+	public CharsWrapper readCharsUntil(char[] stop) {
+		if (!deque.isEmpty()) {
+			return super.readCharsUntil(stop);
+		}
+		// returns a view of the array
+		int end = indexOf(stop);
+		if (end == limit) {
+			throw ParsingException.notEnoughData();
+		}
+		CharsWrapper token = new CharsWrapper(chars, cursor, end);
+		cursor = end;
+		deque.addFirst(directRead());//remember this char for later
+		return token;
+	}
+
+	private int indexOf(char[] stop) {
+		int i = cursor;
+		while (i < limit && !Utils.arrayContains(stop, chars[i])) {
+			i++;
+		}
+		return i;
+	}
 }
@@ -0,0 +1,235 @@
+package re.neotamia.nightconfig.core.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * An implementation of {@link CharacterInput} that reads a {@link Reader} by blocks.
+ * <p>
+ * Unlike {@link ReaderInput}, this input doesn't call the Reader for each character: it fills a
+ * buffer and serves the reads, peeks and searches from it. The peeked characters stay in the
+ * buffer, there is no separate queue.
+ * <p>
+ * The CharsWrappers returned by the read methods are views of the buffer, they are not copied.
+ * Once a part of the buffer has been returned, the buffer is never modified: the next block is
+ * read into a new buffer.
+ */
+public final class BufferedInput implements CharacterInput {
+	/**
+	 * The default size of the buffer. It's bigger than the buffer of {@link java.io.BufferedReader}, so
+	 * that a BufferedReader reads its source directly into this buffer instead of copying its own.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 16384;
+
+	private final Reader reader;
+	private char[] buffer;
+
+	/** the index of the next character to read */
+	private int pos;
+
+	/** the end of the data in the buffer */
+	private int limit;
+
+	/** the end of the peeked characters, that {@link #skipPeeks()} skips */
+	private int peekEnd;
+
+	/** the end of the part of the buffer that is used by the returned CharsWrappers, 0 if none */
+	private int sharedEnd;
+
+	/** true if the end of the Reader has been reached */
+	private boolean eos;
+
+	public BufferedInput(Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a new BufferedInput that reads blocks of {@code bufferSize} characters. The buffer grows
+	 * when a peek or a token needs more characters.
+	 *
+	 * @param reader     the Reader to read
+	 * @param bufferSize the initial size of the buffer
+	 */
+	public BufferedInput(Reader reader, int bufferSize) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+		}
+		this.reader = reader;
+		this.buffer = new char[bufferSize];
+	}
+
+	/**
+	 * Makes at least {@code n} characters available after {@code pos}, if possible.
+	 *
+	 * @return true if there are {@code n} characters, false if the end of the data has been reached before
+	 */
+	private boolean fill(int n) {
+		while (limit - pos < n) {
+			if (eos) {
+				return false;
+			}
+			if (limit == buffer.length) {
+				// moves the unread characters to the beginning of the buffer, and grows it if it's full
+				int unread = limit - pos;
+				int length = (n > buffer.length) ? Math.max(buffer.length * 2, n) : buffer.length;
+				char[] dest = (length != buffer.length || sharedEnd > 0) ? new char[length] : buffer;
+				System.arraycopy(buffer, pos, dest, 0, unread);
+				buffer = dest;
+				sharedEnd = 0;
+				peekEnd -= pos;
+				limit = unread;
+				pos = 0;
+			}
+			int read;
+			try {
+				read = reader.read(buffer, limit, buffer.length - limit);
+			} catch (IOException e) {
+				throw ParsingException.readFailed(e);
+			}
+			if (read == -1) {
+				eos = true;
+			} else {
+				limit += read;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int read() {
+		if (pos == limit && !fill(1)) {
+			return -1;
+		}
+		return buffer[pos++];
+	}
+
+	@Override
+	public char readChar() {
+		if (pos == limit && !fill(1)) {
+			throw ParsingException.notEnoughData();
+		}
+		return buffer[pos++];
+	}
+
+	/** Returns a view of the buffer from {@code pos} to {@code end}, and moves {@code pos} to {@code end}. */
+	private CharsWrapper consume(int end) {
+		CharsWrapper token = new CharsWrapper(buffer, pos, end);
+		sharedEnd = Math.max(sharedEnd, end);
+		pos = end;
+		return token;
+	}
+
+	@Override
+	public CharsWrapper read(int n) {
+		fill(n);
+		return consume(pos + Math.min(n, limit - pos));
+	}
+
+	@Override
+	public CharsWrapper readChars(int n) {
+		if (!fill(n)) {
+			throw ParsingException.notEnoughData();
+		}
+		return consume(pos + n);
+	}
+
+	@Override
+	public CharsWrapper readUntil(char[] stop) {
+		int end = indexOf(stop);
+		peekEnd = Math.max(peekEnd, Math.min(end + 1, limit)); // the stop char counts as peeked
+		return consume(end);
+	}
+
+	@Override
+	public CharsWrapper readCharsUntil(char[] stop) {
+		int end = indexOf(stop);
+		if (end == limit) {
+			throw ParsingException.notEnoughData();
+		}
+		peekEnd = Math.max(peekEnd, end + 1);
+		return consume(end);
+	}
+
+	/**
+	 * Finds the next character contained in {@code stop}, reading more data if needed.
+	 *
+	 * @return the index of the stop character in the buffer, or {@code limit} if the end of the data has
+	 * been reached
+	 */
+	private int indexOf(char[] stop) {
+		int i = pos;
+		while (true) {
+			for (; i < limit; i++) {
+				if (Utils.arrayContains(stop, buffer[i])) {
+					return i;
+				}
+			}
+			int scanned = i - pos;
+			if (!fill(scanned + 1)) {
+				return limit;
+			}
+			i = pos + scanned; // the buffer may have been compacted
+		}
+	}
+
+	@Override
+	public int peek() {
+		return peek(0);
+	}
+
+	@Override
+	public int peek(int n) {
+		if (!fill(n + 1)) {
+			peekEnd = limit;
+			return -1;
+		}
+		int i = pos + n;
+		peekEnd = Math.max(peekEnd, i + 1);
+		return buffer[i];
+	}
+
+	@Override
+	public char peekChar() {
+		return peekChar(0);
+	}
+
+	@Override
+	public char peekChar(int n) {
+		int c = peek(n);
+		if (c == -1) {
+			throw ParsingException.notEnoughData();
+		}
+		return (char)c;
+	}
+
+	@Override
+	public void skipPeeks() {
+		if (peekEnd > pos) {
+			pos = peekEnd;
+		}
+	}
+
+	@Override
+	public void pushBack(char c) {
+		if (pos > 0 && buffer[pos - 1] == c) {
+			// the usual case: the char that has just been read, nothing to write
+			peekEnd = Math.max(peekEnd, pos--);
+			return;
+		}
+		if (pos == 0 || pos <= sharedEnd) {
+			// makes room before the unread characters, without modifying the part used by the CharsWrappers
+			int unread = limit - pos;
+			int length = (unread == buffer.length) ? buffer.length * 2 : buffer.length;
+			char[] dest = (length != buffer.length || sharedEnd > 0) ? new char[length] : buffer;
+			int newPos = length - unread;
+			System.arraycopy(buffer, pos, dest, newPos, unread);
+			buffer = dest;
+			sharedEnd = 0;
+			peekEnd += newPos - pos;
+			limit = length;
+			pos = newPos;
+		}
+		peekEnd = Math.max(peekEnd, pos);
+		buffer[--pos] = c;
+	}
+}
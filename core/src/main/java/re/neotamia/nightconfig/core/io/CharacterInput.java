@@ -8,6 +8,9 @@ package re.neotamia.nightconfig.core.io;
  * <p>
  * The readCharXXX() and peekChar() methods do throw a RuntimeException when the end of the
  * available data is reached.
+ * <p>
+ * The CharsWrappers returned by the read methods may be views of the input's data, for instance
+ * of its buffer: they must not be modified.
  *
  * @author TheElectronWill
  */
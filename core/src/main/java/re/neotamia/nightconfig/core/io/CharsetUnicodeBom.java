@@ -67,12 +67,19 @@ class CharsetUnicodeBom extends Charset {
 
         @Override
         protected CoderResult implFlush(CharBuffer out) {
-            return decoder.flush(out);
+            if (decoder == null) {
+                return CoderResult.UNDERFLOW;
+            }
+            // the input has ended, but decodeLoop always calls the inner decoder with endOfInput = false
+            CoderResult result = decoder.decode(ByteBuffer.allocate(0), out, true);
+            return result.isError() ? result : decoder.flush(out);
         }
 
         @Override
         protected void implReset() {
-            decoder.reset();
+            if (decoder != null) {
+                decoder.reset();
+            }
         }
 
         @Override
@@ -203,6 +203,10 @@ public interface ConfigParser<C extends Config> {
 
 	/**
 	 * Parses a configuration.
+	 * <p>
+	 * The files of at least 16 MiB are memory-mapped and decoded without an intermediate stream. This
+	 * threshold can be changed with the system property {@code nightconfig.mappedParsingThreshold} (in
+	 * bytes, negative to never map the files).
 	 *
 	 * @param file           the nio Path to parse
 	 * @param notFoundAction what to do when the file does not exist
@@ -215,6 +219,11 @@ public interface ConfigParser<C extends Config> {
 			if (Files.notExists(file) && !notFoundAction.run(file, getFormat())) {
 				return getFormat().createConfig();
 			}
+			try (Reader mapped = MappedFileReader.openIfBig(file, charset)) {
+				if (mapped != null) {
+					return parse(mapped);
+				}
+			}
 			try (InputStream input = Files.newInputStream(file)) {
 				return parse(input, charset);
 			}
@@ -239,6 +248,10 @@ public interface ConfigParser<C extends Config> {
 
 	/**
 	 * Parses a configuration.
+	 * <p>
+	 * The files of at least 16 MiB are memory-mapped and decoded without an intermediate stream. This
+	 * threshold can be changed with the system property {@code nightconfig.mappedParsingThreshold} (in
+	 * bytes, negative to never map the files).
 	 *
 	 * @param file           the nio Path to parse
 	 * @param destination    the config where to put the data
@@ -253,6 +266,12 @@ public interface ConfigParser<C extends Config> {
 			if (Files.notExists(file) && !notFoundAction.run(file, getFormat())) {
 				return;
 			}
+			try (Reader mapped = MappedFileReader.openIfBig(file, charset)) {
+				if (mapped != null) {
+					parse(mapped, destination, parsingMode);
+					return;
+				}
+			}
 			try (InputStream input = Files.newInputStream(file)) {
 				parse(input, destination, parsingMode, charset);
 			}
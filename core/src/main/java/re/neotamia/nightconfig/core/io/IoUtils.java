@@ -1,6 +1,7 @@
 package re.neotamia.nightconfig.core.io;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
@@ -82,6 +83,19 @@ public final class IoUtils {
 		}
 	}
 
+	/**
+	 * Returns the content of a file. The big files are memory-mapped instead of being read, like
+	 * {@link ConfigParser#parse(Path, re.neotamia.nightconfig.core.file.FileNotFoundAction, java.nio.charset.Charset)}
+	 * does.
+	 *
+	 * @param file the file to read
+	 * @return a buffer that contains the whole file, from its position to its limit
+	 * @throws IOException if the file cannot be read
+	 */
+	public static ByteBuffer readOrMap(Path file) throws IOException {
+		return MappedFileReader.readOrMap(file);
+	}
+
 	/**
      * Run an IO operation and retry it (at most {@code maxRetries} retries) if it
      * fails with {@code AccessDeniedException}.
@@ -0,0 +1,144 @@
+package re.neotamia.nightconfig.core.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A Reader that decodes a memory-mapped file, used by {@link ConfigParser} to parse big files.
+ * <p>
+ * The characters are decoded from the mapped memory directly into the array given to
+ * {@link #read(char[], int, int)}, without the intermediate copies of an InputStreamReader. The
+ * byte-order marks are detected by the decoders of {@link AdditionalCharsets}, like with a stream.
+ * <p>
+ * The mapping is released by the garbage collector, not by {@link #close()}. As long as it exists,
+ * some systems (Windows) prevent the file from being replaced, that's why only the files bigger than
+ * {@link OptionHolder#THRESHOLD} are mapped. The threshold can be changed with the system property
+ * {@code nightconfig.mappedParsingThreshold} (in bytes, negative to disable the mapping).
+ */
+final class MappedFileReader extends Reader {
+	static class OptionHolder {
+		static final long THRESHOLD;
+
+		static {
+			String thresholdProp = System.getProperty("nightconfig.mappedParsingThreshold", "?");
+			long threshold;
+			try {
+				threshold = Long.parseLong(thresholdProp);
+			} catch (NumberFormatException ex) {
+				threshold = 16L * 1024 * 1024;
+			}
+			THRESHOLD = threshold;
+		}
+	}
+
+	private final ByteBuffer bytes;
+	private final CharsetDecoder decoder;
+	private final char[] pair = new char[2]; // for the reads of a single char, that can be a surrogate pair
+	private int pendingLowSurrogate = -1;
+	private boolean flushed;
+
+	private MappedFileReader(ByteBuffer bytes, CharsetDecoder decoder) {
+		this.bytes = bytes;
+		this.decoder = decoder;
+	}
+
+	/**
+	 * Maps the file if it's big enough.
+	 *
+	 * @return a MappedFileReader, or null if the file is too small to be mapped
+	 */
+	static MappedFileReader openIfBig(Path file, Charset charset) throws IOException {
+		if (OptionHolder.THRESHOLD < 0) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size == 0 || size < OptionHolder.THRESHOLD || size > Integer.MAX_VALUE) {
+				return null;
+			}
+			return map(channel, size, charset);
+		}
+	}
+
+	/**
+	 * Reads the bytes of a file, or maps them if the file is big enough.
+	 *
+	 * @return a buffer that contains the whole file
+	 */
+	static ByteBuffer readOrMap(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (OptionHolder.THRESHOLD >= 0 && size > 0 && size >= OptionHolder.THRESHOLD && size <= Integer.MAX_VALUE) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+		}
+		// the size may be wrong (for some special files), read until the end
+		return ByteBuffer.wrap(Files.readAllBytes(file));
+	}
+
+	/** Maps the file, whatever its size, which must not be zero. */
+	static MappedFileReader open(Path file, Charset charset) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return map(channel, channel.size(), charset);
+		}
+	}
+
+	private static MappedFileReader map(FileChannel channel, long size, Charset charset) throws IOException {
+		// the mapping stays valid after the channel is closed
+		ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		// fail on malformed input
+		CharsetDecoder decoder = charset.newDecoder();
+		decoder.onMalformedInput(CodingErrorAction.REPORT);
+		decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
+		return new MappedFileReader(bytes, decoder);
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (pendingLowSurrogate != -1) {
+			cbuf[off] = (char)pendingLowSurrogate;
+			pendingLowSurrogate = -1;
+			return 1;
+		}
+		if (len == 1) {
+			// a single char may not be enough to decode anything
+			int n = read(pair, 0, 2);
+			if (n == 2) {
+				pendingLowSurrogate = pair[1];
+			}
+			if (n > 0) {
+				cbuf[off] = pair[0];
+				return 1;
+			}
+			return n;
+		}
+		CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+		while (out.position() == off && !flushed) {
+			// the whole file is mapped: the end of the input is always available
+			boolean decoding = bytes.hasRemaining();
+			CoderResult result = decoding ? decoder.decode(bytes, out, true) : decoder.flush(out);
+			if (result.isError()) {
+				result.throwException();
+			}
+			flushed = !decoding && result.isUnderflow();
+		}
+		int n = out.position() - off;
+		return (n == 0 && flushed) ? -1 : n;
+	}
+
+	@Override
+	public void close() {}
+}
@@ -1,14 +1,13 @@
 package re.neotamia.nightconfig.core.serde;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
-import java.lang.reflect.Field;
 
 import org.jetbrains.annotations.NotNull;
 import re.neotamia.nightconfig.core.NullObject;
 import re.neotamia.nightconfig.core.UnmodifiableConfig;
 import re.neotamia.nightconfig.core.serde.annotations.SerdeDefault;
-import re.neotamia.nightconfig.core.serde.annotations.SerdePhase;
 
 /**
  * AbstractObjectDeserializer, common to all Java versions.
@@ -19,6 +18,11 @@ class AbstractObjectDeserializer {
 	protected final boolean applyTransientModifier;
 	protected NamingStrategy namingStrategy;
 
+	/** cache of the deserialization plans, see {@link #getClassBinding(Class, DeserializerContext)} */
+	private final ConcurrentHashMap<Class<?>, ClassBinding> classBindings = new ConcurrentHashMap<>();
+	/** cache of the deserialization plans of records, see {@link #getRecordBinding(Class)} */
+	private final ConcurrentHashMap<Class<?>, RecordBinding> recordBindings = new ConcurrentHashMap<>();
+
 	protected AbstractObjectDeserializer(ObjectDeserializerBuilder builder) {
 		this.generalProviders = builder.deserializerProviders;
 		this.defaultProvider = Objects.requireNonNull(builder.defaultProvider);
@@ -100,6 +104,33 @@ class AbstractObjectDeserializer {
 		return dest;
 	}
 
+	/**
+	 * Returns the deserialization plan of a class, creates it if needed.
+	 * The plan is recreated if the naming strategy has changed since it was cached.
+	 *
+	 * @param cls class of the objects to deserialize
+	 * @param ctx the current context
+	 * @return the binding of the class
+	 */
+	ClassBinding getClassBinding(Class<?> cls, DeserializerContext ctx) {
+		ClassBinding binding = classBindings.get(cls);
+		if (binding == null || binding.namingStrategy != namingStrategy) {
+			binding = ctx.bindClass(cls);
+			classBindings.put(cls, binding);
+		}
+		return binding;
+	}
+
+	/**
+	 * Returns the deserialization plan of a record class, creates it if needed.
+	 *
+	 * @param recordClass class of the records to deserialize
+	 * @return the binding of the record class
+	 */
+	RecordBinding getRecordBinding(Class<?> recordClass) {
+		return recordBindings.computeIfAbsent(recordClass, RecordBinding::new);
+	}
+
 	@SuppressWarnings("unchecked")
 	protected <T, R> ValueDeserializer<T, R> findValueDeserializer(T value, TypeConstraint resultType) {
 		Class<?> valueClass = value == null ? null : value.getClass();
@@ -118,11 +149,7 @@ class AbstractObjectDeserializer {
 		throw new SerdeException("No suitable deserializer found for value" + ofTypeStr + ": "+ value + " and result constraint " + resultType);
 	}
 
-	protected Supplier<?> findDefaultValueSupplier(Object rawConfigValue, Field field, Object instance) {
-		// Start with standalone SerdeDefault annotations
-        EnumMap<SerdePhase, EnumMap<SerdeDefault.WhenValue, SerdeDefault>> defaultAnnotations = AnnotationProcessor.createSerdePhaseEnumMapEnumMap(field);
-        EnumMap<SerdeDefault.WhenValue, SerdeDefault> defaultForDeserializing = defaultAnnotations.get(SerdePhase.DESERIALIZING);
-
+	protected Supplier<?> findDefaultValueSupplier(Object rawConfigValue, EnumMap<SerdeDefault.WhenValue, SerdeDefault> defaultForDeserializing, Object instance) {
 		if (defaultForDeserializing == null) {
 			return null; // no default
 		}
@@ -177,6 +204,7 @@ class AbstractObjectDeserializer {
 	 */
 	protected <V, R> void registerDeserializerProvider(ValueDeserializerProvider<V, R> provider) {
 		generalProviders.add(provider);
+		classBindings.clear(); // the bindings cache the deserializers
 	}
 
     /**
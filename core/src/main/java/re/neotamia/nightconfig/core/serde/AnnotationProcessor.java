@@ -614,6 +614,53 @@ final class AnnotationProcessor {
         return byPhase;
     }
 
+    // ====== Caching ======
+
+    /**
+     * Checks whether the skip predicates or the assertions of a field may depend on the object
+     * that is being (de)serialized. This is the case when a custom check is looked up in the class
+     * of the object, because the check can be a non-static method or field.
+     * <p>
+     * The predicates that don't depend on the object can be resolved once per class.
+     *
+     * @param field the field to check
+     * @return true if the predicates must be resolved for each object
+     */
+    static boolean dependsOnInstance(Field field) {
+        SerdeConfig config = field.getAnnotation(SerdeConfig.class);
+        if (config != null) {
+            for (SerdeSkip a : config.skip()) {
+                if (isCustomInInstance(a.customClass(), a.customCheck())) return true;
+            }
+            for (SerdeSkipDeserializingIf a : config.skipDeserializingIf()) {
+                if (isCustomInInstance(a.customClass(), a.customCheck())) return true;
+            }
+            for (SerdeSkipSerializingIf a : config.skipSerializingIf()) {
+                if (isCustomInInstance(a.customClass(), a.customCheck())) return true;
+            }
+            for (SerdeAssert a : config.asserts()) {
+                if (isCustomInInstance(a.customClass(), a.customCheck())) return true;
+            }
+        }
+        for (SerdeSkip a : field.getAnnotationsByType(SerdeSkip.class)) {
+            if (isCustomInInstance(a.customClass(), a.customCheck())) return true;
+        }
+        for (SerdeSkipDeserializingIf a : field.getAnnotationsByType(SerdeSkipDeserializingIf.class)) {
+            if (isCustomInInstance(a.customClass(), a.customCheck())) return true;
+        }
+        for (SerdeSkipSerializingIf a : field.getAnnotationsByType(SerdeSkipSerializingIf.class)) {
+            if (isCustomInInstance(a.customClass(), a.customCheck())) return true;
+        }
+        for (SerdeAssert a : field.getAnnotationsByType(SerdeAssert.class)) {
+            if (isCustomInInstance(a.customClass(), a.customCheck())) return true;
+        }
+        return false;
+    }
+
+    private static boolean isCustomInInstance(Class<?> customClass, String customCheck) {
+        return customClass == Object.class && !customCheck.isEmpty();
+    }
+
     // ====== Printing ======
     static String annotToString(Annotation annotation) {
         return annotation.toString().replace("@re.neotamia.nightconfig.core.serde.annotations.", "@");
@@ -0,0 +1,125 @@
+package re.neotamia.nightconfig.core.serde;
+
+import re.neotamia.nightconfig.core.serde.annotations.SerdeDefault;
+
+import java.lang.reflect.Field;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The (de)serialization plan of a class: the fields to process, with everything that can be
+ * computed once per class (config keys, comments, predicates, default values, etc.).
+ * <p>
+ * A {@code ClassBinding} is created by {@link DeserializerContext} or {@link SerializerContext} the
+ * first time that a class is processed, and cached by the {@link ObjectDeserializer} or
+ * {@link ObjectSerializer}. It depends on the naming strategy, which is stored in the binding in
+ * order to detect when the cached binding is outdated.
+ */
+final class ClassBinding {
+    final NamingStrategy namingStrategy;
+    final FieldBinding[] fields;
+
+    ClassBinding(NamingStrategy namingStrategy, List<FieldBinding> fields) {
+        this.namingStrategy = namingStrategy;
+        this.fields = fields.toArray(new FieldBinding[0]);
+    }
+
+    /**
+     * The binding of a single field, for one phase (serialization or deserialization).
+     */
+    static final class FieldBinding {
+        final Field field;
+        final FieldAccessor accessor;
+        final List<String> path;
+        /** the comment to add to the config entry, or null (serialization only) */
+        final String comment;
+        /** the type of the field (deserialization only) */
+        final TypeConstraint type;
+        /** the {@code SerdeDefault} annotations that apply to this phase, or null */
+        final EnumMap<SerdeDefault.WhenValue, SerdeDefault> defaults;
+        /** returns the skip predicate for a given instance, or null if the field is never skipped */
+        final Function<Object, Predicate<Object>> skip;
+        /** returns the assertion for a given instance, or null if there is no assertion */
+        final Function<Object, Predicate<Object>> assertion;
+
+        /** the last deserializer that was used, or null (deserialization only) */
+        private volatile CachedDeserializer lastDeserializer;
+
+        FieldBinding(Field field, List<String> path, String comment, TypeConstraint type,
+                     EnumMap<SerdeDefault.WhenValue, SerdeDefault> defaults,
+                     Function<Object, Predicate<Object>> skip,
+                     Function<Object, Predicate<Object>> assertion) {
+            this.field = field;
+            this.accessor = FieldAccessor.of(field);
+            this.path = path;
+            this.comment = comment;
+            this.type = type;
+            this.defaults = defaults;
+            this.skip = skip;
+            this.assertion = assertion;
+        }
+
+        /**
+         * Finds a deserializer for the given config value. The choice only depends on the class
+         * of the value (and on the type of the field), so the last choice is reused when the class
+         * doesn't change, which is almost always the case.
+         */
+        ValueDeserializer<Object, ?> findValueDeserializer(Object value, AbstractObjectDeserializer settings) {
+            Class<?> valueClass = value == null ? null : value.getClass();
+            CachedDeserializer cached = lastDeserializer;
+            if (cached != null && cached.valueClass == valueClass) {
+                return cached.deserializer;
+            }
+            ValueDeserializer<Object, ?> deserializer = settings.findValueDeserializer(value, type);
+            lastDeserializer = new CachedDeserializer(valueClass, deserializer);
+            return deserializer;
+        }
+    }
+
+    private static final class CachedDeserializer {
+        final Class<?> valueClass;
+        final ValueDeserializer<Object, ?> deserializer;
+
+        CachedDeserializer(Class<?> valueClass, ValueDeserializer<Object, ?> deserializer) {
+            this.valueClass = valueClass;
+            this.deserializer = deserializer;
+        }
+    }
+
+    /**
+     * Creates a function that returns the predicate built by {@code resolver}. If the predicate
+     * does not depend on the current instance, it is resolved once and for all.
+     *
+     * @param dependsOnInstance true if the predicate must be resolved for each instance
+     * @param resolver          resolves the predicate for a given instance, may return null
+     * @return the function, or null if there is no predicate
+     */
+    static Function<Object, Predicate<Object>> predicateResolver(boolean dependsOnInstance,
+                                                                Function<Object, Predicate<Object>> resolver) {
+        if (dependsOnInstance) {
+            return resolver;
+        }
+        Predicate<Object> predicate = resolver.apply(null);
+        return predicate == null ? null : instance -> predicate;
+    }
+
+    /**
+     * @return a predicate that is true if {@code a} or {@code b} is true, ignoring the null predicates
+     */
+    static Predicate<Object> anyOf(Predicate<Object> a, Predicate<Object> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.or(b);
+    }
+
+    /**
+     * @return a predicate that is true if {@code a} and {@code b} are true, ignoring the null predicates
+     */
+    static Predicate<Object> allOf(Predicate<Object> a, Predicate<Object> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.and(b);
+    }
+}
@@ -7,7 +7,6 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.RecordComponent;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -28,7 +27,7 @@ final class ConfigToPojoDeserializer
 			TypeConstraint t = resultType.get();
 			Class<?> cls = t.getSatisfyingRawType().orElseThrow(() -> new SerdeException("Could not find a concrete type that can satisfy the constraint " + t));
 
-			if (cls.isRecord()) return deserializeToRecord(value, cls);
+			if (cls.isRecord()) return deserializeToRecord(value, cls, ctx);
 			return deserializeToNormalClass(value, cls, ctx);
 		}
 	}
@@ -48,13 +47,12 @@ final class ConfigToPojoDeserializer
 		return instance;
 	}
 
-	private Object deserializeToRecord(UnmodifiableConfig value, Class<?> objectClass) {
-		var components = objectClass.getRecordComponents();
-		var constructor = getCanonicalRecordConstructor(objectClass, components);
+	private Object deserializeToRecord(UnmodifiableConfig value, Class<?> objectClass, DeserializerContext ctx) {
+		RecordBinding binding = ctx.settings.getRecordBinding(objectClass);
+		var components = binding.components;
 		var componentValues = new Object[components.length];
 		for (int i = 0; i < components.length; i++) {
-			RecordComponent comp = components[i];
-			Object configValue = value.getRaw(Collections.singletonList(comp.getName()));
+			Object configValue = value.getRaw(binding.paths.get(i));
 			if (configValue == null) {
 				// missing component!
 				// find all the missing components to emit a more helpful error message
@@ -71,20 +69,9 @@ final class ConfigToPojoDeserializer
 			componentValues[i] = configValue;
 		}
 		try {
-			return constructor.newInstance(componentValues);
+			return binding.newInstance(componentValues);
 		} catch (Exception e) {
 			throw new SerdeException("Failed to create an instance of record " + objectClass, e);
 		}
 	}
-
-	private static Constructor<?> getCanonicalRecordConstructor(Class<?> cls, RecordComponent[] components) {
-		Class<?>[] paramTypes = Arrays.stream(components)
-			.map(RecordComponent::getType)
-			.toArray(Class<?>[]::new);
-		try {
-			return cls.getDeclaredConstructor(paramTypes);
-		} catch (Exception e) {
-			throw new SerdeException("Failed to get the canonical constructor of record " + cls, e);
-		}
-	}
 }
@@ -6,9 +6,12 @@ import re.neotamia.nightconfig.core.serde.annotations.*;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -48,65 +51,91 @@ public final class DeserializerContext extends AbstractDeSerializerContext {
      * @param source      the config that we are deserializing
      * @param destination the object that we are modifying (result of the deserialization)
      */
+    @SuppressWarnings("unchecked")
     public void deserializeFields(UnmodifiableConfig source, Object destination) {
+        GeneratedSerde<Object> generated = (GeneratedSerde<Object>) GeneratedSerde.find(destination.getClass());
+        if (generated != null) {
+            generated.deserializeFields(source, destination, this);
+            return;
+        }
+        ClassBinding binding = settings.getClassBinding(destination.getClass(), this);
+        for (ClassBinding.FieldBinding fieldBinding : binding.fields) {
+            Field field = fieldBinding.field;
+            List<String> path = fieldBinding.path;
+
+            // get the config value
+            Object value = source.getRaw(path);
+
+            // skip the field if the annotation say so
+            if (skipField(fieldBinding, destination, value)) {
+                continue; // don't deserialize, go to the next field
+            }
+
+            // deserialize, but try the default value first
+            Object deserialized;
+            Supplier<?> defaultValueSupplier = settings.findDefaultValueSupplier(value, fieldBinding.defaults, destination);
+            if (defaultValueSupplier != null) {
+                // default value found, use it directly
+                try {
+                    deserialized = defaultValueSupplier.get();
+                } catch (Exception e) {
+                    throw new SerdeException("Error in default value provider for field " + field, e);
+                }
+            } else {
+                // no default value, deserialize the config value
+                value = normalizeForDeserialization(value, path, field);
+
+                // find the right deserializer
+                ValueDeserializer<Object, ?> deserializer = fieldBinding.findValueDeserializer(value, settings);
+
+                // deserialize
+                try {
+                    Optional<TypeConstraint> type = Optional.of(fieldBinding.type);
+                    deserialized = deserializer.deserialize(value, type, this);
+                } catch (Exception ex) {
+                    throw new SerdeException("Error during deserialization of value `" + value + "` to field `" + field + "` with deserializer " + deserializer, ex);
+                }
+            }
+
+            // check the value of the field
+            if (!assertField(fieldBinding, destination, deserialized)) {
+                throw new SerdeAssertException("Field `" + field + "` has an invalid value: " + deserialized);
+            }
+
+            // set the field
+            try {
+                fieldBinding.accessor.set(destination, deserialized);
+            } catch (Exception e) {
+                throw new SerdeException("Could not assign the deserialized value `" + deserialized + "` to the field " + field + ". The original config value was " + value);
+            }
+        }
+    }
+
+    /**
+     * Computes the deserialization plan of a class. This is called once per class by
+     * {@link AbstractObjectDeserializer#getClassBinding(Class, DeserializerContext)}.
+     *
+     * @param cls the class to analyze
+     * @return the binding of the fields of the class and its superclasses
+     */
+    ClassBinding bindClass(Class<?> cls) {
+        List<ClassBinding.FieldBinding> fields = new ArrayList<>();
         // loop through the class hierarchy of the destination type
-        Class<?> cls = destination.getClass();
         while (cls != Object.class) {
             for (Field field : cls.getDeclaredFields()) {
                 if (preCheck(field)) {
-                    // get the config key
                     List<String> path = Collections.singletonList(configKey(field));
-
-                    // get the config value
-                    Object value = source.getRaw(path);
-
-                    // skip the field if the annotation say so
-                    if (skipField(field, destination, value)) {
-                        continue; // don't deserialize, go to the next field
-                    }
-
-                    // deserialize, but try the default value first
-                    Object deserialized;
-                    Supplier<?> defaultValueSupplier = settings.findDefaultValueSupplier(value, field, destination);
-                    if (defaultValueSupplier != null) {
-                        // default value found, use it directly
-                        try {
-                            deserialized = defaultValueSupplier.get();
-                        } catch (Exception e) {
-                            throw new SerdeException("Error in default value provider for field " + field, e);
-                        }
-                    } else {
-                        // no default value, deserialize the config value
-                        value = normalizeForDeserialization(value, path, field);
-
-                        // find the right deserializer
-                        TypeConstraint resultType = new TypeConstraint(field.getGenericType());
-                        ValueDeserializer<Object, ?> deserializer = settings.findValueDeserializer(value, resultType);
-
-                        // deserialize
-                        try {
-                            Optional<TypeConstraint> type = Optional.of(resultType);
-                            deserialized = deserializer.deserialize(value, type, this);
-                        } catch (Exception ex) {
-                            throw new SerdeException("Error during deserialization of value `" + value + "` to field `" + field + "` with deserializer " + deserializer, ex);
-                        }
-                    }
-
-                    // check the value of the field
-                    if (!assertField(field, destination, deserialized)) {
-                        throw new SerdeAssertException("Field `" + field + "` has an invalid value: " + deserialized);
-                    }
-
-                    // set the field
-                    try {
-                        field.set(destination, deserialized);
-                    } catch (Exception e) {
-                        throw new SerdeException("Could not assign the deserialized value `" + deserialized + "` to the field " + field + ". The original config value was " + value);
-                    }
+                    TypeConstraint type = new TypeConstraint(field.getGenericType());
+                    EnumMap<SerdeDefault.WhenValue, SerdeDefault> defaults = AnnotationProcessor.createSerdePhaseEnumMapEnumMap(field).get(SerdePhase.DESERIALIZING);
+                    boolean dependsOnInstance = AnnotationProcessor.dependsOnInstance(field);
+                    Function<Object, Predicate<Object>> skip = ClassBinding.predicateResolver(dependsOnInstance, instance -> resolveSkipPredicate(field, instance));
+                    Function<Object, Predicate<Object>> assertion = ClassBinding.predicateResolver(dependsOnInstance, instance -> resolveAssertPredicate(field, instance));
+                    fields.add(new ClassBinding.FieldBinding(field, path, null, type, defaults, skip, assertion));
                 }
             }
             cls = cls.getSuperclass();
         }
+        return new ClassBinding(getNamingStrategy(), fields);
     }
 
     private Object normalizeForDeserialization(Object configValue, List<String> path, Field field) {
@@ -123,23 +152,39 @@ public final class DeserializerContext extends AbstractDeSerializerContext {
     /**
      * @return true if the field should be skipped
      */
+    private static boolean skipField(ClassBinding.FieldBinding binding, Object fieldContainer, Object rawConfigValue) {
+        if (binding.skip == null) {
+            return false;
+        }
+        Predicate<Object> skipPredicate = binding.skip.apply(fieldContainer);
+        try {
+            return skipPredicate != null && skipPredicate.test(rawConfigValue);
+        } catch (Exception e) {
+            String msg = "Failed to apply skip predicate for deserialization of field " + binding.field;
+            throw new SerdeException(msg, e);
+        }
+    }
+
+    /**
+     * Combines the skip predicates of a field.
+     *
+     * @return the predicate that returns true if the field should be skipped, or null if there is none
+     */
     @SuppressWarnings("unchecked")
-    private boolean skipField(Field field, Object fieldContainer, Object rawConfigValue) {
+    private static Predicate<Object> resolveSkipPredicate(Field field, Object fieldContainer) {
+        Predicate<Object> result = null;
+
         // Check for SerdeConfig first
         SerdeConfig configAnnot = field.getAnnotation(SerdeConfig.class);
         if (configAnnot != null) {
             try {
                 // Check SerdeSkip within SerdeConfig
                 Predicate<?> skipPredicate = AnnotationProcessor.resolveSerdeConfigSkipPredicate(configAnnot, fieldContainer, SerdePhase.DESERIALIZING, field);
-                if (skipPredicate != null && ((Predicate<Object>) skipPredicate).test(rawConfigValue)) {
-                    return true;
-                }
+                result = ClassBinding.anyOf(result, (Predicate<Object>) skipPredicate);
 
                 // Check SerdeSkipDeserializingIf within SerdeConfig
                 skipPredicate = AnnotationProcessor.resolveSerdeConfigSkipDeserializingIfPredicate(configAnnot, fieldContainer);
-                if (skipPredicate != null && ((Predicate<Object>) skipPredicate).test(rawConfigValue)) {
-                    return true;
-                }
+                result = ClassBinding.anyOf(result, (Predicate<Object>) skipPredicate);
             } catch (Exception e) {
                 String msg = "Failed to resolve or apply skip predicate from SerdeConfig for deserialization of field " + field;
                 throw new SerdeException(msg, e);
@@ -151,9 +196,7 @@ public final class DeserializerContext extends AbstractDeSerializerContext {
         if (skipAnnot != null) {
             try {
                 Predicate<?> skipPredicate = AnnotationProcessor.resolveSkipPredicate(skipAnnot, fieldContainer, SerdePhase.DESERIALIZING, field);
-                if (((Predicate<Object>) skipPredicate).test(rawConfigValue)) {
-                    return true;
-                }
+                result = ClassBinding.anyOf(result, (Predicate<Object>) skipPredicate);
             } catch (Exception e) {
                 String msg = "Failed to resolve or apply skip predicate for deserialization of field " + field;
                 throw new SerdeException(msg, e);
@@ -165,28 +208,47 @@ public final class DeserializerContext extends AbstractDeSerializerContext {
         if (annot != null) {
             try {
                 Predicate<?> skipPredicate = AnnotationProcessor.resolveSkipDeserializingIfPredicate(annot, fieldContainer);
-                return ((Predicate<Object>) skipPredicate).test(rawConfigValue);
+                result = ClassBinding.anyOf(result, (Predicate<Object>) skipPredicate);
             } catch (Exception e) {
                 String msg = "Failed to resolve or apply skip predicate for deserialization of field " + field;
                 throw new SerdeException(msg, e);
             }
         }
 
-        return false;
+        return result;
     }
 
     /**
      * @return false if there is an assertion and it fails
      */
+    private static boolean assertField(ClassBinding.FieldBinding binding, Object fieldContainer, Object fieldValue) {
+        if (binding.assertion == null) {
+            return true;
+        }
+        Predicate<Object> assertPredicate = binding.assertion.apply(fieldContainer);
+        try {
+            return assertPredicate == null || assertPredicate.test(fieldValue);
+        } catch (Exception e) {
+            String msg = "Failed to apply assertion for deserialization of field " + binding.field;
+            throw new SerdeException(msg, e);
+        }
+    }
+
+    /**
+     * Combines the assertions of a field.
+     *
+     * @return the predicate that returns false if the value is invalid, or null if there is none
+     */
     @SuppressWarnings("unchecked")
-    private boolean assertField(Field field, Object fieldContainer, Object fieldValue) {
+    private static Predicate<Object> resolveAssertPredicate(Field field, Object fieldContainer) {
+        Predicate<Object> result = null;
+
         // Check for SerdeConfig first
         SerdeConfig configAnnot = field.getAnnotation(SerdeConfig.class);
         if (configAnnot != null) {
             try {
                 Predicate<?> assertPredicate = AnnotationProcessor.resolveSerdeConfigAssertPredicate(configAnnot, fieldContainer, SerdePhase.DESERIALIZING, field);
-                if (assertPredicate != null && !((Predicate<Object>) assertPredicate).test(fieldValue))
-                    return false;
+                result = (Predicate<Object>) assertPredicate;
             } catch (Exception e) {
                 String msg = "Failed to resolve or apply assertion from SerdeConfig for deserialization of field " + field;
                 throw new SerdeException(msg, e);
@@ -196,15 +258,12 @@ public final class DeserializerContext extends AbstractDeSerializerContext {
         // Check for standalone SerdeAssert annotations
         SerdeAssert[] annot = field.getAnnotationsByType(SerdeAssert.class);
         if (annot.length == 0) {
-            return true;
+            return result;
         }
         try {
             Predicate<?> assertPredicate = AnnotationProcessor.resolveAssertPredicate(annot, fieldContainer,
                     SerdePhase.DESERIALIZING, field);
-            if (assertPredicate == null) {
-                return true;
-            }
-            return ((Predicate<Object>) assertPredicate).test(fieldValue);
+            return ClassBinding.allOf(result, (Predicate<Object>) assertPredicate);
         } catch (Exception e) {
             String msg = "Failed to resolve or apply assertion for deserialization of field " + field;
             throw new SerdeException(msg, e);
@@ -0,0 +1,106 @@
+package re.neotamia.nightconfig.core.serde;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes the value of a field.
+ * <p>
+ * The field is accessed through method handles, which the JIT compiler can optimize much better
+ * than {@link Field#get(Object)} and {@link Field#set(Object, Object)}. If the method handles cannot
+ * be created (for instance because of the restrictions of the module system), the accessor falls
+ * back to reflection.
+ */
+abstract class FieldAccessor {
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	/**
+	 * Creates an accessor for the given field, which must be accessible (public or made
+	 * accessible with {@link Field#setAccessible(boolean)}).
+	 *
+	 * @param field the field to access
+	 * @return a new accessor
+	 */
+	static FieldAccessor of(Field field) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+			// Convert the primitive values like reflection does: allow the widening conversions
+			// (e.g. Integer -> long) and reject the others (e.g. Long -> int).
+			MethodHandle setter = PrimitiveConversions.acceptObjects(lookup.unreflectSetter(field)).asType(SETTER_TYPE);
+			return new HandleAccessor(getter, setter);
+		} catch (IllegalAccessException | RuntimeException e) {
+			return new ReflectiveAccessor(field);
+		}
+	}
+
+	/**
+	 * Reads the value of the field.
+	 *
+	 * @param instance the object that contains the field
+	 * @return the value of the field, boxed if it's a primitive
+	 */
+	abstract Object get(Object instance) throws ReflectiveOperationException;
+
+	/**
+	 * Writes the value of the field.
+	 *
+	 * @param instance the object that contains the field
+	 * @param value    the new value, which is unboxed if the field is a primitive
+	 */
+	abstract void set(Object instance, Object value) throws ReflectiveOperationException;
+
+	private static final class HandleAccessor extends FieldAccessor {
+		private final MethodHandle getter, setter;
+
+		HandleAccessor(MethodHandle getter, MethodHandle setter) {
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		Object get(Object instance) {
+			try {
+				return (Object) getter.invokeExact(instance);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable t) {
+				// field getters don't throw checked exceptions
+				throw new SerdeException("Unexpected exception in field getter " + getter, t);
+			}
+		}
+
+		@Override
+		void set(Object instance, Object value) {
+			try {
+				setter.invokeExact(instance, value);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable t) {
+				// field setters don't throw checked exceptions
+				throw new SerdeException("Unexpected exception in field setter " + setter, t);
+			}
+		}
+	}
+
+	private static final class ReflectiveAccessor extends FieldAccessor {
+		private final Field field;
+
+		ReflectiveAccessor(Field field) {
+			this.field = field;
+		}
+
+		@Override
+		Object get(Object instance) throws IllegalAccessException {
+			return field.get(instance);
+		}
+
+		@Override
+		void set(Object instance, Object value) throws IllegalAccessException {
+			field.set(instance, value);
+		}
+	}
+}
@@ -0,0 +1,403 @@
+package re.neotamia.nightconfig.core.serde;
+
+import re.neotamia.nightconfig.core.CommentedConfig;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.NullObject;
+import re.neotamia.nightconfig.core.UnmodifiableConfig;
+import re.neotamia.nightconfig.core.serde.annotations.SerdeGenerate;
+
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Base class of the serializers and deserializers that are generated at compile time by the
+ * NightConfig annotation processor, for the classes annotated with {@link SerdeGenerate}.
+ * <p>
+ * The generated classes are registered as services in
+ * {@code META-INF/services/re.neotamia.nightconfig.core.serde.GeneratedSerde}. They are found with
+ * {@link ServiceLoader} and automatically used by {@link ObjectSerializer} and {@link ObjectDeserializer}.
+ * <p>
+ * The protected methods of this class are helpers for the generated code, they should not be
+ * used directly.
+ *
+ * @param <T> the type of the objects that are (de)serialized
+ */
+public abstract class GeneratedSerde<T> {
+	private final Class<T> type;
+	private final String[] fieldNames;
+	private final String[] explicitKeys;
+
+	/** the config paths for the last naming strategy that was used */
+	private volatile Paths paths;
+
+	/**
+	 * Creates a new GeneratedSerde.
+	 *
+	 * @param type         the class of the (de)serialized objects
+	 * @param fieldNames   the names of the fields that are (de)serialized
+	 * @param explicitKeys the config keys of the fields, or null for the fields whose key depends
+	 *                     on the naming strategy
+	 */
+	protected GeneratedSerde(Class<T> type, String[] fieldNames, String[] explicitKeys) {
+		this.type = type;
+		this.fieldNames = fieldNames;
+		this.explicitKeys = explicitKeys;
+	}
+
+	/**
+	 * @return the class of the objects that this GeneratedSerde handles
+	 */
+	public final Class<T> type() {
+		return type;
+	}
+
+	/**
+	 * @return true if {@link #newInstance()} is supported, false if {@code T} has no no-arg
+	 * constructor that the generated code can call
+	 */
+	public boolean canCreateInstances() {
+		return false;
+	}
+
+	/**
+	 * Creates a new instance of {@code T}, with its no-arg constructor.
+	 *
+	 * @return a new instance
+	 * @throws SerdeException if {@link #canCreateInstances()} is false
+	 */
+	public T newInstance() {
+		throw new SerdeException("Cannot create an instance of " + type + " from the generated code: there is no accessible no-arg constructor.");
+	}
+
+	/**
+	 * Serializes the fields of {@code source} to {@code destination}.
+	 *
+	 * @param source      the object to serialize
+	 * @param destination the config that we are modifying
+	 * @param ctx         the serialization context
+	 */
+	public abstract void serializeFields(T source, Config destination, SerializerContext ctx);
+
+	/**
+	 * Deserializes the entries of {@code source} to the fields of {@code destination}.
+	 *
+	 * @param source      the config to deserialize
+	 * @param destination the object that we are modifying
+	 * @param ctx         the deserialization context
+	 */
+	public abstract void deserializeFields(UnmodifiableConfig source, T destination, DeserializerContext ctx);
+
+	// ====== Lookup ======
+
+	private static final ClassValue<Optional<GeneratedSerde<?>>> FOR_CLASS = new ClassValue<>() {
+		@Override
+		protected Optional<GeneratedSerde<?>> computeValue(Class<?> cls) {
+			ClassLoader loader = cls.getClassLoader();
+			if (loader == null) {
+				return Optional.empty(); // JDK class
+			}
+			for (GeneratedSerde<?> generated : loadAll(loader)) {
+				if (generated.type == cls) {
+					return Optional.of(generated);
+				}
+			}
+			return Optional.empty();
+		}
+	};
+
+	private static final Map<ClassLoader, List<GeneratedSerde<?>>> BY_LOADER = new WeakHashMap<>();
+
+	private static List<GeneratedSerde<?>> loadAll(ClassLoader loader) {
+		synchronized (BY_LOADER) {
+			return BY_LOADER.computeIfAbsent(loader, l -> {
+				List<GeneratedSerde<?>> list = new ArrayList<>();
+				Iterator<GeneratedSerde> it = ServiceLoader.load(GeneratedSerde.class, l).iterator();
+				while (true) {
+					try {
+						if (!it.hasNext()) {
+							break;
+						}
+						list.add(it.next());
+					} catch (ServiceConfigurationError e) {
+						// ignore the broken entries, the classes will be (de)serialized with reflection
+					}
+				}
+				return list;
+			});
+		}
+	}
+
+	/**
+	 * Finds the generated code of a class.
+	 *
+	 * @param cls the class to (de)serialize
+	 * @return the GeneratedSerde of exactly this class (not a superclass), or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> GeneratedSerde<T> find(Class<T> cls) {
+		return (GeneratedSerde<T>) FOR_CLASS.get(cls).orElse(null);
+	}
+
+	// ====== Helpers for the generated code ======
+
+	/**
+	 * Returns the config paths of the fields, in the order of the {@code fieldNames} given to the
+	 * constructor.
+	 */
+	protected final List<List<String>> paths(SerializerContext ctx) {
+		return paths(ctx.getNamingStrategy());
+	}
+
+	/**
+	 * Returns the config paths of the fields, in the order of the {@code fieldNames} given to the
+	 * constructor.
+	 */
+	protected final List<List<String>> paths(DeserializerContext ctx) {
+		return paths(ctx.getNamingStrategy());
+	}
+
+	private List<List<String>> paths(NamingStrategy strategy) {
+		Paths p = paths;
+		if (p == null || p.strategy != strategy) {
+			List<List<String>> list = new ArrayList<>(fieldNames.length);
+			for (int i = 0; i < fieldNames.length; i++) {
+				String key = explicitKeys[i] == null ? strategy.transformName(fieldNames[i]) : explicitKeys[i];
+				list.add(Collections.singletonList(key));
+			}
+			p = new Paths(strategy, Collections.unmodifiableList(list));
+			paths = p;
+		}
+		return p.paths;
+	}
+
+	private static final class Paths {
+		final NamingStrategy strategy;
+		final List<List<String>> paths;
+
+		Paths(NamingStrategy strategy, List<List<String>> paths) {
+			this.strategy = strategy;
+			this.paths = paths;
+		}
+	}
+
+	/**
+	 * @return true if the transient fields must be ignored
+	 */
+	protected static boolean skipTransient(SerializerContext ctx) {
+		return ctx.settings.applyTransientModifier;
+	}
+
+	/**
+	 * @return true if the transient fields must be ignored
+	 */
+	protected static boolean skipTransient(DeserializerContext ctx) {
+		return ctx.settings.applyTransientModifier;
+	}
+
+	/**
+	 * Fails because a transient field cannot be (de)serialized by the generated code.
+	 */
+	protected static SerdeException inaccessibleTransient(String field) {
+		return new SerdeException("The generated code cannot access the transient field `" + field + "`, it can only be used when transient fields are skipped.");
+	}
+
+	/**
+	 * @return true if the value is empty, see {@link SerdeSkip.SkipIf#IS_EMPTY}
+	 */
+	protected static boolean isEmpty(Object value) {
+		return Util.isEmpty(value);
+	}
+
+	/**
+	 * @return true if the config value is the null value
+	 */
+	protected static boolean isNull(Object configValue) {
+		return configValue == NullObject.NULL_OBJECT;
+	}
+
+	/**
+	 * Deserializes a config value that must be assigned to a field.
+	 *
+	 * @param ctx      the deserialization context
+	 * @param rawValue the raw config value, {@code null} if missing
+	 * @param type     the type of the field
+	 * @param path     the path of the config value
+	 * @param field    the name of the field, for error messages
+	 * @return the deserialized value
+	 */
+	protected static Object deserializeEntry(DeserializerContext ctx, Object rawValue, TypeConstraint type, List<String> path, String field) {
+		if (rawValue == null) {
+			throw new SerdeException("Missing configuration entry " + path + " for field `" + field + "`");
+		} else if (rawValue == NullObject.NULL_OBJECT) {
+			rawValue = null;
+		}
+		try {
+			return ctx.deserializeValue(rawValue, Optional.of(type));
+		} catch (Exception ex) {
+			throw new SerdeException("Error during deserialization of value `" + rawValue + "` to field `" + field + "`", ex);
+		}
+	}
+
+	/**
+	 * Serializes a field value and adds it to the destination config.
+	 *
+	 * @param ctx         the serialization context
+	 * @param destination the config that we are modifying
+	 * @param path        the path of the config entry
+	 * @param value       the value of the field
+	 * @param comment     the comment of the config entry, or null
+	 * @param field       the name of the field, for error messages
+	 */
+	protected static void serializeEntry(SerializerContext ctx, Config destination, List<String> path, Object value, String comment, String field) {
+		try {
+			Object serialized = ctx.serializeValue(value);
+			destination.set(path, serialized);
+			if (comment != null && (destination instanceof CommentedConfig)) {
+				((CommentedConfig) destination).setComment(path, comment);
+			}
+		} catch (Exception ex) {
+			throw new SerdeException("Error during serialization of field `" + field + "`", ex);
+		}
+	}
+
+	/**
+	 * Calls a default value provider.
+	 */
+	protected static Object defaultValue(Supplier<?> provider, String field) {
+		try {
+			return provider.get();
+		} catch (Exception e) {
+			throw new SerdeException("Error in default value provider for field " + field, e);
+		}
+	}
+
+	/**
+	 * @return the exception to throw when a field has an invalid value
+	 */
+	protected static SerdeAssertException invalidValue(String field, Object value) {
+		return new SerdeAssertException("Field `" + field + "` has an invalid value: " + value);
+	}
+
+	/**
+	 * Reads a custom predicate from a field.
+	 */
+	@SuppressWarnings("unchecked")
+	protected static Predicate<Object> predicate(Object fieldValue, String field) {
+		if (fieldValue instanceof Predicate) {
+			return (Predicate<Object>) fieldValue;
+		}
+		throw new SerdeException("Invalid custom predicate: field `" + field + "` must be a non-null Predicate, got " + fieldValue);
+	}
+
+	/**
+	 * Reads a default value provider from a field.
+	 */
+	protected static Supplier<?> supplier(Object fieldValue, String field) {
+		if (fieldValue instanceof Supplier) {
+			return (Supplier<?>) fieldValue;
+		}
+		throw new SerdeException("Invalid default value provider: field `" + field + "` must be a non-null Supplier, got " + fieldValue);
+	}
+
+	// Conversions from Object, with the same rules as Field.set: unboxing followed by an
+	// optional widening primitive conversion.
+
+	protected static <V> V cast(Object value, Class<V> type, String field) {
+		if (value == null || type.isInstance(value)) {
+			return type.cast(value);
+		}
+		throw cannotAssign(value, type, field);
+	}
+
+	protected static boolean asBoolean(Object value, String field) {
+		if (value instanceof Boolean b) {
+			return b;
+		}
+		throw cannotAssign(value, boolean.class, field);
+	}
+
+	protected static char asChar(Object value, String field) {
+		if (value instanceof Character c) {
+			return c;
+		}
+		throw cannotAssign(value, char.class, field);
+	}
+
+	protected static byte asByte(Object value, String field) {
+		if (value instanceof Byte b) {
+			return b;
+		}
+		throw cannotAssign(value, byte.class, field);
+	}
+
+	protected static short asShort(Object value, String field) {
+		if (value instanceof Short || value instanceof Byte) {
+			return ((Number) value).shortValue();
+		}
+		throw cannotAssign(value, short.class, field);
+	}
+
+	protected static int asInt(Object value, String field) {
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).intValue();
+		}
+		if (value instanceof Character c) {
+			return c;
+		}
+		throw cannotAssign(value, int.class, field);
+	}
+
+	protected static long asLong(Object value, String field) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).longValue();
+		}
+		if (value instanceof Character c) {
+			return c;
+		}
+		throw cannotAssign(value, long.class, field);
+	}
+
+	protected static float asFloat(Object value, String field) {
+		if (value instanceof Float || value instanceof Long || value instanceof Integer
+			|| value instanceof Short || value instanceof Byte) {
+			return ((Number) value).floatValue();
+		}
+		if (value instanceof Character c) {
+			return c;
+		}
+		throw cannotAssign(value, float.class, field);
+	}
+
+	protected static double asDouble(Object value, String field) {
+		if (value instanceof Double || value instanceof Float || value instanceof Long
+			|| value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).doubleValue();
+		}
+		if (value instanceof Character c) {
+			return c;
+		}
+		throw cannotAssign(value, double.class, field);
+	}
+
+	private static SerdeException cannotAssign(Object value, Class<?> type, String field) {
+		return new SerdeException("Could not assign the value `" + value + "` to the field `" + field + "` of type " + type.getTypeName());
+	}
+
+	// Construction of the generic types of the fields.
+
+	/**
+	 * @return a {@code Type} that represents {@code rawType<arguments...>}
+	 */
+	protected static Type parameterized(Type rawType, Type... arguments) {
+		return new TypeConstraint.ManuallyParameterized(rawType, arguments);
+	}
+
+	/**
+	 * @return a {@code Type} that represents a wildcard like {@code ? extends Upper}
+	 */
+	protected static Type wildcard(Type[] upperBounds, Type[] lowerBounds) {
+		return new TypeConstraint.RefinedWildcard(lowerBounds, upperBounds);
+	}
+}
@@ -172,6 +172,19 @@ public final class ObjectDeserializerBuilder {
 				return null; // no standard deserializer matches this case
 			}).orElse(null);
 		}));
+
+		// use the code generated by the annotation processor, if any, instead of reflection
+		withDeserializerProvider(((valueClass, resultType) -> {
+			if (valueClass == null || !UnmodifiableConfig.class.isAssignableFrom(valueClass)
+					|| !(resultType.getFullType() instanceof Class)) {
+				return null;
+			}
+			GeneratedSerde<?> generated = GeneratedSerde.find((Class<?>) resultType.getFullType());
+			if (generated == null || !generated.canCreateInstances()) {
+				return null; // fall back to ConfigToPojoDeserializer, which uses reflection to create the instance
+			}
+			return new StandardDeserializers.GeneratedDeserializer<>(generated);
+		}));
 	}
 
 	/** A provider that provides nothing, {@code provide} always returns null. */
@@ -6,12 +6,11 @@ import re.neotamia.nightconfig.core.ConfigFormat;
 import re.neotamia.nightconfig.core.UnmodifiableConfig;
 import re.neotamia.nightconfig.core.file.FileConfig;
 import re.neotamia.nightconfig.core.serde.annotations.SerdeDefault;
-import re.neotamia.nightconfig.core.serde.annotations.SerdePhase;
 
-import java.lang.reflect.Field;
 import java.util.EnumMap;
 import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
@@ -100,6 +99,11 @@ public final class ObjectSerializer {
      */
     public NamingStrategy namingStrategy;
 
+    /**
+     * cache of the serialization plans, see {@link #getClassBinding(Class, SerializerContext)}
+     */
+    private final ConcurrentHashMap<Class<?>, ClassBinding> classBindings = new ConcurrentHashMap<>();
+
     ObjectSerializer(ObjectSerializerBuilder builder) {
         this.classBasedSerializers = builder.classBasedSerializers;
         this.generalProviders = builder.generalProviders;
@@ -167,6 +171,19 @@ public final class ObjectSerializer {
         ctx.serializeFields(source, destination);
     }
 
+    /**
+     * Returns the serialization plan of a class, creates it if needed.
+     * The plan is recreated if the naming strategy has changed since it was cached.
+     */
+    ClassBinding getClassBinding(Class<?> cls, SerializerContext ctx) {
+        ClassBinding binding = classBindings.get(cls);
+        if (binding == null || binding.namingStrategy != namingStrategy) {
+            binding = ctx.bindClass(cls);
+            classBindings.put(cls, binding);
+        }
+        return binding;
+    }
+
     /**
      * Finds a suitable converter for this value.
      *
@@ -193,11 +210,7 @@ public final class ObjectSerializer {
         throw ObjectSerializer.noSerializerFound(value, valueClass, ctx);
     }
 
-    Supplier<?> findDefaultValueSupplier(Object fieldValue, Field field, Object instance) {
-        // Start with standalone SerdeDefault annotations
-        EnumMap<SerdePhase, EnumMap<SerdeDefault.WhenValue, SerdeDefault>> defaultAnnotations = AnnotationProcessor.createSerdePhaseEnumMapEnumMap(field);
-        EnumMap<SerdeDefault.WhenValue, SerdeDefault> defaultForSerializing = defaultAnnotations.get(SerdePhase.SERIALIZING);
-
+    Supplier<?> findDefaultValueSupplier(Object fieldValue, EnumMap<SerdeDefault.WhenValue, SerdeDefault> defaultForSerializing, Object instance) {
         if (defaultForSerializing == null) {
             return null; // no default
         }
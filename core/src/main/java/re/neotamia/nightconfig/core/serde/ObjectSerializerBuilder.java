@@ -161,6 +161,12 @@ public final class ObjectSerializerBuilder {
 			}
             return null;
         });
+
+        // use the code generated by the annotation processor, if any, instead of reflection
+        withSerializerProvider((valueClass, ctx) -> {
+            GeneratedSerde<?> generated = valueClass == null ? null : GeneratedSerde.find(valueClass);
+            return generated == null ? null : new StandardSerializers.GeneratedSerializer<>(generated);
+        });
     }
 
     /** A provider that provides nothing, {@code provide} always returns null. */
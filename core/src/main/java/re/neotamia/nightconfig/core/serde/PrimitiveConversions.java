@@ -0,0 +1,105 @@
+package re.neotamia.nightconfig.core.serde;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Adapts the primitive parameters of method handles to accept any Object, with the same rules
+ * as reflection: the value is unboxed, then converted with a widening primitive conversion if
+ * needed (e.g. Integer to long). The other values, like the ones that would need a narrowing
+ * conversion, are rejected with an {@link IllegalArgumentException}.
+ * <p>
+ * {@link MethodHandle#asType(MethodType)} applies only the unboxing, and
+ * {@link MethodHandles#explicitCastArguments(MethodHandle, MethodType)} also applies the lossy
+ * conversions, hence the explicit checks.
+ */
+final class PrimitiveConversions {
+	private PrimitiveConversions() {}
+
+	/**
+	 * Makes each primitive parameter of the handle accept an Object. The other parameters are not modified.
+	 *
+	 * @param target the handle to adapt
+	 * @return a handle that converts its primitive arguments before invoking the target
+	 */
+	static MethodHandle acceptObjects(MethodHandle target) {
+		Class<?>[] params = target.type().parameterArray();
+		MethodHandle[] filters = new MethodHandle[params.length];
+		for (int i = 0; i < params.length; i++) {
+			if (params[i].isPrimitive()) {
+				filters[i] = converter(params[i]);
+			}
+		}
+		return MethodHandles.filterArguments(target, 0, filters);
+	}
+
+	private static MethodHandle converter(Class<?> primitive) {
+		String name = "to" + Character.toUpperCase(primitive.getName().charAt(0)) + primitive.getName().substring(1);
+		try {
+			return MethodHandles.lookup().findStatic(PrimitiveConversions.class, name,
+				MethodType.methodType(primitive, Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Missing conversion to " + primitive, e);
+		}
+	}
+
+	private static IllegalArgumentException invalid(Object value, Class<?> primitive) {
+		String valueType = (value == null) ? "null" : value.getClass().getName();
+		return new IllegalArgumentException("Cannot convert " + valueType + " to " + primitive);
+	}
+
+	static boolean toBoolean(Object value) {
+		if (value instanceof Boolean b) return b;
+		throw invalid(value, boolean.class);
+	}
+
+	static byte toByte(Object value) {
+		if (value instanceof Byte b) return b;
+		throw invalid(value, byte.class);
+	}
+
+	static char toChar(Object value) {
+		if (value instanceof Character c) return c;
+		throw invalid(value, char.class);
+	}
+
+	static short toShort(Object value) {
+		if (value instanceof Short s) return s;
+		if (value instanceof Byte b) return b;
+		throw invalid(value, short.class);
+	}
+
+	static int toInt(Object value) {
+		if (value instanceof Integer i) return i;
+		if (value instanceof Short || value instanceof Byte) return ((Number)value).intValue();
+		if (value instanceof Character c) return c;
+		throw invalid(value, int.class);
+	}
+
+	static long toLong(Object value) {
+		if (value instanceof Long l) return l;
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) return ((Number)value).longValue();
+		if (value instanceof Character c) return c;
+		throw invalid(value, long.class);
+	}
+
+	static float toFloat(Object value) {
+		if (value instanceof Float f) return f;
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number)value).floatValue();
+		}
+		if (value instanceof Character c) return c;
+		throw invalid(value, float.class);
+	}
+
+	static double toDouble(Object value) {
+		if (value instanceof Double d) return d;
+		if (value instanceof Float || value instanceof Long || value instanceof Integer
+			|| value instanceof Short || value instanceof Byte) {
+			return ((Number)value).doubleValue();
+		}
+		if (value instanceof Character c) return c;
+		throw invalid(value, double.class);
+	}
+}
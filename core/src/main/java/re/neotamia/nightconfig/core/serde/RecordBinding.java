@@ -0,0 +1,82 @@
+package re.neotamia.nightconfig.core.serde;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The deserialization plan of a record: its components, the config keys of the components and
+ * its canonical constructor. It is computed once per record class and cached by the
+ * {@link ObjectDeserializer}.
+ * <p>
+ * The canonical constructor is invoked through a {@link MethodHandle} when possible, with a
+ * fallback to reflection.
+ */
+final class RecordBinding {
+	final Class<?> recordClass;
+	final RecordComponent[] components;
+	final List<List<String>> paths;
+	private final Constructor<?> constructor;
+	/** the canonical constructor, taking an {@code Object[]} of all the components, or null */
+	private final MethodHandle constructorHandle;
+
+	RecordBinding(Class<?> recordClass) {
+		this.recordClass = recordClass;
+		this.components = recordClass.getRecordComponents();
+		this.paths = Arrays.stream(components)
+			.map(c -> Collections.singletonList(c.getName()))
+			.toList();
+		this.constructor = getCanonicalRecordConstructor(recordClass, components);
+		this.constructorHandle = findConstructorHandle(constructor, components.length);
+	}
+
+	/**
+	 * Creates a new instance of the record.
+	 *
+	 * @param componentValues the values of the components, in the order of {@link #components}
+	 * @return the new record
+	 */
+	Object newInstance(Object[] componentValues) throws Exception {
+		if (constructorHandle == null) {
+			return constructor.newInstance(componentValues);
+		}
+		try {
+			return (Object) constructorHandle.invokeExact(componentValues);
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new SerdeException("Unexpected exception in the constructor of record " + recordClass, t);
+		}
+	}
+
+	private static Constructor<?> getCanonicalRecordConstructor(Class<?> cls, RecordComponent[] components) {
+		Class<?>[] paramTypes = Arrays.stream(components)
+			.map(RecordComponent::getType)
+			.toArray(Class<?>[]::new);
+		try {
+			return cls.getDeclaredConstructor(paramTypes);
+		} catch (Exception e) {
+			throw new SerdeException("Failed to get the canonical constructor of record " + cls, e);
+		}
+	}
+
+	private static MethodHandle findConstructorHandle(Constructor<?> constructor, int nComponents) {
+		try {
+			constructor.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+			// Convert the primitive values like reflection does: allow the widening conversions
+			// (e.g. Integer -> long) and reject the others (e.g. Long -> int).
+			return PrimitiveConversions.acceptObjects(handle)
+				.asType(MethodType.genericMethodType(nComponents))
+				.asSpreader(Object[].class, nComponents)
+				.asType(MethodType.methodType(Object.class, Object[].class));
+		} catch (IllegalAccessException | RuntimeException e) {
+			return null; // use reflection
+		}
+	}
+}
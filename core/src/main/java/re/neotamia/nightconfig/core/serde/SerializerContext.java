@@ -7,8 +7,11 @@ import re.neotamia.nightconfig.core.serde.annotations.*;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -71,64 +74,93 @@ public final class SerializerContext extends AbstractDeSerializerContext {
      * @param source      the object that we are serializing
      * @param destination the config that we are modifying (result of the serialization)
      */
+    @SuppressWarnings("unchecked")
     public void serializeFields(Object source, Config destination) {
+        GeneratedSerde<Object> generated = (GeneratedSerde<Object>) GeneratedSerde.find(source.getClass());
+        if (generated != null) {
+            generated.serializeFields(source, destination, this);
+            return;
+        }
+        ClassBinding binding = settings.getClassBinding(source.getClass(), this);
+        for (ClassBinding.FieldBinding fieldBinding : binding.fields) {
+            Field field = fieldBinding.field;
+
+            // read the fields's value
+            Object value;
+            try {
+                value = fieldBinding.accessor.get(source);
+            } catch (Exception e) {
+                throw new SerdeException("Failed to read field `" + field + "`", e);
+            }
+
+            // skip the field if the annotation say so
+            if (skipField(fieldBinding, source, value)) {
+                continue; // don't serialize, go to the next field
+            }
+
+            // get the config key and config comment
+            List<String> path = fieldBinding.path;
+            String comment = fieldBinding.comment;
+
+            // Try to apply the default value.
+            // (Note that this is not symmetrical with the deserialization process: the
+            // default value is always a Java value, and we will serialize this default
+            // value instead of the field's value.)
+            Supplier<?> defaultValueSupplier = settings.findDefaultValueSupplier(value, fieldBinding.defaults, source);
+            if (defaultValueSupplier != null) {
+                try {
+                    value = defaultValueSupplier.get();
+                } catch (Exception e) {
+                    throw new SerdeException("Error in default value provider for field " + field);
+                }
+            }
+
+            // check the value of the field
+            if (!assertField(fieldBinding, source, value)) {
+                throw new SerdeAssertException("Field `" + field + "` has an invalid value: " + value);
+            }
+
+            // find the right serializer
+            ValueSerializer<Object, ?> serializer = settings.findValueSerializer(value, this);
+
+            // serialize the value and modify the destination
+            try {
+                Object serialized = serializer.serialize(value, this);
+                destination.set(path, serialized);
+                if (comment != null && (destination instanceof CommentedConfig)) {
+                    ((CommentedConfig) destination).setComment(path, comment);
+                }
+            } catch (Exception ex) {
+                throw new SerdeException("Error during serialization of field `" + field + "` with serializer " + serializer, ex);
+            }
+        }
+    }
+
+    /**
+     * Computes the serialization plan of a class. This is called once per class by
+     * {@link ObjectSerializer#getClassBinding(Class, SerializerContext)}.
+     *
+     * @param cls the class to analyze
+     * @return the binding of the fields of the class and its superclasses
+     */
+    ClassBinding bindClass(Class<?> cls) {
+        List<ClassBinding.FieldBinding> fields = new ArrayList<>();
         // loop through the class hierarchy of the source type
-        Class<?> cls = source.getClass();
         while (cls != Object.class) {
             for (Field field : cls.getDeclaredFields()) {
                 if (preCheck(field)) {
-                    // read the fields's value
-                    Object value;
-                    try {
-                        value = field.get(source);
-                    } catch (Exception e) {
-                        throw new SerdeException("Failed to read field `" + field + "`", e);
-                    }
-
-                    // skip the field if the annotation say so
-                    if (skipField(field, source, value)) {
-                        continue; // don't serialize, go to the next field
-                    }
-
-                    // get the config key and config comment
                     List<String> path = Collections.singletonList(configKey(field));
                     String comment = configComment(field);
-
-                    // Try to apply the default value.
-                    // (Note that this is not symmetrical with the deserialization process: the
-                    // default value is always a Java value, and we will serialize this default
-                    // value instead of the field's value.)
-                    Supplier<?> defaultValueSupplier = settings.findDefaultValueSupplier(value, field, source);
-                    if (defaultValueSupplier != null) {
-                        try {
-                            value = defaultValueSupplier.get();
-                        } catch (Exception e) {
-                            throw new SerdeException("Error in default value provider for field " + field);
-                        }
-                    }
-
-                    // check the value of the field
-                    if (!assertField(field, source, value)) {
-                        throw new SerdeAssertException("Field `" + field + "` has an invalid value: " + value);
-                    }
-
-                    // find the right serializer
-                    ValueSerializer<Object, ?> serializer = settings.findValueSerializer(value, this);
-
-                    // serialize the value and modify the destination
-                    try {
-                        Object serialized = serializer.serialize(value, this);
-                        destination.set(path, serialized);
-                        if (comment != null && (destination instanceof CommentedConfig)) {
-                            ((CommentedConfig) destination).setComment(path, comment);
-                        }
-                    } catch (Exception ex) {
-                        throw new SerdeException("Error during serialization of field `" + field + "` with serializer " + serializer, ex);
-                    }
+                    EnumMap<SerdeDefault.WhenValue, SerdeDefault> defaults = AnnotationProcessor.createSerdePhaseEnumMapEnumMap(field).get(SerdePhase.SERIALIZING);
+                    boolean dependsOnInstance = AnnotationProcessor.dependsOnInstance(field);
+                    Function<Object, Predicate<Object>> skip = ClassBinding.predicateResolver(dependsOnInstance, instance -> resolveSkipPredicate(field, instance));
+                    Function<Object, Predicate<Object>> assertion = ClassBinding.predicateResolver(dependsOnInstance, instance -> resolveAssertPredicate(field, instance));
+                    fields.add(new ClassBinding.FieldBinding(field, path, comment, null, defaults, skip, assertion));
                 }
             }
             cls = cls.getSuperclass();
         }
+        return new ClassBinding(getNamingStrategy(), fields);
     }
 
     private String configComment(Field field) {
@@ -147,23 +179,38 @@ public final class SerializerContext extends AbstractDeSerializerContext {
     /**
      * @return true if the field should be skipped
      */
+    private static boolean skipField(ClassBinding.FieldBinding binding, Object fieldContainer, Object fieldValue) {
+        if (binding.skip == null)
+            return false;
+        Predicate<Object> skipPredicate = binding.skip.apply(fieldContainer);
+        try {
+            return skipPredicate != null && skipPredicate.test(fieldValue);
+        } catch (Exception e) {
+            String msg = "Failed to apply skip predicate for serialization of field " + binding.field;
+            throw new SerdeException(msg, e);
+        }
+    }
+
+    /**
+     * Combines the skip predicates of a field.
+     *
+     * @return the predicate that returns true if the field should be skipped, or null if there is none
+     */
     @SuppressWarnings("unchecked")
-    private boolean skipField(Field field, Object fieldContainer, Object fieldValue) {
+    private static Predicate<Object> resolveSkipPredicate(Field field, Object fieldContainer) {
+        Predicate<Object> result = null;
+
         // Check for SerdeConfig first
         SerdeConfig configAnnot = field.getAnnotation(SerdeConfig.class);
         if (configAnnot != null) {
             try {
                 // Check SerdeSkip within SerdeConfig
                 Predicate<?> skipPredicate = AnnotationProcessor.resolveSerdeConfigSkipPredicate(configAnnot, fieldContainer, SerdePhase.SERIALIZING, field);
-                if (skipPredicate != null && ((Predicate<Object>) skipPredicate).test(fieldValue)) {
-                    return true;
-                }
+                result = ClassBinding.anyOf(result, (Predicate<Object>) skipPredicate);
 
                 // Check SerdeSkipSerializingIf within SerdeConfig
                 skipPredicate = AnnotationProcessor.resolveSerdeConfigSkipSerializingIfPredicate(configAnnot, fieldContainer, field);
-                if (skipPredicate != null && ((Predicate<Object>) skipPredicate).test(fieldValue)) {
-                    return true;
-                }
+                result = ClassBinding.anyOf(result, (Predicate<Object>) skipPredicate);
             } catch (Exception e) {
                 String msg = "Failed to resolve or apply skip predicate from SerdeConfig for serialization of field " + field;
                 throw new SerdeException(msg, e);
@@ -175,9 +222,7 @@ public final class SerializerContext extends AbstractDeSerializerContext {
         if (skipAnnot != null) {
             try {
                 Predicate<?> skipPredicate = AnnotationProcessor.resolveSkipPredicate(skipAnnot, fieldContainer, SerdePhase.SERIALIZING, field);
-                if (((Predicate<Object>) skipPredicate).test(fieldValue)) {
-                    return true;
-                }
+                result = ClassBinding.anyOf(result, (Predicate<Object>) skipPredicate);
             } catch (Exception e) {
                 String msg = "Failed to resolve or apply skip predicate for serialization of field " + field;
                 throw new SerdeException(msg, e);
@@ -189,28 +234,46 @@ public final class SerializerContext extends AbstractDeSerializerContext {
         if (annot != null) {
             try {
                 Predicate<?> skipPredicate = AnnotationProcessor.resolveSkipSerializingIfPredicate(annot, fieldContainer, field);
-                return ((Predicate<Object>) skipPredicate).test(fieldValue);
+                result = ClassBinding.anyOf(result, (Predicate<Object>) skipPredicate);
             } catch (Exception e) {
                 String msg = "Failed to resolve or apply skip predicate for serialization of field " + field;
                 throw new SerdeException(msg, e);
             }
         }
 
-        return false;
+        return result;
     }
 
     /**
      * @return false if there is an assertion and it fails
      */
+    private static boolean assertField(ClassBinding.FieldBinding binding, Object fieldContainer, Object fieldValue) {
+        if (binding.assertion == null)
+            return true;
+        Predicate<Object> assertPredicate = binding.assertion.apply(fieldContainer);
+        try {
+            return assertPredicate == null || assertPredicate.test(fieldValue);
+        } catch (Exception e) {
+            String msg = "Failed to apply assertion for serialization of field " + binding.field;
+            throw new SerdeException(msg, e);
+        }
+    }
+
+    /**
+     * Combines the assertions of a field.
+     *
+     * @return the predicate that returns false if the value is invalid, or null if there is none
+     */
     @SuppressWarnings("unchecked")
-    private boolean assertField(Field field, Object fieldContainer, Object fieldValue) {
+    private static Predicate<Object> resolveAssertPredicate(Field field, Object fieldContainer) {
+        Predicate<Object> result = null;
+
         // Check for SerdeConfig first
         SerdeConfig configAnnot = field.getAnnotation(SerdeConfig.class);
         if (configAnnot != null) {
             try {
                 Predicate<?> assertPredicate = AnnotationProcessor.resolveSerdeConfigAssertPredicate(configAnnot, fieldContainer, SerdePhase.SERIALIZING, field);
-                if (assertPredicate != null && !((Predicate<Object>) assertPredicate).test(fieldValue))
-                    return false;
+                result = (Predicate<Object>) assertPredicate;
             } catch (Exception e) {
                 String msg = "Failed to resolve or apply assertion from SerdeConfig for serialization of field " + field;
                 throw new SerdeException(msg, e);
@@ -219,12 +282,10 @@ public final class SerializerContext extends AbstractDeSerializerContext {
 
         // Check for standalone SerdeAssert annotations
         SerdeAssert[] annot = field.getAnnotationsByType(SerdeAssert.class);
-        if (annot.length == 0) return true;
+        if (annot.length == 0) return result;
         try {
             Predicate<?> assertPredicate = AnnotationProcessor.resolveAssertPredicate(annot, fieldContainer, SerdePhase.SERIALIZING, field);
-            if (assertPredicate == null)
-                return true;
-            return ((Predicate<Object>) assertPredicate).test(fieldValue);
+            return ClassBinding.allOf(result, (Predicate<Object>) assertPredicate);
         } catch (Exception e) {
             String msg = "Failed to resolve or apply assertion for serialization of field " + field;
             throw new SerdeException(msg, e);
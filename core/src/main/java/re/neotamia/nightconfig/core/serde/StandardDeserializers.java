@@ -336,4 +336,22 @@ final class StandardDeserializers {
             return value.floatValue();
         }
     }
+
+	/**
+	 * Deserializes a {@code Config} to an object with the code generated by the annotation processor.
+	 */
+	static final class GeneratedDeserializer<T> implements ValueDeserializer<UnmodifiableConfig, T> {
+		private final GeneratedSerde<T> generated;
+
+		GeneratedDeserializer(GeneratedSerde<T> generated) {
+			this.generated = generated;
+		}
+
+		@Override
+		public T deserialize(UnmodifiableConfig value, Optional<TypeConstraint> resultType, DeserializerContext ctx) {
+			T instance = generated.newInstance();
+			generated.deserializeFields(value, instance, ctx);
+			return instance;
+		}
+	}
 }
@@ -140,4 +140,22 @@ final class StandardSerializers {
 			return value.toString();
 		}
 	}
+
+	/**
+	 * Converts an object to a config with the code generated by the annotation processor.
+	 */
+	static final class GeneratedSerializer<T> implements ValueSerializer<T, Config> {
+		private final GeneratedSerde<T> generated;
+
+		GeneratedSerializer(GeneratedSerde<T> generated) {
+			this.generated = generated;
+		}
+
+		@Override
+		public Config serialize(T value, SerializerContext ctx) {
+			Config sub = ctx.createConfig();
+			generated.serializeFields(value, sub, ctx);
+			return sub;
+		}
+	}
 }
@@ -0,0 +1,32 @@
+package re.neotamia.nightconfig.core.serde.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Asks the NightConfig annotation processor ({@code night-config:processor}) to generate
+ * the serialization and deserialization code of a class at compile time.
+ * <p>
+ * The generated code reads and writes the fields directly, without reflection, and supports the
+ * other serde annotations. It is automatically used by {@code ObjectSerializer} and
+ * {@code ObjectDeserializer}. Without the annotation processor, this annotation has no effect.
+ * <p>
+ * Because the generated code is not in the annotated class, the (de)serialized fields and the
+ * custom checks and default value providers must not be private. The fields to deserialize must
+ * not be final.
+ *
+ * <pre>
+ * <code>
+ *{@code @SerdeGenerate}
+ *class MyObject {
+ *    {@code @SerdeKey("uuid")}
+ *    String objectUniqueId;
+ *
+ *    int count;
+ *}
+ * </code>
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SerdeGenerate {
+}
@@ -2,7 +2,13 @@ package re.neotamia.nightconfig.core.utils;
 
 import re.neotamia.nightconfig.core.*;
 import re.neotamia.nightconfig.core.concurrent.ConcurrentCommentedConfig;
+import re.neotamia.nightconfig.core.concurrent.ConfigChangeListener;
+import re.neotamia.nightconfig.core.concurrent.ConfigSnapshot;
+import re.neotamia.nightconfig.core.concurrent.ConfigSubscription;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -21,6 +27,42 @@ public abstract class ConcurrentCommentedConfigWrapper<C extends ConcurrentComme
 		return config.createSubConfig();
 	}
 
+	@Override
+	public ConfigSnapshot snapshot() {
+		return config.snapshot();
+	}
+
+	@Override
+	public <T> T compute(List<String> path, Function<? super T, ? extends T> remappingFunction) {
+		return config.compute(path, remappingFunction);
+	}
+
+	@Override
+	public <T> T computeIfAbsent(List<String> path, Function<? super List<String>, ? extends T> mappingFunction) {
+		return config.computeIfAbsent(path, mappingFunction);
+	}
+
+	@Override
+	public <T> T merge(List<String> path, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+		return config.merge(path, value, remappingFunction);
+	}
+
+	@Override
+	public boolean compareAndSet(List<String> path, Object expectedValue, Object newValue) {
+		return config.compareAndSet(path, expectedValue, newValue);
+	}
+
+	@Override
+	public <T> ConfigSubscription subscribe(List<String> path, ConfigChangeListener<T> listener,
+			Consumer<? super Exception> exceptionHandler) {
+		return config.subscribe(path, listener, exceptionHandler);
+	}
+
+	@Override
+	public Object[] getAll(Collection<? extends List<String>> paths) {
+		return config.getAll(paths);
+	}
+
 	@Override
 	public void bulkRead(Consumer<? super UnmodifiableConfig> action) {
 		config.bulkRead(action);
@@ -0,0 +1,507 @@
+package re.neotamia.nightconfig.core.utils;
+
+import re.neotamia.nightconfig.core.NullObject;
+
+import java.util.*;
+
+/**
+ * A Map that stores its numeric values without boxing them. It is meant to be used as the
+ * backing map of the configurations that contain a lot of numbers, for instance with
+ * {@code Config.of(PrimitiveValueMap::new, format)} or
+ * {@code GenericBuilder.backingMapCreator(PrimitiveValueMap::new)}.
+ * <p>
+ * The values of type Integer, Long, Double, Float, Short and Byte are stored in a {@code long}
+ * array, the other values in an {@code Object} array. The numbers are boxed again when they are
+ * read with {@link #get(Object)}; use {@link #getInt(String)}, {@link #getLong(String)},
+ * {@link #getDouble(String)} and their {@code OrElse} variants to avoid that.
+ * The insertion order is preserved.
+ * <p>
+ * This map is not thread-safe. It can be read concurrently by {@code StampedConfig}, with the
+ * usual validation of the optimistic reads: a racing read may throw an unchecked exception or
+ * return an inconsistent value, but it never loops forever.
+ */
+public final class PrimitiveValueMap extends AbstractMap<String, Object> {
+	private static final byte REF = 0, INT = 1, LONG = 2, DOUBLE = 3, FLOAT = 4, SHORT = 5, BYTE = 6;
+
+	/** Marks a removed entry in the index */
+	private static final int REMOVED = -1;
+
+	/**
+	 * Open-addressing hash index: 0 for an empty slot, {@link #REMOVED} for a removed entry,
+	 * and {@code n > 0} for the entry n-1 of the arrays below.
+	 */
+	private int[] index;
+
+	/** The entries, in insertion order. A null key marks a removed entry. */
+	private String[] keys;
+	private Object[] refs;
+	private long[] bits;
+	private byte[] kinds;
+
+	/** The number of entries used in the arrays, including the removed ones. */
+	private int used;
+	private int size;
+	private int modCount;
+
+	private Set<Entry<String, Object>> entrySet;
+
+	public PrimitiveValueMap() {
+		this(8);
+	}
+
+	/**
+	 * Creates a new map that can contain the given number of entries before being resized.
+	 *
+	 * @param initialCapacity the initial capacity
+	 */
+	public PrimitiveValueMap(int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Invalid capacity " + initialCapacity);
+		}
+		allocate(Math.max(initialCapacity, 2));
+	}
+
+	private void allocate(int capacity) {
+		keys = new String[capacity];
+		refs = new Object[capacity];
+		bits = new long[capacity];
+		kinds = new byte[capacity];
+		// at most half of the index is used: the probing always finds an empty slot
+		index = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @return the position of the key in the index, or -1 if the key is not in the map
+	 */
+	private int findSlot(Object key) {
+		final int[] index = this.index;
+		final String[] keys = this.keys;
+		final int mask = index.length - 1;
+		int slot = hash(key) & mask;
+		for (int n = 0; n < index.length; n++) {
+			int e = index[slot];
+			if (e == 0) {
+				return -1;
+			}
+			if (e > 0 && key.equals(keys[e - 1])) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the position of the key in the entry arrays, or -1 if the key is not in the map
+	 */
+	private int findEntry(Object key) {
+		if (key == null) {
+			return -1;
+		}
+		int slot = findSlot(key);
+		return (slot < 0) ? -1 : index[slot] - 1;
+	}
+
+	private void store(int i, Object value) {
+		if (value instanceof Integer v) {
+			kinds[i] = INT;
+			bits[i] = v;
+		} else if (value instanceof Long v) {
+			kinds[i] = LONG;
+			bits[i] = v;
+		} else if (value instanceof Double v) {
+			kinds[i] = DOUBLE;
+			bits[i] = Double.doubleToRawLongBits(v);
+		} else if (value instanceof Float v) {
+			kinds[i] = FLOAT;
+			bits[i] = Float.floatToRawIntBits(v);
+		} else if (value instanceof Short v) {
+			kinds[i] = SHORT;
+			bits[i] = v;
+		} else if (value instanceof Byte v) {
+			kinds[i] = BYTE;
+			bits[i] = v;
+		} else {
+			kinds[i] = REF;
+			refs[i] = value;
+			return;
+		}
+		refs[i] = null;
+	}
+
+	private Object valueAt(int i) {
+		long b = bits[i];
+		return switch (kinds[i]) {
+			case INT -> (int) b;
+			case LONG -> b;
+			case DOUBLE -> Double.longBitsToDouble(b);
+			case FLOAT -> Float.intBitsToFloat((int) b);
+			case SHORT -> (short) b;
+			case BYTE -> (byte) b;
+			default -> refs[i];
+		};
+	}
+
+	/**
+	 * @return the Number at the position i, or null if the entry is a null or NULL_OBJECT reference
+	 */
+	private Number refNumberAt(int i) {
+		Object ref = refs[i];
+		return (ref == null || ref == NullObject.NULL_OBJECT) ? null : (Number) ref;
+	}
+
+	/**
+	 * @return the Number at the position i
+	 * @throws NullPointerException if the entry is a null or NULL_OBJECT reference
+	 */
+	private Number requireRefNumber(int i, String key) {
+		Number n = refNumberAt(i);
+		if (n == null) {
+			throw missing(key);
+		}
+		return n;
+	}
+
+	private static NullPointerException missing(String key) {
+		return new NullPointerException("No value for key " + key);
+	}
+
+	// ----- Primitive getters -----
+
+	/**
+	 * Returns the value associated to the key, as an int. The value must be a Number.
+	 * Like {@link Number#intValue()}, but without boxing.
+	 *
+	 * @throws NullPointerException if there is no value associated to the key
+	 * @throws ClassCastException   if the value is not a Number
+	 */
+	public int getInt(String key) {
+		int i = findEntry(key);
+		if (i < 0) {
+			throw missing(key);
+		}
+		return switch (kinds[i]) {
+			case REF -> requireRefNumber(i, key).intValue();
+			case DOUBLE -> (int) Double.longBitsToDouble(bits[i]);
+			case FLOAT -> (int) Float.intBitsToFloat((int) bits[i]);
+			default -> (int) bits[i];
+		};
+	}
+
+	/**
+	 * Returns the value associated to the key as an int, or the default value if there is no value
+	 * or if the value is {@link NullObject#NULL_OBJECT}. The value must be a Number.
+	 */
+	public int getIntOrElse(String key, int defaultValue) {
+		int i = findEntry(key);
+		if (i < 0) {
+			return defaultValue;
+		}
+		return switch (kinds[i]) {
+			case REF -> {
+				Number n = refNumberAt(i);
+				yield (n == null) ? defaultValue : n.intValue();
+			}
+			case DOUBLE -> (int) Double.longBitsToDouble(bits[i]);
+			case FLOAT -> (int) Float.intBitsToFloat((int) bits[i]);
+			default -> (int) bits[i];
+		};
+	}
+
+	/**
+	 * Returns the value associated to the key, as a long. The value must be a Number.
+	 * Like {@link Number#longValue()}, but without boxing.
+	 *
+	 * @throws NullPointerException if there is no value associated to the key
+	 * @throws ClassCastException   if the value is not a Number
+	 */
+	public long getLong(String key) {
+		int i = findEntry(key);
+		if (i < 0) {
+			throw missing(key);
+		}
+		return switch (kinds[i]) {
+			case REF -> requireRefNumber(i, key).longValue();
+			case DOUBLE -> (long) Double.longBitsToDouble(bits[i]);
+			case FLOAT -> (long) Float.intBitsToFloat((int) bits[i]);
+			default -> bits[i];
+		};
+	}
+
+	/**
+	 * Returns the value associated to the key as a long, or the default value if there is no value
+	 * or if the value is {@link NullObject#NULL_OBJECT}. The value must be a Number.
+	 */
+	public long getLongOrElse(String key, long defaultValue) {
+		int i = findEntry(key);
+		if (i < 0) {
+			return defaultValue;
+		}
+		return switch (kinds[i]) {
+			case REF -> {
+				Number n = refNumberAt(i);
+				yield (n == null) ? defaultValue : n.longValue();
+			}
+			case DOUBLE -> (long) Double.longBitsToDouble(bits[i]);
+			case FLOAT -> (long) Float.intBitsToFloat((int) bits[i]);
+			default -> bits[i];
+		};
+	}
+
+	/**
+	 * Returns the value associated to the key, as a double. The value must be a Number.
+	 * Like {@link Number#doubleValue()}, but without boxing.
+	 *
+	 * @throws NullPointerException if there is no value associated to the key
+	 * @throws ClassCastException   if the value is not a Number
+	 */
+	public double getDouble(String key) {
+		int i = findEntry(key);
+		if (i < 0) {
+			throw missing(key);
+		}
+		return switch (kinds[i]) {
+			case REF -> requireRefNumber(i, key).doubleValue();
+			case DOUBLE -> Double.longBitsToDouble(bits[i]);
+			case FLOAT -> Float.intBitsToFloat((int) bits[i]);
+			default -> bits[i];
+		};
+	}
+
+	/**
+	 * Returns the value associated to the key as a double, or the default value if there is no
+	 * value or if the value is {@link NullObject#NULL_OBJECT}. The value must be a Number.
+	 */
+	public double getDoubleOrElse(String key, double defaultValue) {
+		int i = findEntry(key);
+		if (i < 0) {
+			return defaultValue;
+		}
+		return switch (kinds[i]) {
+			case REF -> {
+				Number n = refNumberAt(i);
+				yield (n == null) ? defaultValue : n.doubleValue();
+			}
+			case DOUBLE -> Double.longBitsToDouble(bits[i]);
+			case FLOAT -> Float.intBitsToFloat((int) bits[i]);
+			default -> bits[i];
+		};
+	}
+
+	// ----- Map -----
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return findEntry(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		int i = findEntry(key);
+		return (i < 0) ? null : valueAt(i);
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		Objects.requireNonNull(key, "PrimitiveValueMap does not support null keys");
+		int i = findEntry(key);
+		if (i >= 0) {
+			Object old = valueAt(i);
+			store(i, value);
+			return old;
+		}
+		if (used == keys.length) {
+			// compact the removed entries, or grow
+			rebuild(size < used / 2 ? keys.length : keys.length * 2);
+		}
+		final int mask = index.length - 1;
+		int slot = hash(key) & mask;
+		while (index[slot] > 0) {
+			slot = (slot + 1) & mask;
+		}
+		int e = used++;
+		keys[e] = key;
+		store(e, value);
+		index[slot] = e + 1;
+		size++;
+		modCount++;
+		return null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (key == null) {
+			return null;
+		}
+		int slot = findSlot(key);
+		if (slot < 0) {
+			return null;
+		}
+		int i = index[slot] - 1;
+		Object old = valueAt(i);
+		index[slot] = REMOVED;
+		keys[i] = null;
+		refs[i] = null;
+		size--;
+		modCount++;
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(index, 0);
+		Arrays.fill(keys, 0, used, null);
+		Arrays.fill(refs, 0, used, null);
+		used = 0;
+		size = 0;
+		modCount++;
+	}
+
+	private void rebuild(int capacity) {
+		String[] oldKeys = keys;
+		Object[] oldRefs = refs;
+		long[] oldBits = bits;
+		byte[] oldKinds = kinds;
+		int oldUsed = used;
+		allocate(capacity);
+		final int mask = index.length - 1;
+		int e = 0;
+		for (int i = 0; i < oldUsed; i++) {
+			String key = oldKeys[i];
+			if (key != null) {
+				keys[e] = key;
+				refs[e] = oldRefs[i];
+				bits[e] = oldBits[i];
+				kinds[e] = oldKinds[i];
+				int slot = hash(key) & mask;
+				while (index[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				index[slot] = ++e;
+			}
+		}
+		used = e;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Set<Entry<String, Object>> es = entrySet;
+		return (es == null) ? (entrySet = new EntrySet()) : es;
+	}
+
+	private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+		@Override
+		public Iterator<Entry<String, Object>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public void clear() {
+			PrimitiveValueMap.this.clear();
+		}
+	}
+
+	private final class EntryIterator implements Iterator<Entry<String, Object>> {
+		private int next = advance(0);
+		private int last = -1;
+		private int expectedModCount = modCount;
+
+		private int advance(int from) {
+			while (from < used && keys[from] == null) {
+				from++;
+			}
+			return from;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < used;
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (next >= used) {
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next = advance(next + 1);
+			return new MapEntry(last);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			PrimitiveValueMap.this.remove(keys[last]);
+			expectedModCount = modCount;
+			last = -1;
+		}
+	}
+
+	private final class MapEntry implements Entry<String, Object> {
+		private final int i;
+		private final String key;
+
+		MapEntry(int i) {
+			this.i = i;
+			this.key = keys[i];
+		}
+
+		@Override
+		public String getKey() {
+			return key;
+		}
+
+		@Override
+		public Object getValue() {
+			return (keys[i] == key) ? valueAt(i) : get(key);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			if (keys[i] == key) {
+				Object old = valueAt(i);
+				store(i, value);
+				return old;
+			}
+			return put(key, value);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Entry<?, ?> e && key.equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return key.hashCode() ^ Objects.hashCode(getValue());
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + getValue();
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package re.neotamia.nightconfig.core;
+
+import org.junit.jupiter.api.Test;
+import re.neotamia.nightconfig.core.ConfigDiff.Change;
+import re.neotamia.nightconfig.core.ConfigDiff.CommentChange;
+import re.neotamia.nightconfig.core.ConfigDiff.Kind;
+import re.neotamia.nightconfig.core.concurrent.ConcurrentConfig;
+import re.neotamia.nightconfig.core.concurrent.ConfigSnapshot;
+import re.neotamia.nightconfig.core.concurrent.CopyOnWriteConfig;
+import re.neotamia.nightconfig.core.concurrent.StampedConfig;
+import re.neotamia.nightconfig.core.concurrent.StripedConfig;
+import re.neotamia.nightconfig.core.concurrent.SynchronizedConfig;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigDiffTest {
+	@Test
+	public void entries() {
+		Config before = Config.inMemory();
+		before.set("same", 1);
+		before.set("changed", "a");
+		before.set("removed", true);
+		before.set("nil", null);
+		before.set("sub.same", 2);
+		before.set("sub.changed", 3);
+		before.set("gone.x", 4);
+		before.set("type", 5);
+
+		Config after = Config.inMemory();
+		after.set("same", 1);
+		after.set("changed", "b");
+		after.set("nil", "not null");
+		after.set("sub.same", 2);
+		after.set("sub.changed", 30);
+		after.set("sub.added", 31);
+		after.set("type.x", 5);
+		after.set("added", List.of(1, 2));
+
+		ConfigDiff diff = ConfigDiff.of(before, after);
+		assertEquals(List.of(
+			new Change(Kind.CHANGED, ConfigPath.of("changed"), "a", "b"),
+			new Change(Kind.REMOVED, ConfigPath.of("removed"), true, null),
+			new Change(Kind.CHANGED, ConfigPath.of("nil"), null, "not null"),
+			new Change(Kind.CHANGED, ConfigPath.of("sub.changed"), 3, 30),
+			new Change(Kind.ADDED, ConfigPath.of("sub.added"), null, 31),
+			new Change(Kind.REMOVED, ConfigPath.of("gone"), before.get("gone"), null),
+			new Change(Kind.CHANGED, ConfigPath.of("type"), 5, after.get("type")),
+			new Change(Kind.ADDED, ConfigPath.of("added"), null, List.of(1, 2))
+		), sortedLike(diff.changes()));
+		assertTrue(diff.commentChanges().isEmpty());
+		assertFalse(diff.isEmpty());
+
+		assertTrue(ConfigDiff.of(before, before).isEmpty());
+		assertTrue(ConfigDiff.of(after, Config.copy(after)).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> ConfigDiff.of(before, after, 0));
+	}
+
+	/** Checks the changes without depending on the iteration order of the maps. */
+	private static List<Change> sortedLike(List<Change> changes) {
+		assertEquals(8, changes.size());
+		return List.of(
+			find(changes, "changed"), find(changes, "removed"), find(changes, "nil"), find(changes, "sub.changed"),
+			find(changes, "sub.added"), find(changes, "gone"), find(changes, "type"), find(changes, "added"));
+	}
+
+	private static Change find(List<Change> changes, String path) {
+		return changes.stream().filter(c -> c.path().equals(ConfigPath.of(path))).findFirst().orElseThrow();
+	}
+
+	@Test
+	public void order() {
+		Config before = Config.of(LinkedHashMap::new, InMemoryFormat.defaultInstance());
+		before.set("a", 1);
+		before.set("b.x", 2);
+		before.set("c", 3);
+		Config after = Config.of(LinkedHashMap::new, InMemoryFormat.defaultInstance());
+		after.set("d", 4);
+		after.set("c", 30);
+		after.set("b.y", 5);
+		after.set("b.x", 20);
+		after.set("a", 10);
+
+		// depth-first, in the order of the old levels, then the added entries of each level
+		assertEquals(List.of(
+			new Change(Kind.CHANGED, ConfigPath.of("a"), 1, 10),
+			new Change(Kind.CHANGED, ConfigPath.of("b.x"), 2, 20),
+			new Change(Kind.ADDED, ConfigPath.of("b.y"), null, 5),
+			new Change(Kind.CHANGED, ConfigPath.of("c"), 3, 30),
+			new Change(Kind.ADDED, ConfigPath.of("d"), null, 4)
+		), ConfigDiff.of(before, after).changes());
+	}
+
+	@Test
+	public void comments() {
+		CommentedConfig before = CommentedConfig.inMemory();
+		before.set("a", 1);
+		before.setComment("a", "old");
+		before.set("sub.b", 2);
+		before.setComment("sub.b", "removed comment");
+
+		CommentedConfig after = CommentedConfig.inMemory();
+		after.set("a", 1);
+		after.setComment("a", "new");
+		after.set("sub.b", 2);
+		after.set("c", 3);
+		after.setComment("c", "added comment");
+
+		ConfigDiff diff = ConfigDiff.of(before, after);
+		assertEquals(List.of(new Change(Kind.ADDED, ConfigPath.of("c"), null, 3)), diff.changes());
+		assertEquals(3, diff.commentChanges().size());
+		assertTrue(diff.commentChanges().contains(new CommentChange(ConfigPath.of("a"), "old", "new")));
+		assertTrue(diff.commentChanges().contains(new CommentChange(ConfigPath.of("sub.b"), "removed comment", null)));
+		assertTrue(diff.commentChanges().contains(new CommentChange(ConfigPath.of("c"), null, "added comment")));
+
+		// the comments are ignored if one of the configs isn't commented
+		Config plain = Config.inMemory();
+		plain.set("a", 1);
+		plain.set("sub.b", 2);
+		diff = ConfigDiff.of(plain, after);
+		assertEquals(List.of(new Change(Kind.ADDED, ConfigPath.of("c"), null, 3)), diff.changes());
+		assertTrue(diff.commentChanges().isEmpty());
+	}
+
+	@Test
+	public void headerComments() {
+		CommentedConfig before = CommentedConfig.inMemory();
+		before.setHeaderComment("old header");
+		before.set("sub.a", 1);
+		before.set("same.b", 2);
+		before.<CommentedConfig>get("same").setHeaderComment("same header");
+
+		CommentedConfig after = CommentedConfig.inMemory();
+		after.setHeaderComment("new header");
+		after.set("sub.a", 1);
+		after.<CommentedConfig>get("sub").setHeaderComment("added header");
+		after.set("same.b", 2);
+		after.<CommentedConfig>get("same").setHeaderComment("same header");
+
+		ConfigDiff diff = ConfigDiff.of(before, after);
+		assertTrue(diff.changes().isEmpty());
+		assertTrue(diff.commentChanges().isEmpty());
+		assertEquals(List.of(
+			new CommentChange(null, "old header", "new header"),
+			new CommentChange(ConfigPath.of("sub"), null, "added header")
+		), diff.headerCommentChanges());
+		assertFalse(diff.isEmpty());
+	}
+
+	@Test
+	public void sharedSubConfigs() {
+		Config shared = Config.inMemory();
+		shared.set("x", 1);
+		Config before = Config.inMemory();
+		before.set("shared", shared);
+		before.set("y", 2);
+		Config after = Config.inMemory();
+		after.set("shared", shared);
+		after.set("y", 3);
+
+		// the shared level is not compared: a change made to it is invisible
+		shared.set("x", 10);
+		assertEquals(List.of(new Change(Kind.CHANGED, ConfigPath.of("y"), 2, 3)), ConfigDiff.of(before, after).changes());
+	}
+
+	@Test
+	public void parallel() {
+		// StampedConfig is commented and can be read from several threads
+		Config before = new StampedConfig();
+		Config after = new StampedConfig();
+		for (int i = 0; i < 2000; i++) {
+			before.set("table" + (i % 50) + ".key" + i, i);
+			after.set("table" + (i % 50) + ".key" + i, (i % 7 == 0) ? -1 - i : i);
+		}
+		after.set("table1.new", true);
+		before.set("table2.old", true);
+
+		ConfigDiff sequential = ConfigDiff.of(before, after);
+		assertEquals(2000 / 7 + 1 + 2, sequential.changes().size());
+		assertEquals(sequential.changes(), ConfigDiff.of(before, after, 1).changes());
+		assertEquals(sequential.changes(), ConfigDiff.of(before, after, 16).changes());
+	}
+
+	@Test
+	public void snapshots() {
+		for (ConcurrentConfig config : List.of(new StampedConfig(), new SynchronizedConfig(), new StripedConfig())) {
+			config.set("a", 1);
+			config.set("sub.b", 2);
+			ConfigSnapshot s1 = config.snapshot();
+			// each sub-configuration is exposed as the same object
+			assertSame(s1.get("sub"), s1.get("sub"));
+			assertSame(s1.get("sub"), s1.valueMap().get("sub"));
+
+			// without modification, the snapshot is reused and the comparison is immediate
+			ConfigSnapshot s2 = config.snapshot();
+			assertSame(s1, s2);
+			assertTrue(ConfigDiff.of(s1, s2).isEmpty());
+
+			config.set("sub.b", 3);
+			assertEquals(List.of(new Change(Kind.CHANGED, ConfigPath.of("sub.b"), 2, 3)),
+				ConfigDiff.of(s1, config.snapshot()).changes());
+		}
+	}
+
+	@Test
+	public void copyOnWriteSnapshots() {
+		CopyOnWriteConfig config = new CopyOnWriteConfig();
+		config.set("a", 1);
+		config.set("sub.b", 2);
+		config.set("other.c", 3);
+		ConfigSnapshot s1 = config.snapshot();
+
+		// the snapshots and their levels are distinct objects, but they share the unmodified levels
+		ConfigSnapshot s2 = config.snapshot();
+		assertNotSame(s1, s2);
+		assertNotSame(s1.get("sub"), s2.get("sub"));
+		assertTrue(CopyOnWriteConfig.sharesContent(s1, s2));
+		assertTrue(ConfigDiff.of(s1, s2).isEmpty());
+
+		config.set("other.c", 30);
+		config.setHeaderComment("header");
+		ConfigSnapshot s3 = config.snapshot();
+		assertFalse(CopyOnWriteConfig.sharesContent(s1, s3));
+		assertTrue(CopyOnWriteConfig.sharesContent(s1.get("sub"), s3.get("sub")));
+		assertFalse(CopyOnWriteConfig.sharesContent(s1.get("other"), s3.get("other")));
+		ConfigDiff diff = ConfigDiff.of(s1, s3);
+		assertEquals(List.of(new Change(Kind.CHANGED, ConfigPath.of("other.c"), 3, 30)), diff.changes());
+		assertEquals(List.of(new CommentChange(null, null, "header")), diff.headerCommentChanges());
+
+		// the other configs never share their content
+		Config plain = Config.inMemory();
+		assertFalse(CopyOnWriteConfig.sharesContent(plain, plain));
+	}
+}
@@ -0,0 +1,66 @@
+package re.neotamia.nightconfig.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigPathCacheTest {
+	@AfterEach
+	public void disableCache() {
+		ConfigPathCache.disable();
+	}
+
+	@Test
+	public void disabledByDefault() {
+		assertNull(ConfigPathCache.current());
+		List<String> a = ConfigPathCache.split("a.b");
+		assertEquals(List.of("a", "b"), a);
+		assertNotSame(a, ConfigPathCache.split("a.b"));
+	}
+
+	@Test
+	public void hitsAndMisses() {
+		ConfigPathCache cache = ConfigPathCache.enable(16);
+		assertSame(cache, ConfigPathCache.current());
+
+		Config config = Config.inMemory();
+		config.set("a.b.c", 1);
+		assertEquals(1, config.getInt("a.b.c"));
+		assertTrue(config.contains("a.b.c"));
+		assertEquals(1, cache.misses());
+		assertEquals(2, cache.hits());
+		assertEquals(1, cache.size());
+		assertSame(ConfigPathCache.split("a.b.c"), cache.get("a.b.c"));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.hits());
+		assertEquals(0, cache.misses());
+	}
+
+	@Test
+	public void bounded() {
+		ConfigPathCache cache = ConfigPathCache.enable(4);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(List.of("key", String.valueOf(i)), cache.get("key." + i));
+		}
+		assertEquals(4, cache.size());
+		assertEquals(100, cache.misses());
+		assertThrows(IllegalArgumentException.class, () -> ConfigPathCache.enable(0));
+	}
+
+	@Test
+	public void usedPathsAreKept() {
+		ConfigPathCache cache = ConfigPathCache.enable(4);
+		ConfigPath hot = cache.get("hot.path");
+		for (int i = 0; i < 100; i++) {
+			cache.get("key." + i);
+			assertSame(hot, cache.get("hot.path"));
+		}
+		assertEquals(4, cache.size());
+		assertEquals(101, cache.misses());
+	}
+}
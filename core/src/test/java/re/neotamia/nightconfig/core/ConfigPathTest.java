@@ -0,0 +1,61 @@
+package re.neotamia.nightconfig.core;
+
+import org.junit.jupiter.api.Test;
+import re.neotamia.nightconfig.core.concurrent.StampedConfig;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigPathTest {
+	@Test
+	public void listBehavior() {
+		ConfigPath path = ConfigPath.of("a.b.c");
+		List<String> list = Arrays.asList("a", "b", "c");
+		assertEquals(list, path);
+		assertEquals(path, list);
+		assertEquals(list.hashCode(), path.hashCode());
+		assertEquals(path, ConfigPath.of("a", "b", "c"));
+		assertSame(path, ConfigPath.of(path));
+		assertEquals("a.b.c", path.toString());
+		assertEquals(Arrays.asList("", "a", ""), ConfigPath.of(".a."));
+		assertThrows(UnsupportedOperationException.class, () -> path.add("d"));
+		assertThrows(NullPointerException.class, () -> ConfigPath.of("a", null));
+		assertThrows(IllegalArgumentException.class, () -> ConfigPath.of(new String[0]));
+	}
+
+	@Test
+	public void navigation() {
+		ConfigPath path = ConfigPath.of("a.b");
+		assertEquals(ConfigPath.of("a"), path.parent());
+		assertNull(ConfigPath.of("a").parent());
+		assertEquals(ConfigPath.of("a.b.c"), path.resolve("c"));
+		assertEquals("b", path.lastKey());
+	}
+
+	@Test
+	public void configAccess() {
+		accessWith(Config.inMemory());
+		accessWith(CommentedConfig.inMemory());
+		accessWith(new StampedConfig());
+	}
+
+	private static void accessWith(Config config) {
+		ConfigPath top = ConfigPath.of("top");
+		ConfigPath nested = ConfigPath.of("a.b.c");
+		config.set(top, 1);
+		config.set(nested, "value");
+		assertEquals(1, config.getInt(top));
+		assertEquals("value", config.get(nested));
+		assertEquals("value", config.get("a.b.c"));
+		assertTrue(config.contains(nested));
+		assertFalse(config.contains(nested.resolve("d")));
+		assertNull(config.get(ConfigPath.of("top.x")));
+		assertTrue(config.add(ConfigPath.of("a.b.d"), null));
+		assertTrue(config.isNull(ConfigPath.of("a.b.d")));
+		assertEquals("value", config.remove(nested));
+		assertFalse(config.contains("a.b.c"));
+		assertThrows(IncompatibleIntermediaryLevelException.class, () -> config.set(ConfigPath.of("top.x"), 2));
+	}
+}
@@ -0,0 +1,109 @@
+package re.neotamia.nightconfig.core;
+
+import org.junit.jupiter.api.Test;
+import re.neotamia.nightconfig.core.concurrent.StampedConfig;
+import re.neotamia.nightconfig.core.utils.PrimitiveValueMap;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrimitiveValueMapTest {
+	@Test
+	public void behavesLikeLinkedHashMap() {
+		Map<String, Object> expected = new LinkedHashMap<>();
+		Map<String, Object> map = new PrimitiveValueMap(2);
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+			String key = "k" + random.nextInt(300);
+			switch (random.nextInt(4)) {
+				case 0 -> assertEquals(expected.remove(key), map.remove(key));
+				case 1 -> {
+					int value = random.nextInt();
+					assertEquals(expected.put(key, value), map.put(key, value));
+				}
+				case 2 -> {
+					Object value = switch (random.nextInt(6)) {
+						case 0 -> random.nextLong();
+						case 1 -> random.nextDouble();
+						case 2 -> random.nextFloat();
+						case 3 -> (short)random.nextInt();
+						case 4 -> (byte)random.nextInt();
+						default -> "s" + random.nextInt();
+					};
+					assertEquals(expected.put(key, value), map.put(key, value));
+				}
+				default -> assertEquals(expected.get(key), map.get(key));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		assertEquals(expected, map);
+		assertEquals(map, expected);
+		assertEquals(expected.hashCode(), map.hashCode());
+		assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+
+		map.entrySet().removeIf(e -> e.getValue() instanceof String);
+		expected.entrySet().removeIf(e -> e.getValue() instanceof String);
+		assertEquals(expected, map);
+
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertNull(map.get("k1"));
+	}
+
+	@Test
+	public void valueTypes() {
+		PrimitiveValueMap map = new PrimitiveValueMap();
+		map.put("int", 1);
+		map.put("long", 1L << 40);
+		map.put("double", 1.5);
+		map.put("float", 2.5f);
+		map.put("null", NullObject.NULL_OBJECT);
+		map.put("string", "s");
+		assertEquals(Integer.class, map.get("int").getClass());
+		assertEquals(Long.class, map.get("long").getClass());
+		assertEquals(Float.class, map.get("float").getClass());
+		assertEquals(1L << 40, map.getLong("long"));
+		assertEquals((int)(1L << 40), map.getInt("long"));
+		assertEquals(1, map.getInt("double"));
+		assertEquals(2.5, map.getDouble("float"));
+		assertEquals(1.0, map.getDouble("int"));
+		assertEquals(7, map.getIntOrElse("null", 7));
+		assertEquals(7, map.getIntOrElse("missing", 7));
+		assertThrows(NullPointerException.class, () -> map.getInt("missing"));
+		assertThrows(ClassCastException.class, () -> map.getInt("string"));
+	}
+
+	@Test
+	public void primitiveGetters() {
+		primitiveGetters(Config.of(PrimitiveValueMap::new, InMemoryFormat.withUniversalSupport()));
+		primitiveGetters(Config.inMemory());
+		primitiveGetters(new StampedConfig(InMemoryCommentedFormat.withUniversalSupport(), PrimitiveValueMap::new));
+		primitiveGetters(new StampedConfig());
+	}
+
+	private static void primitiveGetters(Config config) {
+		config.set("limits.a.rate", 100);
+		config.set("limits.a.burst", 1L << 33);
+		config.set("limits.a.ratio", 0.25);
+		config.set("limits.a.none", null);
+		ConfigPath rate = ConfigPath.of("limits.a.rate");
+		assertEquals(100, config.getInt(rate));
+		assertEquals(100, config.getInt("limits.a.rate"));
+		assertEquals(100L, config.getLong(rate));
+		assertEquals(100.0, config.getDouble(rate));
+		assertEquals(1L << 33, config.getLong("limits.a.burst"));
+		assertEquals(0.25, config.getDouble("limits.a.ratio"));
+		assertEquals(0, config.getInt("limits.a.ratio"));
+		assertEquals(-1, config.getIntOrElse("limits.a.none", -1));
+		assertEquals(-1, config.getIntOrElse("limits.b.rate", -1));
+		assertEquals(-1L, config.getLongOrElse("limits.a.missing", -1L));
+		assertEquals(-1.0, config.getDoubleOrElse("missing", -1.0));
+		assertThrows(NullPointerException.class, () -> config.getInt("limits.b.rate"));
+		// a null value is a missing value for the primitive getters
+		assertThrows(NullPointerException.class, () -> config.getInt("limits.a.none"));
+		assertThrows(NullPointerException.class, () -> config.getLong("limits.a.none"));
+		assertThrows(NullPointerException.class, () -> config.getDouble("limits.a.none"));
+		assertEquals(Integer.valueOf(100), config.get(rate));
+	}
+}
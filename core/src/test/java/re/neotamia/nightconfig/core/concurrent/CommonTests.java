@@ -2,6 +2,7 @@ package re.neotamia.nightconfig.core.concurrent;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -12,11 +13,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
@@ -24,6 +27,8 @@ import java.util.stream.Collectors;
 import re.neotamia.nightconfig.core.CommentedConfig;
 import re.neotamia.nightconfig.core.UnmodifiableCommentedConfig.CommentNode;
 import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.ConfigPath;
+import re.neotamia.nightconfig.core.UnmodifiableConfig;
 import re.neotamia.nightconfig.core.IncompatibleIntermediaryLevelException;
 import re.neotamia.nightconfig.core.Config.Entry;
 
@@ -556,6 +561,296 @@ class CommonTests {
         });
     }
 
+    public static void testSnapshots(ConcurrentCommentedConfig config) {
+        config.set("a", 1);
+        config.set("sub.b", 2);
+        config.setComment("a", "comment-a");
+        config.setHeaderComment("header");
+
+        ConfigSnapshot s1 = config.snapshot();
+        assertEquals(s1.version(), config.snapshot().version(), "the version should not change without modification");
+
+        config.set("a", 10);
+        config.set("sub.b", 20);
+        config.set("sub.c", 3);
+        config.setComment("a", "new-comment-a");
+        config.removeHeaderComment();
+
+        // the first snapshot is not affected by the modifications
+        assertEquals(1, (int) s1.get("a"));
+        assertEquals(2, (int) s1.get("sub.b"));
+        assertFalse(s1.contains("sub.c"));
+        assertNull(s1.get("sub.c"));
+        assertEquals("comment-a", s1.getComment("a"));
+        assertEquals("header", s1.getHeaderComment());
+        assertEquals(2, s1.size());
+        assertInstanceOf(UnmodifiableConfig.class, s1.get("sub"));
+        assertEquals(1, s1.<UnmodifiableConfig>get("sub").size());
+
+        ConfigSnapshot s2 = config.snapshot();
+        assertTrue(s2.version() > s1.version(), "the version should increase after a modification");
+        assertEquals(10, (int) s2.get("a"));
+        assertEquals(20, (int) s2.get("sub.b"));
+        assertEquals(3, (int) s2.get("sub.c"));
+        assertEquals("new-comment-a", s2.getComment("a"));
+        assertNull(s2.getHeaderComment());
+
+        config.clear();
+        config.bulkUpdate(view -> {
+            view.set("x", "in-bulk");
+        });
+        assertEquals(2, s2.size());
+        assertFalse(s2.contains("x"));
+        assertEquals(Set.of("a", "sub"), s2.valueMap().keySet());
+        assertEquals(2, s2.entrySet().size());
+
+        ConfigSnapshot s3 = config.snapshot();
+        assertEquals(1, s3.size());
+        assertEquals("in-bulk", s3.get("x"));
+    }
+
+    /**
+     * Checks that the snapshots of unrelated configs don't share their versions, and that a snapshot taken
+     * during a bulk update contains all of its modifications or none of them.
+     */
+    public static void testSnapshotIsolation(ConcurrentCommentedConfig config, ConcurrentCommentedConfig unrelated)
+            throws InterruptedException {
+        config.set("sub1.x", 0);
+        config.set("sub2.y", 0);
+        long version = config.snapshot().version();
+        unrelated.snapshot();
+        unrelated.set("a", 1);
+        unrelated.snapshot();
+        assertEquals(version, config.snapshot().version(), "the snapshots of another config should not change the version");
+
+        CountDownLatch started = new CountDownLatch(1);
+        Thread updater = new Thread(() -> config.bulkUpdate(view -> {
+            view.set("sub1.x", 1);
+            started.countDown();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            view.set("sub2.y", 1);
+        }));
+        updater.start();
+        started.await();
+        ConfigSnapshot snapshot = config.snapshot();
+        updater.join();
+        assertEquals(snapshot.<Integer>get("sub1.x"), snapshot.<Integer>get("sub2.y"), "torn snapshot: " + snapshot);
+    }
+
+    public static void testAtomicOperations(ConcurrentConfig config) throws InterruptedException {
+        // compute
+        assertEquals(1, config.<Integer>compute("counter", n -> (n == null) ? 1 : n + 1));
+        assertEquals(2, config.<Integer>compute("counter", n -> (n == null) ? 1 : n + 1));
+        assertEquals(2, config.<Integer>get("counter"));
+        assertNull(config.compute("counter", n -> null));
+        assertFalse(config.contains("counter"));
+        assertEquals("deep", config.compute("sub.deeply.nested", v -> "deep"));
+        assertEquals("deep", config.get("sub.deeply.nested"));
+
+        // computeIfAbsent
+        assertEquals("deep", config.computeIfAbsent("sub.deeply.nested", p -> "other"));
+        assertEquals(List.of("sub", "new"), config.computeIfAbsent("sub.new", p -> p));
+        assertNull(config.computeIfAbsent("sub.none", p -> null));
+        assertFalse(config.contains("sub.none"));
+
+        // merge
+        assertEquals(5, config.<Integer>merge("sum", 5, Integer::sum));
+        assertEquals(8, config.<Integer>merge("sum", 3, Integer::sum));
+        assertNull(config.<Integer>merge("sum", 0, (a, b) -> null));
+        assertFalse(config.contains("sum"));
+        assertThrows(NullPointerException.class, () -> config.merge("sum", null, (a, b) -> a));
+
+        // compareAndSet
+        assertTrue(config.compareAndSet("flag", null, false));
+        assertFalse(config.compareAndSet("flag", true, false));
+        assertTrue(config.compareAndSet("flag", false, true));
+        assertEquals(true, config.get("flag"));
+        assertTrue(config.compareAndSet("sub.flag", null, "on"));
+        assertEquals("on", config.get("sub.flag"));
+
+        // the missing levels are only created if a value is stored
+        assertNull(config.compute("missing.a.b", v -> null));
+        assertNull(config.computeIfAbsent("missing.a.b", p -> null));
+        assertFalse(config.compareAndSet("missing.a.b", "expected", 1));
+        assertFalse(config.contains("missing"));
+        assertTrue(config.compareAndSet("missing.a.b", null, 1));
+        assertEquals(1, config.<Integer>get("missing.a.b"));
+
+        // errors
+        assertThrows(Exception.class, () -> config.compute(Collections.emptyList(), v -> v));
+        assertThrows(IncompatibleIntermediaryLevelException.class, () -> config.compute("flag.x", v -> 1));
+        config.set("kept", 1);
+        assertThrows(IllegalStateException.class, () -> config.<Integer>compute("kept", v -> {
+            throw new IllegalStateException("failing function");
+        }));
+        assertEquals(1, config.<Integer>get("kept"));
+
+        // concurrent increments: none is lost
+        int nThreads = Runtime.getRuntime().availableProcessors();
+        int increments = 1000;
+        var executor = Executors.newFixedThreadPool(nThreads);
+        var futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < nThreads; i++) {
+            var ownPath = "counters.thread" + i;
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < increments; j++) {
+                    config.<Integer>compute("counters.shared", n -> (n == null) ? 1 : n + 1);
+                    config.<Integer>merge(ownPath, 1, Integer::sum);
+                }
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        for (var f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                fail("future failed ! " + e);
+            }
+        }
+        assertEquals(nThreads * increments, config.<Integer>get("counters.shared"));
+        for (int i = 0; i < nThreads; i++) {
+            assertEquals(increments, config.<Integer>get("counters.thread" + i));
+        }
+    }
+
+    public static void testGetAll(ConcurrentConfig config) throws InterruptedException {
+        config.set("a", 1);
+        config.set("sub.b", "b");
+        config.set("sub.deeply.nested.c", List.of(1, 2));
+        config.set("nil", null);
+        var paths = List.of(ConfigPath.of("a"), ConfigPath.of("sub.b"), ConfigPath.of("sub.deeply.nested.c"),
+                ConfigPath.of("nil"), ConfigPath.of("missing"), ConfigPath.of("sub.missing.x"), ConfigPath.of("a.x"));
+        assertArrayEquals(new Object[] { 1, "b", List.of(1, 2), null, null, null, null }, config.getAll(paths));
+        assertArrayEquals(new Object[0], config.getAll(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> config.getAll(List.of(List.of("a"), List.of())));
+
+        // concurrent modifications: the values of a batch are always from the same update
+        config.set("x", 0);
+        config.set("y.z", 0);
+        var batch = List.of(ConfigPath.of("x"), ConfigPath.of("y.z"));
+        int nThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        var executor = Executors.newFixedThreadPool(nThreads);
+        var stop = new AtomicBoolean();
+        var futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < nThreads - 1; i++) {
+            futures.add(executor.submit(() -> {
+                while (!stop.get()) {
+                    Object[] values = config.getAll(batch);
+                    assertEquals(values[0], values[1], "inconsistent batch");
+                }
+            }));
+        }
+        futures.add(executor.submit(() -> {
+            for (int i = 1; i <= 2000; i++) {
+                int value = i;
+                config.bulkUpdate(view -> {
+                    view.set("x", value);
+                    view.set("y.z", value);
+                });
+            }
+            stop.set(true);
+        }));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        for (var f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                fail("future failed ! " + e);
+            }
+        }
+        assertArrayEquals(new Object[] { 2000, 2000 }, config.getAll(batch));
+    }
+
+    record Change(List<String> path, Object oldValue, Object newValue) {}
+
+    public static void testSubscriptions(ConcurrentConfig config) throws InterruptedException {
+        var changes = new LinkedBlockingQueue<Change>();
+        ConfigChangeListener<Object> listener = (path, oldValue, newValue) -> {
+            changes.add(new Change(path, oldValue, newValue));
+        };
+        config.set("a", 0);
+        for (int i = 0; i < 1000; i++) {
+            config.set("many.key" + i, i);
+        }
+        ConfigSubscription subA = config.subscribe("a", listener);
+        ConfigSubscription subB = config.subscribe("sub.b", listener);
+        ConfigSubscription subKey = config.subscribe("many.key500", listener);
+        assertEquals(List.of("a"), subA.path());
+        assertSame(config, subA.config());
+        assertTrue(subA.isActive());
+        assertThrows(IllegalArgumentException.class, () -> config.subscribe(List.of(), listener));
+
+        // simple modifications
+        config.set("a", 1);
+        assertEquals(new Change(List.of("a"), 0, 1), changes.poll(2, TimeUnit.SECONDS));
+        config.set("sub.b", "b");
+        assertEquals(new Change(List.of("sub", "b"), null, "b"), changes.poll(2, TimeUnit.SECONDS));
+        config.set("sub.b", "b"); // same value
+        config.set("unrelated", true);
+        assertNull(changes.poll(200, TimeUnit.MILLISECONDS));
+
+        // a bulk update is reported once per subscription, with the values before and after it
+        config.bulkUpdate(view -> {
+            view.set("a", 2);
+            view.set("a", 3);
+            view.remove("sub.b");
+        });
+        var batch = new HashSet<Change>();
+        for (int i = 0; i < 2; i++) {
+            batch.add(changes.poll(2, TimeUnit.SECONDS));
+        }
+        assertEquals(Set.of(new Change(List.of("a"), 1, 3), new Change(List.of("sub", "b"), "b", null)), batch);
+        assertNull(changes.poll(200, TimeUnit.MILLISECONDS));
+
+        // only the subscriptions of the values that have changed are notified
+        config.bulkUpdate(view -> {
+            for (int i = 0; i < 1000; i++) {
+                view.set(List.of("many", "key" + i), (i == 500) ? -1 : i);
+            }
+        });
+        assertEquals(new Change(List.of("many", "key500"), 500, -1), changes.poll(2, TimeUnit.SECONDS));
+        assertNull(changes.poll(200, TimeUnit.MILLISECONDS));
+
+        // cancelled subscriptions are not notified
+        subA.cancel();
+        subB.close();
+        subKey.cancel();
+        assertFalse(subA.isActive());
+        config.set("a", 4);
+        config.set("sub.b", 4);
+        config.set("many.key500", 4);
+        assertNull(changes.poll(200, TimeUnit.MILLISECONDS));
+
+        // the exceptions of the listeners are given to the exception handler
+        var errors = new LinkedBlockingQueue<Exception>();
+        RuntimeException failure = new RuntimeException("listener failure");
+        ConfigSubscription failing = config.subscribe(List.of("a"), (path, oldValue, newValue) -> {
+            throw failure;
+        }, errors::add);
+        config.set("a", 5);
+        assertSame(failure, errors.poll(2, TimeUnit.SECONDS));
+        assertTrue(failing.isActive());
+        failing.cancel();
+
+        // the subscriptions don't prevent the configs from being garbage-collected
+        ConcurrentConfig temporary = config.createSubConfig();
+        ConfigSubscription orphan = temporary.subscribe("x", listener);
+        WeakReference<ConcurrentConfig> ref = new WeakReference<>(temporary);
+        temporary = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(ref.get());
+        assertNull(orphan.config());
+    }
+
     /**
      * From multiple threads, check that the integrity of the config is respected, i.e.
      * that we only see either the old version or the new version, not a mix of the two.
@@ -0,0 +1,284 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import re.neotamia.nightconfig.core.CommentedConfig;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.InMemoryCommentedFormat;
+import re.neotamia.nightconfig.core.UnmodifiableCommentedConfig;
+
+public class CopyOnWriteConfigTest {
+    @SuppressWarnings("deprecation")
+	static CopyOnWriteConfig newConfig() {
+        return new CopyOnWriteConfig(InMemoryCommentedFormat.defaultInstance(),
+                Config.getDefaultMapCreator(false));
+    }
+
+    @Test
+    public void basicSanity() {
+        CommonTests.testBasicSanity(newConfig());
+    }
+
+    @Test
+    public void comments() {
+        CommonTests.testComments(newConfig());
+    }
+
+    @Test
+    public void errors() {
+        CommonTests.testErrors(newConfig());
+    }
+
+    @Test
+    public void atomicOperations() throws InterruptedException {
+        CommonTests.testAtomicOperations(newConfig());
+    }
+
+    @Test
+    public void getAll() throws InterruptedException {
+        CommonTests.testGetAll(newConfig());
+    }
+
+    @Test
+    public void subscriptions() throws InterruptedException {
+        CommonTests.testSubscriptions(newConfig());
+
+        // the subscriptions follow an inserted config to its new tree, and back when it's removed
+        CopyOnWriteConfig config = newConfig();
+        CopyOnWriteConfig child = config.createSubConfig();
+        child.set("x", 1);
+        var changes = new LinkedBlockingQueue<Object>();
+        child.subscribe("x", (path, oldValue, newValue) -> changes.add(newValue));
+        config.set("child", child);
+        config.set("child.x", 2);
+        assertEquals(2, changes.poll(2, TimeUnit.SECONDS));
+        assertSame(child, config.remove("child"));
+        config.set("child", 10);
+        child.set("x", 3);
+        assertEquals(3, changes.poll(2, TimeUnit.SECONDS));
+        assertNull(changes.poll(200, TimeUnit.MILLISECONDS));
+
+        // the subscriptions of a view work when the view isn't referenced anymore
+        config.set("server.port", 80);
+        config.<CopyOnWriteConfig>get("server").subscribe("port", (path, oldValue, newValue) -> changes.add(newValue));
+        WeakReference<Object> sentinel = new WeakReference<>(new Object());
+        for (int i = 0; i < 50 && sentinel.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(sentinel.get());
+        config.set("unrelated", 1); // runs a check, which would remove the subscription of a collected view
+        config.set("server.port", 8080);
+        assertEquals(8080, changes.poll(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void putAll() {
+        CommonTests.testPutAll(newConfig(), newConfig());
+        CommonTests.testPutAll(newConfig(), StampedConfigTest.newAccumulator());
+    }
+
+    @Test
+    public void removeAll() {
+        CommonTests.testRemoveAll(newConfig(), newConfig());
+        CommonTests.testRemoveAll(newConfig(), StampedConfigTest.newAccumulator());
+    }
+
+    @Test
+    public void putAllComments() {
+        CommonTests.testPutAllComments(newConfig(), newConfig());
+        CommonTests.testPutAllComments(newConfig(), StampedConfigTest.newAccumulator());
+    }
+
+    @Test
+    public void iterators() {
+        CommonTests.testIterators(newConfig());
+    }
+
+    @Test
+    public void concurrentCounters() throws InterruptedException {
+        CommonTests.testConcurrentCounters(newConfig());
+    }
+
+    @Test
+    public void bulk() {
+        CommonTests.testBulkOperations(newConfig());
+    }
+
+    @Test
+    public void snapshots() throws InterruptedException {
+        CommonTests.testSnapshots(newConfig());
+        CommonTests.testSnapshotIsolation(newConfig(), newConfig());
+    }
+
+    @Test
+    public void replaceContentByAccumulator() throws InterruptedException {
+        CommonTests.testReplaceContent(4, newConfig(), StampedConfigTest.newAccumulator(), (a,b) -> a.replaceContentBy(b));
+    }
+
+    @Test
+    public void replaceContentByConfig() throws InterruptedException {
+        CommonTests.testReplaceContent(4, newConfig(), newConfig(), (a,b) -> a.replaceContentBy(b));
+    }
+
+    @Test
+    public void snapshotIsolation() {
+        CopyOnWriteConfig config = newConfig();
+        config.set("a.b", 1);
+        config.setComment("a.b", "comment");
+        UnmodifiableCommentedConfig snapshot = config.snapshot();
+        config.set("a.b", 2);
+        config.set("c", "new");
+        assertEquals(1, (int) snapshot.get("a.b"));
+        assertEquals("comment", snapshot.getComment("a.b"));
+        assertFalse(snapshot.contains("c"));
+        assertEquals(2, (int) config.get("a.b"));
+
+        config.bulkRead(view -> {
+            config.set("a.b", 3);
+            assertEquals(2, (int) view.get("a.b"));
+        });
+    }
+
+    @Test
+    public void subconfigViews() {
+        CopyOnWriteConfig config = newConfig();
+        config.set("a.b.c", 1);
+        Config a = config.get("a");
+        Config b = config.get("a.b");
+        assertEquals(a, config.get("a"));
+        b.set("d", 2);
+        assertEquals(2, (int) config.get("a.b.d"));
+
+        // removed subconfigs are returned as detached copies, the views stay bound to their path
+        Config removed = config.remove("a");
+        assertEquals(1, (int) removed.get("b.c"));
+        assertFalse(config.contains("a"));
+        assertTrue(a.isEmpty());
+        removed.set("b.e", 3);
+        assertFalse(config.contains("a"));
+        b.set("e", 4); // creates the path again
+        assertEquals(4, (int) config.get("a.b.e"));
+        assertEquals(4, (int) a.get("b.e"));
+
+        // inserted subconfigs become views of the parent, and so do their own views
+        CopyOnWriteConfig top = config.createSubConfig();
+        top.set("y.z", 5);
+        Config y = top.get("y");
+        config.set("x", top);
+        y.set("w", 6);
+        assertEquals(6, (int) config.get("x.y.w"));
+        top.set("v", 7);
+        assertEquals(7, (int) config.get("x.v"));
+        assertEquals(5, (int) top.get("y.z"));
+        assertThrows(IllegalArgumentException.class, () -> top.set("self", config));
+        assertSame(top, config.get("x"));
+
+        // removing an inserted subconfig gives it back its content, with its views and nested inserted configs
+        CopyOnWriteConfig nested = config.createSubConfig();
+        config.set("x.n", nested);
+        assertSame(nested, config.get("x.n"));
+        assertSame(top, config.remove("x"));
+        assertFalse(config.contains("x"));
+        assertEquals(7, (int) top.get("v"));
+        y.set("u", 8);
+        assertEquals(8, (int) top.get("y.u"));
+        assertSame(nested, top.get("n"));
+        nested.set("m", 9);
+        assertEquals(9, (int) top.get("n.m"));
+    }
+
+    @Test
+    public void bulkUpdateIsAtomic() {
+        CopyOnWriteConfig config = newConfig();
+        config.set("a", 1);
+        config.bulkUpdate(view -> {
+            view.set("a", 2);
+            view.set("b", 3);
+            assertEquals(2, (int) view.get("a"));
+            // other threads see the previous version until the end of the update
+            Object[] seen = new Object[2];
+            Thread reader = new Thread(() -> {
+                seen[0] = config.get("a");
+                seen[1] = config.contains("b");
+            });
+            reader.start();
+            assertDoesNotThrow(() -> reader.join());
+            assertEquals(1, seen[0]);
+            assertEquals(false, seen[1]);
+        });
+        assertEquals(2, (int) config.get("a"));
+        assertEquals(3, (int) config.get("b"));
+    }
+
+    @Test
+    public void failedBulkUpdateIsDiscarded() {
+        CopyOnWriteConfig config = newConfig();
+        config.set("a", 1);
+        CopyOnWriteConfig inserted = config.createSubConfig();
+        inserted.set("x", 1);
+        config.set("inserted", inserted);
+        CopyOnWriteConfig other = config.createSubConfig();
+        other.set("y", 1);
+        long version = config.snapshot().version();
+
+        RuntimeException failure = new RuntimeException("failure");
+        assertSame(failure, assertThrows(RuntimeException.class, () -> config.bulkCommentedUpdate((Consumer<CommentedConfig>) view -> {
+            view.set("a", 2);
+            view.set("b.c", 3);
+            view.setComment("a", "comment");
+            assertSame(inserted, view.remove("inserted"));
+            view.set("other", other);
+            other.set("y", 2);
+            throw failure;
+        })));
+        assertEquals(1, (int) config.get("a"));
+        assertFalse(config.contains("b"));
+        assertNull(config.getComment("a"));
+        assertEquals(version, config.snapshot().version());
+
+        // the removed config is still bound to its place, and the inserted one has its own tree again
+        assertSame(inserted, config.get("inserted"));
+        inserted.set("x", 2);
+        assertEquals(2, (int) config.get("inserted.x"));
+        assertFalse(config.contains("other"));
+        assertEquals(1, (int) other.get("y"));
+        other.set("y", 3);
+        assertFalse(config.contains("other.y"));
+        assertEquals(3, (int) other.get("y"));
+    }
+
+    @Test
+    public void insertedConfigNeverEmpty() throws InterruptedException {
+        // an inserted config keeps its content while it's removed from the tree and inserted again
+        CopyOnWriteConfig config = newConfig();
+        CopyOnWriteConfig child = config.createSubConfig();
+        child.set("x", 1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger missing = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                if (child.get("x") == null) {
+                    missing.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 20_000; i++) {
+            config.set("child", child);
+            assertSame(child, config.remove("child"));
+        }
+        done.set(true);
+        reader.join();
+        assertEquals(0, missing.get());
+    }
+}
@@ -4,9 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.lang.AssertionError;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -16,6 +19,7 @@ import org.junit.jupiter.api.Timeout.ThreadMode;
 
 import re.neotamia.nightconfig.core.Config;
 import re.neotamia.nightconfig.core.InMemoryCommentedFormat;
+import re.neotamia.nightconfig.core.IncompatibleIntermediaryLevelException;
 
 public class StampedConfigTest {
     @SuppressWarnings("deprecation")
@@ -24,6 +28,11 @@ public class StampedConfigTest {
                 Config.getDefaultMapCreator(false));
     }
 
+    private static StampedConfig newSingleLockConfig() {
+        return new StampedConfig(InMemoryCommentedFormat.defaultInstance(),
+                Config.getDefaultMapCreator(false), true);
+    }
+
     @SuppressWarnings("deprecation")
 	static StampedConfig.Accumulator newAccumulator() {
         return new StampedConfig.Accumulator(InMemoryCommentedFormat.defaultInstance(),
@@ -60,7 +69,7 @@ public class StampedConfigTest {
     }
 
     @Test
-    @Timeout(value = 1, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+    @Timeout(value = 10, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
     public void putAllComments() {
         CommonTests.testPutAllComments(newConfig(), newConfig());
         CommonTests.testPutAllComments(newConfig(), newAccumulator());
@@ -77,6 +86,62 @@ public class StampedConfigTest {
         CommonTests.testConcurrentCounters(newConfig());
     }
 
+    @Test
+    public void snapshots() throws InterruptedException {
+        CommonTests.testSnapshots(newConfig());
+        CommonTests.testSnapshotIsolation(newConfig(), newConfig());
+    }
+
+    @Test
+    public void atomicOperations() throws InterruptedException {
+        CommonTests.testAtomicOperations(newConfig());
+        CommonTests.testAtomicOperations(newSingleLockConfig());
+    }
+
+    @Test
+    public void getAll() throws InterruptedException {
+        CommonTests.testGetAll(newConfig());
+        CommonTests.testGetAll(newSingleLockConfig());
+
+        // a level locked for writing makes the optimistic read fail: the fallback returns the same objects
+        StampedConfig config = newConfig();
+        config.set("sub.value", 1);
+        StampedConfig sub = config.get("sub");
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread writer = new Thread(() -> sub.bulkUpdate(view -> {
+            locked.countDown();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            view.set("value", 2);
+        }));
+        writer.start();
+        locked.await();
+        Object[] values = config.getAll(List.of(List.of("sub"), List.of("sub", "value")));
+        writer.join();
+        assertSame(sub, values[0]);
+        assertEquals(2, values[1]);
+    }
+
+    @Test
+    public void subscriptions() throws InterruptedException {
+        CommonTests.testSubscriptions(newConfig());
+        CommonTests.testSubscriptions(newSingleLockConfig());
+
+        // a config that cannot be read anymore reports the error and cancels its subscriptions
+        StampedConfig config = newConfig();
+        StampedConfig content = config.createSubConfig();
+        content.set("a", 1);
+        var errors = new LinkedBlockingQueue<Exception>();
+        ConfigSubscription subscription = content.subscribe(List.of("a"), (path, oldValue, newValue) -> {}, errors::add);
+        config.replaceContentBy(content);
+        config.set("b", 2); // the next modification of the tree checks the subscription
+        assertNotNull(errors.poll(2, TimeUnit.SECONDS));
+        assertFalse(subscription.isActive());
+    }
+
     @Test
     public void bulk() {
         CommonTests.testBulkOperations(newConfig());
@@ -103,7 +168,92 @@ public class StampedConfigTest {
     }
 
     @Test
-    @Timeout(value = 250, unit = TimeUnit.MILLISECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+    @Timeout(value = 10, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+    public void singleLock() throws InterruptedException {
+        CommonTests.testBasicSanity(newSingleLockConfig());
+        CommonTests.testErrors(newSingleLockConfig());
+        CommonTests.testComments(newSingleLockConfig());
+        CommonTests.testPutAll(newSingleLockConfig(), newSingleLockConfig());
+        CommonTests.testPutAll(newSingleLockConfig(), newConfig());
+        CommonTests.testPutAllComments(newSingleLockConfig(), newSingleLockConfig());
+        CommonTests.testIterators(newSingleLockConfig());
+        CommonTests.testConcurrentCounters(newSingleLockConfig());
+        CommonTests.testSnapshots(newSingleLockConfig());
+        CommonTests.testBulkOperations(newSingleLockConfig());
+        CommonTests.testReplaceContent(4, newSingleLockConfig(), newSingleLockConfig(),
+                (a, b) -> a.replaceContentBy(b));
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+    public void singleLockDeepPaths() {
+        var config = newSingleLockConfig();
+        assertTrue(config.isSingleLock());
+        config.set("a.b.c", "abc");
+        config.setComment("a.b.c", "comment of a.b.c");
+        assertEquals("abc", config.get("a.b.c"));
+        assertEquals("comment of a.b.c", config.getComment("a.b.c"));
+        assertTrue(config.contains("a.b.c"));
+        assertTrue(config.containsComment("a.b.c"));
+        assertFalse(config.contains("a.x.c"));
+        assertNull(config.get("a.x.c"));
+        assertFalse(config.add("a.b.c", "other"));
+        assertTrue(config.add("a.b.d", "abd"));
+
+        // the sub-configs created by the config share its lock
+        StampedConfig b = config.get("a.b");
+        assertTrue(b.isSingleLock());
+        assertEquals("abd", b.get("d"));
+        config.bulkUpdate(view -> {
+            view.set("a.b.e", "abe");
+            assertEquals("abe", b.get("e"));
+        });
+
+        // a config that has its own lock is handled by itself
+        var foreign = newConfig();
+        config.set("a.foreign", foreign);
+        config.set("a.foreign.x.y", "xy");
+        assertEquals("xy", foreign.get("x.y"));
+        assertEquals("xy", config.get("a.foreign.x.y"));
+        assertEquals("xy", config.remove("a.foreign.x.y"));
+        assertFalse(foreign.contains("x.y"));
+        var requested = new ArrayList<List<String>>();
+        assertEquals("z", config.computeIfAbsent("a.foreign.z", path -> {
+            requested.add(path);
+            return "z";
+        }));
+        assertEquals(List.of(List.of("a", "foreign", "z")), requested);
+        assertEquals("z", foreign.get("z"));
+
+        // the primitive getters walk the tree in the same way
+        config.set("a.b.n", 42);
+        config.set("a.foreign.d", 1.5);
+        assertEquals(42, config.getInt("a.b.n"));
+        assertEquals(42L, config.getLong("a.b.n"));
+        assertEquals(7, config.getIntOrElse("a.x.n", 7));
+        assertEquals(1.5, config.getDouble("a.foreign.d"));
+        assertEquals(2.5, config.getDoubleOrElse("a.foreign.missing", 2.5));
+        assertThrows(NullPointerException.class, () -> config.getInt("a.x.n"));
+
+        assertThrows(IncompatibleIntermediaryLevelException.class, () -> {
+            config.set("a.b.c.d", "value");
+        });
+        assertEquals("abc", config.remove("a.b.c"));
+        assertEquals("comment of a.b.c", config.removeComment("a.b.c"));
+        assertNull(config.remove("a.x.c"));
+
+        // a single-lock config can't be modified while the same thread reads it
+        config.bulkRead(view -> {
+            assertThrows(IllegalStateException.class, () -> {
+                b.set("c", "value");
+            });
+        });
+        b.set("c", "value");
+        assertEquals("value", config.get("a.b.c"));
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
     public void illegalBulkOperations() {
         var config = newConfig();
         config.set("a.b", "value of a.b");
@@ -381,7 +531,43 @@ public class StampedConfigTest {
     }
 
     @Test
-    @Timeout(value = 1, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+    @Timeout(value = 10, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+    public void bulkOperationsOnDistinctConfigs() {
+        var a = newConfig();
+        var b = newConfig();
+        a.set("key", "value of key");
+        a.set("sub.key", "value of sub.key");
+
+        // the state of a config doesn't leak to the other configs, not even to its sub-configs
+        a.bulkRead(viewA -> {
+            b.bulkUpdate(viewB -> {
+                viewB.set("copy", viewA.get("key"));
+            });
+            StampedConfig sub = viewA.get("sub");
+            sub.bulkRead(viewSub -> {
+                assertEquals("value of sub.key", viewSub.get("key"));
+                assertThrows(IllegalStateException.class, () -> {
+                    sub.bulkUpdate(v -> {});
+                });
+            });
+            assertEquals("value of sub.key", sub.get("key"));
+        });
+        assertEquals("value of key", b.get("copy"));
+
+        // the state is reset after the operations, even when they fail
+        assertThrows(IllegalStateException.class, () -> {
+            a.bulkRead(view -> {
+                a.bulkUpdate(v -> {});
+            });
+        });
+        a.set("key", "new value");
+        assertEquals("new value", a.get("key"));
+        a.entrySet().forEach(entry -> entry.setValue(entry.getKey()));
+        assertEquals("key", a.get("key"));
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
     public void multithreadDeadlockPrevention() throws InterruptedException {
         var config = newConfig();
         config.set("a.b", "value of a.b");
@@ -0,0 +1,182 @@
+package re.neotamia.nightconfig.core.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.Timeout.ThreadMode;
+
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.InMemoryCommentedFormat;
+
+public class StripedConfigTest {
+    static StripedConfig newConfig() {
+        return new StripedConfig(InMemoryCommentedFormat.defaultInstance(),
+                Config.getDefaultMapCreator(false));
+    }
+
+    @Test
+    public void basicSanity() {
+        // the sub-configurations are SynchronizedConfigs
+        CommonTests.testBasicSanity(newConfig(), false);
+
+        var config = newConfig();
+        config.set("sub.config.key", "value");
+        assertInstanceOf(SynchronizedConfig.class, config.get("sub"));
+        assertInstanceOf(SynchronizedConfig.class, config.get("sub.config"));
+        assertInstanceOf(SynchronizedConfig.class, config.createSubConfig());
+    }
+
+    @Test
+    public void createdSubConfigsShareTheStripeMonitor() {
+        var config = newConfig();
+        SynchronizedConfig sub = config.createSubConfig();
+        SynchronizedConfig nested = sub.createSubConfig();
+        SynchronizedConfig inserted = config.createSubConfig();
+        sub.set("nested", nested);
+        sub.set("inserted", inserted);
+        config.set("sub", sub);
+        SynchronizedConfig viaMap = config.createSubConfig();
+        config.valueMap().put("viaMap", viaMap);
+        config.bulkCommentedRead(view -> {
+            // the bulk operations lock every stripe, including the sub-configurations
+            for (SynchronizedConfig c : new SynchronizedConfig[]{sub, nested, inserted, viaMap}) {
+                assertTrue(Thread.holdsLock(c.rootMonitor));
+            }
+            return null;
+        });
+        assertSame(sub, config.get("sub"));
+        assertSame(nested, config.get("sub.nested"));
+    }
+
+    @Test
+    public void stripes() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new StripedConfig(InMemoryCommentedFormat.defaultInstance(), Config.getDefaultMapCreator(false), 0);
+        });
+        var single = new StripedConfig(InMemoryCommentedFormat.defaultInstance(),
+                Config.getDefaultMapCreator(false), 1);
+        CommonTests.testBasicSanity(single, false);
+
+        var config = newConfig();
+        for (int i = 0; i < 100; i++) {
+            config.set("key" + i + ".value", i);
+        }
+        assertEquals(100, config.size());
+        assertEquals(100, config.valueMap().size());
+        assertEquals(100, config.entrySet().size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, config.<Integer>get("key" + i + ".value"));
+        }
+        var copy = newConfig();
+        copy.putAll(config);
+        assertEquals(config, copy);
+        assertEquals(config.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    public void comments() {
+        CommonTests.testComments(newConfig());
+    }
+
+    @Test
+    public void errors() {
+        CommonTests.testErrors(newConfig());
+    }
+
+    @Test
+    public void putAll() {
+        CommonTests.testPutAll(newConfig(), newConfig());
+        CommonTests.testPutAll(newConfig(), StampedConfigTest.newAccumulator());
+        CommonTests.testPutAll(newConfig(), SynchronizedConfigTest.newConfig());
+    }
+
+    @Test
+    public void removeAll() {
+        CommonTests.testRemoveAll(newConfig(), newConfig());
+        CommonTests.testRemoveAll(newConfig(), StampedConfigTest.newAccumulator());
+    }
+
+    @Test
+    public void putAllComments() {
+        CommonTests.testPutAllComments(newConfig(), newConfig());
+        CommonTests.testPutAllComments(newConfig(), StampedConfigTest.newAccumulator());
+    }
+
+    @Test
+    public void iterators() {
+        CommonTests.testIterators(newConfig());
+    }
+
+    @Test
+    public void concurrentCounters() throws InterruptedException {
+        CommonTests.testConcurrentCounters(newConfig());
+    }
+
+    @Test
+    public void atomicOperations() throws InterruptedException {
+        CommonTests.testAtomicOperations(newConfig());
+    }
+
+    @Test
+    public void getAll() throws InterruptedException {
+        CommonTests.testGetAll(newConfig());
+    }
+
+    @Test
+    public void subscriptions() throws InterruptedException {
+        CommonTests.testSubscriptions(newConfig());
+    }
+
+    @Test
+    public void bulk() {
+        CommonTests.testBulkOperations(newConfig());
+    }
+
+    @Test
+    public void snapshots() throws InterruptedException {
+        CommonTests.testSnapshots(newConfig());
+        CommonTests.testSnapshotIsolation(newConfig(), newConfig());
+    }
+
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+    public void independentStripes() throws InterruptedException {
+        var config = new StripedConfig(InMemoryCommentedFormat.defaultInstance(),
+                Config.getDefaultMapCreator(false), 2);
+        config.set("a.value", 0);
+        SynchronizedConfig a = config.get("a");
+
+        // a sub-config shares the lock of its stripe: while it's locked, only the keys of the other stripe can be modified
+        var writers = new ArrayList<Thread>();
+        var written = new AtomicInteger();
+        a.bulkUpdate(view -> {
+            for (int i = 0; i < 32; i++) {
+                String key = "key" + i;
+                Thread writer = new Thread(() -> {
+                    config.set(key, true);
+                    written.incrementAndGet();
+                });
+                writer.start();
+                writers.add(writer);
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            int writtenWhileLocked = written.get();
+            assertTrue(writtenWhileLocked > 0, "no key could be written while the other stripe was locked");
+            assertTrue(writtenWhileLocked < 32, "a key of the locked stripe has been written");
+        });
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(32, written.get());
+        assertEquals(33, config.size());
+    }
+}
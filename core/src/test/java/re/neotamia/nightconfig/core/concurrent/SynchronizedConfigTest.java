@@ -1,7 +1,10 @@
 package re.neotamia.nightconfig.core.concurrent;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 import org.junit.jupiter.api.Test;
 
+import re.neotamia.nightconfig.core.CommentedConfig;
 import re.neotamia.nightconfig.core.Config;
 import re.neotamia.nightconfig.core.InMemoryCommentedFormat;
 
@@ -55,11 +58,58 @@ public class SynchronizedConfigTest {
         CommonTests.testConcurrentCounters(newConfig());
     }
 
+    @Test
+    public void atomicOperations() throws InterruptedException {
+        CommonTests.testAtomicOperations(newConfig());
+    }
+
+    @Test
+    public void getAll() throws InterruptedException {
+        CommonTests.testGetAll(newConfig());
+    }
+
+    @Test
+    public void subscriptions() throws InterruptedException {
+        CommonTests.testSubscriptions(newConfig());
+    }
+
     @Test
     public void bulk() {
         CommonTests.testBulkOperations(newConfig());
     }
 
+    @Test
+    public void snapshots() throws InterruptedException {
+        CommonTests.testSnapshots(newConfig());
+        CommonTests.testSnapshotIsolation(newConfig(), newConfig());
+
+        // iterating doesn't modify the level, only the modifications through the entries do
+        SynchronizedConfig config = newConfig();
+        config.set("a", 1);
+        config.setComment("a", "comment");
+        ConfigSnapshot before = config.snapshot();
+        for (CommentedConfig.Entry entry : config.entrySet()) {
+            assertEquals(1, entry.<Integer>getValue());
+        }
+        config.entrySet().forEach(entry -> assertEquals("comment", entry.getComment()));
+        config.commentMap().entrySet().forEach(entry -> assertEquals("comment", entry.getValue()));
+        assertEquals(before.version(), config.snapshot().version());
+
+        for (CommentedConfig.Entry entry : config.entrySet()) {
+            entry.setValue(2);
+            entry.setComment("new comment");
+        }
+        assertNotEquals(before.version(), config.snapshot().version());
+        assertEquals(1, before.<Integer>get("a"));
+        assertEquals("comment", before.getComment("a"));
+        assertEquals(2, config.<Integer>get("a"));
+
+        ConfigSnapshot beforeMapEntry = config.snapshot();
+        config.commentMap().entrySet().iterator().next().setValue("map comment");
+        assertEquals("new comment", beforeMapEntry.getComment("a"));
+        assertEquals("map comment", config.getComment("a"));
+    }
+
     @Test
     public void replaceContentByAccumulator() throws InterruptedException {
         CommonTests.testReplaceContent(4, newConfig(), StampedConfigTest.newAccumulator(), (a,b) -> a.replaceContentBy(b));
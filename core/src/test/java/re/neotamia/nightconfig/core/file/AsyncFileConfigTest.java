@@ -121,9 +121,24 @@ public class AsyncFileConfigTest {
         Util.testLoadMerge(newConfig(file, ParsingMode.MERGE, false));
     }
 
+    @Test
+    public void testCopyOnWrite() throws IOException {
+        Path file = tmp.resolve("copyOnWriteFileConfig.txt");
+        Files.writeString(file, ""); // the TestParser only returns its data when the file exists
+        Util.testLoadReplace(newCopyOnWriteConfig(file, ParsingMode.REPLACE, true));
+        Util.testLoadReplace(newCopyOnWriteConfig(file, ParsingMode.REPLACE, false));
+        Util.testLoadAdd(newCopyOnWriteConfig(file, ParsingMode.ADD, true));
+        Util.testLoadMerge(newCopyOnWriteConfig(file, ParsingMode.MERGE, false));
+    }
+
     private FileConfig newConfig(Path file, ParsingMode parsingMode, boolean useProperSubConfigType) {
         var format = new Util.TestFormat(useProperSubConfigType);
         return FileConfig.builder(file, format).sync().parsingMode(parsingMode).build();
     }
 
+    private FileConfig newCopyOnWriteConfig(Path file, ParsingMode parsingMode, boolean useProperSubConfigType) {
+        var format = new Util.TestFormat(useProperSubConfigType);
+        return FileConfig.builder(file, format).copyOnWrite().parsingMode(parsingMode).build();
+    }
+
 }
@@ -0,0 +1,103 @@
+package re.neotamia.nightconfig.core.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReloadGuardTest {
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	public void unchangedFile() throws IOException {
+		Path file = tmp.resolve("config.txt");
+		Files.writeString(file, "a = 1");
+		ReloadGuard guard = new ReloadGuard();
+		assertFalse(guard.isUnchanged(file), "nothing has been recorded yet");
+
+		guard.record(file);
+		assertTrue(guard.isUnchanged(file));
+
+		// touched, but not modified
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+		assertTrue(guard.isUnchanged(file));
+		assertTrue(guard.isUnchanged(file));
+	}
+
+	@Test
+	public void modifiedFile() throws IOException {
+		Path file = tmp.resolve("config.txt");
+		Files.writeString(file, "a = 1");
+		ReloadGuard guard = new ReloadGuard();
+		guard.record(file);
+
+		// same size and modification time: the content is compared because the mtime is too recent
+		FileTime mtime = Files.getLastModifiedTime(file);
+		Files.writeString(file, "a = 2");
+		Files.setLastModifiedTime(file, mtime);
+		ReloadGuard.Stamp stamp = ReloadGuard.read(file);
+		assertFalse(guard.isUnchanged(file));
+		guard.record(stamp);
+		assertTrue(guard.isUnchanged(file));
+
+		Files.writeString(file, "a = 12");
+		assertFalse(guard.isUnchanged(file));
+
+		Files.delete(file);
+		assertNull(ReloadGuard.read(file));
+		assertFalse(guard.isUnchanged(file));
+	}
+
+	@Test
+	public void autoreloadSkipsOwnSaves() throws Exception {
+		Path file = tmp.resolve("autoreload.txt");
+		Files.writeString(file, "a = 1");
+		// the debounce time lets the saves finish before their events are handled
+		FileWatcher watcher = new FileWatcher(Duration.ofMillis(100), Duration.ZERO, FileWatcherTest.onWatcherException);
+		AtomicInteger loads = new AtomicInteger();
+		AtomicInteger autoReloads = new AtomicInteger();
+		// the test parser ignores the content of the file: a reload always sets "a" to "new A"
+		CommentedFileConfig config = CommentedFileConfig.builder(file, new Util.TestFormat(true))
+			.sync()
+			.autoreload(watcher)
+			.reloadGuard()
+			.onLoad(loads::incrementAndGet)
+			.onAutoReload(autoReloads::incrementAndGet)
+			.build();
+		try {
+			config.load();
+			assertEquals(1, loads.get());
+			Thread.sleep(100); // let the watcher register the file
+
+			// a real modification is reloaded
+			Files.writeString(file, "a = 2");
+			for (int i = 0; i < 100 && autoReloads.get() == 0; i++) {
+				Thread.sleep(20);
+			}
+			assertEquals(1, autoReloads.get(), "modification not reloaded");
+			assertEquals(2, loads.get());
+
+			// the saves of the config and the touches are not reloaded
+			config.set("a", "in memory");
+			config.save();
+			Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+			Thread.sleep(500);
+			assertEquals(1, autoReloads.get());
+			assertEquals(2, loads.get());
+			assertEquals("in memory", config.get("a"));
+		} finally {
+			config.close();
+			watcher.stop();
+		}
+	}
+}
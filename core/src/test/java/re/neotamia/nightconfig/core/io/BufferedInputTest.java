@@ -0,0 +1,113 @@
+package re.neotamia.nightconfig.core.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedInputTest {
+	private static final String DATA = "{\"key\": [1, 2.5, \"value\"], \"other\": true}\n# comment = ' \"\"\" '\nend";
+	private static final char[] STOP = {',', '"', '\n'};
+
+	@Test
+	void basicOperations() {
+		BufferedInput input = new BufferedInput(new StringReader("abc,def"), 2);
+		assertEquals('a', input.peek());
+		assertEquals('c', input.peek(2));
+		assertEquals('a', input.read());
+		assertEquals("bc", input.readUntil(new char[]{','}).toString());
+		assertEquals(',', input.read());
+		input.pushBack('x');
+		input.pushBack('y');
+		assertEquals("yxdef", input.readUntil(new char[]{'!'}).toString());
+		assertEquals(-1, input.read());
+		assertEquals(-1, input.peek());
+		assertThrows(ParsingException.class, input::readChar);
+		assertThrows(ParsingException.class, () -> input.readCharsUntil(new char[]{'!'}));
+	}
+
+	@Test
+	void skipPeeks() {
+		BufferedInput input = new BufferedInput(new StringReader("\"\"\"text\"\"\""), 3);
+		assertEquals('"', input.peek(2));
+		input.skipPeeks();
+		assertEquals("text", input.readCharsUntil(new char[]{'"'}).toString());
+		input.skipPeeks(); // skips the stop char, like ReaderInput
+		assertEquals("\"\"", input.read(5).toString());
+	}
+
+	@Test
+	void tokensAreViews() {
+		char[] array = "key = value".toCharArray();
+		CharsWrapper token = new ArrayInput(array).readUntil(new char[]{' '});
+		assertEquals("key", token.toString());
+		array[0] = 'K';
+		assertEquals("Key", token.toString());
+	}
+
+	/**
+	 * Performs the same random operations on a ReaderInput, on an ArrayInput and on BufferedInputs with
+	 * various buffer sizes, and checks that the returned tokens are not modified by the next operations.
+	 */
+	@Test
+	void sameAsReaderInput() {
+		for (int bufferSize : new int[]{0, 1, 2, 3, 7, 64, BufferedInput.DEFAULT_BUFFER_SIZE}) {
+			for (long seed = 0; seed < 200; seed++) {
+				CharacterInput expected = new ReaderInput(new StringReader(DATA));
+				CharacterInput actual = (bufferSize == 0)
+					? new ArrayInput(DATA.toCharArray())
+					: new BufferedInput(new StringReader(DATA), bufferSize);
+				List<CharsWrapper> tokens = new ArrayList<>();
+				List<String> tokenStrings = new ArrayList<>();
+				Random random = new Random(seed);
+				for (int op = 0; op < 100; op++) {
+					int kind = random.nextInt(8);
+					String message = "buffer " + bufferSize + ", seed " + seed + ", op " + op + ", kind " + kind;
+					switch (kind) {
+						case 0 -> assertEquals(expected.read(), actual.read(), message);
+						case 1 -> assertEquals(expected.peek(), actual.peek(), message);
+						case 2 -> {
+							int n = random.nextInt(5);
+							assertEquals(expected.peek(n), actual.peek(n), message);
+						}
+						case 3 -> {
+							CharsWrapper token = actual.readUntil(STOP);
+							assertEquals(expected.readUntil(STOP).toString(), token.toString(), message);
+							tokens.add(token);
+							tokenStrings.add(token.toString());
+						}
+						case 4 -> {
+							// ReaderInput.read(n) can lose the pushed back chars at the end of the data
+							int n = random.nextInt(6);
+							StringBuilder chars = new StringBuilder();
+							for (int c; chars.length() < n && (c = expected.read()) != -1; ) {
+								chars.append((char)c);
+							}
+							CharsWrapper token = actual.read(n);
+							assertEquals(chars.toString(), token.toString(), message);
+							tokens.add(token);
+							tokenStrings.add(token.toString());
+						}
+						case 5 -> {
+							expected.skipPeeks();
+							actual.skipPeeks();
+						}
+						case 6 -> {
+							char c = (char)('A' + random.nextInt(26));
+							expected.pushBack(c);
+							actual.pushBack(c);
+						}
+						default -> assertEquals(expected.readAndSkip(new char[]{' '}), actual.readAndSkip(new char[]{' '}), message);
+					}
+				}
+				for (int i = 0; i < tokens.size(); i++) {
+					assertEquals(tokenStrings.get(i), tokens.get(i).toString(), "token " + i + " has been modified");
+				}
+			}
+		}
+	}
+}
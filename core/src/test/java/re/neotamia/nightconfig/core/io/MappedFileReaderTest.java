@@ -0,0 +1,74 @@
+package re.neotamia.nightconfig.core.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileReaderTest {
+	private static final String TEXT = "key = \"välue\" # 🌙 night\n".repeat(1000);
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void decode() throws IOException {
+		Path file = tmp.resolve("config.txt");
+		Files.writeString(file, TEXT);
+		assertEquals(TEXT, readAll(MappedFileReader.open(file, StandardCharsets.UTF_8), 7));
+		assertEquals(TEXT, readAll(MappedFileReader.open(file, StandardCharsets.UTF_8), 1));
+		assertEquals(TEXT, readAll(MappedFileReader.open(file, StandardCharsets.UTF_8), 8192));
+	}
+
+	@Test
+	void byteOrderMarks() throws IOException {
+		Path utf8 = tmp.resolve("utf8.txt");
+		Files.write(utf8, concat(new byte[]{(byte)0xEF, (byte)0xBB, (byte)0xBF}, TEXT.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(TEXT, readAll(MappedFileReader.open(utf8, AdditionalCharsets.UTF_8_BOM), 100));
+
+		Path utf16 = tmp.resolve("utf16.txt");
+		Files.write(utf16, concat(new byte[]{(byte)0xFF, (byte)0xFE}, TEXT.getBytes(StandardCharsets.UTF_16LE)));
+		assertEquals(TEXT, readAll(MappedFileReader.open(utf16, AdditionalCharsets.UTF_8_OR_16), 100));
+	}
+
+	@Test
+	void malformedInput() throws IOException {
+		Path file = tmp.resolve("invalid.txt");
+		Files.write(file, new byte[]{'a', 'b', (byte)0xC3});
+		assertThrows(CharacterCodingException.class, () -> readAll(MappedFileReader.open(file, StandardCharsets.UTF_8), 10));
+	}
+
+	@Test
+	void smallFilesAreNotMapped() throws IOException {
+		Path file = tmp.resolve("small.txt");
+		Files.writeString(file, TEXT);
+		if (MappedFileReader.OptionHolder.THRESHOLD > Files.size(file)) {// unless the threshold has been lowered
+			assertNull(MappedFileReader.openIfBig(file, StandardCharsets.UTF_8));
+		}
+	}
+
+	private static String readAll(Reader reader, int blockSize) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		char[] block = new char[blockSize];
+		int n;
+		while ((n = reader.read(block, 0, blockSize)) != -1) {
+			sb.append(block, 0, n);
+		}
+		assertEquals(-1, reader.read());
+		return sb.toString();
+	}
+
+	private static byte[] concat(byte[] a, byte[] b) {
+		byte[] result = new byte[a.length + b.length];
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+}
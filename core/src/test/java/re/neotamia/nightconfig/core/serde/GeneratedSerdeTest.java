@@ -0,0 +1,32 @@
+package re.neotamia.nightconfig.core.serde;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class GeneratedSerdeTest {
+
+    @Test
+    public void wideningConversions() {
+        assertEquals(5L, GeneratedSerde.asLong(5, "f"));
+        assertEquals(97L, GeneratedSerde.asLong('a', "f"));
+        assertEquals(7f, GeneratedSerde.asFloat(7L, "f"));
+        assertEquals(2.5, GeneratedSerde.asDouble(2.5f, "f"));
+        assertEquals(3.0, GeneratedSerde.asDouble((byte) 3, "f"));
+    }
+
+    @Test
+    public void invalidValuesNameTheirOwnType() {
+        assertInvalid("long", () -> GeneratedSerde.asLong("text", "f"));
+        assertInvalid("long", () -> GeneratedSerde.asLong(1.5, "f"));
+        assertInvalid("float", () -> GeneratedSerde.asFloat("text", "f"));
+        assertInvalid("float", () -> GeneratedSerde.asFloat(1.5, "f"));
+        assertInvalid("double", () -> GeneratedSerde.asDouble("text", "f"));
+        assertInvalid("double", () -> GeneratedSerde.asDouble(null, "f"));
+    }
+
+    private static void assertInvalid(String type, Runnable conversion) {
+        SerdeException e = assertThrows(SerdeException.class, conversion::run);
+        assertTrue(e.getMessage().endsWith("of type " + type), e.getMessage());
+    }
+}
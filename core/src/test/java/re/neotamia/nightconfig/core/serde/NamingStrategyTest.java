@@ -238,4 +238,26 @@ public final class NamingStrategyTest {
         assertEquals("value1", obj.userName);
         assertEquals("value2", obj.maxRetries);
     }
+
+    @Test
+    public void testNamingStrategyChangedAfterFirstUse() {
+        var serializer = ObjectSerializer.standard();
+        var deserializer = ObjectDeserializer.standard();
+        var obj = new TestClass();
+
+        // the first (de)serialization caches the keys of TestClass
+        var config = serializer.serializeFields(obj, Config::inMemory);
+        assertTrue(config.contains("userName"));
+        assertEquals("john", deserializer.deserializeFields(config, TestClass::new).userName);
+
+        serializer.setNamingStrategy(NamingStrategy.SNAKE_CASE);
+        deserializer.setNamingStrategy(NamingStrategy.SNAKE_CASE);
+
+        config = serializer.serializeFields(obj, Config::inMemory);
+        assertTrue(config.contains("user_name"));
+        assertFalse(config.contains("userName"));
+
+        config.set("user_name", "jane");
+        assertEquals("jane", deserializer.deserializeFields(config, TestClass::new).userName);
+    }
 }
@@ -140,4 +140,33 @@ public class SerdeWithRecordTest {
             de.deserializeToRecord(wrong, (Class<? extends Record>)(Class<?>)String.class);
         });
     }
+
+    record Sizes(long total, double ratio) {
+    }
+
+    @Test
+    public void testRecordComponentConversions() {
+        var de = ObjectDeserializer.builder().build();
+
+        // widening conversions are allowed
+        var conf = Config.inMemory();
+        conf.set("total", 12);
+        conf.set("ratio", 5L);
+        assertEquals(new Sizes(12L, 5.0), de.deserializeToRecord(conf, Sizes.class));
+
+        // lossy conversions are forbidden
+        var point = Config.inMemory();
+        point.set("x", 1);
+        point.set("y", Long.MAX_VALUE);
+        point.set("z", 3);
+        assertThrows(SerdeException.class, () -> {
+            de.deserializeToRecord(point, Point3d.class);
+        });
+
+        // null is not a valid value for a primitive component
+        point.set("y", null);
+        assertThrows(SerdeException.class, () -> {
+            de.deserializeToRecord(point, Point3d.class);
+        });
+    }
 }
@@ -0,0 +1,57 @@
+package re.neotamia.nightconfig.json;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the spaces and the special characters of the strings in UTF-8 JSON data, for {@link Utf8JsonParser}.
+ * <p>
+ * This class scans the bytes one by one. The benchmarks module contains a {@code VectorByteScanner}, which
+ * compares many bytes at once with the incubating Vector API and is compared to this one by
+ * {@code JsonScanningBenchmark}. It isn't part of this module because it doesn't make the parsing faster:
+ * the first parse is much slower (twice as slow for a 15 MB document), and once warmed up it's at best
+ * slightly faster than this class.
+ */
+class ByteScanner {
+	final ByteBuffer bytes;
+	final int limit;
+
+	ByteScanner(ByteBuffer bytes) {
+		this.bytes = bytes;
+		this.limit = bytes.limit();
+	}
+
+	static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	/**
+	 * Skips the JSON spaces.
+	 *
+	 * @return the index of the first byte that isn't a space, at or after {@code from}, or the limit
+	 */
+	int skipSpaces(int from) {
+		int i = from;
+		while (i < limit && isSpace(bytes.get(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Finds the end of a string, or of its part that can be copied as it is.
+	 *
+	 * @param stopAtNonAscii true to also stop at the first byte that isn't ASCII
+	 * @return the index of the first quote or backslash (or non-ASCII byte), at or after {@code from}, or
+	 * the limit
+	 */
+	int findStringSpecial(int from, boolean stopAtNonAscii) {
+		int i = from;
+		for (; i < limit; i++) {
+			byte b = bytes.get(i);
+			if (b == '"' || b == '\\' || (stopAtNonAscii && b < 0)) {
+				break;
+			}
+		}
+		return i;
+	}
+}
@@ -3,16 +3,26 @@ package re.neotamia.nightconfig.json;
 import re.neotamia.nightconfig.core.Config;
 import re.neotamia.nightconfig.core.ConfigFormat;
 import re.neotamia.nightconfig.core.concurrent.ConcurrentConfig;
+import re.neotamia.nightconfig.core.file.FileNotFoundAction;
 import re.neotamia.nightconfig.core.io.*;
 import re.neotamia.nightconfig.core.utils.FastStringReader;
 
+import java.io.IOException;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * A JSON parser.
+ * <p>
+ * The UTF-8 inputs (byte arrays, ByteBuffers, and the streams and files read with the UTF-8 charset)
+ * are parsed from their bytes, without decoding them to characters first.
  *
  * @author TheElectronWill
  */
@@ -106,7 +116,7 @@ public final class JsonParser implements ConfigParser<Config> {
 	 * @return either a JsonConfig or a List, depending on the document's type
 	 */
 	public Object parseDocument(Reader reader, Config configModel) {
-		CharacterInput input = new ReaderInput(reader);
+		CharacterInput input = new BufferedInput(reader);
 		if (input.peek() == -1) {
 			if (emptyDataAccepted) {
 				// If data is empty && we accept empty data => return empty config
@@ -156,7 +166,7 @@ public final class JsonParser implements ConfigParser<Config> {
 	 */
 	@Override
 	public void parse(Reader reader, Config destination, ParsingMode parsingMode) {
-		CharacterInput input = new ReaderInput(reader);
+		CharacterInput input = new BufferedInput(reader);
 		if (input.peek() == -1) {
 			if (emptyDataAccepted) {
 				// If data is empty && we accept empty data => let the config as it is
@@ -181,6 +191,98 @@ public final class JsonParser implements ConfigParser<Config> {
 		checkNoTrailingData(input);
 	}
 
+	/**
+	 * Parses a JSON document encoded in UTF-8, either a JSON object (parsed to a JsonConfig) or a
+	 * JSON array (parsed to a List). The position of the buffer is not modified.
+	 *
+	 * @param json the data to parse, from its position to its limit
+	 * @return either a JsonConfig or a List, depending on the document's type
+	 */
+	public Object parseDocument(ByteBuffer json) {
+		return new Utf8JsonParser(this, json).parseDocument(configFormat.createConfig());
+	}
+
+	/**
+	 * Parses a JSON object encoded in UTF-8 to a Config.
+	 *
+	 * @param json the data to parse
+	 * @return a Config
+	 */
+	public Config parse(byte[] json) {
+		return parse(ByteBuffer.wrap(json));
+	}
+
+	/**
+	 * Parses a JSON object encoded in UTF-8 to a Config. The position of the buffer is not modified.
+	 *
+	 * @param json the data to parse, from its position to its limit
+	 * @return a Config
+	 */
+	public Config parse(ByteBuffer json) {
+		Config config = configFormat.createConfig();
+		parse(json, config, ParsingMode.MERGE);
+		return config;
+	}
+
+	/**
+	 * Parses a JSON object encoded in UTF-8 to a Config. The position of the buffer is not modified.
+	 *
+	 * @param json        the data to parse, from its position to its limit
+	 * @param destination the config where to put the data
+	 * @param parsingMode how to handle conflicts with the entries that already are in the destination
+	 */
+	public void parse(ByteBuffer json, Config destination, ParsingMode parsingMode) {
+		new Utf8JsonParser(this, json).parse(destination, parsingMode);
+	}
+
+	/**
+	 * Parses a JSON file to a Config. The UTF-8 file is parsed from its bytes, which are
+	 * memory-mapped if the file is big.
+	 */
+	@Override
+	public Config parse(Path file, FileNotFoundAction notFoundAction, Charset charset) {
+		if (!isUtf8(charset)) {
+			return ConfigParser.super.parse(file, notFoundAction, charset);
+		}
+		try {
+			if (Files.notExists(file) && !notFoundAction.run(file, getFormat())) {
+				return getFormat().createConfig();
+			}
+			return parse(IoUtils.readOrMap(file));
+		} catch (IOException e) {
+			throw new WritingException("An I/O error occured", e);
+		}
+	}
+
+	/**
+	 * Parses a JSON file to a Config. The UTF-8 file is parsed from its bytes, which are
+	 * memory-mapped if the file is big.
+	 */
+	@Override
+	public void parse(Path file, Config destination, ParsingMode parsingMode,
+					  FileNotFoundAction notFoundAction, Charset charset) {
+		if (!isUtf8(charset)) {
+			ConfigParser.super.parse(file, destination, parsingMode, notFoundAction, charset);
+			return;
+		}
+		try {
+			if (Files.notExists(file) && !notFoundAction.run(file, getFormat())) {
+				return;
+			}
+			parse(IoUtils.readOrMap(file), destination, parsingMode);
+		} catch (IOException e) {
+			throw new WritingException("An I/O error occured", e);
+		}
+	}
+
+	/**
+	 * Checks if the charset is UTF-8. This includes {@link AdditionalCharsets#UTF_8_BOM}, which has
+	 * the same name: the byte-based parsing skips the byte-order mark.
+	 */
+	private static boolean isUtf8(Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset);
+	}
+
 	/**
 	 * Parses a JSON array to a List.
 	 *
@@ -221,7 +323,7 @@ public final class JsonParser implements ConfigParser<Config> {
 	 * @param destination the List where to put the data
 	 */
 	public void parseList(Reader reader, List<?> destination, ParsingMode parsingMode, Config configModel) {
-		CharacterInput input = new ReaderInput(reader);
+		CharacterInput input = new BufferedInput(reader);
 		if (input.peek() == -1) {
 			if (emptyDataAccepted) {
 				// If data is empty && we accept empty data => let the config as it is
@@ -0,0 +1,460 @@
+package re.neotamia.nightconfig.json;
+
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.concurrent.ConcurrentConfig;
+import re.neotamia.nightconfig.core.io.ParsingException;
+import re.neotamia.nightconfig.core.io.ParsingMode;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses JSON from UTF-8 bytes, without decoding the characters first. Used by {@link JsonParser}
+ * for the byte inputs.
+ * <p>
+ * The structure of the document is read byte by byte, the spaces and the strings are scanned by a
+ * {@link ByteScanner}. The Strings are only created for the keys
+ * and the string values, and the numbers are parsed from the bytes. This class follows the same rules and gives
+ * the same results as the char-based parsing of {@link JsonParser}, including the errors: the invalid
+ * UTF-8 sequences are rejected. A byte-order mark at the beginning of the data is skipped.
+ */
+final class Utf8JsonParser {
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private final JsonParser settings;
+	private final ByteBuffer bytes;
+	private final ByteScanner scanner;
+	private final int limit;
+	private int pos;
+	private CharsetDecoder decoder; // created for the first non-ASCII string
+	private byte[] scratch; // to create the Strings from a buffer that isn't backed by an array
+
+	Utf8JsonParser(JsonParser settings, ByteBuffer bytes) {
+		this(settings, bytes, new ByteScanner(bytes));
+	}
+
+	/** Creates a parser that uses the given scanner, for the benchmarks. */
+	Utf8JsonParser(JsonParser settings, ByteBuffer bytes, ByteScanner scanner) {
+		this.settings = settings;
+		this.bytes = bytes;
+		this.scanner = scanner;
+		this.pos = bytes.position();
+		this.limit = bytes.limit();
+		if (limit - pos >= 3 && bytes.get(pos) == (byte)0xEF && bytes.get(pos + 1) == (byte)0xBB
+			&& bytes.get(pos + 2) == (byte)0xBF) {
+			pos += 3; // skips the byte-order mark
+		}
+	}
+
+	// ----- entry points, like the ones of JsonParser -----
+	Object parseDocument(Config configModel) {
+		if (pos == limit) {
+			if (settings.isEmptyDataAccepted()) {
+				// If data is empty && we accept empty data => return empty config
+				return configModel.createSubConfig();
+			} else {
+				throw new ParsingException("No json data: input is empty");
+			}
+		}
+		int firstChar = readAndSkipSpaces();
+		Object result;
+		if (firstChar == '{') {
+			result = parseObject(configModel.createSubConfig(), ParsingMode.MERGE);
+		} else if (firstChar == '[') {
+			result = parseArray(new ArrayList<>(), ParsingMode.MERGE, configModel.createSubConfig());
+		} else {
+			throw new ParsingException("Invalid first character for a json document: " + charAt(pos - 1));
+		}
+		checkNoTrailingData();
+		return result;
+	}
+
+	void parse(Config destination, ParsingMode parsingMode) {
+		if (pos == limit) {
+			if (settings.isEmptyDataAccepted()) {
+				// If data is empty && we accept empty data => let the config as it is
+				return;
+			} else {
+				throw new ParsingException("No json data: input is empty");
+			}
+		}
+		int firstChar = readAndSkipSpaces();
+		if (firstChar != '{') {
+			throw new ParsingException("Invalid first character for a json object: " + charAt(pos - 1));
+		}
+		if (destination instanceof ConcurrentConfig) {
+			((ConcurrentConfig)destination).bulkUpdate(view -> {
+				parsingMode.prepareParsing(view);
+				parseObject(view, parsingMode);
+			});
+		} else {
+			parsingMode.prepareParsing(destination);
+			parseObject(destination, parsingMode);
+		}
+		checkNoTrailingData();
+	}
+
+	private void checkNoTrailingData() {
+		if (!settings.isTrailingDataAccepted()) {
+			pos = scanner.skipSpaces(pos);
+			if (pos < limit) {
+				int end = Math.min(pos + 6, limit);
+				String msg = String.format(
+						"Invalid data at the end of the JSON document: %s (use JsonParser.setTrailingDataAccepted(true) if you intend this to work)",
+						new String(copy(pos, end), 0, end - pos, StandardCharsets.UTF_8));
+				throw new ParsingException(msg);
+			}
+		}
+	}
+
+	// ----- structure -----
+	private <T extends Config> T parseObject(T config, ParsingMode parsingMode) {
+		int kfirst = readAndSkipSpaces();
+		if (kfirst == '}') {
+			return config;
+		} else if (kfirst != '"') {
+			throw new ParsingException("Invalid beginning of a key: " + charAt(pos - 1));
+		}
+		parseKVPair(config, parsingMode);
+		while (true) {
+			int vsep = readAndSkipSpaces();
+			if (vsep == '}') {// end of the object
+				return config;
+			} else if (vsep != ',') {
+				throw new ParsingException("Invalid value separator: " + charAt(pos - 1));
+			}
+			kfirst = readAndSkipSpaces();
+			if (kfirst != '"') {
+				throw new ParsingException("Invalid beginning of a key: " + charAt(pos - 1));
+			}
+			parseKVPair(config, parsingMode);
+		}
+	}
+
+	private void parseKVPair(Config config, ParsingMode parsingMode) {
+		List<String> key = Collections.singletonList(parseString()); // the list is necessary if there are dots in the key
+		int sep = readAndSkipSpaces();
+		if (sep != ':') {
+			throw new ParsingException("Invalid key-value separator: " + charAt(pos - 1));
+		}
+		int vfirst = readAndSkipSpaces();
+		Object value = parseValue(vfirst, parsingMode, config);
+		parsingMode.put(config, key, value);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> List<T> parseArray(List<T> list, ParsingMode parsingMode, Config parentConfig) {
+		boolean first = true;
+		while (true) {
+			int valueFirst = readAndSkipSpaces();// the first character of the value
+			if (first && valueFirst == ']') {
+				return list;
+			}
+			first = false;
+			int valueStart = pos - 1;
+			T value = (T)parseValue(valueFirst, parsingMode, parentConfig);
+			list.add(value);
+			int next = readAndSkipSpaces();// the next character, should be ']' or ','
+			if (next == ']') {// end of the array
+				return list;
+			} else if (next != ',') {// invalid separator
+				throw new ParsingException("Invalid value separator: " + charAt(valueStart));
+			}
+		}
+	}
+
+	private Object parseValue(int firstChar, ParsingMode parsingMode, Config parentConfig) {
+		switch (firstChar) {
+			case '"':
+				return parseString();
+			case '{':
+				return parseObject(parentConfig.createSubConfig(), parsingMode);
+			case '[':
+				return parseArray(new ArrayList<>(), parsingMode, parentConfig);
+			case 't':
+				return parseKeyword("rue", "Invalid value: t%s - expected boolean true", true);
+			case 'f':
+				return parseKeyword("alse", "Invalid value: f%s - expected boolean false", false);
+			case 'n':
+				return parseKeyword("ull", "Invaid value: n%s - expected null", null);
+			default:
+				pos--;
+				return parseNumber();
+		}
+	}
+
+	private Object parseKeyword(String rest, String errorFormat, Object value) {
+		int end = pos + rest.length();
+		if (end > limit) {
+			throw ParsingException.notEnoughData();
+		}
+		for (int i = 0; i < rest.length(); i++) {
+			if (bytes.get(pos + i) != rest.charAt(i)) {
+				throw new ParsingException(String.format(errorFormat, text(pos, end)));
+			}
+		}
+		pos = end;
+		return value;
+	}
+
+	// ----- tokens -----
+	/** Reads the next byte that is not a space. */
+	private int readAndSkipSpaces() {
+		pos = scanner.skipSpaces(pos);
+		if (pos == limit) {
+			throw ParsingException.notEnoughData();
+		}
+		return bytes.get(pos++) & 0xFF;
+	}
+
+	private Number parseNumber() {
+		int start = pos;
+		boolean decimal = false;
+		while (true) {
+			if (pos == limit) {
+				throw ParsingException.notEnoughData();
+			}
+			byte b = bytes.get(pos);
+			if (b == ',' || b == '}' || b == ']' || ByteScanner.isSpace(b)) {
+				break;
+			}
+			decimal |= (b == '.' || b == 'e' || b == 'E');
+			pos++;
+		}
+		if (decimal) {// must be a double
+			return parseDouble(start, pos);
+		}
+		long l = parseLong(start, pos);
+		int small = (int)l;
+		if (l == small) {// small value => return an int instead of a long
+			return small;
+		}
+		return l;
+	}
+
+	/** Parses a long like {@link re.neotamia.nightconfig.core.io.Utils#parseLong}, in base 10. */
+	private long parseLong(int start, int end) {
+		if (start == end) {
+			throw new ParsingException("Invalid integer: ");
+		}
+		boolean negative = false;
+		int i = start;
+		byte first = bytes.get(i);
+		if (first == '-') {
+			negative = true;
+			i++;
+		} else if (first == '+') {
+			i++;
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = bytes.get(i) - '0';
+			if (digit < 0 || digit > 9) {//invalid digit
+				throw new ParsingException("Invalid integer: " + text(start, end));
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parses a double. The simple numbers, whose significand and power of ten are exactly representable
+	 * as doubles, are computed from the bytes with a single (correctly rounded) operation. The others
+	 * are given to {@link Double#parseDouble(String)}.
+	 */
+	private double parseDouble(int start, int end) {
+		int i = start;
+		byte b = bytes.get(i);
+		boolean negative = (b == '-');
+		if (b == '-' || b == '+') {
+			i++;
+		}
+		long significand = 0;
+		int digits = 0, significantDigits = 0, fractionDigits = 0;
+		boolean fraction = false;
+		for (; i < end; i++) {
+			b = bytes.get(i);
+			if (b >= '0' && b <= '9') {
+				significand = significand * 10 + (b - '0');
+				digits++;
+				if (significand != 0) {
+					significantDigits++;
+				}
+				if (fraction) {
+					fractionDigits++;
+				}
+			} else if (b == '.' && !fraction) {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+		boolean simple = digits > 0 && significantDigits <= 15;
+		int exponent = 0;
+		if (i < end && (b == 'e' || b == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+				negativeExponent = (bytes.get(i) == '-');
+				i++;
+			}
+			int exponentStart = i;
+			for (; i < end && (b = bytes.get(i)) >= '0' && b <= '9'; i++) {
+				if (i - exponentStart < 4) {
+					exponent = exponent * 10 + (b - '0');
+				}
+			}
+			simple &= (i > exponentStart && i - exponentStart <= 4);
+			if (negativeExponent) {
+				exponent = -exponent;
+			}
+		}
+		int power = exponent - fractionDigits;
+		if (simple && i == end && power >= -22 && power <= 22) {
+			double value = (power < 0) ? significand / POWERS_OF_TEN[-power] : significand * POWERS_OF_TEN[power];
+			return negative ? -value : value;
+		}
+		// other syntaxes accepted by Java, big numbers and invalid numbers
+		return Double.parseDouble(decode(start, end));
+	}
+
+	/** Reads a string, after its opening quote. */
+	private String parseString() {
+		int start = pos;
+		boolean ascii = true;
+		while (true) {
+			pos = scanner.findStringSpecial(pos, ascii);
+			if (pos == limit) {
+				throw ParsingException.notEnoughData();
+			}
+			byte b = bytes.get(pos);
+			if (b == '"') {
+				String str = ascii ? latin1(start, pos) : decode(start, pos);
+				pos++;
+				return str;
+			} else if (b == '\\') {
+				return parseEscapedString(start, ascii);
+			}
+			ascii = false; // not ASCII, the search continues for the quote only
+			pos++;
+		}
+	}
+
+	/** Reads the rest of a string that contains escape sequences. */
+	private String parseEscapedString(int start, boolean ascii) {
+		StringBuilder builder = new StringBuilder(pos - start + 16);
+		int segmentStart = start;
+		while (true) {
+			pos = scanner.findStringSpecial(pos, ascii);
+			if (pos == limit) {
+				throw ParsingException.notEnoughData();
+			}
+			byte b = bytes.get(pos);
+			if (b == '"' || b == '\\') {
+				builder.append(ascii ? latin1(segmentStart, pos) : decode(segmentStart, pos));
+				ascii = true;
+				pos++;
+				if (b == '"') {
+					return builder.toString();
+				}
+				if (pos == limit) {
+					throw ParsingException.notEnoughData();
+				}
+				builder.append(unescape());
+				segmentStart = pos;
+			} else {
+				ascii = false;
+				pos++;
+			}
+		}
+	}
+
+	/** Reads an escape sequence, after its backslash. */
+	private char unescape() {
+		int c = bytes.get(pos++) & 0xFF;
+		switch (c) {
+			case '"':
+			case '\\':
+			case '/':
+				return (char)c;
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				if (pos + 4 > limit) {
+					throw ParsingException.notEnoughData();
+				}
+				int value = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(bytes.get(pos + i), 16);
+					if (digit == -1) {
+						throw new ParsingException("Invalid integer: " + text(pos, pos + 4));
+					}
+					value = value * 16 + digit;
+				}
+				pos += 4;
+				return (char)value;
+			default:
+				throw new ParsingException("Invalid escapement: \\" + charAt(pos - 1));
+		}
+	}
+
+	// ----- bytes to chars -----
+	/** Creates a String from ASCII bytes. */
+	private String latin1(int start, int end) {
+		if (bytes.hasArray()) {
+			return new String(bytes.array(), bytes.arrayOffset() + start, end - start, StandardCharsets.ISO_8859_1);
+		}
+		return new String(copy(start, end), 0, end - start, StandardCharsets.ISO_8859_1);
+	}
+
+	/** Copies some bytes to a reused array, which can be longer than the copied bytes. */
+	private byte[] copy(int start, int end) {
+		int length = end - start;
+		if (scratch == null || scratch.length < length) {
+			scratch = new byte[Math.max(length, 64)];
+		}
+		bytes.get(start, scratch, 0, length);
+		return scratch;
+	}
+
+	/** Decodes UTF-8 bytes, and rejects the invalid sequences. */
+	private String decode(int start, int end) {
+		if (decoder == null) {
+			decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		}
+		try {
+			return decoder.decode(bytes.duplicate().limit(end).position(start)).toString();
+		} catch (CharacterCodingException e) {
+			throw ParsingException.readFailed(e);
+		}
+	}
+
+	/** Decodes some bytes for an error message, replacing the invalid sequences. */
+	private String text(int start, int end) {
+		return new String(copy(start, end), 0, end - start, StandardCharsets.UTF_8);
+	}
+
+	/** Returns the character that begins at the given index, for the error messages. */
+	private char charAt(int index) {
+		return text(index, Math.min(index + 4, limit)).charAt(0);
+	}
+}
@@ -0,0 +1,21 @@
+package re.neotamia.nightconfig.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ByteScannerTest {
+	@Test
+	public void parsePrettyPrinted() {
+		String json = "{\n\t\"key\":    \"" + "long value with é and \\\"escapes\\\" ".repeat(20) + "\",\n"
+			+ "        \"list\": [1,        2,\n\n\n\n\n\n                                                  3]\n}";
+		ByteBuffer bytes = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+		Object expected = new JsonParser().parseDocument(json);
+		assertEquals(expected, new JsonParser().parseDocument(bytes));
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.remaining()).put(bytes.duplicate()).flip();
+		assertEquals(expected, new JsonParser().parseDocument(direct));
+	}
+}
@@ -1,19 +1,30 @@
 package re.neotamia.nightconfig.json;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.Timeout.ThreadMode;
 
 import re.neotamia.nightconfig.core.Config;
 import re.neotamia.nightconfig.core.InMemoryCommentedFormat;
 import re.neotamia.nightconfig.core.concurrent.StampedConfig;
 import re.neotamia.nightconfig.core.concurrent.SynchronizedConfig;
 import re.neotamia.nightconfig.core.file.FileNotFoundAction;
+import re.neotamia.nightconfig.core.io.AdditionalCharsets;
 import re.neotamia.nightconfig.core.io.ParsingException;
 import re.neotamia.nightconfig.core.io.ParsingMode;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 import java.util.HashMap;
 import java.util.List;
 
@@ -127,4 +138,69 @@ public class JsonParserTest {
 			new JsonParser().parseList("a");
 		});
 	}
+
+	@Test
+	public void parseUtf8SameAsChars() {
+		String[] documents = {
+			"{}", "  [ ]  ", "[1, -2, 0, 9223372036854775807, -9223372036854775808, 9223372036854775808]",
+			"[1.5, -0.0, 0.1, 2.5e-3, 1E5, 1e308, 4.9e-324, 1e-400, 3.14159265358979323846, 9007199254740993.0]",
+			"{\"a\": {\"b\": [true, false, null, {}]}, \"c\" : \"d\"}",
+			"{\"esc\": \"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00e9\\ud83c\\udf19\", \"utf8\": \"välue 🌙 夜\"}",
+			"[\"\", \"a\\u0041\", 12\t,\n\"x\"\r]"
+		};
+		JsonParser parser = new JsonParser();
+		for (String json : documents) {
+			byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+			assertEquals(parser.parseDocument(json), parser.parseDocument(ByteBuffer.wrap(bytes)), json);
+			if (json.trim().startsWith("{")) {
+				assertEquals(parser.parse(json), parser.parse(bytes), json);
+				assertEquals(parser.parse(json), parser.parse(new ByteArrayInputStream(bytes)), json);
+			}
+		}
+	}
+
+	@Test
+	public void parseInvalidUtf8() {
+		String[] invalid = {
+			"", "{", "{}abcdefg", "[]", "{\"a\" 1}", "{\"a\": tru}", "{\"a\": [1,]", "{\"a\": \"\\x\"}",
+			"{\"a\": \"\\u12\"}", "{\"a\": 12", "{\"a\": \"b}"
+		};
+		for (String json : invalid) {
+			assertThrows(ParsingException.class, () -> new JsonParser().parse(json), json);
+			assertThrows(ParsingException.class, () -> new JsonParser().parse(json.getBytes(StandardCharsets.UTF_8)), json);
+		}
+		// malformed UTF-8: a truncated sequence and an overlong encoding
+		assertThrows(ParsingException.class, () -> new JsonParser().parse(new byte[]{'{', '"', 'a', (byte)0xC3, '"', ':', '1', '}'}));
+		assertThrows(ParsingException.class, () -> new JsonParser().parse(new byte[]{'{', '"', (byte)0xC0, (byte)0xAF, '"', ':', '1', '}'}));
+	}
+
+	@Test
+	public void parseUtf8EmptyAndTrailingData() {
+		JsonParser parser = new JsonParser().setEmptyDataAccepted(true).setTrailingDataAccepted(true);
+		assertTrue(parser.parse(new byte[0]).isEmpty());
+		assertEquals(1, parser.parse("{\"a\": 1} trailing".getBytes(StandardCharsets.UTF_8)).<Integer>get("a"));
+		ByteBuffer slice = ByteBuffer.wrap("xx{\"a\": 2}yy".getBytes(StandardCharsets.UTF_8), 2, 8);
+		assertEquals(2, parser.parse(slice).<Integer>get("a"));
+		assertEquals(2, slice.position());
+	}
+
+	@Test
+	public void parseUtf8ByteOrderMark() {
+		byte[] bom = {(byte)0xEF, (byte)0xBB, (byte)0xBF, '{', '"', 'a', '"', ':', '1', '}'};
+		assertEquals(1, new JsonParser().parse(bom).<Integer>get("a"));
+		assertEquals(1, new JsonParser().parse(new ByteArrayInputStream(bom), AdditionalCharsets.UTF_8_BOM).<Integer>get("a"));
+	}
+
+	@Test
+	@Timeout(value = 10, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+	public void parseStreamWithoutEnd() throws IOException {
+		// the stream is not read until its end, like a socket: the data that follows the object is not needed
+		JsonParser parser = new JsonParser().setTrailingDataAccepted(true);
+		PipedOutputStream out = new PipedOutputStream();
+		PipedInputStream in = new PipedInputStream(out);
+		out.write("{\"a\": 1}".getBytes(StandardCharsets.UTF_8));
+		Config config = parser.parse(in);
+		assertEquals(1, config.<Integer>get("a"));
+		out.close();
+	}
 }
@@ -0,0 +1,15 @@
+plugins {
+    id("night-config-lib")
+}
+
+// Use Java 21, like the base version of the other modules.
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+dependencies {
+    // The processor only reads the annotations through javax.lang.model, it doesn't need core at runtime.
+    testImplementation(project(":core"))
+}
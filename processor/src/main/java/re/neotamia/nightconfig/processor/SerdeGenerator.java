@@ -0,0 +1,913 @@
+package re.neotamia.nightconfig.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates the {@code GeneratedSerde} of one class.
+ * <p>
+ * The generated code follows the behavior of the reflection-based {@code SerializerContext} and
+ * {@code DeserializerContext}: the fields of the class come first, then the fields of its
+ * superclasses, and the serde annotations are applied in the same way. The annotations are
+ * checked at compile time, and the invalid ones are reported as compilation errors.
+ */
+final class SerdeGenerator {
+	private static final String ANNOTATIONS = "re.neotamia.nightconfig.core.serde.annotations.";
+	private static final String SERDE = "re.neotamia.nightconfig.core.serde.";
+	private static final String OBJECT = "java.lang.Object";
+	private static final String STRING = "java.lang.String";
+
+	private enum Phase {
+		SERIALIZING, DESERIALIZING
+	}
+
+	private final ProcessingEnvironment env;
+	private final Elements elements;
+	private final Types types;
+	private final TypeElement root;
+	/** the raw type of the root class, which is the type of {@code object} in the generated code */
+	private final DeclaredType rootType;
+	private final PackageElement pkg;
+	private boolean failed = false;
+	/** the reported errors, to report each error once even if it applies to both phases */
+	private final Set<String> errors = new HashSet<>();
+
+	// generated code
+	private final List<String> fieldNames = new ArrayList<>();
+	private final List<String> explicitKeys = new ArrayList<>();
+	private final List<String> constants = new ArrayList<>();
+	private final CodeWriter ser = new CodeWriter(2);
+	private final CodeWriter de = new CodeWriter(2);
+	private boolean hasTransientFields = false;
+
+	SerdeGenerator(ProcessingEnvironment env, TypeElement root) {
+		this.env = env;
+		this.elements = env.getElementUtils();
+		this.types = env.getTypeUtils();
+		this.root = root;
+		this.rootType = (DeclaredType) types.erasure(root.asType());
+		this.pkg = elements.getPackageOf(root);
+	}
+
+	/**
+	 * Generates the source file.
+	 *
+	 * @return the binary name of the generated class, or null if an error was reported
+	 */
+	String generate() {
+		checkRootClass();
+		if (failed) {
+			return null;
+		}
+		int index = 0;
+		for (TypeElement cls = root; cls != null; cls = superclass(cls)) {
+			for (VariableElement field : ElementFilter.fieldsIn(cls.getEnclosedElements())) {
+				if (!field.getModifiers().contains(Modifier.STATIC)) {
+					generateField(field, index++);
+				}
+			}
+		}
+		if (failed) {
+			return null;
+		}
+		String simpleName = elements.getBinaryName(root).toString()
+			.substring(pkg.isUnnamed() ? 0 : pkg.getQualifiedName().length() + 1)
+			.replace('$', '_') + "_Serde";
+		String qualifiedName = pkg.isUnnamed() ? simpleName : pkg.getQualifiedName() + "." + simpleName;
+		try {
+			JavaFileObject file = env.getFiler().createSourceFile(qualifiedName, root);
+			try (Writer writer = file.openWriter()) {
+				writer.write(sourceCode(simpleName));
+			}
+		} catch (IOException e) {
+			error(root, "Failed to write the generated class " + qualifiedName + ": " + e);
+			return null;
+		}
+		return qualifiedName;
+	}
+
+	private void checkRootClass() {
+		if (root.getKind() != ElementKind.CLASS) {
+			error(root, "@SerdeGenerate can only be applied to classes, not to " + root.getKind().toString().toLowerCase(Locale.ROOT) + "s");
+		} else if (root.getModifiers().contains(Modifier.ABSTRACT)) {
+			error(root, "@SerdeGenerate cannot be applied to an abstract class");
+		} else if (!isAccessible(root)) {
+			error(root, "@SerdeGenerate cannot be applied to a private or local class");
+		}
+	}
+
+	/** @return true if the generated code can create instances of the root class */
+	private boolean canCreateInstances() {
+		if (root.getNestingKind() == NestingKind.MEMBER && !root.getModifiers().contains(Modifier.STATIC)) {
+			return false; // inner class, needs an instance of the outer class
+		}
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(root.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty()) {
+				return !constructor.getModifiers().contains(Modifier.PRIVATE);
+			}
+		}
+		return false;
+	}
+
+	// ====== Fields ======
+
+	private void generateField(VariableElement field, int index) {
+		String name = field.getSimpleName().toString();
+		TypeMirror type = types.asMemberOf(rootType, field);
+		boolean isTransient = field.getModifiers().contains(Modifier.TRANSIENT);
+		AnnotationMirror config = annotation(field, "SerdeConfig");
+
+		fieldNames.add(literal(name));
+		explicitKeys.add(explicitKey(field, config));
+		hasTransientFields |= isTransient;
+
+		String qualifier = fieldQualifier(field);
+		generateSerialization(field, index, name, isTransient, config, qualifier);
+		generateDeserialization(field, index, name, type, isTransient, config, qualifier);
+	}
+
+	private void generateSerialization(VariableElement field, int index, String name, boolean isTransient, AnnotationMirror config, String qualifier) {
+		List<String> skip = skipConditions(field, config, Phase.SERIALIZING);
+		if (skip == null) {
+			return; // always skipped
+		}
+		boolean readable = isAccessible(field);
+		if (!readable && !isTransient) {
+			error(field, "The field " + name + " must not be private, because the generated code cannot access it.");
+			return;
+		}
+		ser.line("// field " + name);
+		if (isTransient) {
+			ser.open("if (!skipTransient)");
+			if (!readable) {
+				ser.line("throw inaccessibleTransient(" + literal(name) + ");");
+				ser.close();
+				return;
+			}
+		} else {
+			ser.open("");
+		}
+		ser.line(OBJECT + " value = " + qualifier + "." + name + ";");
+		boolean hasSkip = !skip.isEmpty();
+		if (hasSkip) {
+			ser.open("if (!(" + String.join(" || ", skip) + "))");
+		}
+
+		Map<String, String> defaults = defaults(field, config, Phase.SERIALIZING);
+		String nullDefault = defaults.get("IS_NULL"), emptyDefault = defaults.get("IS_EMPTY");
+		String name_ = literal(name);
+		if (nullDefault != null) {
+			ser.open("if (value == null)");
+			ser.line("value = defaultValue(" + nullDefault + ", " + name_ + ");");
+			if (emptyDefault != null) {
+				ser.closeOpen("else if (isEmpty(value))");
+				ser.line("value = defaultValue(" + emptyDefault + ", " + name_ + ");");
+			}
+			ser.close();
+		} else if (emptyDefault != null) {
+			ser.open("if (value != null && isEmpty(value))");
+			ser.line("value = defaultValue(" + emptyDefault + ", " + name_ + ");");
+			ser.close();
+		}
+
+		generateAssert(ser, field, config, Phase.SERIALIZING, name_);
+		String comment = comment(field, config);
+		ser.line("serializeEntry(ctx, config, paths.get(" + index + "), value, " + (comment == null ? "null" : literal(comment)) + ", " + name_ + ");");
+		if (hasSkip) {
+			ser.close();
+		}
+		ser.close();
+	}
+
+	private void generateDeserialization(VariableElement field, int index, String name, TypeMirror type, boolean isTransient, AnnotationMirror config, String qualifier) {
+		List<String> skip = skipConditions(field, config, Phase.DESERIALIZING);
+		if (skip == null) {
+			return; // always skipped
+		}
+		boolean accessible = isAccessible(field);
+		boolean writable = accessible && !field.getModifiers().contains(Modifier.FINAL);
+		if (!writable && !isTransient) {
+			if (!accessible) {
+				error(field, "The field " + name + " must not be private, because the generated code cannot access it.");
+			} else {
+				error(field, "The field " + name + " must not be final, because the generated code cannot assign it. Use @SerdeSkipDeserializingIf to ignore it.");
+			}
+			return;
+		}
+		de.line("// field " + name);
+		if (isTransient) {
+			de.open("if (!skipTransient)");
+			if (!writable) {
+				de.line("throw inaccessibleTransient(" + literal(name) + ");");
+				de.close();
+				return;
+			}
+		} else {
+			de.open("");
+		}
+		String typeConstant = "TYPE_" + index;
+		constants.add("private static final " + SERDE + "TypeConstraint " + typeConstant + " = new " + SERDE + "TypeConstraint(" + typeExpression(field, type) + ");");
+
+		String path = "paths.get(" + index + ")";
+		String name_ = literal(name);
+		de.line(OBJECT + " raw = config.getRaw(" + path + ");");
+		boolean hasSkip = !skip.isEmpty();
+		if (hasSkip) {
+			de.open("if (!(" + String.join(" || ", skip) + "))");
+		}
+		Map<String, String> defaults = defaults(field, config, Phase.DESERIALIZING);
+		String deserialize = "deserializeEntry(ctx, raw, " + typeConstant + ", " + path + ", " + name_ + ")";
+		if (defaults.isEmpty()) {
+			de.line(OBJECT + " value = " + deserialize + ";");
+		} else {
+			de.line(OBJECT + " value;");
+		}
+		// same order as AbstractObjectDeserializer.findDefaultValueSupplier
+		String[][] cases = {
+			{"IS_MISSING", "raw == null"},
+			{"IS_NULL", "isNull(raw)"},
+			{"IS_EMPTY", "raw != null && !isNull(raw) && isEmpty(raw)"},
+		};
+		boolean first = true;
+		for (String[] c : cases) {
+			String provider = defaults.get(c[0]);
+			if (provider != null) {
+				if (first) {
+					de.open("if (" + c[1] + ")");
+					first = false;
+				} else {
+					de.closeOpen("else if (" + c[1] + ")");
+				}
+				de.line("value = defaultValue(" + provider + ", " + name_ + ");");
+			}
+		}
+		if (!first) {
+			de.closeOpen("else");
+			de.line("value = " + deserialize + ";");
+			de.close();
+		}
+
+		generateAssert(de, field, config, Phase.DESERIALIZING, name_);
+		de.line(qualifier + "." + name + " = " + convert("value", types.erasure(type), name_) + ";");
+		if (hasSkip) {
+			de.close();
+		}
+		de.close();
+	}
+
+	private void generateAssert(CodeWriter w, VariableElement field, AnnotationMirror config, Phase phase, String name) {
+		List<String> conditions = assertConditions(field, config, phase);
+		if (conditions.size() > 1) {
+			conditions.replaceAll(c -> c.contains(" || ") ? "(" + c + ")" : c);
+		}
+		if (!conditions.isEmpty()) {
+			w.open("if (!(" + String.join(" && ", conditions) + "))");
+			w.line("throw invalidValue(" + name + ", value);");
+			w.close();
+		}
+	}
+
+	/** @return the expression that gives the object that contains the field */
+	private String fieldQualifier(VariableElement field) {
+		TypeElement declaring = (TypeElement) field.getEnclosingElement();
+		if (declaring.equals(root) || !isAccessible(declaring)) {
+			return "object";
+		}
+		// cast to access the field even if it's hidden by a field of a subclass
+		return "((" + qualifiedName(declaring) + ") object)";
+	}
+
+	// ====== Keys and comments ======
+
+	private String explicitKey(VariableElement field, AnnotationMirror config) {
+		if (config != null) {
+			String key = stringValue(config, "key");
+			return literal(key.isBlank() ? field.getSimpleName().toString() : key);
+		}
+		AnnotationMirror key = annotation(field, "SerdeKey");
+		if (key != null) {
+			return literal(stringValue(key, "value"));
+		}
+		return "null"; // apply the naming strategy
+	}
+
+	private String comment(VariableElement field, AnnotationMirror config) {
+		List<AnnotationMirror> comments = config == null ? List.of() : annotationsValue(config, "comments");
+		if (comments.isEmpty()) {
+			comments = repeatable(field, "SerdeComment", "SerdeCommentsContainer");
+		}
+		if (comments.isEmpty()) {
+			return null;
+		}
+		StringJoiner joiner = new StringJoiner("\n");
+		for (AnnotationMirror comment : comments) {
+			joiner.add(stringValue(comment, "value"));
+		}
+		return joiner.toString();
+	}
+
+	// ====== Skip conditions ======
+
+	/**
+	 * Returns the conditions that skip the field, as boolean expressions. The variable {@code raw}
+	 * contains the config value when deserializing, the variable {@code value} contains the field
+	 * value when serializing.
+	 *
+	 * @return the conditions, or null if the field is always skipped
+	 */
+	private List<String> skipConditions(VariableElement field, AnnotationMirror config, Phase phase) {
+		List<AnnotationMirror> skips = new ArrayList<>();
+		List<AnnotationMirror> phaseSkips = new ArrayList<>();
+		String phaseAnnotation = phase == Phase.SERIALIZING ? "SerdeSkipSerializingIf" : "SerdeSkipDeserializingIf";
+		String phaseMember = phase == Phase.SERIALIZING ? "skipSerializingIf" : "skipDeserializingIf";
+		if (config != null) {
+			skips.addAll(singleAnnotationValue(field, config, "skip", "SerdeSkip"));
+			phaseSkips.addAll(singleAnnotationValue(field, config, phaseMember, phaseAnnotation));
+		}
+		AnnotationMirror skip = annotation(field, "SerdeSkip");
+		if (skip != null) {
+			skips.add(skip);
+		}
+		AnnotationMirror phaseSkip = annotation(field, phaseAnnotation);
+		if (phaseSkip != null) {
+			phaseSkips.add(phaseSkip);
+		}
+
+		String variable = phase == Phase.SERIALIZING ? "value" : "raw";
+		TypeMirror fieldType = types.erasure(field.asType());
+		TypeMirror customParameter = phase == Phase.SERIALIZING ? fieldType : objectType();
+		List<String> conditions = new ArrayList<>();
+		boolean always = false;
+		for (AnnotationMirror annot : skips) {
+			for (String condition : enumsValue(annot, "value")) {
+				if (!checkCustomParameters(field, annot, condition, "SkipIf")) {
+					continue;
+				}
+				switch (condition) {
+					case "ALWAYS" -> always = true;
+					case "IS_NULL" -> conditions.add(phase == Phase.SERIALIZING ? "value == null" : "isNull(raw)");
+					case "IS_EMPTY" -> conditions.add(variable + " != null && isEmpty(" + variable + ")");
+					case "CUSTOM" -> conditions.add(customPredicate(field, annot, "skip predicate", customParameter, variable));
+				}
+			}
+		}
+		for (AnnotationMirror annot : phaseSkips) {
+			String enumName = phase == Phase.SERIALIZING ? "SkipSerIf" : "SkipDeIf";
+			for (String condition : enumsValue(annot, "value")) {
+				if (!checkCustomParameters(field, annot, condition, enumName)) {
+					continue;
+				}
+				switch (condition) {
+					case "ALWAYS" -> always = true;
+					case "IS_MISSING" -> conditions.add("raw == null");
+					case "IS_NULL" -> conditions.add(phase == Phase.SERIALIZING ? "value == null" : "isNull(raw)");
+					case "IS_EMPTY" -> conditions.add(variable + " != null && isEmpty(" + variable + ")");
+					case "CUSTOM" -> conditions.add(customPredicate(field, annot, "skip predicate", customParameter, variable));
+				}
+			}
+		}
+		if (always) {
+			return null;
+		}
+		if (conditions.size() > 1) {
+			conditions.replaceAll(c -> c.contains(" && ") ? "(" + c + ")" : c);
+		}
+		return conditions;
+	}
+
+	/**
+	 * Checks the parameters {@code customClass} and {@code customCheck}, like the runtime does.
+	 *
+	 * @return true if the condition is valid
+	 */
+	private boolean checkCustomParameters(VariableElement field, AnnotationMirror annot, String condition, String enumName) {
+		boolean hasCheck = !stringValue(annot, "customCheck").isEmpty();
+		boolean hasClass = !isObject(typeValue(annot, "customClass"));
+		if (condition.equals("CUSTOM")) {
+			if (!hasCheck) {
+				error(field, annot, "Invalid annotation: with " + enumName + ".CUSTOM, parameter `customCheck` must be provided and non-empty.");
+				return false;
+			}
+		} else if (hasCheck || hasClass) {
+			error(field, annot, "Invalid annotation: with " + enumName + "." + condition + ", no additional parameter must be specified.");
+			return false;
+		}
+		return true;
+	}
+
+	// ====== Assertions ======
+
+	/**
+	 * Returns the assertions that the value must satisfy, as boolean expressions on the variable
+	 * {@code value}.
+	 */
+	private List<String> assertConditions(VariableElement field, AnnotationMirror config, Phase phase) {
+		List<AnnotationMirror> asserts = new ArrayList<>();
+		if (config != null) {
+			asserts.addAll(annotationsValue(config, "asserts"));
+		}
+		asserts.addAll(repeatable(field, "SerdeAssert", "SerdeAssertsContainer"));
+
+		TypeMirror fieldType = types.erasure(field.asType());
+		List<String> conditions = new ArrayList<>();
+		for (AnnotationMirror annot : asserts) {
+			List<String> values = enumsValue(annot, "value");
+			boolean hasCheck = !stringValue(annot, "customCheck").isEmpty();
+			boolean hasClass = !isObject(typeValue(annot, "customClass"));
+			if (values.contains("CUSTOM") && !hasCheck) {
+				error(field, annot, "Invalid annotation: with AssertThat.CUSTOM, parameter `customCheck` must be provided and non-empty.");
+				continue;
+			} else if (!values.contains("CUSTOM") && (hasCheck || hasClass)) {
+				error(field, annot, "Invalid annotation: without AssertThat.CUSTOM, no additional parameter must be specified.");
+				continue;
+			}
+			String annotPhase = enumValue(annot, "phase");
+			if (!annotPhase.equals(phase.name()) && !annotPhase.equals("BOTH")) {
+				continue;
+			}
+			for (String condition : values) {
+				switch (condition) {
+					case "NOT_NULL" -> conditions.add("value != null");
+					case "NOT_EMPTY" -> conditions.add("value == null || !isEmpty(value)");
+					case "CUSTOM" -> conditions.add(customPredicate(field, annot, "assert predicate", fieldType, "value"));
+				}
+			}
+		}
+		return conditions;
+	}
+
+	// ====== Default values ======
+
+	/**
+	 * Returns the default value providers of the field, as {@code Supplier} expressions.
+	 *
+	 * @return a map {@code WhenValue name -> provider}
+	 */
+	private Map<String, String> defaults(VariableElement field, AnnotationMirror config, Phase phase) {
+		Map<String, AnnotationMirror> byWhen = defaultAnnotations(field, repeatable(field, "SerdeDefault", "SerdeDefaultsContainer"), phase);
+		if (config != null) {
+			// SerdeConfig takes precedence over standalone annotations
+			byWhen.putAll(defaultAnnotations(field, annotationsValue(config, "defaults"), phase));
+		}
+		Map<String, String> providers = new HashMap<>();
+		for (Map.Entry<String, AnnotationMirror> entry : byWhen.entrySet()) {
+			String provider = defaultProvider(field, entry.getValue());
+			if (provider != null) {
+				providers.put(entry.getKey(), provider);
+			}
+		}
+		return providers;
+	}
+
+	private Map<String, AnnotationMirror> defaultAnnotations(VariableElement field, List<AnnotationMirror> annotations, Phase phase) {
+		Map<String, AnnotationMirror> byWhen = new HashMap<>();
+		for (AnnotationMirror annot : annotations) {
+			String annotPhase = enumValue(annot, "phase");
+			if (!annotPhase.equals(phase.name()) && !annotPhase.equals("BOTH")) {
+				continue;
+			}
+			for (String when : enumsValue(annot, "whenValue")) {
+				if (byWhen.put(when, annot) != null) {
+					error(field, annot, "Conflicting annotations: only one @SerdeDefault must be applicable in a given situation.");
+				}
+			}
+		}
+		return byWhen;
+	}
+
+	private String defaultProvider(VariableElement field, AnnotationMirror annot) {
+		TypeMirror cls = typeValue(annot, "cls");
+		String name = stringValue(annot, "provider");
+		Element member = findMember(field, annot, cls, name, null, "default value provider");
+		if (member == null) {
+			return null;
+		}
+		String memberName = member.getSimpleName().toString();
+		String qualifier = memberQualifier(field, annot, member, cls, "default value provider");
+		if (qualifier == null) {
+			return null;
+		}
+		if (member instanceof VariableElement) {
+			if (!canBe(member.asType(), "java.util.function.Supplier")) {
+				error(field, annot, "Invalid default value provider: field " + memberName + " must be of type Supplier.");
+				return null;
+			}
+			return "supplier(" + qualifier + "." + memberName + ", " + literal(memberName) + ")";
+		}
+		ExecutableElement method = (ExecutableElement) member;
+		if (method.getReturnType().getKind() == TypeKind.VOID) {
+			error(field, annot, "Invalid default value provider: method " + memberName + " should return a value.");
+			return null;
+		}
+		return "() -> " + qualifier + "." + memberName + "()";
+	}
+
+	// ====== Custom checks ======
+
+	/**
+	 * Returns an expression that applies a custom predicate to the given variable.
+	 */
+	private String customPredicate(VariableElement field, AnnotationMirror annot, String label, TypeMirror parameter, String variable) {
+		TypeMirror cls = typeValue(annot, "customClass");
+		String name = stringValue(annot, "customCheck");
+		Element member = findMember(field, annot, cls, name, parameter, label);
+		if (member == null) {
+			return "false";
+		}
+		String memberName = member.getSimpleName().toString();
+		String qualifier = memberQualifier(field, annot, member, cls, label);
+		if (qualifier == null) {
+			return "false";
+		}
+		if (member instanceof VariableElement) {
+			if (!canBe(member.asType(), "java.util.function.Predicate")) {
+				error(field, annot, "Invalid " + label + ": field " + memberName + " must be of type Predicate.");
+				return "false";
+			}
+			return "predicate(" + qualifier + "." + memberName + ", " + literal(memberName) + ").test(" + variable + ")";
+		}
+		ExecutableElement method = (ExecutableElement) member;
+		if (method.getReturnType().getKind() != TypeKind.BOOLEAN) {
+			error(field, annot, "Invalid " + label + ": method " + memberName + " should return a boolean.");
+			return "false";
+		}
+		String argument = convert(variable, parameter, literal(field.getSimpleName().toString()));
+		return qualifier + "." + memberName + "(" + argument + ")";
+	}
+
+	/**
+	 * Finds the field or method {@code name}, like {@code AnnotationProcessor.findFieldOrMethodIn}:
+	 * if {@code cls} is {@code Object}, the member is looked up in the annotated class and its
+	 * superclasses. A name that ends with {@code ()} only matches methods.
+	 *
+	 * @param parameter the type of the method's parameter, or null if the method takes no parameter
+	 */
+	private Element findMember(VariableElement field, AnnotationMirror annot, TypeMirror cls, String name, TypeMirror parameter, String label) {
+		boolean recurse = isObject(cls);
+		boolean methodOnly = name.endsWith("()");
+		String simpleName = methodOnly ? name.substring(0, name.length() - 2) : name;
+		TypeElement c = recurse ? root : (TypeElement) types.asElement(cls);
+		while (c != null) {
+			if (!methodOnly) {
+				for (VariableElement f : ElementFilter.fieldsIn(c.getEnclosedElements())) {
+					if (f.getSimpleName().contentEquals(simpleName)) {
+						return f;
+					}
+				}
+			}
+			for (ExecutableElement m : ElementFilter.methodsIn(c.getEnclosedElements())) {
+				if (m.getSimpleName().contentEquals(simpleName) && hasParameter(m, parameter)) {
+					return m;
+				}
+			}
+			if (!recurse) {
+				break;
+			}
+			c = superclass(c);
+		}
+		error(field, annot, "Custom " + label + " `" + name + "` not found");
+		return null;
+	}
+
+	private boolean hasParameter(ExecutableElement method, TypeMirror parameter) {
+		List<? extends VariableElement> params = method.getParameters();
+		if (parameter == null) {
+			return params.isEmpty();
+		}
+		return params.size() == 1 && types.isSameType(types.erasure(params.get(0).asType()), types.erasure(parameter));
+	}
+
+	/**
+	 * @return the expression that gives the object that contains the member, or null if the member
+	 * cannot be accessed
+	 */
+	private String memberQualifier(VariableElement field, AnnotationMirror annot, Element member, TypeMirror cls, String label) {
+		String memberName = member.getSimpleName().toString();
+		if (!isAccessible(member)) {
+			error(field, annot, "Invalid " + label + ": " + memberName + " must not be private, because the generated code cannot access it.");
+			return null;
+		}
+		if (member.getModifiers().contains(Modifier.STATIC)) {
+			return qualifiedName((TypeElement) member.getEnclosingElement());
+		}
+		if (!isObject(cls)) {
+			error(field, annot, "Invalid " + label + ": " + memberName + " should be declared as static.");
+			return null;
+		}
+		return "object";
+	}
+
+	// ====== Types ======
+
+	/**
+	 * @return an expression of type {@code java.lang.reflect.Type} that represents the given type
+	 */
+	private String typeExpression(Element field, TypeMirror type) {
+		switch (type.getKind()) {
+			case BOOLEAN, BYTE, SHORT, CHAR, INT, LONG, FLOAT, DOUBLE:
+				return type.getKind().toString().toLowerCase(Locale.ROOT) + ".class";
+			case ARRAY:
+				// erased like List<String>[] -> List[], because arrays are deserialized from their component class
+				return classLiteral(field, types.erasure(type));
+			case DECLARED: {
+				DeclaredType declared = (DeclaredType) type;
+				if (declared.getTypeArguments().isEmpty()) {
+					return classLiteral(field, type);
+				}
+				StringJoiner joiner = new StringJoiner(", ", "parameterized(" + classLiteral(field, types.erasure(type)) + ", ", ")");
+				for (TypeMirror arg : declared.getTypeArguments()) {
+					joiner.add(typeExpression(field, arg));
+				}
+				return joiner.toString();
+			}
+			case WILDCARD: {
+				WildcardType wildcard = (WildcardType) type;
+				String upper = wildcard.getExtendsBound() == null ? "java.lang.Object.class" : typeExpression(field, wildcard.getExtendsBound());
+				String lower = wildcard.getSuperBound() == null ? "" : typeExpression(field, wildcard.getSuperBound());
+				return "wildcard(new java.lang.reflect.Type[] {" + upper + "}, new java.lang.reflect.Type[] {" + lower + "})";
+			}
+			default:
+				// type variable or intersection: use its erasure, like TypeConstraint does with the bounds
+				return typeExpression(field, types.erasure(type));
+		}
+	}
+
+	/** @return the class literal of an erased type, after checking that the type is accessible */
+	private String classLiteral(Element field, TypeMirror erased) {
+		return className(field, erased) + ".class";
+	}
+
+	private String className(Element field, TypeMirror erased) {
+		if (erased.getKind().isPrimitive()) {
+			return erased.getKind().toString().toLowerCase(Locale.ROOT);
+		}
+		if (erased.getKind() == TypeKind.ARRAY) {
+			return className(field, ((ArrayType) erased).getComponentType()) + "[]";
+		}
+		TypeElement cls = (TypeElement) types.asElement(erased);
+		if (!isAccessible(cls)) {
+			error(field, "The type " + cls.getQualifiedName() + " must be accessible from the package " + pkg.getQualifiedName() + ", because the generated code uses it");
+		}
+		return qualifiedName(cls);
+	}
+
+	/**
+	 * Returns an expression that converts the given {@code Object} variable to the given erased
+	 * type, with the same rules as {@code Field.set}.
+	 */
+	private String convert(String variable, TypeMirror erased, String fieldName) {
+		TypeKind kind = erased.getKind();
+		if (kind.isPrimitive()) {
+			String primitive = kind.toString().toLowerCase(Locale.ROOT);
+			String method = "as" + Character.toUpperCase(primitive.charAt(0)) + primitive.substring(1);
+			return method + "(" + variable + ", " + fieldName + ")";
+		}
+		if (isObject(erased)) {
+			return variable;
+		}
+		return "cast(" + variable + ", " + classLiteral(root, erased) + ", " + fieldName + ")";
+	}
+
+	/** @return true if a value of the given type can be an instance of the given interface */
+	private boolean canBe(TypeMirror type, String interfaceName) {
+		TypeMirror itf = types.erasure(elements.getTypeElement(interfaceName).asType());
+		TypeMirror erased = types.erasure(type);
+		return types.isAssignable(erased, itf) || types.isAssignable(itf, erased);
+	}
+
+	private boolean isObject(TypeMirror type) {
+		return type.getKind() == TypeKind.DECLARED
+			&& ((TypeElement) types.asElement(type)).getQualifiedName().contentEquals(OBJECT);
+	}
+
+	private TypeMirror objectType() {
+		return elements.getTypeElement(OBJECT).asType();
+	}
+
+	private TypeElement superclass(TypeElement cls) {
+		TypeMirror superclass = cls.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED || isObject(superclass)) {
+			return null;
+		}
+		return (TypeElement) types.asElement(superclass);
+	}
+
+	private String qualifiedName(TypeElement cls) {
+		return cls.getQualifiedName().toString();
+	}
+
+	/** @return true if the element can be accessed from the generated class, in the package {@link #pkg} */
+	private boolean isAccessible(Element element) {
+		Set<Modifier> modifiers = element.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE)) {
+			return false;
+		}
+		if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(element).equals(pkg)) {
+			return false;
+		}
+		Element enclosing = element.getEnclosingElement();
+		if (enclosing.getKind() == ElementKind.PACKAGE) {
+			return true;
+		}
+		return (enclosing instanceof TypeElement) && isAccessible(enclosing);
+	}
+
+	// ====== Annotations ======
+
+	private AnnotationMirror annotation(Element element, String simpleName) {
+		for (AnnotationMirror annot : element.getAnnotationMirrors()) {
+			TypeElement type = (TypeElement) annot.getAnnotationType().asElement();
+			if (type.getQualifiedName().contentEquals(ANNOTATIONS + simpleName)) {
+				return annot;
+			}
+		}
+		return null;
+	}
+
+	/** @return the repeatable annotations, directly applied or in their container */
+	private List<AnnotationMirror> repeatable(Element element, String simpleName, String containerName) {
+		List<AnnotationMirror> result = new ArrayList<>();
+		AnnotationMirror direct = annotation(element, simpleName);
+		if (direct != null) {
+			result.add(direct);
+		}
+		AnnotationMirror container = annotation(element, containerName);
+		if (container != null) {
+			result.addAll(annotationsValue(container, "value"));
+		}
+		return result;
+	}
+
+	/** @return the content of an array of annotations that must contain at most one element */
+	private List<AnnotationMirror> singleAnnotationValue(Element field, AnnotationMirror config, String member, String simpleName) {
+		List<AnnotationMirror> annotations = annotationsValue(config, member);
+		if (annotations.size() > 1) {
+			error(field, config, "SerdeConfig can only contain one " + simpleName + " annotation");
+			return List.of();
+		}
+		return annotations;
+	}
+
+	private Object value(AnnotationMirror annot, String member) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(annot).entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(member)) {
+				return entry.getValue().getValue();
+			}
+		}
+		throw new IllegalArgumentException("missing member " + member + " in " + annot);
+	}
+
+	private String stringValue(AnnotationMirror annot, String member) {
+		return (String) value(annot, member);
+	}
+
+	private TypeMirror typeValue(AnnotationMirror annot, String member) {
+		return (TypeMirror) value(annot, member);
+	}
+
+	private String enumValue(AnnotationMirror annot, String member) {
+		return ((VariableElement) value(annot, member)).getSimpleName().toString();
+	}
+
+	private List<String> enumsValue(AnnotationMirror annot, String member) {
+		List<String> result = new ArrayList<>();
+		for (AnnotationValue v : arrayValue(annot, member)) {
+			result.add(((VariableElement) v.getValue()).getSimpleName().toString());
+		}
+		return result;
+	}
+
+	private List<AnnotationMirror> annotationsValue(AnnotationMirror annot, String member) {
+		List<AnnotationMirror> result = new ArrayList<>();
+		for (AnnotationValue v : arrayValue(annot, member)) {
+			result.add((AnnotationMirror) v.getValue());
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<? extends AnnotationValue> arrayValue(AnnotationMirror annot, String member) {
+		return (List<? extends AnnotationValue>) value(annot, member);
+	}
+
+	// ====== Output ======
+
+	private void error(Element element, String msg) {
+		error(element, null, msg);
+	}
+
+	private void error(Element element, AnnotationMirror annot, String msg) {
+		failed = true;
+		if (errors.add(element + "/" + annot + "/" + msg)) {
+			env.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, element, annot);
+		}
+	}
+
+	private String literal(String s) {
+		return elements.getConstantExpression(s);
+	}
+
+	private String sourceCode(String simpleName) {
+		String rootName = qualifiedName(root);
+		StringBuilder sb = new StringBuilder();
+		if (!pkg.isUnnamed()) {
+			sb.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+		}
+		if (elements.getTypeElement("javax.annotation.processing.Generated") != null) {
+			sb.append("@javax.annotation.processing.Generated(\"").append(SerdeProcessor.class.getName()).append("\")\n");
+		}
+		sb.append("@java.lang.SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+		sb.append("public final class ").append(simpleName).append(" extends ").append(SERDE).append("GeneratedSerde<").append(rootName).append("> {\n");
+		sb.append("    private static final ").append(STRING).append("[] FIELD_NAMES = {").append(String.join(", ", fieldNames)).append("};\n");
+		sb.append("    private static final ").append(STRING).append("[] EXPLICIT_KEYS = {").append(String.join(", ", explicitKeys)).append("};\n");
+		for (String constant : constants) {
+			sb.append("    ").append(constant).append('\n');
+		}
+		sb.append('\n');
+		sb.append("    public ").append(simpleName).append("() {\n");
+		sb.append("        super(").append(rootName).append(".class, FIELD_NAMES, EXPLICIT_KEYS);\n");
+		sb.append("    }\n\n");
+		if (canCreateInstances()) {
+			sb.append("    @java.lang.Override\n");
+			sb.append("    public boolean canCreateInstances() {\n");
+			sb.append("        return true;\n");
+			sb.append("    }\n\n");
+			sb.append("    @java.lang.Override\n");
+			sb.append("    public ").append(rootName).append(" newInstance() {\n");
+			sb.append("        return new ").append(rootName).append("();\n");
+			sb.append("    }\n\n");
+		}
+		sb.append("    @java.lang.Override\n");
+		sb.append("    public void serializeFields(").append(rootName).append(" object, re.neotamia.nightconfig.core.Config config, ")
+			.append(SERDE).append("SerializerContext ctx) {\n");
+		appendBody(sb, ser);
+		sb.append("    }\n\n");
+		sb.append("    @java.lang.Override\n");
+		sb.append("    public void deserializeFields(re.neotamia.nightconfig.core.UnmodifiableConfig config, ").append(rootName)
+			.append(" object, ").append(SERDE).append("DeserializerContext ctx) {\n");
+		appendBody(sb, de);
+		sb.append("    }\n");
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	private void appendBody(StringBuilder sb, CodeWriter body) {
+		if (body.isEmpty()) {
+			return;
+		}
+		sb.append("        java.util.List<java.util.List<").append(STRING).append(">> paths = paths(ctx);\n");
+		if (hasTransientFields) {
+			sb.append("        boolean skipTransient = skipTransient(ctx);\n");
+		}
+		sb.append(body);
+	}
+
+	/** Writes indented lines of code. */
+	private static final class CodeWriter {
+		private final StringBuilder sb = new StringBuilder();
+		private int indent;
+
+		CodeWriter(int indent) {
+			this.indent = indent;
+		}
+
+		void line(String code) {
+			sb.append("    ".repeat(indent)).append(code).append('\n');
+		}
+
+		/** Writes {@code code {} and increases the indentation, {@code code} can be empty for a block. */
+		void open(String code) {
+			line(code.isEmpty() ? "{" : code + " {");
+			indent++;
+		}
+
+		void closeOpen(String code) {
+			indent--;
+			line("} " + code + " {");
+			indent++;
+		}
+
+		void close() {
+			indent--;
+			line("}");
+		}
+
+		boolean isEmpty() {
+			return sb.isEmpty();
+		}
+
+		@Override
+		public String toString() {
+			return sb.toString();
+		}
+	}
+}
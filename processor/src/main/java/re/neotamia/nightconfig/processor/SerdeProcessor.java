@@ -0,0 +1,81 @@
+package re.neotamia.nightconfig.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor that generates the serialization and deserialization code of the classes
+ * annotated with {@code @SerdeGenerate}.
+ * <p>
+ * For each annotated class {@code Cls}, a subclass of {@code GeneratedSerde} named {@code Cls_Serde}
+ * is generated in the same package. The generated classes are registered in
+ * {@code META-INF/services/re.neotamia.nightconfig.core.serde.GeneratedSerde}, so that
+ * {@code ObjectSerializer} and {@code ObjectDeserializer} can find them without any configuration.
+ */
+@SupportedAnnotationTypes(SerdeProcessor.SERDE_GENERATE)
+public final class SerdeProcessor extends AbstractProcessor {
+	static final String SERDE_GENERATE = "re.neotamia.nightconfig.core.serde.annotations.SerdeGenerate";
+	static final String SERVICE_FILE = "META-INF/services/re.neotamia.nightconfig.core.serde.GeneratedSerde";
+
+	/** the generated classes, accumulated over all the rounds */
+	private final Set<String> generatedClasses = new TreeSet<>();
+	/** the annotated classes, for the service file */
+	private final List<Element> originatingElements = new ArrayList<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			if (!generatedClasses.isEmpty()) {
+				writeServiceFile();
+			}
+			return false;
+		}
+		TypeElement serdeGenerate = processingEnv.getElementUtils().getTypeElement(SERDE_GENERATE);
+		if (serdeGenerate == null) {
+			return false; // night-config:core is not on the classpath
+		}
+		for (Element element : roundEnv.getElementsAnnotatedWith(serdeGenerate)) {
+			if (element instanceof TypeElement cls) {
+				String generated = new SerdeGenerator(processingEnv, cls).generate();
+				if (generated != null) {
+					generatedClasses.add(generated);
+					originatingElements.add(cls);
+				}
+			}
+		}
+		return true;
+	}
+
+	private void writeServiceFile() {
+		Element[] originating = originatingElements.toArray(new Element[0]);
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE, originating);
+			try (Writer writer = file.openWriter()) {
+				for (String cls : generatedClasses) {
+					writer.write(cls);
+					writer.write('\n');
+				}
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + SERVICE_FILE + ": " + e);
+		}
+	}
+}
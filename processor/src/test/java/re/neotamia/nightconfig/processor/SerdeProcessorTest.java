@@ -0,0 +1,286 @@
+package re.neotamia.nightconfig.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import re.neotamia.nightconfig.core.CommentedConfig;
+import re.neotamia.nightconfig.core.Config;
+import re.neotamia.nightconfig.core.NullObject;
+import re.neotamia.nightconfig.core.serde.GeneratedSerde;
+import re.neotamia.nightconfig.core.serde.ObjectDeserializer;
+import re.neotamia.nightconfig.core.serde.ObjectSerializer;
+import re.neotamia.nightconfig.core.serde.SerdeAssertException;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerdeProcessorTest {
+	@TempDir
+	Path tmp;
+
+	private static final String BASE = """
+		package demo;
+
+		public class Base {
+			protected int shared = 1;
+			public String inherited = "inherited";
+		}
+		""";
+
+	private static final String SAMPLE = """
+		package demo;
+
+		import re.neotamia.nightconfig.core.serde.annotations.*;
+		import java.util.*;
+		import java.util.function.Supplier;
+
+		@SerdeGenerate
+		public class Sample extends Base {
+			@SerdeKey("the_name")
+			@SerdeComment("line 1")
+			@SerdeComment("line \\"2\\"")
+			String name = "n";
+			int count;
+			long big;
+			double ratio;
+			List<String> tags = new ArrayList<>();
+			Map<String, ? extends Number> numbers = new HashMap<>();
+			Nested nested = new Nested();
+			transient int cache = 3;
+			@SerdeSkip
+			private int secret;
+			@SerdeDefault(provider = "defaultTitle", whenValue = {SerdeDefault.WhenValue.IS_MISSING, SerdeDefault.WhenValue.IS_NULL})
+			@SerdeAssert(SerdeAssert.AssertThat.NOT_NULL)
+			String title;
+			@SerdeSkipSerializingIf(SerdeSkipSerializingIf.SkipSerIf.IS_EMPTY)
+			@SerdeSkipDeserializingIf(value = SerdeSkipDeserializingIf.SkipDeIf.CUSTOM, customCheck = "badValue")
+			String optional = "";
+			@SerdeAssert(value = SerdeAssert.AssertThat.CUSTOM, customClass = Sample.class, customCheck = "positive()")
+			int positive = 1;
+			@SerdeConfig(key = "", comments = @SerdeComment("cfg"), defaults = @SerdeDefault(provider = "SUPPLIER", whenValue = SerdeDefault.WhenValue.IS_MISSING))
+			String configured;
+
+			static final Supplier<String> SUPPLIER = () -> "supplied";
+
+			String defaultTitle() {
+				return "default title";
+			}
+
+			boolean badValue(Object o) {
+				return "bad".equals(o);
+			}
+
+			static boolean positive(int i) {
+				return i > 0;
+			}
+
+			@SerdeGenerate
+			public static class Nested {
+				public String value = "v";
+				public String[] array = {"a"};
+			}
+		}
+		""";
+
+	@Test
+	public void generatedCodeIsRegistered() throws Exception {
+		ClassLoader loader = compile("generated", true, BASE, SAMPLE);
+		Set<String> types = new TreeSet<>();
+		for (GeneratedSerde<?> serde : ServiceLoader.load(GeneratedSerde.class, loader)) {
+			types.add(serde.type().getName());
+			assertTrue(serde.canCreateInstances());
+		}
+		assertEquals(Set.of("demo.Sample", "demo.Sample$Nested"), types);
+	}
+
+	@Test
+	public void generatedCodeBehavesLikeReflection() throws Exception {
+		ClassLoader generated = compile("generated", true, BASE, SAMPLE);
+		ClassLoader reflective = compile("reflective", false, BASE, SAMPLE);
+		assertEquals(roundTrip(reflective), roundTrip(generated));
+	}
+
+	@Test
+	public void generatedCodeChecksAssertions() throws Exception {
+		ClassLoader loader = compile("generated", true, BASE, SAMPLE);
+		Object sample = loader.loadClass("demo.Sample").getConstructor().newInstance();
+		CommentedConfig config = ObjectSerializer.standard().serializeFields(sample, CommentedConfig::inMemory);
+
+		config.set("optional", "value");
+		config.set("positive", -1);
+		assertThrows(SerdeAssertException.class, () -> ObjectDeserializer.standard().deserializeFields(config, sample));
+	}
+
+	@Test
+	public void privateField() throws Exception {
+		String source = """
+			package demo;
+
+			@re.neotamia.nightconfig.core.serde.annotations.SerdeGenerate
+			public class Private {
+				private int value;
+			}
+			""";
+		List<String> errors = compileWithErrors(source);
+		assertEquals(1, errors.size(), errors.toString());
+		assertTrue(errors.get(0).contains("must not be private"), errors.get(0));
+	}
+
+	@Test
+	public void finalFieldSkippedWhenDeserializing() throws Exception {
+		String source = """
+			package demo;
+
+			import re.neotamia.nightconfig.core.serde.annotations.*;
+
+			@SerdeGenerate
+			public class Final {
+				final int invalid = 0;
+
+				@SerdeSkipDeserializingIf
+				final int valid = 0;
+			}
+			""";
+		List<String> errors = compileWithErrors(source);
+		assertEquals(1, errors.size(), errors.toString());
+		assertTrue(errors.get(0).contains("invalid must not be final"), errors.get(0));
+	}
+
+	@Test
+	public void invalidAnnotations() throws Exception {
+		String source = """
+			package demo;
+
+			import re.neotamia.nightconfig.core.serde.annotations.*;
+
+			@SerdeGenerate
+			public class Invalid {
+				@SerdeSkip(value = SerdeSkip.SkipIf.IS_NULL, customCheck = "check")
+				String a;
+
+				@SerdeAssert(SerdeAssert.AssertThat.CUSTOM)
+				String b;
+
+				@SerdeSkipSerializingIf(value = SerdeSkipSerializingIf.SkipSerIf.CUSTOM, customCheck = "missing")
+				String c;
+
+				@SerdeAssert(value = SerdeAssert.AssertThat.CUSTOM, customClass = Invalid.class, customCheck = "notStatic")
+				String d;
+
+				boolean check(String s) {
+					return true;
+				}
+
+				boolean notStatic(String s) {
+					return true;
+				}
+			}
+			""";
+		List<String> errors = compileWithErrors(source);
+		assertEquals(4, errors.size(), errors.toString());
+		assertTrue(errors.get(0).contains("with SkipIf.IS_NULL, no additional parameter"), errors.get(0));
+		assertTrue(errors.get(1).contains("with AssertThat.CUSTOM, parameter `customCheck` must be provided"), errors.get(1));
+		assertTrue(errors.get(2).contains("`missing` not found"), errors.get(2));
+		assertTrue(errors.get(3).contains("should be declared as static"), errors.get(3));
+	}
+
+	/**
+	 * Serializes a default Sample, deserializes a modified config to a new Sample and serializes it again.
+	 */
+	private static String roundTrip(ClassLoader loader) throws Exception {
+		Class<?> cls = loader.loadClass("demo.Sample");
+		Object sample = cls.getConstructor().newInstance();
+		CommentedConfig serialized = ObjectSerializer.standard().serializeFields(sample, CommentedConfig::inMemory);
+
+		Config input = Config.copy(serialized);
+		input.set("count", 5);
+		input.set("big", 7);
+		input.set("ratio", 2.5);
+		input.set("the_name", "x");
+		input.set("optional", "bad");
+		input.set("title", NullObject.NULL_OBJECT);
+		input.set("tags", List.of("a", "b"));
+		input.set("nested.value", "nv");
+		input.set("nested.array", List.of("q", "r"));
+		input.remove("configured");
+		Object deserialized = ObjectDeserializer.standard().deserializeFields(input, () -> newInstance(cls));
+		CommentedConfig reserialized = ObjectSerializer.standard().serializeFields(deserialized, CommentedConfig::inMemory);
+
+		return new TreeMap<>(serialized.valueMap()) + "\n"
+			+ new TreeMap<>(serialized.commentMap()) + "\n"
+			+ new TreeMap<>(reserialized.valueMap());
+	}
+
+	private static Object newInstance(Class<?> cls) {
+		try {
+			return cls.getConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Compiles the sources, with or without the annotation processor.
+	 *
+	 * @return a ClassLoader that contains the compiled classes
+	 */
+	private ClassLoader compile(String name, boolean withProcessor, String... sources) throws IOException {
+		Path out = tmp.resolve(name);
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		boolean success = runCompiler(out, withProcessor, diagnostics, sources);
+		assertTrue(success, diagnostics.getDiagnostics().toString());
+		return new URLClassLoader(new URL[]{out.toUri().toURL()}, getClass().getClassLoader());
+	}
+
+	/**
+	 * Compiles the sources with the annotation processor, and returns the error messages.
+	 */
+	private List<String> compileWithErrors(String... sources) throws IOException {
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		boolean success = runCompiler(tmp.resolve("errors"), true, diagnostics, sources);
+		assertFalse(success);
+		List<String> errors = new ArrayList<>();
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+				errors.add(diagnostic.getMessage(Locale.ROOT));
+			}
+		}
+		return errors;
+	}
+
+	private boolean runCompiler(Path out, boolean withProcessor, DiagnosticCollector<JavaFileObject> diagnostics, String... sources) throws IOException {
+		Path src = out.resolveSibling(out.getFileName() + "-src");
+		Files.createDirectories(out);
+		List<Path> files = new ArrayList<>();
+		for (String source : sources) {
+			String className = source.substring(source.indexOf("class ") + 6).split("[ {]")[0];
+			Path file = src.resolve("demo").resolve(className + ".java");
+			Files.createDirectories(file.getParent());
+			Files.writeString(file, source);
+			files.add(file);
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT, null)) {
+			List<String> options = new ArrayList<>(List.of("-d", out.toString(), "-classpath", System.getProperty("java.class.path")));
+			if (!withProcessor) {
+				options.add("-proc:none");
+			}
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjectsFromPaths(files));
+			if (withProcessor) {
+				task.setProcessors(List.of(new SerdeProcessor()));
+			}
+			return task.call();
+		}
+	}
+}
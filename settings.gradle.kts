@@ -9,6 +9,9 @@ include("hocon")
 include("json")
 include("toml")
 include("yaml")
+include("processor")
 
 include("test-shared")
 include("test-multiple")
+
+include("benchmarks")
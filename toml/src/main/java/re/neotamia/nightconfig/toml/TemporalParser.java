@@ -47,12 +47,14 @@ final class TemporalParser {
 				LocalTime time = parseTime(afterDate);
 				return LocalDateTime.of(date, time);
 			}
-			if (afterDate.get(offsetIndicatorIndex) == 'z') {
-				// Java does not support 'z' but only 'Z'
-				afterDate.set(offsetIndicatorIndex, 'Z');
-			}
 			LocalTime time = parseTime(afterDate.subView(0, offsetIndicatorIndex));
-			ZoneOffset offset = ZoneOffset.of(afterDate.subView(offsetIndicatorIndex).trimmedView().toString());
+			String offsetId = afterDate.subView(offsetIndicatorIndex).trimmedView().toString();
+			if (offsetId.charAt(0) == 'z') {
+				// Java does not support 'z' but only 'Z'. The chars are not modified because they can be
+				// a view of the parser's input.
+				offsetId = 'Z' + offsetId.substring(1);
+			}
+			ZoneOffset offset = ZoneOffset.of(offsetId);
 			return OffsetDateTime.of(date, time, offset);// OffsetDateTime
 		} catch (ArrayIndexOutOfBoundsException | DateTimeException ex) {
 			throw new ParsingException("Invalid temporal value " + chars, ex);
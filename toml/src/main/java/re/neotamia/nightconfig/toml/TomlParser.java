@@ -42,7 +42,7 @@ public final class TomlParser implements ConfigParser<CommentedConfig> {
 	@Override
 	public CommentedConfig parse(Reader reader) {
 		configWasEmpty = true;
-		var config = parse(new ReaderInput(reader), TomlFormat.instance().createConfig(), ParsingMode.MERGE);
+		var config = parse(new BufferedInput(reader), TomlFormat.instance().createConfig(), ParsingMode.MERGE);
         parseHeaderComment(reader, config);
         return config;
 	}
@@ -52,7 +52,7 @@ public final class TomlParser implements ConfigParser<CommentedConfig> {
 		if(parsingMode == ParsingMode.REPLACE) {
 			configWasEmpty = true;
 		}
-        parse(new ReaderInput(reader), destination, parsingMode);
+        parse(new BufferedInput(reader), destination, parsingMode);
         if (destination instanceof CommentedConfig commentedConfig)
             parseHeaderComment(reader, commentedConfig);
 	}